@@ -0,0 +1,20 @@
+package com.library.librarySystem.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Locks the books named by a parameter of the annotated method before its transaction begins, and releases them once
+ * it has completed. Competing requests queue in memory instead of each holding a database connection while they wait.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LocksBooks {
+
+    /**
+     * Name of the parameter holding the book id, or a collection of book ids.
+     */
+    String value();
+}
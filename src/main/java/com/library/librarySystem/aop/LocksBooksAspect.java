@@ -0,0 +1,56 @@
+package com.library.librarySystem.aop;
+
+import com.library.librarySystem.lock.BookLockManager;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Runs inside {@link RetryOnConflictAspect} and ahead of the transaction interceptor, so the books are locked before a
+ * connection is taken from the pool, and each retry queues afresh.
+ */
+@Aspect
+@Component
+@Order(1)
+public class LocksBooksAspect {
+    private final BookLockManager bookLocks;
+
+    public LocksBooksAspect(BookLockManager bookLocks) {
+        this.bookLocks = bookLocks;
+    }
+
+    @Around("@annotation(locksBooks)")
+    public Object lock(ProceedingJoinPoint joinPoint, LocksBooks locksBooks) throws Throwable {
+        Collection<Long> bookIds = bookIds(joinPoint, locksBooks.value());
+        if (bookIds.isEmpty()) {
+            return joinPoint.proceed();
+        }
+        Runnable unlock = bookLocks.lockAhead(bookIds);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            unlock.run();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Long> bookIds(ProceedingJoinPoint joinPoint, String parameter) {
+        String[] names = ((MethodSignature) joinPoint.getSignature()).getParameterNames();
+        int index = Arrays.asList(names).indexOf(parameter);
+        if (index < 0) {
+            throw new IllegalStateException(joinPoint.getSignature().toShortString() + " has no parameter " + parameter);
+        }
+        Object value = joinPoint.getArgs()[index];
+        if (value == null) {
+            return List.of();
+        }
+        return value instanceof Collection<?> ids ? (Collection<Long>) ids : List.of((Long) value);
+    }
+}
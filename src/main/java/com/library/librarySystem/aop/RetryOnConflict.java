@@ -0,0 +1,18 @@
+package com.library.librarySystem.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs the annotated method, including its transaction, when it loses a race with a concurrent write
+ * (optimistic version mismatch, lock timeout or deadlock). Only put it on methods that are safe to repeat.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+    int maxAttempts() default 3;
+
+    long backoffMillis() default 20;
+}
@@ -0,0 +1,42 @@
+package com.library.librarySystem.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs ahead of the transaction interceptor, so every attempt gets a fresh transaction and persistence context.
+ * The order stays behind Spring's own invocation-exposing interceptor, which annotation binding depends on.
+ */
+@Aspect
+@Component
+@Order(0)
+public class RetryOnConflictAspect {
+    private static final Logger log = LoggerFactory.getLogger(RetryOnConflictAspect.class);
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        int maxAttempts = Math.max(1, retryOnConflict.maxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Conflict in {} (attempt {} of {}): {}", joinPoint.getSignature().toShortString(),
+                        attempt, maxAttempts, e.getMessage());
+                // jitter keeps the losers of one race from colliding again on the next attempt
+                long backoff = retryOnConflict.backoffMillis() * attempt;
+                Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff + 1));
+            }
+        }
+    }
+}
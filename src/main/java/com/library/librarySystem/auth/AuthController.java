@@ -4,41 +4,75 @@ import com.library.librarySystem.config.security.JwtService;
 import com.library.librarySystem.dto.LoginUserDto;
 import com.library.librarySystem.dto.RegisterUserDto;
 import com.library.librarySystem.dto.UserDto;
-import com.library.librarySystem.model.User;
-import org.modelmapper.ModelMapper;
+import com.library.librarySystem.mapper.UserMapper;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+import java.util.concurrent.CompletableFuture;
+
 @RequestMapping("/api/auth")
 @RestController
 public class AuthController {
     private final JwtService jwtService;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final AuthService authService;
 
-    public AuthController(JwtService jwtService, ModelMapper modelMapper, AuthService authService) {
+    public AuthController(JwtService jwtService, UserMapper userMapper, AuthService authService) {
         this.jwtService = jwtService;
-        this.modelMapper = modelMapper;
+        this.userMapper = userMapper;
         this.authService = authService;
     }
 
+    // both endpoints complete asynchronously, so the request thread is free while the password is hashed
     @PostMapping("/signup")
-    public ResponseEntity<UserDto> register(@RequestBody RegisterUserDto registerUserDto) {
-        User registeredUser = authService.signup(registerUserDto);
-
-        return ResponseEntity.ok(modelMapper.map(registeredUser, UserDto.class));
+    public CompletableFuture<ResponseEntity<UserDto>> register(@RequestBody RegisterUserDto registerUserDto) {
+        return authService.signup(registerUserDto)
+                .thenApply(registeredUser -> ResponseEntity.ok(userMapper.toDto(registeredUser)));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> authenticate(@RequestBody LoginUserDto loginUserDto) {
-        User authenticatedUser = authService.authenticate(loginUserDto);
+    public CompletableFuture<ResponseEntity<LoginResponse>> authenticate(@RequestBody LoginUserDto loginUserDto) {
+        return authService.authenticate(loginUserDto).thenApply(authenticatedUser -> {
+            String jwtToken = jwtService.generateToken(authenticatedUser);
+
+            LoginResponse loginResponse = new LoginResponse();
+            loginResponse.setToken(jwtToken);
+            loginResponse.setExpiresIn(jwtService.getExpirationTime());
+
+            return ResponseEntity.ok(loginResponse);
+        });
+    }
 
-        String jwtToken = jwtService.generateToken(authenticatedUser);
+    /**
+     * Signs the caller out of this session: the token sent with the request stops being accepted.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        // only reachable with a bearer token the filter has already accepted, so this parse is a cache hit
+        authService.logout(jwtService.parse(authorization.substring(7)));
+
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Signs the caller out everywhere: every token issued to them so far stops being accepted.
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutEverywhere(Principal principal) {
+        authService.revokeTokens(principal.getName());
+
+        return ResponseEntity.noContent().build();
+    }
 
-        LoginResponse loginResponse = new LoginResponse();
-        loginResponse.setToken(jwtToken);
-        loginResponse.setExpiresIn(jwtService.getExpirationTime());
+    /**
+     * Revokes every token issued to the given user so far. Administrators only.
+     */
+    @PostMapping("/users/{username}/revoke")
+    public ResponseEntity<Void> revokeUserTokens(@PathVariable String username) {
+        authService.revokeTokens(username);
 
-        return ResponseEntity.ok(loginResponse);
+        return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
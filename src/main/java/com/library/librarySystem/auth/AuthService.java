@@ -1,53 +1,130 @@
 package com.library.librarySystem.auth;
 
+import com.library.librarySystem.config.security.JwtClaims;
+import com.library.librarySystem.config.security.UserVersions;
+import com.library.librarySystem.config.security.VerifiedTokenCache;
 import com.library.librarySystem.dto.LoginUserDto;
 import com.library.librarySystem.dto.RegisterUserDto;
 import com.library.librarySystem.exception.DuplicateEntryException;
+import com.library.librarySystem.exception.ResourceNotFoundException;
 import com.library.librarySystem.model.User;
 import com.library.librarySystem.respository.UserRepository;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import com.library.librarySystem.revocation.RevokedTokens;
+import com.library.librarySystem.util.AfterCommit;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @Service
 public class AuthService {
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthenticationManager authenticationManager;
+    private final PasswordHashing passwordHashing;
+
+    private final UserVersions userVersions;
+
+    private final VerifiedTokenCache tokenCache;
+
+    private final RevokedTokens revokedTokens;
+
+    // runs the blocking work that follows a hash, so the hashing pool's few threads only ever hash
+    private final Executor taskExecutor;
+
+    // compared against when the username is unknown, so a miss costs as much as a wrong password
+    private final String unknownUserPassword;
 
     public AuthService(
             UserRepository userRepository,
-            AuthenticationManager authenticationManager,
-            PasswordEncoder passwordEncoder
+            PasswordEncoder passwordEncoder,
+            PasswordHashing passwordHashing,
+            UserVersions userVersions,
+            VerifiedTokenCache tokenCache,
+            RevokedTokens revokedTokens,
+            @Qualifier("applicationTaskExecutor") Executor taskExecutor
     ) {
-        this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHashing = passwordHashing;
+        this.userVersions = userVersions;
+        this.tokenCache = tokenCache;
+        this.revokedTokens = revokedTokens;
+        this.taskExecutor = taskExecutor;
+        this.unknownUserPassword = passwordEncoder.encode("unknown-user");
     }
 
-    public User signup(RegisterUserDto input) {
+    /**
+     * Registers a user. Only the password is hashed on the hashing pool; the user is saved on the application task
+     * executor, so a slow database cannot hold up other sign-ins waiting for a hashing thread.
+     *
+     * @throws com.library.librarySystem.exception.ServiceBusyException if the hashing pool is saturated
+     */
+    public CompletableFuture<User> signup(RegisterUserDto input) {
         if (userRepository.findByUsername(input.getUsername()).isPresent()) {
             throw new DuplicateEntryException("Username already exists: " + input.getUsername());
         }
-        User user = new User();
-        user.setRole(input.getRole()); user.setUsername(input.getUsername());
-        user.setPassword(passwordEncoder.encode(input.getPassword()));
+        return passwordHashing.submit(() -> passwordEncoder.encode(input.getPassword()))
+                .thenApplyAsync(password -> {
+                    User user = new User();
+                    user.setRole(input.getRole()); user.setUsername(input.getUsername());
+                    user.setPassword(password);
 
-        return userRepository.save(user);
+                    return userRepository.save(user);
+                }, taskExecutor);
     }
 
-    public User authenticate(LoginUserDto input) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        input.getUsername(),
-                        input.getPassword()
-                )
-        );
+    /**
+     * Checks the credentials with a single user lookup; only the password comparison runs on the hashing pool. Unknown
+     * users and wrong passwords fail alike with {@link BadCredentialsException}.
+     *
+     * @throws com.library.librarySystem.exception.ServiceBusyException if the hashing pool is saturated
+     */
+    public CompletableFuture<User> authenticate(LoginUserDto input) {
+        Optional<User> user = userRepository.findByUsername(input.getUsername());
+        String password = user.map(User::getPassword).orElse(unknownUserPassword);
 
-        return userRepository.findByUsername(input.getUsername())
-                .orElseThrow();
+        return passwordHashing.submit(() -> passwordEncoder.matches(input.getPassword(), password))
+                .thenApply(matches -> {
+                    if (!matches || user.isEmpty()) {
+                        throw new BadCredentialsException("Bad credentials");
+                    }
+                    return user.get();
+                });
+    }
+
+    /**
+     * Revokes every token issued to the user so far by raising their token version. This node stops accepting the
+     * tokens as soon as the change commits; other nodes do at their next refresh.
+     */
+    @Transactional
+    public void revokeTokens(String username) {
+        if (userRepository.raiseTokenVersion(username, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        AfterCommit.run(() -> {
+            userVersions.refresh();
+            tokenCache.invalidateSubject(username);
+        });
+    }
+
+    /**
+     * Revokes the one token the claims were read from, leaving the user's other sessions signed in. Tokens issued
+     * before tokens carried an id cannot be told apart, so for those every token of the user is revoked.
+     */
+    @Transactional
+    public void logout(JwtClaims claims) {
+        if (claims.tokenId() == null) {
+            revokeTokens(claims.subject());
+            return;
+        }
+        revokedTokens.revoke(claims.tokenId(), claims.expiresAt());
     }
-}
\ No newline at end of file
+}
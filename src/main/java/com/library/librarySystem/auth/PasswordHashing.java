@@ -0,0 +1,61 @@
+package com.library.librarySystem.auth;
+
+import com.library.librarySystem.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A small, dedicated pool for BCrypt work. Hashing is deliberately slow, so running it on request threads lets a burst
+ * of logins occupy every worker and stall unrelated requests. Here it is confined to a few threads with a short queue;
+ * once the queue is full, further logins are refused at once with {@link ServiceBusyException} instead of waiting.
+ */
+@Component
+public class PasswordHashing {
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHashing(@Value("${security.password.hashing.threads:2}") int threads,
+                           @Value("${security.password.hashing.queue-capacity:32}") int queueCapacity) {
+        AtomicInteger created = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs the task on the hashing pool.
+     *
+     * @throws ServiceBusyException if every thread is busy and the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many sign-ins in progress, please retry shortly");
+        }
+    }
+
+    public PasswordHashingStats stats() {
+        return new PasswordHashingStats(executor.getMaximumPoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), executor.getCompletedTaskCount(), rejected.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
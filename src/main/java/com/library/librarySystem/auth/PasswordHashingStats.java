@@ -0,0 +1,9 @@
+package com.library.librarySystem.auth;
+
+/**
+ * @param active    hashes being computed right now
+ * @param queued    hashes waiting for a thread
+ * @param rejected  logins and signups refused because the queue was full
+ */
+public record PasswordHashingStats(int threads, int active, int queued, long completed, long rejected) {
+}
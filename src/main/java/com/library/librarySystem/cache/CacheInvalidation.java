@@ -0,0 +1,11 @@
+package com.library.librarySystem.cache;
+
+/**
+ * Tells other nodes to drop their local copy of a cache entry. A {@code null} key clears the whole cache.
+ */
+public record CacheInvalidation(String origin, String cacheName, String key) {
+
+    public boolean isClear() {
+        return key == null;
+    }
+}
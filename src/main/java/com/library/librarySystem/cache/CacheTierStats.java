@@ -0,0 +1,33 @@
+package com.library.librarySystem.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CacheTierStats(long localHits, long remoteHits, long misses, long localSize) {
+
+    @JsonProperty
+    public long requests() {
+        return localHits + remoteHits + misses;
+    }
+
+    @JsonProperty
+    public double localHitRatio() {
+        return ratio(localHits, requests());
+    }
+
+    /**
+     * Share of the lookups that missed locally and were then served by Redis.
+     */
+    @JsonProperty
+    public double remoteHitRatio() {
+        return ratio(remoteHits, remoteHits + misses);
+    }
+
+    @JsonProperty
+    public double overallHitRatio() {
+        return ratio(localHits + remoteHits, requests());
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0.0 : (double) part / total;
+    }
+}
@@ -0,0 +1,95 @@
+package com.library.librarySystem.cache;
+
+import com.library.librarySystem.util.AfterCommit;
+import org.springframework.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cached "list all" view stored as the per-entity cache entries plus an ordered id index, so writes patch a
+ * single entry instead of throwing the whole list away.
+ */
+public class ListViewCache<D> {
+    // ids per loadByIds call, so a cold cache does not turn into one unbounded IN list
+    static final int LOAD_CHUNK = 1000;
+
+    private final Cache entries;
+    private final Class<D> type;
+    private final SortedIdIndex index;
+
+    public ListViewCache(Cache entries, Class<D> type, SortedIdIndex index) {
+        this.entries = entries;
+        this.type = type;
+        this.index = index;
+    }
+
+    /**
+     * Returns the list in id order. The entries are fetched from the cache in one batch, and those missing are loaded
+     * with {@code loadByIds} {@value #LOAD_CHUNK} ids at a time; the whole list is only loaded with {@code loadAll}
+     * when the id index itself is missing.
+     */
+    public List<D> read(Function<Collection<Long>, Map<Long, D>> loadByIds, Supplier<Map<Long, D>> loadAll) {
+        Optional<List<Long>> cachedIds = index.ids();
+        if (cachedIds.isEmpty()) {
+            String token = index.beginRebuild();
+            Map<Long, D> all = loadAll.get();
+            // never overwrite an entry a concurrent update already refreshed
+            all.forEach(entries::putIfAbsent);
+            index.completeRebuild(token, all.keySet());
+            return new ArrayList<>(all.values());
+        }
+
+        List<Long> ids = cachedIds.get();
+        Map<Object, Cache.ValueWrapper> cached = MultiGetCache.getAll(entries, ids);
+        Map<Long, D> found = new HashMap<>(ids.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Cache.ValueWrapper wrapper = cached.get(id);
+            D value = wrapper == null ? null : type.cast(wrapper.get());
+            if (value != null) {
+                found.put(id, value);
+            } else {
+                missing.add(id);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += LOAD_CHUNK) {
+            Map<Long, D> loaded = loadByIds.apply(missing.subList(from, Math.min(from + LOAD_CHUNK, missing.size())));
+            loaded.forEach(entries::putIfAbsent);
+            found.putAll(loaded);
+        }
+
+        List<D> list = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            D value = found.get(id);
+            if (value != null) {
+                list.add(value);
+            } else {
+                // deleted by a write that did not reach the index
+                index.remove(id);
+            }
+        }
+        return list;
+    }
+
+    public void added(Long id, D value) {
+        AfterCommit.run(() -> {
+            entries.put(id, value);
+            index.add(id);
+        });
+    }
+
+    public void removed(Long id) {
+        AfterCommit.run(() -> index.remove(id));
+    }
+
+    public void invalidate() {
+        AfterCommit.run(index::invalidate);
+    }
+}
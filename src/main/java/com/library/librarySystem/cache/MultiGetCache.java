@@ -0,0 +1,34 @@
+package com.library.librarySystem.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache that can look up many keys with one call to its store instead of one call per key.
+ */
+public interface MultiGetCache {
+    /**
+     * Returns the entries present for the given keys, keyed by the keys passed in; absent keys are left out.
+     */
+    Map<Object, Cache.ValueWrapper> getAll(Collection<?> keys);
+
+    /**
+     * Looks the keys up in one batch when the cache supports it, and one key at a time otherwise.
+     */
+    static Map<Object, Cache.ValueWrapper> getAll(Cache cache, Collection<?> keys) {
+        if (cache instanceof MultiGetCache multiGet) {
+            return multiGet.getAll(keys);
+        }
+        Map<Object, Cache.ValueWrapper> found = new HashMap<>(keys.size());
+        for (Object key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null) {
+                found.put(key, wrapper);
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.librarySystem.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link RedisCache} that reads many keys with MGET, one round-trip per {@value #READ_CHUNK} keys. Keys and values
+ * go through the cache's own prefix and serializers, so entries written by {@link #put} read back unchanged.
+ */
+public class MultiGetRedisCache extends RedisCache implements MultiGetCache {
+    private static final int READ_CHUNK = 1000;
+
+    private final RedisConnectionFactory connectionFactory;
+
+    protected MultiGetRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfiguration,
+                                 RedisConnectionFactory connectionFactory) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        Map<Object, ValueWrapper> found = new HashMap<>(keys.size());
+        List<Object> chunk = new ArrayList<>(Math.min(keys.size(), READ_CHUNK));
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            for (Object key : keys) {
+                chunk.add(key);
+                if (chunk.size() == READ_CHUNK) {
+                    read(connection, chunk, found);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                read(connection, chunk, found);
+            }
+        }
+        return found;
+    }
+
+    private void read(RedisConnection connection, List<Object> keys, Map<Object, ValueWrapper> found) {
+        byte[][] redisKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            redisKeys[i] = serializeCacheKey(createCacheKey(keys.get(i)));
+        }
+        List<byte[]> values = connection.stringCommands().mGet(redisKeys);
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] value = values.get(i);
+            if (value != null) {
+                found.put(keys.get(i), toValueWrapper(deserializeCacheValue(value)));
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.library.librarySystem.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts invalidations over Redis pub/sub as {@code origin|cacheName|key}, with an empty key meaning "clear".
+ */
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(RedisCacheInvalidationBus.class);
+    public static final ChannelTopic TOPIC = new ChannelTopic("cache:invalidations");
+    private static final String SEPARATOR = "|";
+
+    private final StringRedisTemplate redisTemplate;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public RedisCacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        String key = invalidation.isClear() ? "" : invalidation.key();
+        try {
+            redisTemplate.convertAndSend(TOPIC.getTopic(),
+                    invalidation.origin() + SEPARATOR + invalidation.cacheName() + SEPARATOR + key);
+        } catch (RuntimeException e) {
+            // the local tier expires on its own, so a lost broadcast only delays convergence
+            log.warn("Could not publish invalidation for cache {}: {}", invalidation.cacheName(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed cache invalidation message");
+            return;
+        }
+        CacheInvalidation invalidation = new CacheInvalidation(parts[0], parts[1], parts[2].isEmpty() ? null : parts[2]);
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+}
@@ -0,0 +1,105 @@
+package com.library.librarySystem.cache;
+
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link SortedIdIndex} kept in a Redis sorted set scored by id. A sentinel member marks the index as built,
+ * so an empty list is still a valid cached value. Rebuilds are written under a scratch key and swapped in with
+ * RENAME, guarded by a token under {@code <key>:rebuild} that concurrent writes delete.
+ */
+public class RedisSortedIdIndex implements SortedIdIndex {
+    static final String SENTINEL = "-";
+    private static final int WRITE_CHUNK = 1000;
+    private static final Duration REBUILD_TIMEOUT = Duration.ofMinutes(5);
+
+    private static final RedisScript<Long> ADD = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('ZADD', KEYS[1], ARGV[1], ARGV[1]) end "
+                    + "redis.call('DEL', KEYS[2]) return 0",
+            Long.class);
+    private static final RedisScript<Long> REMOVE = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[2]) return redis.call('ZREM', KEYS[1], ARGV[1])",
+            Long.class);
+    private static final RedisScript<Long> INSTALL = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[2]) == ARGV[1] then redis.call('RENAME', KEYS[3], KEYS[1]) "
+                    + "redis.call('DEL', KEYS[2]) return 1 end redis.call('DEL', KEYS[3]) return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final String rebuildKey;
+
+    public RedisSortedIdIndex(StringRedisTemplate redisTemplate, String key) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.rebuildKey = key + ":rebuild";
+    }
+
+    @Override
+    public Optional<List<Long>> ids() {
+        Set<String> members = redisTemplate.opsForZSet().range(key, 0, -1);
+        if (members == null || members.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Long> ids = new ArrayList<>(members.size());
+        for (String member : members) {
+            if (!SENTINEL.equals(member)) {
+                ids.add(Long.valueOf(member));
+            }
+        }
+        return Optional.of(ids);
+    }
+
+    @Override
+    public void add(Long id) {
+        redisTemplate.execute(ADD, List.of(key, rebuildKey), String.valueOf(id));
+    }
+
+    @Override
+    public void remove(Long id) {
+        redisTemplate.execute(REMOVE, List.of(key, rebuildKey), String.valueOf(id));
+    }
+
+    @Override
+    public String beginRebuild() {
+        String token = UUID.randomUUID().toString();
+        redisTemplate.opsForValue().set(rebuildKey, token, REBUILD_TIMEOUT);
+        return token;
+    }
+
+    @Override
+    public boolean completeRebuild(String token, Collection<Long> ids) {
+        String scratchKey = key + ":build:" + token;
+        Set<ZSetOperations.TypedTuple<String>> chunk = new HashSet<>();
+        chunk.add(new DefaultTypedTuple<>(SENTINEL, -1.0));
+        for (Long id : ids) {
+            chunk.add(new DefaultTypedTuple<>(String.valueOf(id), id.doubleValue()));
+            if (chunk.size() == WRITE_CHUNK) {
+                redisTemplate.opsForZSet().add(scratchKey, chunk);
+                chunk = new HashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            redisTemplate.opsForZSet().add(scratchKey, chunk);
+        }
+        Long installed = redisTemplate.execute(INSTALL, List.of(key, rebuildKey, scratchKey), token);
+        return installed != null && installed == 1L;
+    }
+
+    @Override
+    public void invalidate() {
+        redisTemplate.delete(List.of(key, rebuildKey));
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.librarySystem.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ordered set of entity ids backing a cached list view. An index that has not been built yet
+ * (or was invalidated) reports {@link Optional#empty()} and is rebuilt by a reader with
+ * {@link #beginRebuild()} / {@link #completeRebuild}. Any {@link #add} or {@link #remove} that lands while a
+ * rebuild is in flight cancels it, so a list loaded before that write is never installed.
+ */
+public interface SortedIdIndex {
+    Optional<List<Long>> ids();
+
+    void add(Long id);
+
+    void remove(Long id);
+
+    String beginRebuild();
+
+    /**
+     * Installs the ids unless a write cancelled the rebuild since {@link #beginRebuild()} returned the token.
+     */
+    boolean completeRebuild(String token, Collection<Long> ids);
+
+    void invalidate();
+}
@@ -0,0 +1,235 @@
+package com.library.librarySystem.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} with a Caffeine L1 in front of a shared L2.
+ * Writes go through to L2 and are broadcast so other nodes drop their L1 copy.
+ * <p>
+ * A value read from L2 is only kept in L1 if no write or invalidation of its key arrived while it was being read;
+ * otherwise the value might be the one just invalidated. Keys are hashed onto a fixed array of generation counters,
+ * so a change to another key on the same stripe merely costs an extra L2 read.
+ * <p>
+ * {@link #getAll} fetches every key L1 does not hold in one batch when the L2 is a {@link MultiGetCache}.
+ */
+public class TwoTierCache implements org.springframework.cache.Cache, MultiGetCache {
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final String name;
+    private final Cache<String, ValueWrapper> local;
+    private final org.springframework.cache.Cache remote;
+    private final CacheInvalidationBus bus;
+    private final String nodeId;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong clears = new AtomicLong();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TwoTierCache(String name, Cache<String, ValueWrapper> local, org.springframework.cache.Cache remote,
+                        CacheInvalidationBus bus, String nodeId) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.bus = bus;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = local.getIfPresent(localKey);
+        if (wrapper != null) {
+            localHits.increment();
+            return wrapper;
+        }
+        long generation = generation(localKey);
+        wrapper = remote.get(key);
+        if (wrapper != null) {
+            remoteHits.increment();
+            fillLocal(localKey, generation, wrapper.get());
+            return wrapper;
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        String localKey = localKey(key);
+        long generation = generation(localKey);
+        T value = remote.get(key, valueLoader);
+        fillLocal(localKey, generation, value);
+        return value;
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        Map<Object, ValueWrapper> found = new HashMap<>(keys.size());
+        // the generation each key had before L2 was asked, for the same check a single get makes
+        Map<Object, Long> notLocal = new LinkedHashMap<>();
+        for (Object key : keys) {
+            String localKey = localKey(key);
+            ValueWrapper wrapper = local.getIfPresent(localKey);
+            if (wrapper != null) {
+                localHits.increment();
+                found.put(key, wrapper);
+            } else {
+                notLocal.put(key, generation(localKey));
+            }
+        }
+        if (notLocal.isEmpty()) {
+            return found;
+        }
+        Map<Object, ValueWrapper> fromRemote = MultiGetCache.getAll(remote, notLocal.keySet());
+        notLocal.forEach((key, generation) -> {
+            ValueWrapper wrapper = fromRemote.get(key);
+            if (wrapper != null) {
+                remoteHits.increment();
+                fillLocal(localKey(key), generation, wrapper.get());
+                found.put(key, wrapper);
+            } else {
+                misses.increment();
+            }
+        });
+        return found;
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        remote.put(key, value);
+        changed(localKey(key));
+        local.put(localKey(key), new SimpleValueWrapper(value));
+        broadcast(localKey(key));
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        invalidateLocal(localKey(key));
+        if (existing == null) {
+            broadcast(localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        invalidateLocal(localKey(key));
+        broadcast(localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        invalidateLocal(localKey(key));
+        broadcast(localKey(key));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        broadcast(null);
+    }
+
+    void onInvalidation(CacheInvalidation invalidation) {
+        if (invalidation.isClear()) {
+            clearLocal();
+        } else {
+            invalidateLocal(invalidation.key());
+        }
+    }
+
+    public CacheTierStats stats() {
+        return new CacheTierStats(localHits.sum(), remoteHits.sum(), misses.sum(), local.estimatedSize());
+    }
+
+    private void fillLocal(String localKey, long generation, @Nullable Object value) {
+        if (generation(localKey) != generation) {
+            return;
+        }
+        local.put(localKey, new SimpleValueWrapper(value));
+        // an invalidation landing between the check and the put has already run its own invalidate, so take it back
+        if (generation(localKey) != generation) {
+            local.invalidate(localKey);
+        }
+    }
+
+    // the counter moves before L1 is touched, so a read that started earlier sees the change when it checks again
+    private void invalidateLocal(String localKey) {
+        changed(localKey);
+        local.invalidate(localKey);
+    }
+
+    private void clearLocal() {
+        clears.incrementAndGet();
+        local.invalidateAll();
+    }
+
+    private void changed(String localKey) {
+        generations.incrementAndGet(stripe(localKey));
+    }
+
+    // both counters only grow, so their sum changes whenever either does
+    private long generation(String localKey) {
+        return generations.get(stripe(localKey)) + clears.get();
+    }
+
+    private static int stripe(String localKey) {
+        int hash = localKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private void broadcast(@Nullable String key) {
+        bus.publish(new CacheInvalidation(nodeId, name, key));
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,9 @@
+package com.library.librarySystem.cache;
+
+import java.io.Serializable;
+
+/**
+ * HTTP validators for one representation: a quoted strong ETag and a Last-Modified time in epoch milliseconds.
+ */
+public record VersionStamp(String etag, long lastModified) implements Serializable {
+}
@@ -0,0 +1,99 @@
+package com.library.librarySystem.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.util.AfterCommit;
+import org.springframework.cache.Cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Cached HTTP validators for one resource type, so a conditional GET can be answered without loading the entity
+ * or serializing it. Each write replaces the member's stamp after commit and mints a new collection stamp.
+ */
+public class VersionStamps {
+    static final String COLLECTION_KEY = "*";
+    private static final int ETAG_BYTES = 16;
+
+    private final Cache stamps;
+    private final ObjectMapper objectMapper;
+
+    public VersionStamps(Cache stamps, ObjectMapper objectMapper) {
+        this.stamps = stamps;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the cached stamp for {@code id}, computing it with {@code loader} on a miss.
+     */
+    public VersionStamp get(Long id, Supplier<VersionStamp> loader) {
+        VersionStamp cached = stamps.get(id, VersionStamp.class);
+        if (cached != null) {
+            return cached;
+        }
+        // a stamp put by a write that committed while we were loading wins over ours
+        return putIfAbsent(id, loader.get());
+    }
+
+    public VersionStamp collection() {
+        VersionStamp cached = stamps.get(COLLECTION_KEY, VersionStamp.class);
+        return cached != null ? cached : putIfAbsent(COLLECTION_KEY, newCollectionStamp());
+    }
+
+    /**
+     * Builds a stamp whose ETag is a digest of the JSON representation, so every node derives the same tag.
+     */
+    public VersionStamp stamp(Object representation, LocalDateTime lastModified) {
+        long lastModifiedMillis = lastModified == null
+                ? System.currentTimeMillis()
+                : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new VersionStamp(etagOf(representation), lastModifiedMillis);
+    }
+
+    public void changed(Long id, Object representation) {
+        VersionStamp stamp = stamp(representation, LocalDateTime.now());
+        AfterCommit.run(() -> {
+            stamps.put(id, stamp);
+            stamps.put(COLLECTION_KEY, newCollectionStamp());
+        });
+    }
+
+    public void removed(Long id) {
+        AfterCommit.run(() -> {
+            stamps.evict(id);
+            stamps.put(COLLECTION_KEY, newCollectionStamp());
+        });
+    }
+
+    public void collectionChanged() {
+        AfterCommit.run(() -> stamps.put(COLLECTION_KEY, newCollectionStamp()));
+    }
+
+    private VersionStamp putIfAbsent(Object key, VersionStamp stamp) {
+        Cache.ValueWrapper existing = stamps.putIfAbsent(key, stamp);
+        return existing != null && existing.get() instanceof VersionStamp current ? current : stamp;
+    }
+
+    private static VersionStamp newCollectionStamp() {
+        return new VersionStamp(quote(UUID.randomUUID().toString()), System.currentTimeMillis());
+    }
+
+    private String etagOf(Object representation) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(representation));
+            return quote(HexFormat.of().formatHex(digest, 0, ETAG_BYTES));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute ETag", e);
+        }
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+}
@@ -0,0 +1,39 @@
+package com.library.librarySystem.circulation;
+
+import java.time.LocalDate;
+
+/**
+ * What the circulation log says about one book.
+ *
+ * @param borrowerId the patron who has the book out, if any
+ * @param dueDate    when the current loan is due back
+ * @param keptForId  the patron whose hold the copy is kept aside for, if any
+ * @param sequence   the last event applied to this book
+ */
+public record BookCirculation(long bookId, Long borrowerId, LocalDate dueDate, Long keptForId, long sequence) {
+
+    static BookCirculation onShelf(long bookId) {
+        return new BookCirculation(bookId, null, null, null, 0L);
+    }
+
+    public boolean isAvailable() {
+        return borrowerId == null && keptForId == null;
+    }
+
+    /**
+     * Returns the state after the event. Events the state does not depend on only advance the sequence.
+     */
+    BookCirculation apply(CirculationEvent event) {
+        Long patronId = event.patronId();
+        return switch (event.type()) {
+            case BORROWED -> new BookCirculation(bookId, patronId, event.dueDate(), null, event.sequence());
+            case RETURNED -> new BookCirculation(bookId, null, null, keptForId, event.sequence());
+            case RENEWED -> new BookCirculation(bookId, borrowerId,
+                    patronId.equals(borrowerId) ? event.dueDate() : dueDate, keptForId, event.sequence());
+            case HOLD_READY -> new BookCirculation(bookId, borrowerId, dueDate, patronId, event.sequence());
+            case HOLD_CANCELLED, HOLD_EXPIRED -> new BookCirculation(bookId, borrowerId, dueDate,
+                    patronId.equals(keptForId) ? null : keptForId, event.sequence());
+            case HOLD_PLACED, WITHDRAWN -> new BookCirculation(bookId, borrowerId, dueDate, keptForId, event.sequence());
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.librarySystem.circulation;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One entry of the circulation log. Events are never updated or deleted; the sequence is assigned by the log when
+ * the event is appended and orders all events, so replaying them in sequence order rebuilds circulation state.
+ *
+ * @param patronId null for events that concern the book only
+ * @param dueDate  set for {@link Type#BORROWED} and {@link Type#RENEWED}
+ */
+public record CirculationEvent(long sequence, Type type, long bookId, Long patronId, LocalDate dueDate,
+                               Instant occurredAt) {
+
+    /**
+     * Stored by name in the table log and by ordinal in the mapped log, so new types go at the end.
+     */
+    public enum Type {
+        BORROWED,
+        RETURNED,
+        RENEWED,
+        HOLD_PLACED,
+        HOLD_READY,
+        HOLD_CANCELLED,
+        HOLD_EXPIRED,
+        WITHDRAWN
+    }
+
+    public static CirculationEvent of(Type type, long bookId, Long patronId, LocalDate dueDate) {
+        return new CirculationEvent(0L, type, bookId, patronId, dueDate, Instant.now());
+    }
+
+    CirculationEvent withSequence(long sequence) {
+        return new CirculationEvent(sequence, type, bookId, patronId, dueDate, occurredAt);
+    }
+}
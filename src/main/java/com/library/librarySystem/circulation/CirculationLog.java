@@ -0,0 +1,40 @@
+package com.library.librarySystem.circulation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only store of circulation events, together with the latest snapshot of the state they add up to.
+ */
+public interface CirculationLog {
+
+    /**
+     * Whether {@link #append} writes through the caller's transaction. Such logs are appended to just before commit,
+     * so events and the rows they describe commit together; the others are appended once the transaction has
+     * committed.
+     */
+    boolean transactional();
+
+    /**
+     * Appends the events in order and returns them with their sequences.
+     */
+    List<CirculationEvent> append(List<CirculationEvent> events);
+
+    /**
+     * Returns up to {@code limit} events with a sequence greater than {@code sequence}, in sequence order.
+     */
+    List<CirculationEvent> readAfter(long sequence, int limit);
+
+    /**
+     * Returns those of the events with the given sequences that are in the log, in sequence order.
+     */
+    List<CirculationEvent> read(Collection<Long> sequences);
+
+    /**
+     * Replaces the stored snapshot.
+     */
+    void saveSnapshot(CirculationSnapshot snapshot);
+
+    Optional<CirculationSnapshot> latestSnapshot();
+}
@@ -0,0 +1,201 @@
+package com.library.librarySystem.circulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Availability and loan state of every book, folded from the circulation log. Rebuilt at startup from the latest
+ * snapshot plus the events after it, then kept current by tailing the log: every
+ * {@code library.events.poll-interval}, and right after this node commits events of its own. Since every node reads
+ * the shared log, each one also sees what the others commit.
+ * <p>
+ * Events of one book are appended and committed under the book's lock, so they commit in sequence order; events of
+ * different books may commit out of order, which leaves gaps in what the tail has read. A gap is looked up again on
+ * every pass, before the events read in that pass are applied: an event of the same book behind it can only have
+ * been read after the gap committed, so the book still sees its events in order. A gap that does not show up within
+ * {@code library.events.gap-timeout} is taken to be a rolled back transaction and forgotten. The watermark, which
+ * labels snapshots, is the highest sequence below the first open gap.
+ */
+@Component
+public class CirculationProjection {
+    private static final Logger log = LoggerFactory.getLogger(CirculationProjection.class);
+    static final int REPLAY_PAGE_SIZE = 1000;
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final CirculationLog circulationLog;
+    private final Duration gapTimeout;
+    private final Clock clock;
+    private final Map<Long, BookCirculation> books = new ConcurrentHashMap<>();
+    // sequences skipped by the tail, with when they were first missed; guarded by this
+    private final NavigableMap<Long, Instant> gaps = new TreeMap<>();
+    private volatile long cursor;
+    private volatile long snapshotSequence = -1L;
+
+    @Autowired
+    public CirculationProjection(CirculationLog circulationLog,
+                                 @Value("${library.events.gap-timeout:PT1M}") Duration gapTimeout) {
+        this(circulationLog, gapTimeout, Clock.systemUTC());
+    }
+
+    CirculationProjection(CirculationLog circulationLog, Duration gapTimeout, Clock clock) {
+        this.circulationLog = circulationLog;
+        this.gapTimeout = gapTimeout;
+        this.clock = clock;
+    }
+
+    /**
+     * The state of the book as of the events applied so far. Books without any events are on the shelf.
+     */
+    public BookCirculation get(long bookId) {
+        BookCirculation book = books.get(bookId);
+        return book == null ? BookCirculation.onShelf(bookId) : book;
+    }
+
+    /**
+     * Reads the log itself, for consumers that replay it into their own views.
+     */
+    public List<CirculationEvent> readEvents(Long after, int size) {
+        int pageSize = size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        return circulationLog.readAfter(after == null ? 0L : after, pageSize);
+    }
+
+    public int trackedBooks() {
+        return books.size();
+    }
+
+    /**
+     * Makes sure the state includes every event up to {@code sequence}, which has committed, by tailing the log if
+     * it has not got that far yet.
+     */
+    void catchUp(long sequence) {
+        if (sequence > cursor) {
+            tail();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${library.events.poll-interval:PT1S}",
+            fixedDelayString = "${library.events.poll-interval:PT1S}")
+    public void poll() {
+        tail();
+    }
+
+    /**
+     * Reads the events committed since the last pass, looks up the gaps left so far and applies what it found in
+     * sequence order. Returns the number of events applied.
+     */
+    synchronized int tail() {
+        Instant now = clock.instant();
+        List<CirculationEvent> found = new ArrayList<>();
+        List<CirculationEvent> page;
+        do {
+            page = circulationLog.readAfter(cursor, REPLAY_PAGE_SIZE);
+            for (CirculationEvent event : page) {
+                for (long missing = cursor + 1; missing < event.sequence(); missing++) {
+                    gaps.put(missing, now);
+                }
+                cursor = event.sequence();
+            }
+            found.addAll(page);
+        } while (page.size() == REPLAY_PAGE_SIZE);
+
+        // only after reading ahead, so a gap that committed before a later event of its book is found here
+        List<Long> open = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < open.size(); from += REPLAY_PAGE_SIZE) {
+            List<Long> batch = open.subList(from, Math.min(from + REPLAY_PAGE_SIZE, open.size()));
+            for (CirculationEvent event : circulationLog.read(batch)) {
+                gaps.remove(event.sequence());
+                found.add(event);
+            }
+        }
+        found.sort(Comparator.comparingLong(CirculationEvent::sequence));
+        apply(found);
+
+        Instant expired = now.minus(gapTimeout);
+        int before = gaps.size();
+        gaps.values().removeIf(missed -> missed.isBefore(expired));
+        if (gaps.size() < before) {
+            log.debug("Gave up on {} circulation sequences that never committed", before - gaps.size());
+        }
+        return found.size();
+    }
+
+    void apply(Collection<CirculationEvent> events) {
+        for (CirculationEvent event : events) {
+            if (event.type() == CirculationEvent.Type.WITHDRAWN) {
+                books.remove(event.bookId());
+                continue;
+            }
+            books.compute(event.bookId(), (bookId, book) -> {
+                BookCirculation state = book == null ? BookCirculation.onShelf(bookId) : book;
+                // replaying over a snapshot can offer events the book has already seen
+                return event.sequence() <= state.sequence() ? state : state.apply(event);
+            });
+        }
+    }
+
+    /**
+     * The highest sequence such that every event up to it has been applied or given up on as rolled back.
+     */
+    synchronized long watermark() {
+        return gaps.isEmpty() ? cursor : Math.min(cursor, gaps.firstKey() - 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int replayed;
+        CirculationSnapshot snapshot;
+        synchronized (this) {
+            books.clear();
+            gaps.clear();
+            cursor = 0L;
+            snapshot = circulationLog.latestSnapshot().orElse(null);
+            if (snapshot != null) {
+                snapshot.books().forEach(book -> books.put(book.bookId(), book));
+                cursor = snapshot.sequence();
+                snapshotSequence = cursor;
+            }
+            replayed = tail();
+        }
+        log.info("Circulation state of {} books rebuilt from {} and {} later events in {}ms", books.size(),
+                snapshot == null ? "no snapshot" : "the snapshot at " + snapshot.sequence(), replayed,
+                System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(initialDelayString = "${library.events.snapshot-interval:PT10M}",
+            fixedDelayString = "${library.events.snapshot-interval:PT10M}")
+    public void snapshot() {
+        long sequence;
+        List<BookCirculation> state;
+        synchronized (this) {
+            // the state may run ahead of the watermark, past open gaps, but never behind it
+            sequence = watermark();
+            if (sequence == snapshotSequence) {
+                return;
+            }
+            state = List.copyOf(books.values());
+        }
+        circulationLog.saveSnapshot(new CirculationSnapshot(sequence, Instant.now(), state));
+        snapshotSequence = sequence;
+        log.info("Circulation snapshot of {} books taken at sequence {}", state.size(), sequence);
+    }
+}
@@ -0,0 +1,81 @@
+package com.library.librarySystem.circulation;
+
+import com.library.librarySystem.outbox.OutboxStore;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records circulation events for the surrounding transaction. Events are buffered until the transaction ends, so
+ * each transaction appends to the log once and rolled back work never reaches it; once the transaction has
+ * committed, the projection catches up with the log so the caller reads its own changes. They are also queued in the
+ * outbox, in the transaction itself, for the {@link com.library.librarySystem.outbox.OutboxRelay} to pass on.
+ */
+@Component
+public class CirculationRecorder {
+    private final CirculationLog circulationLog;
+    private final CirculationProjection projection;
+    private final OutboxStore outbox;
+
+    public CirculationRecorder(CirculationLog circulationLog, CirculationProjection projection, OutboxStore outbox) {
+        this.circulationLog = circulationLog;
+        this.projection = projection;
+        this.outbox = outbox;
+    }
+
+    public void record(CirculationEvent.Type type, Long bookId, Long patronId, LocalDate dueDate) {
+        CirculationEvent event = CirculationEvent.of(type, bookId, patronId, dueDate);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<CirculationEvent> appended = circulationLog.append(List.of(event));
+            outbox.enqueue(appended);
+            projection.catchUp(appended.get(0).sequence());
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    private class Pending implements TransactionSynchronization {
+        private final List<CirculationEvent> events = new ArrayList<>();
+        private List<CirculationEvent> appended = List.of();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (circulationLog.transactional()) {
+                append();
+                outbox.enqueue(appended);
+            } else {
+                // sequenced only once the log is appended to after commit
+                outbox.enqueue(events);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!circulationLog.transactional()) {
+                append();
+            }
+            if (!appended.isEmpty()) {
+                projection.catchUp(appended.get(appended.size() - 1).sequence());
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CirculationRecorder.this);
+        }
+
+        private void append() {
+            appended = circulationLog.append(events);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.library.librarySystem.circulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state of every book with circulation history as of {@code sequence}: every event up to and including it is
+ * reflected, so a rebuild replays only the events after it.
+ */
+public record CirculationSnapshot(long sequence, Instant takenAt, List<BookCirculation> books) {
+    private static final int FORMAT_VERSION = 1;
+    private static final long NONE = Long.MIN_VALUE;
+
+    byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + books.size() * 40);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sequence);
+            out.writeLong(takenAt.toEpochMilli());
+            out.writeInt(books.size());
+            for (BookCirculation book : books) {
+                out.writeLong(book.bookId());
+                out.writeLong(book.borrowerId() == null ? NONE : book.borrowerId());
+                out.writeLong(book.dueDate() == null ? NONE : book.dueDate().toEpochDay());
+                out.writeLong(book.keptForId() == null ? NONE : book.keptForId());
+                out.writeLong(book.sequence());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static CirculationSnapshot fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported circulation snapshot format " + version);
+            }
+            long sequence = in.readLong();
+            Instant takenAt = Instant.ofEpochMilli(in.readLong());
+            int count = in.readInt();
+            List<BookCirculation> books = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long bookId = in.readLong();
+                long borrowerId = in.readLong();
+                long dueDate = in.readLong();
+                long keptForId = in.readLong();
+                books.add(new BookCirculation(bookId, borrowerId == NONE ? null : borrowerId,
+                        dueDate == NONE ? null : LocalDate.ofEpochDay(dueDate),
+                        keptForId == NONE ? null : keptForId, in.readLong()));
+            }
+            return new CirculationSnapshot(sequence, takenAt, books);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.library.librarySystem.circulation;
+
+import jakarta.transaction.Transactional;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Circulation log kept in the {@code circulation_events} table. Rows are only ever inserted, at the end of the
+ * primary key, and each transaction writes its events as one batch just before it commits. The table is shared by
+ * every node, so each node's projection tails it to see the events committed elsewhere.
+ */
+@Component
+@ConditionalOnProperty(name = "library.events.backend", havingValue = "table", matchIfMissing = true)
+public class JdbcCirculationLog implements CirculationLog {
+    static final String INSERT_SQL = "insert into circulation_events (type, book_id, patron_id, due_date, occurred_at) "
+            + "values (?, ?, ?, ?, ?)";
+    static final String READ_SQL = "select id, type, book_id, patron_id, due_date, occurred_at from circulation_events "
+            + "where id > ? order by id limit ?";
+    static final String READ_SEQUENCES_SQL = "select id, type, book_id, patron_id, due_date, occurred_at "
+            + "from circulation_events where id in (%s) order by id";
+
+    private static final RowMapper<CirculationEvent> EVENT = (rs, rowNum) -> {
+        Date dueDate = rs.getDate("due_date");
+        return new CirculationEvent(rs.getLong("id"), CirculationEvent.Type.valueOf(rs.getString("type")),
+                rs.getLong("book_id"), rs.getObject("patron_id", Long.class),
+                dueDate == null ? null : dueDate.toLocalDate(), rs.getTimestamp("occurred_at").toInstant());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcCirculationLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean transactional() {
+        return true;
+    }
+
+    @Override
+    public List<CirculationEvent> append(List<CirculationEvent> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        CirculationEvent event = events.get(i);
+                        ps.setString(1, event.type().name());
+                        ps.setLong(2, event.bookId());
+                        if (event.patronId() == null) {
+                            ps.setNull(3, Types.BIGINT);
+                        } else {
+                            ps.setLong(3, event.patronId());
+                        }
+                        ps.setDate(4, event.dueDate() == null ? null : Date.valueOf(event.dueDate()));
+                        ps.setTimestamp(5, Timestamp.from(event.occurredAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return events.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<CirculationEvent> appended = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            // only the id is requested, whatever case the driver reports its name in
+            Number id = (Number) generated.get(i).values().iterator().next();
+            appended.add(events.get(i).withSequence(id.longValue()));
+        }
+        return appended;
+    }
+
+    @Override
+    public List<CirculationEvent> readAfter(long sequence, int limit) {
+        return jdbcTemplate.query(READ_SQL, EVENT, sequence, limit);
+    }
+
+    @Override
+    public List<CirculationEvent> read(Collection<Long> sequences) {
+        if (sequences.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(sequences.size(), "?"));
+        return jdbcTemplate.query(READ_SEQUENCES_SQL.formatted(placeholders), EVENT, sequences.toArray());
+    }
+
+    @Override
+    @Transactional
+    public void saveSnapshot(CirculationSnapshot snapshot) {
+        jdbcTemplate.update("insert into circulation_snapshots (last_sequence, taken_at, state) values (?, ?, ?)",
+                snapshot.sequence(), Timestamp.from(snapshot.takenAt()), snapshot.toBytes());
+        jdbcTemplate.update("delete from circulation_snapshots where last_sequence < ?", snapshot.sequence());
+    }
+
+    @Override
+    public Optional<CirculationSnapshot> latestSnapshot() {
+        return jdbcTemplate.query("select state from circulation_snapshots order by last_sequence desc limit 1",
+                        (rs, rowNum) -> rs.getBytes("state"))
+                .stream()
+                .findFirst()
+                .map(CirculationSnapshot::fromBytes);
+    }
+}
@@ -0,0 +1,259 @@
+package com.library.librarySystem.circulation;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Circulation log kept in memory-mapped segment files on local disk, for single-node deployments. Records have a
+ * fixed size and sequences have no gaps, so a sequence maps straight to a segment and an offset, and an append is a
+ * copy into the page cache followed by a flush of the touched pages.
+ * <p>
+ * Each segment is named after its first sequence. Records end with a CRC of their contents; at startup the last
+ * segment is scanned up to the first record that does not check out, which drops a record torn by a crash. Events are
+ * appended after their transaction commits, so a crash in between loses them from the log, not from the tables.
+ * <p>
+ * Other nodes cannot see the files, so their projections would never learn of the events written here. The log
+ * therefore takes an exclusive lock on its directory and refuses to open while another process holds it; installs
+ * with more than one node use the table backend.
+ */
+@Component
+@ConditionalOnProperty(name = "library.events.backend", havingValue = "mapped")
+public class MappedCirculationLog implements CirculationLog {
+    private static final Logger log = LoggerFactory.getLogger(MappedCirculationLog.class);
+    // sequence, occurred at, book, patron, due date, type, crc
+    static final int RECORD_BYTES = 8 + 8 + 8 + 8 + 8 + 4 + 4;
+    private static final int CHECKED_BYTES = RECORD_BYTES - 4;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String LOCK_FILE = "log.lock";
+    private static final CirculationEvent.Type[] TYPES = CirculationEvent.Type.values();
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final NavigableMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private FileChannel lockChannel;
+    private MappedByteBuffer current;
+    private long currentBase;
+    private long nextSequence;
+
+    public MappedCirculationLog(@Value("${library.events.directory:data/events}") Path directory,
+                                @Value("${library.events.segment-records:1048576}") int segmentRecords) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        try {
+            Files.createDirectories(directory);
+            lock();
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the circulation log in " + directory, e);
+        }
+    }
+
+    @Override
+    public boolean transactional() {
+        return false;
+    }
+
+    @Override
+    public synchronized List<CirculationEvent> append(List<CirculationEvent> events) {
+        List<CirculationEvent> appended = new ArrayList<>(events.size());
+        for (CirculationEvent event : events) {
+            if (nextSequence - currentBase == segmentRecords) {
+                current.force();
+                roll(nextSequence);
+            }
+            CirculationEvent sequenced = event.withSequence(nextSequence++);
+            write(current, offset(sequenced.sequence(), currentBase), sequenced);
+            appended.add(sequenced);
+        }
+        if (!appended.isEmpty()) {
+            current.force();
+        }
+        return appended;
+    }
+
+    @Override
+    public synchronized List<CirculationEvent> readAfter(long sequence, int limit) {
+        List<CirculationEvent> events = new ArrayList<>();
+        long next = Math.max(sequence + 1, 1L);
+        while (events.size() < limit && next < nextSequence) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(next);
+            long end = Math.min(nextSequence, segment.getKey() + segmentRecords);
+            for (; next < end && events.size() < limit; next++) {
+                events.add(read(segment.getValue(), offset(next, segment.getKey())));
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public synchronized List<CirculationEvent> read(Collection<Long> sequences) {
+        // sequences have no gaps, so anything below the next one has been written
+        return sequences.stream()
+                .filter(sequence -> sequence >= 1L && sequence < nextSequence)
+                .sorted()
+                .map(sequence -> {
+                    Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(sequence);
+                    return read(segment.getValue(), offset(sequence, segment.getKey()));
+                })
+                .toList();
+    }
+
+    @Override
+    public synchronized void saveSnapshot(CirculationSnapshot snapshot) {
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try {
+            Files.write(temp, snapshot.toBytes());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the circulation snapshot", e);
+        }
+    }
+
+    @Override
+    public synchronized Optional<CirculationSnapshot> latestSnapshot() {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(CirculationSnapshot.fromBytes(Files.readAllBytes(snapshot)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the circulation snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (current != null) {
+            current.force();
+        }
+        try {
+            // releases the directory lock
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Cannot release the lock on the circulation log in {}", directory, e);
+        }
+    }
+
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by this very process
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("The circulation log in " + directory + " is already open elsewhere; "
+                    + "the mapped backend serves a single node, use library.events.backend=table for more");
+        }
+    }
+
+    private void open() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), map(file));
+        }
+        if (segments.isEmpty()) {
+            roll(1L);
+            nextSequence = 1L;
+            return;
+        }
+        currentBase = segments.lastKey();
+        current = segments.lastEntry().getValue();
+        long count = 0;
+        while (count < segmentRecords && isValid(current, offset(currentBase + count, currentBase), currentBase + count)) {
+            count++;
+        }
+        nextSequence = currentBase + count;
+        log.info("Circulation log opened in {} with {} segments, next sequence {}", directory, segments.size(), nextSequence);
+    }
+
+    private void roll(long base) {
+        try {
+            current = map(directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create a circulation log segment", e);
+        }
+        currentBase = base;
+        segments.put(base, current);
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_BYTES);
+        }
+    }
+
+    private static int offset(long sequence, long base) {
+        return Math.toIntExact((sequence - base) * RECORD_BYTES);
+    }
+
+    private static void write(MappedByteBuffer segment, int offset, CirculationEvent event) {
+        segment.putLong(offset, event.sequence());
+        segment.putLong(offset + 8, event.occurredAt().toEpochMilli());
+        segment.putLong(offset + 16, event.bookId());
+        segment.putLong(offset + 24, event.patronId() == null ? NONE : event.patronId());
+        segment.putLong(offset + 32, event.dueDate() == null ? NONE : event.dueDate().toEpochDay());
+        segment.putInt(offset + 40, event.type().ordinal());
+        segment.putInt(offset + CHECKED_BYTES, checksum(segment, offset));
+    }
+
+    private static CirculationEvent read(MappedByteBuffer segment, int offset) {
+        long patronId = segment.getLong(offset + 24);
+        long dueDate = segment.getLong(offset + 32);
+        return new CirculationEvent(segment.getLong(offset), TYPES[segment.getInt(offset + 40)],
+                segment.getLong(offset + 16), patronId == NONE ? null : patronId,
+                dueDate == NONE ? null : LocalDate.ofEpochDay(dueDate), Instant.ofEpochMilli(segment.getLong(offset + 8)));
+    }
+
+    private static boolean isValid(MappedByteBuffer segment, int offset, long sequence) {
+        return segment.getLong(offset) == sequence && segment.getInt(offset + CHECKED_BYTES) == checksum(segment, offset);
+    }
+
+    private static int checksum(MappedByteBuffer segment, int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(segment.slice(offset, CHECKED_BYTES));
+        return (int) crc.getValue();
+    }
+}
@@ -1,10 +1,25 @@
 package com.library.librarySystem.config.redis;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.cache.ListViewCache;
+import com.library.librarySystem.cache.MultiGetRedisCacheManager;
+import com.library.librarySystem.cache.RedisCacheInvalidationBus;
+import com.library.librarySystem.cache.RedisSortedIdIndex;
+import com.library.librarySystem.cache.TwoTierCacheManager;
+import com.library.librarySystem.cache.VersionStamps;
+import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.dto.PatronDto;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
 
 @Configuration
 public class RedisConfig {
@@ -20,4 +35,50 @@ public class RedisConfig {
         template.setConnectionFactory(connectionFactory);
         return template;
     }
-}
\ No newline at end of file
+
+    @Bean
+    RedisCacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate) {
+        return new RedisCacheInvalidationBus(stringRedisTemplate);
+    }
+
+    @Bean
+    RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                RedisCacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, RedisCacheInvalidationBus.TOPIC);
+        return container;
+    }
+
+    @Bean
+    TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisCacheInvalidationBus cacheInvalidationBus,
+                                     @Value("${cache.near.maximum-size:10000}") long localMaximumSize,
+                                     @Value("${cache.near.expire-after-write:10m}") Duration localExpireAfterWrite) {
+        RedisCacheManager redisCacheManager = new MultiGetRedisCacheManager(connectionFactory);
+        redisCacheManager.initializeCaches();
+        return new TwoTierCacheManager(redisCacheManager, cacheInvalidationBus, localMaximumSize, localExpireAfterWrite);
+    }
+
+    @Bean
+    ListViewCache<BookDto> bookListView(TwoTierCacheManager cacheManager, StringRedisTemplate stringRedisTemplate) {
+        return new ListViewCache<>(cacheManager.getCache("book"), BookDto.class,
+                new RedisSortedIdIndex(stringRedisTemplate, "books:ids"));
+    }
+
+    @Bean
+    ListViewCache<PatronDto> patronListView(TwoTierCacheManager cacheManager, StringRedisTemplate stringRedisTemplate) {
+        return new ListViewCache<>(cacheManager.getCache("patron"), PatronDto.class,
+                new RedisSortedIdIndex(stringRedisTemplate, "patrons:ids"));
+    }
+
+    @Bean
+    VersionStamps bookVersions(TwoTierCacheManager cacheManager, ObjectMapper objectMapper) {
+        return new VersionStamps(cacheManager.getCache("bookVersion"), objectMapper);
+    }
+
+    @Bean
+    VersionStamps patronVersions(TwoTierCacheManager cacheManager, ObjectMapper objectMapper) {
+        return new VersionStamps(cacheManager.getCache("patronVersion"), objectMapper);
+    }
+}
@@ -5,6 +5,8 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.library.librarySystem.revocation.RevokedTokens;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -17,22 +19,38 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
+import java.util.List;
 
 
+/**
+ * Authenticates requests carrying a bearer token. In stateless mode ({@code security.jwt.stateless}, the default) the
+ * authentication is built from the token's role claim alone; otherwise, and for tokens issued before the role claim
+ * existed, the user is loaded on every request. Either way, tokens older than the user's current token version, and
+ * tokens revoked one by one at logout, are refused.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final HandlerExceptionResolver handlerExceptionResolver;
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserVersions userVersions;
+    private final RevokedTokens revokedTokens;
+    private final boolean stateless;
 
     public JwtAuthenticationFilter(
             JwtService jwtService,
             UserDetailsService userDetailsService,
-            HandlerExceptionResolver handlerExceptionResolver
+            HandlerExceptionResolver handlerExceptionResolver,
+            UserVersions userVersions,
+            RevokedTokens revokedTokens,
+            @Value("${security.jwt.stateless:true}") boolean stateless
     ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
         this.handlerExceptionResolver = handlerExceptionResolver;
+        this.userVersions = userVersions;
+        this.revokedTokens = revokedTokens;
+        this.stateless = stateless;
     }
 
     @Override
@@ -50,20 +68,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
+            // verified once here; everything below reads the parsed claims
+            final JwtClaims claims = jwtService.parse(jwt);
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-            if (userEmail != null && authentication == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+            if (claims.subject() != null && authentication == null
+                    && userVersions.isCurrent(claims.subject(), claims.userVersion())
+                    && !revokedTokens.isRevoked(claims.tokenId())) {
+                UsernamePasswordAuthenticationToken authToken = stateless && claims.role() != null
+                        ? fromClaims(claims)
+                        : fromUser(claims);
 
+                if (authToken != null) {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
@@ -74,4 +91,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             handlerExceptionResolver.resolveException(request, response, null, exception);
         }
     }
-}
\ No newline at end of file
+
+    private UsernamePasswordAuthenticationToken fromClaims(JwtClaims claims) {
+        return new UsernamePasswordAuthenticationToken(claims.subject(), null, List.of(claims.role().authority()));
+    }
+
+    private UsernamePasswordAuthenticationToken fromUser(JwtClaims claims) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.subject());
+        if (!jwtService.isTokenValid(claims, userDetails)) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.library.librarySystem.config.security;
+
+import com.library.librarySystem.model.Role;
+
+import java.time.Instant;
+
+/**
+ * The claims of a token whose signature and expiry have already been checked.
+ *
+ * @param tokenId       the token's unique id ({@code jti}), or null for tokens issued before ids were added
+ * @param subject       the username the token was issued to
+ * @param role          the user's role when the token was issued, or null for tokens that predate the claim
+ * @param userVersion   the user's token version when the token was issued; 0 for tokens that predate the claim
+ */
+public record JwtClaims(String tokenId, String subject, Role role, int userVersion, Instant issuedAt,
+                        Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -1,6 +1,9 @@
 package com.library.librarySystem.config.security;
 
+import com.library.librarySystem.model.Role;
+import com.library.librarySystem.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -10,31 +13,68 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Service
 public class JwtService {
+    static final String ROLE_CLAIM = "role";
+    static final String USER_VERSION_CLAIM = "ver";
+
+    private final Key signingKey;
+    // immutable and thread-safe, so one parser serves every request
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    private final VerifiedTokenCache tokenCache;
+
+    public JwtService(@Value("${security.jwt.secret-key}") String secretKey,
+                      @Value("${security.jwt.expiration-time}") long jwtExpiration,
+                      VerifiedTokenCache tokenCache) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.tokenCache = tokenCache;
+    }
 
-    @Value("${security.jwt.secret-key}")
-    private String secretKey;
-
-    @Value("${security.jwt.expiration-time}")
-    private long jwtExpiration;
+    /**
+     * Verifies the token's signature and expiry and returns its claims. This is the only place a token is parsed;
+     * callers read everything they need from the result. A token seen before is served from the verified-token cache
+     * until it expires.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public JwtClaims parse(String token) {
+        return tokenCache.get(token, this::verify);
+    }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    private JwtClaims verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        String role = claims.get(ROLE_CLAIM, String.class);
+        Integer userVersion = claims.get(USER_VERSION_CLAIM, Integer.class);
+        return new JwtClaims(claims.getId(), claims.getSubject(), role == null ? null : Role.valueOf(role),
+                userVersion == null ? 0 : userVersion, toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()));
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public String extractUsername(String token) {
+        return parse(token).subject();
     }
 
+    /**
+     * Issues a token for the user. Tokens for application users also carry their role and token version, which is
+     * all the authentication filter needs to authenticate requests without loading the user.
+     */
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            if (user.getRole() != null) {
+                claims.put(ROLE_CLAIM, user.getRole().name());
+            }
+            claims.put(USER_VERSION_CLAIM, user.getTokenVersion());
+        }
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -53,37 +93,20 @@ public class JwtService {
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
+                // lets a single token be revoked on logout
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public boolean isTokenValid(JwtClaims claims, UserDetails userDetails) {
+        return claims.subject().equals(userDetails.getUsername()) && !claims.isExpired(Instant.now());
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
     }
-}
\ No newline at end of file
+}
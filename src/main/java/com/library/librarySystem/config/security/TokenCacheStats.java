@@ -0,0 +1,18 @@
+package com.library.librarySystem.config.security;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * @param hits      requests whose token was already verified
+ * @param misses    requests whose token had to be verified
+ * @param rejected  misses whose token failed verification (never cached)
+ * @param evictions entries dropped to stay within the size bound
+ */
+public record TokenCacheStats(long hits, long misses, long rejected, long evictions, long size) {
+
+    @JsonProperty
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,51 @@
+package com.library.librarySystem.config.security;
+
+import com.library.librarySystem.respository.UserRepository;
+import com.library.librarySystem.respository.UserVersion;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory copy of the users' token versions, so revoked tokens are recognised without a lookup per request. Only
+ * versions above zero are kept, which is one entry per user who has ever revoked their tokens.
+ * <p>
+ * The table is reloaded every {@code security.jwt.user-versions.refresh-interval}; a revocation made on another node
+ * takes effect here within that interval.
+ */
+@Component
+public class UserVersions {
+    private final UserRepository userRepository;
+    // replaced wholesale, never modified; null until the first load
+    private volatile Map<String, Integer> raised;
+
+    public UserVersions(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Whether a token issued to the user at the given version has not been revoked since.
+     */
+    public boolean isCurrent(String username, int version) {
+        Map<String, Integer> versions = raised;
+        if (versions == null) {
+            versions = refresh();
+        }
+        return version >= versions.getOrDefault(username, 0);
+    }
+
+    @Scheduled(initialDelayString = "${security.jwt.user-versions.refresh-interval:PT30S}",
+            fixedDelayString = "${security.jwt.user-versions.refresh-interval:PT30S}")
+    public synchronized Map<String, Integer> refresh() {
+        Map<String, Integer> versions = raised == null ? new HashMap<>() : new HashMap<>(raised);
+        for (UserVersion row : userRepository.findRaisedTokenVersions()) {
+            // versions only ever go up, so the higher one wins if a load overlaps a revocation made on this node
+            versions.merge(row.getUsername(), row.getVersion(), Math::max);
+        }
+        Map<String, Integer> loaded = Map.copyOf(versions);
+        raised = loaded;
+        return loaded;
+    }
+}
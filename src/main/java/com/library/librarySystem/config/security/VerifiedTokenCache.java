@@ -0,0 +1,92 @@
+package com.library.librarySystem.config.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Claims of tokens that have already been verified, keyed by the SHA-256 digest of the token so the tokens themselves
+ * are never held. An entry lives until the token's expiry.
+ * <p>
+ * Only tokens that passed verification are ever added, so requests with forged or garbage tokens cannot fill the cache;
+ * the size bound and Caffeine's frequency-based admission keep a flood of distinct valid tokens from pushing out the
+ * ones in steady use.
+ */
+@Component
+public class VerifiedTokenCache {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Cache<ByteBuffer, JwtClaims> verified;
+
+    public VerifiedTokenCache(@Value("${security.jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached claims of the token, verifying it with {@code verifier} only when it has not been seen. A
+     * token that fails verification is not cached, and the verifier's exception is passed on.
+     */
+    public JwtClaims get(String token, Function<String, JwtClaims> verifier) {
+        return verified.get(digest(token), key -> verifier.apply(token));
+    }
+
+    public void invalidate(String token) {
+        verified.invalidate(digest(token));
+    }
+
+    /**
+     * Drops every cached token of the user. This walks the whole cache, which is acceptable for revocations but not
+     * for anything on the request path.
+     */
+    public void invalidateSubject(String username) {
+        verified.asMap().values().removeIf(claims -> username.equals(claims.subject()));
+    }
+
+    public TokenCacheStats stats() {
+        CacheStats stats = verified.stats();
+        return new TokenCacheStats(stats.hitCount(), stats.missCount(), stats.loadFailureCount(),
+                stats.evictionCount(), verified.estimatedSize());
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static class UntilTokenExpires implements Expiry<ByteBuffer, JwtClaims> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, JwtClaims claims, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), claims.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,26 +1,44 @@
 package com.library.librarySystem.contracts;
 
+import com.library.librarySystem.cache.VersionStamp;
+import com.library.librarySystem.dto.AvailableBooksDto;
 import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.dto.BookFacetsDto;
+import com.library.librarySystem.dto.BookSearchHitDto;
+import com.library.librarySystem.dto.CursorPageDto;
 import com.library.librarySystem.model.Book;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookService {
-    @Cacheable(value = "books")
     public List<BookDto> getAllBooks();
 
+    public VersionStamp getBooksVersion();
+
+    public CursorPageDto<BookDto> getBooksPage(Long after, int size);
+
+    public void streamAllBooks(Consumer<BookDto> consumer);
+
+    public List<BookSearchHitDto> searchBooks(String query, int limit);
+
+    public BookFacetsDto getFacets(int limit);
+
+    public AvailableBooksDto getAvailableBooks(String genre, Integer fromYear, Integer toYear, Long after, int size);
+
     @CachePut(value = "book", key = "#id")
     public BookDto updateBook(Long id, BookDto updatedBook);
 
-    @CacheEvict(value = "books", allEntries = true)
     public BookDto createBook(Book book) throws Exception;
 
     @Cacheable(value = "book", key = "#id")
     public BookDto getBookById(Long id);
 
-    @CacheEvict(value = {"books", "book"}, key = "#id")
+    public VersionStamp getBookVersion(Long id);
+
+    @CacheEvict(value = "book", key = "#id")
     public void deleteBook(Long id);
 }
\ No newline at end of file
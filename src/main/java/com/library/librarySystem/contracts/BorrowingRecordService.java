@@ -1,9 +1,18 @@
 package com.library.librarySystem.contracts;
 
+import com.library.librarySystem.dto.BatchLoanResultDto;
+import com.library.librarySystem.dto.BookLoanDto;
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.PatronLoanDto;
 
 import java.util.List;
 
 public interface BorrowingRecordService {
     public String borrowBook(Long bookId, Long patronId);
     public String returnBook(Long bookId, Long patronId);
+    public String renewLoan(Long bookId, Long patronId);
+    public BatchLoanResultDto borrowBooks(Long patronId, List<Long> bookIds);
+    public BatchLoanResultDto returnBooks(Long patronId, List<Long> bookIds);
+    public CursorPageDto<PatronLoanDto> getPatronLoans(Long patronId, Long before, int size);
+    public CursorPageDto<BookLoanDto> getBookLoans(Long bookId, Long before, int size);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.library.librarySystem.contracts;
+
+import com.library.librarySystem.dto.ImportFormat;
+import com.library.librarySystem.dto.ImportReportDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BulkImportService {
+    public ImportReportDto importBooks(InputStream input, ImportFormat format) throws IOException;
+
+    public ImportReportDto importPatrons(InputStream input, ImportFormat format) throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.library.librarySystem.contracts;
+
+import com.library.librarySystem.dto.HoldDto;
+
+import java.util.List;
+
+public interface HoldService {
+    public HoldDto placeHold(Long bookId, Long patronId, int priority);
+    public HoldDto cancelHold(Long holdId);
+    public List<HoldDto> getQueue(Long bookId, int limit);
+    public boolean expireHold(Long holdId);
+}
@@ -1,5 +1,6 @@
 package com.library.librarySystem.contracts;
 
+import com.library.librarySystem.cache.VersionStamp;
 import com.library.librarySystem.dto.BookDto;
 import com.library.librarySystem.dto.PatronDto;
 import com.library.librarySystem.model.Book;
@@ -11,18 +12,20 @@ import org.springframework.cache.annotation.Cacheable;
 import java.util.List;
 
 public interface PatronService {
-    @CacheEvict(value = {"patrons", "patron"}, key = "#id")
+    @CacheEvict(value = "patron", key = "#id")
     public void deletePatron(Long id);
 
     @CachePut(value = "patron", key = "#id")
     public PatronDto updatePatron(Long id, PatronDto updatedPatronDto);
 
-    @CacheEvict(value = "patrons", allEntries = true)
     public PatronDto createPatron(Patron patron) throws Exception;
 
     @Cacheable(value = "patron", key = "#id")
     public PatronDto getPatronById(Long id);
 
-    @Cacheable(value = "patrons")
+    public VersionStamp getPatronVersion(Long id);
+
     public List<PatronDto> getAllPatrons();
+
+    public VersionStamp getPatronsVersion();
 }
\ No newline at end of file
@@ -1,16 +1,32 @@
 package com.library.librarySystem.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.cache.VersionStamp;
 import com.library.librarySystem.contracts.BookService;
+import com.library.librarySystem.contracts.BulkImportService;
+import com.library.librarySystem.dto.AvailableBooksDto;
 import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.dto.BookFacetsDto;
+import com.library.librarySystem.dto.BookSearchHitDto;
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.ImportFormat;
+import com.library.librarySystem.dto.ImportReportDto;
 import com.library.librarySystem.model.Book;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -20,18 +36,92 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BulkImportService bulkImportService;
+    private final ObjectMapper objectMapper;
 
-    @Operation(summary = "Get all books", description = "Retrieves a list of all books available in the library.")
+    @Operation(summary = "Get all books", description = "Retrieves a list of all books available in the library. Supports If-None-Match and If-Modified-Since.")
     @GetMapping
-    public List<BookDto> getAllBooks() {
+    public List<BookDto> getAllBooks(WebRequest request) {
+        VersionStamp version = bookService.getBooksVersion();
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         return bookService.getAllBooks();
     }
 
-    @Operation(summary = "Get a book by ID", description = "Retrieves details of a specific book by its ID.")
+    @Operation(summary = "Get a page of books", description = "Retrieves books ordered by ID, starting after the given cursor.")
+    @GetMapping("/page")
+    public CursorPageDto<BookDto> getBooksPage(
+            @Parameter(description = "ID of the last book on the previous page")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Number of books per page (at most 100)")
+            @RequestParam(defaultValue = "20") int size) {
+        return bookService.getBooksPage(after, size);
+    }
+
+    @Operation(summary = "Stream all books", description = "Streams every book in the library as a JSON array without buffering the catalog.")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                bookService.streamAllBooks(bookDto -> {
+                    try {
+                        generator.writeObject(bookDto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Search books", description = "Full-text search over title, author, genre and description, ranked by relevance.")
+    @GetMapping("/search")
+    public List<BookSearchHitDto> searchBooks(
+            @Parameter(description = "Search terms; the last term also matches as a prefix", required = true)
+            @RequestParam("q") String query,
+            @Parameter(description = "Maximum number of results (at most 100)")
+            @RequestParam(defaultValue = "20") int limit) {
+        return bookService.searchBooks(query, limit);
+    }
+
+    @Operation(summary = "Get catalog facets", description = "Counts books by genre, author, publication decade and availability without scanning the catalog.")
+    @GetMapping("/facets")
+    public BookFacetsDto getFacets(
+            @Parameter(description = "Maximum number of genres and authors to return, most common first (at most 100)")
+            @RequestParam(defaultValue = "20") int limit) {
+        return bookService.getFacets(limit);
+    }
+
+    @Operation(summary = "Get available books", description = "Retrieves books currently on the shelf, optionally filtered by genre and publication year, with the total match count.")
+    @GetMapping("/available")
+    public AvailableBooksDto getAvailableBooks(
+            @Parameter(description = "Genre to filter by (case-insensitive)")
+            @RequestParam(required = false) String genre,
+            @Parameter(description = "Earliest publication year, inclusive")
+            @RequestParam(required = false) Integer fromYear,
+            @Parameter(description = "Latest publication year, inclusive")
+            @RequestParam(required = false) Integer toYear,
+            @Parameter(description = "ID of the last book on the previous page")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Number of books per page (at most 100)")
+            @RequestParam(defaultValue = "20") int size) {
+        return bookService.getAvailableBooks(genre, fromYear, toYear, after, size);
+    }
+
+    @Operation(summary = "Get a book by ID", description = "Retrieves details of a specific book by its ID. Supports If-None-Match and If-Modified-Since.")
     @GetMapping("/{id}")
     public ResponseEntity<BookDto> getBookById(
             @Parameter(description = "ID of the book to be retrieved", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest request) {
+        VersionStamp version = bookService.getBookVersion(id);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         return ResponseEntity.ok(bookService.getBookById(id));
     }
 
@@ -43,6 +133,13 @@ public class BookController {
         return ResponseEntity.ok(bookService.createBook(book));
     }
 
+    @Operation(summary = "Import books", description = "Bulk-loads books from an NDJSON or CSV upload. Rows with an ISBN already in the catalog are skipped.")
+    @PostMapping(value = "/import", consumes = {ImportFormat.NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    public ResponseEntity<ImportReportDto> importBooks(HttpServletRequest request) throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(request.getContentType());
+        return ResponseEntity.ok(bulkImportService.importBooks(request.getInputStream(), format));
+    }
+
     @Operation(summary = "Update a book", description = "Updates the details of an existing book.")
     @PutMapping("/{id}")
     public ResponseEntity<BookDto> updateBook(
@@ -1,9 +1,15 @@
 package com.library.librarySystem.controller;
 
 import com.library.librarySystem.contracts.BorrowingRecordService;
+import com.library.librarySystem.dto.BatchLoanRequestDto;
+import com.library.librarySystem.dto.BatchLoanResultDto;
+import com.library.librarySystem.dto.BookLoanDto;
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.PatronLoanDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -41,4 +47,63 @@ public class BorrowingRecordController {
             @PathVariable Long patronId) {
         return ResponseEntity.ok(borrowingService.returnBook(bookId, patronId));
     }
-}
\ No newline at end of file
+
+    @Operation(
+            summary = "Renew a loan",
+            description = "Extends a patron's loan by a full loan period from today, unless other patrons are waiting for the book."
+    )
+    @PutMapping("/renew/{bookId}/patron/{patronId}")
+    public ResponseEntity<String> renewLoan(
+            @Parameter(description = "ID of the borrowed book", required = true)
+            @PathVariable Long bookId,
+            @Parameter(description = "ID of the patron who borrowed the book", required = true)
+            @PathVariable Long patronId) {
+        return ResponseEntity.ok(borrowingService.renewLoan(bookId, patronId));
+    }
+
+    @Operation(
+            summary = "Borrow several books",
+            description = "Checks out a list of books for one patron in a single transaction and reports the outcome for each book."
+    )
+    @PostMapping("/borrow/batch")
+    public ResponseEntity<BatchLoanResultDto> borrowBooks(
+            @Parameter(description = "Patron id and the ids of the books to borrow", required = true)
+            @Valid @RequestBody BatchLoanRequestDto request) {
+        return ResponseEntity.ok(borrowingService.borrowBooks(request.getPatronId(), request.getBookIds()));
+    }
+
+    @Operation(
+            summary = "Return several books",
+            description = "Returns a list of books borrowed by one patron in a single transaction and reports the outcome for each book."
+    )
+    @PutMapping("/return/batch")
+    public ResponseEntity<BatchLoanResultDto> returnBooks(
+            @Parameter(description = "Patron id and the ids of the books being returned", required = true)
+            @Valid @RequestBody BatchLoanRequestDto request) {
+        return ResponseEntity.ok(borrowingService.returnBooks(request.getPatronId(), request.getBookIds()));
+    }
+
+    @Operation(summary = "Get a patron's loan history", description = "Lists the patron's loans, newest first, starting before the given cursor.")
+    @GetMapping("/patrons/{patronId}/loans")
+    public CursorPageDto<PatronLoanDto> getPatronLoans(
+            @Parameter(description = "ID of the patron", required = true)
+            @PathVariable Long patronId,
+            @Parameter(description = "ID of the last loan on the previous page")
+            @RequestParam(required = false) Long before,
+            @Parameter(description = "Number of loans per page (at most 100)")
+            @RequestParam(defaultValue = "20") int size) {
+        return borrowingService.getPatronLoans(patronId, before, size);
+    }
+
+    @Operation(summary = "Get a book's loan history", description = "Lists the book's loans, newest first, starting before the given cursor.")
+    @GetMapping("/books/{bookId}/loans")
+    public CursorPageDto<BookLoanDto> getBookLoans(
+            @Parameter(description = "ID of the book", required = true)
+            @PathVariable Long bookId,
+            @Parameter(description = "ID of the last loan on the previous page")
+            @RequestParam(required = false) Long before,
+            @Parameter(description = "Number of loans per page (at most 100)")
+            @RequestParam(defaultValue = "20") int size) {
+        return borrowingService.getBookLoans(bookId, before, size);
+    }
+}
@@ -0,0 +1,45 @@
+package com.library.librarySystem.controller;
+
+import com.library.librarySystem.circulation.BookCirculation;
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationProjection;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/circulation")
+@RequiredArgsConstructor
+@Tag(name = "Circulation", description = "Endpoints for the circulation event log and the state folded from it")
+public class CirculationController {
+
+    private final CirculationProjection circulationProjection;
+
+    @Operation(summary = "Get a book's circulation state",
+            description = "Returns who has the book out, until when, and who it is kept aside for, as folded from the event log. Books without events are on the shelf.")
+    @GetMapping("/books/{bookId}")
+    public BookCirculation getBook(
+            @Parameter(description = "ID of the book", required = true)
+            @PathVariable Long bookId) {
+        return circulationProjection.get(bookId);
+    }
+
+    @Operation(summary = "Read the circulation event log",
+            description = "Lists events in sequence order after the given sequence, for replaying circulation history.")
+    @GetMapping("/events")
+    public List<CirculationEvent> getEvents(
+            @Parameter(description = "Sequence of the last event already read")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Number of events to return (at most 1000)")
+            @RequestParam(defaultValue = "100") int size) {
+        return circulationProjection.readEvents(after, size);
+    }
+}
@@ -0,0 +1,55 @@
+package com.library.librarySystem.controller;
+
+import com.library.librarySystem.contracts.HoldService;
+import com.library.librarySystem.dto.HoldDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+@Tag(name = "Holds", description = "Endpoints for reserving books that are currently borrowed")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @Operation(
+            summary = "Place a hold",
+            description = "Queues a patron for a borrowed book. When a copy comes back it is kept aside for the first patron in the queue, who can then borrow it until the pickup deadline."
+    )
+    @PostMapping("/{bookId}/patron/{patronId}")
+    public ResponseEntity<HoldDto> placeHold(
+            @Parameter(description = "ID of the book to reserve", required = true)
+            @PathVariable Long bookId,
+            @Parameter(description = "ID of the patron placing the hold", required = true)
+            @PathVariable Long patronId,
+            @Parameter(description = "Queue priority from 0 to 9; higher priorities are served first, equal priorities in arrival order")
+            @RequestParam(defaultValue = "0") int priority) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdService.placeHold(bookId, patronId, priority));
+    }
+
+    @Operation(summary = "Cancel a hold", description = "Withdraws a hold. A copy already kept aside for it moves on to the next patron in the queue.")
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<HoldDto> cancelHold(
+            @Parameter(description = "ID of the hold to cancel", required = true)
+            @PathVariable Long holdId) {
+        return ResponseEntity.ok(holdService.cancelHold(holdId));
+    }
+
+    @Operation(summary = "Get the hold queue of a book", description = "Lists the hold keeping a copy, if any, followed by the waiting holds in the order they will be served.")
+    @GetMapping("/book/{bookId}")
+    public List<HoldDto> getQueue(
+            @Parameter(description = "ID of the book", required = true)
+            @PathVariable Long bookId,
+            @Parameter(description = "Maximum number of holds to return (at most 100)")
+            @RequestParam(defaultValue = "20") int limit) {
+        return holdService.getQueue(bookId, limit);
+    }
+}
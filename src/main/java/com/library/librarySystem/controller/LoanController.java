@@ -0,0 +1,33 @@
+package com.library.librarySystem.controller;
+
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.OverdueLoanDto;
+import com.library.librarySystem.loan.OverdueTracker;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/loans")
+@RequiredArgsConstructor
+@Tag(name = "Loans", description = "Endpoints for monitoring open loans")
+public class LoanController {
+
+    private final OverdueTracker overdueTracker;
+
+    @Operation(summary = "Get overdue loans",
+            description = "Lists open loans past their due date, ordered by loan ID. Served from memory without querying the database.")
+    @GetMapping("/overdue")
+    public CursorPageDto<OverdueLoanDto> getOverdueLoans(
+            @Parameter(description = "ID of the last loan on the previous page")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Number of loans per page (at most 100)")
+            @RequestParam(defaultValue = "20") int size) {
+        return overdueTracker.getOverdueLoans(after, size);
+    }
+}
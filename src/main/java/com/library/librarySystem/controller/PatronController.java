@@ -1,16 +1,23 @@
 package com.library.librarySystem.controller;
 
+import com.library.librarySystem.cache.VersionStamp;
+import com.library.librarySystem.contracts.BulkImportService;
 import com.library.librarySystem.contracts.PatronService;
+import com.library.librarySystem.dto.ImportFormat;
+import com.library.librarySystem.dto.ImportReportDto;
 import com.library.librarySystem.dto.PatronDto;
 import com.library.librarySystem.model.Patron;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -20,18 +27,28 @@ import java.util.List;
 public class PatronController {
 
     private final PatronService patronService;
+    private final BulkImportService bulkImportService;
 
-    @Operation(summary = "Get all patrons", description = "Retrieves a list of all patrons registered in the library.")
+    @Operation(summary = "Get all patrons", description = "Retrieves a list of all patrons registered in the library. Supports If-None-Match and If-Modified-Since.")
     @GetMapping
-    public List<PatronDto> getAllPatrons() {
+    public List<PatronDto> getAllPatrons(WebRequest request) {
+        VersionStamp version = patronService.getPatronsVersion();
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         return patronService.getAllPatrons();
     }
 
-    @Operation(summary = "Get a patron by ID", description = "Retrieves details of a specific patron by their ID.")
+    @Operation(summary = "Get a patron by ID", description = "Retrieves details of a specific patron by their ID. Supports If-None-Match and If-Modified-Since.")
     @GetMapping("/{id}")
     public ResponseEntity<PatronDto> getPatronById(
             @Parameter(description = "ID of the patron to be retrieved", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest request) {
+        VersionStamp version = patronService.getPatronVersion(id);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         return ResponseEntity.ok(patronService.getPatronById(id));
     }
 
@@ -43,6 +60,13 @@ public class PatronController {
         return ResponseEntity.ok(patronService.createPatron(patron));
     }
 
+    @Operation(summary = "Import patrons", description = "Bulk-loads patrons from an NDJSON or CSV upload. Rows with an email already registered are skipped.")
+    @PostMapping(value = "/import", consumes = {ImportFormat.NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    public ResponseEntity<ImportReportDto> importPatrons(HttpServletRequest request) throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(request.getContentType());
+        return ResponseEntity.ok(bulkImportService.importPatrons(request.getInputStream(), format));
+    }
+
     @Operation(summary = "Update a patron", description = "Updates details of an existing patron.")
     @PutMapping("/{id}")
     public ResponseEntity<PatronDto> updatePatron(
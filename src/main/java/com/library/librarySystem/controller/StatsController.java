@@ -0,0 +1,87 @@
+package com.library.librarySystem.controller;
+
+import com.library.librarySystem.auth.PasswordHashing;
+import com.library.librarySystem.auth.PasswordHashingStats;
+import com.library.librarySystem.cache.CacheTierStats;
+import com.library.librarySystem.cache.TwoTierCacheManager;
+import com.library.librarySystem.config.security.TokenCacheStats;
+import com.library.librarySystem.config.security.VerifiedTokenCache;
+import com.library.librarySystem.lock.BookLockManager;
+import com.library.librarySystem.lock.LockStats;
+import com.library.librarySystem.outbox.OutboxRelay;
+import com.library.librarySystem.outbox.OutboxStats;
+import com.library.librarySystem.query.QueryBudgetFilter;
+import com.library.librarySystem.query.QueryBudgetStats;
+import com.library.librarySystem.revocation.RevocationStats;
+import com.library.librarySystem.revocation.RevokedTokens;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@Tag(name = "Stats", description = "Runtime statistics of the library system")
+public class StatsController {
+
+    private final TwoTierCacheManager cacheManager;
+    private final BookLockManager bookLocks;
+    private final OutboxRelay outboxRelay;
+    private final QueryBudgetFilter queryBudget;
+    private final VerifiedTokenCache tokenCache;
+    private final PasswordHashing passwordHashing;
+    private final RevokedTokens revokedTokens;
+
+    @Operation(summary = "Cache statistics", description = "Hit ratios of the local and Redis tiers for every cache.")
+    @GetMapping("/cache")
+    public Map<String, CacheTierStats> getCacheStats() {
+        return cacheManager.stats();
+    }
+
+    @Operation(summary = "Book lock statistics",
+            description = "Wait times and queue depth of the per-book locks that serialize borrowing and returning.")
+    @GetMapping("/locks")
+    public LockStats getLockStats() {
+        return bookLocks.stats();
+    }
+
+    @Operation(summary = "Outbox statistics",
+            description = "Backlog, failed attempts and delivery lag of the relay that passes circulation events on to consumers.")
+    @GetMapping("/outbox")
+    public OutboxStats getOutboxStats() {
+        return outboxRelay.stats();
+    }
+
+    @Operation(summary = "Query budget statistics",
+            description = "Requests that ran more SQL statements than the per-request budget, and the most any request ran.")
+    @GetMapping("/queries")
+    public QueryBudgetStats getQueryStats() {
+        return queryBudget.stats();
+    }
+
+    @Operation(summary = "Verified-token cache statistics",
+            description = "How often a bearer token was served from the cache instead of having its signature verified again.")
+    @GetMapping("/tokens")
+    public TokenCacheStats getTokenCacheStats() {
+        return tokenCache.stats();
+    }
+
+    @Operation(summary = "Password hashing statistics",
+            description = "Load on the bounded pool that hashes passwords for logins and signups, and how many were turned away.")
+    @GetMapping("/hashing")
+    public PasswordHashingStats getPasswordHashingStats() {
+        return passwordHashing.stats();
+    }
+
+    @Operation(summary = "Token revocation statistics",
+            description = "Revoked tokens still in force, and how often the Bloom filter sent a check on to the exact set.")
+    @GetMapping("/revocations")
+    public RevocationStats getRevocationStats() {
+        return revokedTokens.stats();
+    }
+}
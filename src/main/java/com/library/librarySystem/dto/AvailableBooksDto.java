@@ -0,0 +1,19 @@
+package com.library.librarySystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableBooksDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private long total;
+    private List<BookDto> content;
+    private Long nextCursor;
+    private int size;
+}
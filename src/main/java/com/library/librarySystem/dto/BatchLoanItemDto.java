@@ -0,0 +1,28 @@
+package com.library.librarySystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLoanItemDto {
+    private Long bookId;
+    private Outcome outcome;
+    private String message;
+
+    public enum Outcome {
+        BORROWED,
+        RETURNED,
+        NOT_FOUND,
+        UNAVAILABLE,
+        ALREADY_BORROWED,
+        NOT_BORROWED,
+        DUPLICATE;
+
+        public boolean isSuccess() {
+            return this == BORROWED || this == RETURNED;
+        }
+    }
+}
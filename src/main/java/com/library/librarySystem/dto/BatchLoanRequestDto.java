@@ -0,0 +1,24 @@
+package com.library.librarySystem.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLoanRequestDto {
+    public static final int MAX_ITEMS = 50;
+
+    @NotNull(message = "Patron id is required")
+    private Long patronId;
+
+    @NotEmpty(message = "At least one book id is required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " books can be handled in one batch")
+    private List<@NotNull(message = "Book ids cannot be null") Long> bookIds;
+}
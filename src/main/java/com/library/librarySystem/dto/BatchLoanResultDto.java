@@ -0,0 +1,17 @@
+package com.library.librarySystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLoanResultDto {
+    private Long patronId;
+    private int succeeded;
+    private int failed;
+    private List<BatchLoanItemDto> items;
+}
@@ -0,0 +1,21 @@
+package com.library.librarySystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacetsDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private long total;
+    private long available;
+    private long borrowed;
+    private Map<String, Long> genres;
+    private Map<String, Long> authors;
+    private Map<Integer, Long> decades;
+}
@@ -0,0 +1,21 @@
+package com.library.librarySystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLoanDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Long loanId;
+    private Long patronId;
+    private String patronName;
+    private LocalDate borrowDate;
+    private LocalDate dueDate;
+    private boolean returned;
+}
@@ -0,0 +1,17 @@
+package com.library.librarySystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchHitDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Long id;
+    private double score;
+    private BookDto book;
+}
@@ -0,0 +1,18 @@
+package com.library.librarySystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private List<T> content;
+    private Long nextCursor;
+    private int size;
+}
@@ -0,0 +1,23 @@
+package com.library.librarySystem.dto;
+
+import com.library.librarySystem.model.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Long id;
+    private Long bookId;
+    private Long patronId;
+    private int priority;
+    private HoldStatus status;
+    private LocalDateTime placedAt;
+    private LocalDateTime readyUntil;
+}
@@ -0,0 +1,17 @@
+package com.library.librarySystem.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReportDto {
+    private long processed;
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<ImportErrorDto> errors = new ArrayList<>();
+}
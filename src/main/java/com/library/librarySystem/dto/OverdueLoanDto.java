@@ -0,0 +1,20 @@
+package com.library.librarySystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueLoanDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Long loanId;
+    private Long bookId;
+    private Long patronId;
+    private LocalDate dueDate;
+    private long daysOverdue;
+}
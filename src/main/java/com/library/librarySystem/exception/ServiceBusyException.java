@@ -0,0 +1,10 @@
+package com.library.librarySystem.exception;
+
+/**
+ * A bounded resource is saturated and the request was turned away rather than queued. Clients may retry shortly.
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
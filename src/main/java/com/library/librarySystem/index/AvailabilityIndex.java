@@ -0,0 +1,194 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of book ids: one for books on the shelf, one per genre and one per publication year.
+ * Filters are answered by intersecting bitmaps, so counts never touch the database.
+ */
+@Component
+public class AvailabilityIndex implements BookIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Roaring64Bitmap indexed = new Roaring64Bitmap();
+    private final Roaring64Bitmap available = new Roaring64Bitmap();
+    private final Map<String, Roaring64Bitmap> byGenre = new HashMap<>();
+    private final NavigableMap<Integer, Roaring64Bitmap> byYear = new TreeMap<>();
+
+    /**
+     * One page of matching ids together with the total number of matches.
+     */
+    public record Page(long total, List<Long> bookIds) {
+    }
+
+    @Override
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void indexAll(Collection<Book> books) {
+        lock.writeLock().lock();
+        try {
+            books.forEach(this::indexLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            unlinkLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void availabilityChanged(Long bookId, boolean onShelf) {
+        lock.writeLock().lock();
+        try {
+            // a loan that commits after the book was deleted must not bring it back
+            if (!indexed.contains(bookId)) {
+                return;
+            }
+            if (onShelf) {
+                available.addLong(bookId);
+            } else {
+                available.removeLong(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            indexed.clear();
+            available.clear();
+            byGenre.clear();
+            byYear.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts available books matching the filters. Null filters match everything.
+     */
+    public long count(String genre, Integer fromYear, Integer toYear) {
+        lock.readLock().lock();
+        try {
+            if (fromYear == null && toYear == null) {
+                if (genre == null) {
+                    return available.getLongCardinality();
+                }
+                Roaring64Bitmap genreIds = byGenre.get(normalize(genre));
+                return genreIds == null ? 0 : Roaring64Bitmap.andCardinality(available, genreIds);
+            }
+            return selectLocked(genre, fromYear, toYear).getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} available book ids greater than {@code after}, in id order, matching the filters.
+     */
+    public Page page(String genre, Integer fromYear, Integer toYear, long after, int limit) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap selection = selectLocked(genre, fromYear, toYear);
+            List<Long> ids = new ArrayList<>(Math.max(0, limit));
+            PeekableLongIterator iterator = selection.getLongIteratorFrom(after + 1);
+            while (ids.size() < limit && iterator.hasNext()) {
+                ids.add(iterator.next());
+            }
+            return new Page(selection.getLongCardinality(), ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Roaring64Bitmap selectLocked(String genre, Integer fromYear, Integer toYear) {
+        Roaring64Bitmap selection = available.clone();
+        if (genre != null) {
+            Roaring64Bitmap genreIds = byGenre.get(normalize(genre));
+            if (genreIds == null) {
+                return new Roaring64Bitmap();
+            }
+            selection.and(genreIds);
+        }
+        if (fromYear != null || toYear != null) {
+            int from = fromYear == null ? Integer.MIN_VALUE : fromYear;
+            int to = toYear == null ? Integer.MAX_VALUE : toYear;
+            Roaring64Bitmap years = new Roaring64Bitmap();
+            if (from <= to) {
+                byYear.subMap(from, true, to, true).values().forEach(years::or);
+            }
+            selection.and(years);
+        }
+        return selection;
+    }
+
+    private void indexLocked(Book book) {
+        long id = book.getId();
+        unlinkLocked(id);
+        indexed.addLong(id);
+        if (book.isAvailable()) {
+            available.addLong(id);
+        }
+        if (book.getGenre() != null) {
+            byGenre.computeIfAbsent(normalize(book.getGenre()), g -> new Roaring64Bitmap()).addLong(id);
+        }
+        byYear.computeIfAbsent(book.getPublicationYear(), y -> new Roaring64Bitmap()).addLong(id);
+    }
+
+    private void unlinkLocked(long id) {
+        if (!indexed.contains(id)) {
+            return;
+        }
+        indexed.removeLong(id);
+        available.removeLong(id);
+        // genres and years are few compared to books, so sweeping them beats keeping a reverse map per book
+        unlinkFrom(byGenre.values().iterator(), id);
+        unlinkFrom(byYear.values().iterator(), id);
+    }
+
+    private static void unlinkFrom(Iterator<Roaring64Bitmap> bitmaps, long id) {
+        while (bitmaps.hasNext()) {
+            Roaring64Bitmap bitmap = bitmaps.next();
+            bitmap.removeLong(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove();
+            }
+        }
+    }
+
+    private static String normalize(String genre) {
+        return genre.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+
+import java.util.Collection;
+
+/**
+ * In-memory view over the book catalog. Implementations must be safe for concurrent use:
+ * {@link #indexAll} is called from several threads at once while the catalog is rebuilt.
+ */
+public interface BookIndex {
+    void index(Book book);
+
+    void remove(Long bookId);
+
+    void clear();
+
+    default void indexAll(Collection<Book> books) {
+        books.forEach(this::index);
+    }
+
+    /**
+     * Called when a loan flips a book's availability without touching anything else, so indexes that do not
+     * track availability can skip a full re-index.
+     */
+    default void availabilityChanged(Long bookId, boolean available) {
+    }
+}
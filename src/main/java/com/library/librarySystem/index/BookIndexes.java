@@ -0,0 +1,109 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+@Component
+public class BookIndexes {
+    private static final Logger log = LoggerFactory.getLogger(BookIndexes.class);
+    static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final List<BookIndex> indexes;
+    private final BookRepository bookRepository;
+    // non-null while a rebuild runs: changes committed meanwhile are held here and replayed over the rebuilt indexes,
+    // since the pages being indexed may have been read before those changes
+    private List<Consumer<BookIndex>> duringRebuild;
+
+    public BookIndexes(List<BookIndex> indexes, BookRepository bookRepository) {
+        this.indexes = indexes;
+        this.bookRepository = bookRepository;
+    }
+
+    public void indexed(Book book) {
+        AfterCommit.run(() -> apply(index -> index.index(book)));
+    }
+
+    public void removed(Long bookId) {
+        AfterCommit.run(() -> apply(index -> index.remove(bookId)));
+    }
+
+    public void availabilityChanged(Long bookId, boolean available) {
+        AfterCommit.run(() -> apply(index -> index.availabilityChanged(bookId, available)));
+    }
+
+    private void apply(Consumer<BookIndex> change) {
+        synchronized (this) {
+            if (duringRebuild != null) {
+                duringRebuild.add(change);
+                return;
+            }
+        }
+        indexes.forEach(change);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            duringRebuild = new ArrayList<>();
+        }
+        long total;
+        try {
+            total = load();
+        } finally {
+            synchronized (this) {
+                // later changes wait on the lock and apply after the replay, so none lands before an older one
+                duringRebuild.forEach(indexes::forEach);
+                duringRebuild = null;
+            }
+        }
+        log.info("Rebuilt {} book indexes from {} books in {}ms", indexes.size(), total, System.currentTimeMillis() - start);
+    }
+
+    private long load() {
+        indexes.forEach(BookIndex::clear);
+
+        // pages are read sequentially by keyset and indexed in parallel; the semaphore bounds how many
+        // pages wait in memory when indexing falls behind the database
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        long cursor = 0L;
+        long total = 0L;
+        List<Book> page;
+        do {
+            page = bookRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(REBUILD_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<Book> batch = page;
+            inFlight.acquireUninterruptibly();
+            pending.add(CompletableFuture.runAsync(() -> {
+                try {
+                    indexes.forEach(index -> index.indexAll(batch));
+                } finally {
+                    inFlight.release();
+                }
+            }));
+            cursor = page.get(page.size() - 1).getId();
+            total += page.size();
+        } while (page.size() == REBUILD_PAGE_SIZE);
+
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        return total;
+    }
+}
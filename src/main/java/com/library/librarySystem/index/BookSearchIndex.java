@@ -0,0 +1,199 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inverted index over title, author, genre and description, ranked with BM25.
+ * The last query term also matches as a prefix so results show up while the user is typing.
+ */
+@Component
+public class BookSearchIndex implements BookIndex {
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final double PREFIX_WEIGHT = 0.5;
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int GENRE_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "in", "of", "on", "or", "the", "to");
+
+    // a term's posting map is only changed inside postings.compute for that term, which also keeps the sorted term
+    // set in step, so a term is dropped exactly when its last book goes
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final NavigableSet<String> sortedTerms = new ConcurrentSkipListSet<>();
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final AtomicLong totalLength = new AtomicLong();
+
+    public record Hit(Long bookId, double score) {
+    }
+
+    private record Document(Map<String, Integer> termFrequencies, int length) {
+    }
+
+    @Override
+    public void index(Book book) {
+        Document document = analyze(book);
+        documents.compute(book.getId(), (id, previous) -> {
+            if (previous != null) {
+                unlink(id, previous);
+            }
+            document.termFrequencies().forEach((term, tf) -> link(term, id, tf));
+            totalLength.addAndGet(document.length());
+            return document;
+        });
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        documents.computeIfPresent(bookId, (id, previous) -> {
+            unlink(id, previous);
+            return null;
+        });
+    }
+
+    @Override
+    public void clear() {
+        documents.clear();
+        postings.clear();
+        sortedTerms.clear();
+        totalLength.set(0);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public List<Hit> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        int documentCount = documents.size();
+        if (terms.isEmpty() || documentCount == 0 || limit < 1) {
+            return List.of();
+        }
+        double averageLength = Math.max(1.0, (double) totalLength.get() / documentCount);
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            accumulate(scores, postings.get(term), 1.0, documentCount, averageLength);
+            if (i == terms.size() - 1) {
+                int expansions = 0;
+                for (String expansion : sortedTerms.subSet(term, false, term + Character.MAX_VALUE, false)) {
+                    Map<Long, Integer> matches = postings.get(expansion);
+                    // a term being dropped concurrently does not use up an expansion
+                    if (matches == null) {
+                        continue;
+                    }
+                    if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    accumulate(scores, matches, PREFIX_WEIGHT, documentCount, averageLength);
+                }
+            }
+        }
+        return topHits(scores, limit);
+    }
+
+    private void accumulate(Map<Long, Double> scores, Map<Long, Integer> matches, double weight,
+                            int documentCount, double averageLength) {
+        if (matches == null || matches.isEmpty()) {
+            return;
+        }
+        int df = matches.size();
+        double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        matches.forEach((bookId, tf) -> {
+            Document document = documents.get(bookId);
+            if (document == null) {
+                return;
+            }
+            double norm = tf + K1 * (1 - B + B * document.length() / averageLength);
+            scores.merge(bookId, weight * idf * tf * (K1 + 1) / norm, Double::sum);
+        });
+    }
+
+    private List<Hit> topHits(Map<Long, Double> scores, int limit) {
+        Comparator<Hit> byScore = Comparator.comparingDouble(Hit::score).thenComparing(Hit::bookId, Comparator.reverseOrder());
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, byScore);
+        scores.forEach((bookId, score) -> {
+            top.offer(new Hit(bookId, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(byScore.reversed());
+        return hits;
+    }
+
+    private void link(String term, Long bookId, int tf) {
+        postings.compute(term, (t, matches) -> {
+            if (matches == null) {
+                matches = new ConcurrentHashMap<>();
+                sortedTerms.add(t);
+            }
+            matches.put(bookId, tf);
+            return matches;
+        });
+    }
+
+    private void unlink(Long bookId, Document document) {
+        document.termFrequencies().keySet().forEach(term -> postings.computeIfPresent(term, (t, matches) -> {
+            matches.remove(bookId);
+            if (matches.isEmpty()) {
+                sortedTerms.remove(t);
+                return null;
+            }
+            return matches;
+        }));
+        totalLength.addAndGet(-document.length());
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    private Document analyze(Book book) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int length = 0;
+        length += addField(termFrequencies, book.getTitle(), TITLE_WEIGHT);
+        length += addField(termFrequencies, book.getAuthor(), AUTHOR_WEIGHT);
+        length += addField(termFrequencies, book.getGenre(), GENRE_WEIGHT);
+        length += addField(termFrequencies, book.getDescription(), DESCRIPTION_WEIGHT);
+        return new Document(Collections.unmodifiableMap(termFrequencies), length);
+    }
+
+    private int addField(Map<String, Integer> termFrequencies, String text, int weight) {
+        List<String> tokens = tokenize(text);
+        tokens.forEach(token -> termFrequencies.merge(token, weight, Integer::sum));
+        return tokens.size();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
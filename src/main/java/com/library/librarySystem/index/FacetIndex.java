@@ -0,0 +1,162 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * Live counts of books per genre, author, publication decade and availability. Each book's current buckets are
+ * remembered so an update moves it between buckets instead of being counted twice.
+ * <p>
+ * Genres are bucketed case-insensitively, like {@link AvailabilityIndex} does, and shown with the spelling first seen
+ * for the bucket.
+ */
+@Component
+public class FacetIndex implements BookIndex {
+    static final int DECADE = 10;
+
+    private final Map<Long, Facets> books = new ConcurrentHashMap<>();
+    private final Map<String, Long> genres = new ConcurrentHashMap<>();
+    // genre key to display label; a handful of entries, kept until the index is cleared
+    private final Map<String, String> genreLabels = new ConcurrentHashMap<>();
+    private final Map<String, Long> authors = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> decades = new ConcurrentHashMap<>();
+    private final AtomicLong available = new AtomicLong();
+
+    private record Facets(String genre, String author, int decade, boolean available) {
+        static Facets of(Book book) {
+            return new Facets(genreKey(book.getGenre()), label(book.getAuthor()), decadeOf(book.getPublicationYear()),
+                    book.isAvailable());
+        }
+    }
+
+    @Override
+    public void index(Book book) {
+        Facets facets = Facets.of(book);
+        genreLabels.putIfAbsent(facets.genre(), label(book.getGenre()));
+        books.compute(book.getId(), (id, previous) -> {
+            if (previous != null) {
+                count(previous, -1);
+            }
+            count(facets, 1);
+            return facets;
+        });
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        books.computeIfPresent(bookId, (id, previous) -> {
+            count(previous, -1);
+            return null;
+        });
+    }
+
+    @Override
+    public void availabilityChanged(Long bookId, boolean onShelf) {
+        books.computeIfPresent(bookId, (id, previous) -> {
+            if (previous.available() == onShelf) {
+                return previous;
+            }
+            available.addAndGet(onShelf ? 1 : -1);
+            return new Facets(previous.genre(), previous.author(), previous.decade(), onShelf);
+        });
+    }
+
+    @Override
+    public void clear() {
+        books.clear();
+        genres.clear();
+        genreLabels.clear();
+        authors.clear();
+        decades.clear();
+        available.set(0);
+    }
+
+    /**
+     * Drops books the caller no longer knows about. Used by reconciliation after a full scan.
+     */
+    public void retainOnly(LongPredicate exists) {
+        books.keySet().forEach(id -> {
+            if (!exists.test(id)) {
+                remove(id);
+            }
+        });
+    }
+
+    public List<Long> bookIdsAfter(long id) {
+        return books.keySet().stream().filter(bookId -> bookId > id).sorted().toList();
+    }
+
+    public long total() {
+        return books.size();
+    }
+
+    public long available() {
+        return available.get();
+    }
+
+    public Map<String, Long> genres(int limit) {
+        Map<String, Long> labelled = new LinkedHashMap<>();
+        top(genres, limit).forEach((key, count) -> labelled.merge(genreLabels.getOrDefault(key, key), count, Long::sum));
+        return labelled;
+    }
+
+    /**
+     * Counts per genre key, for comparing with the database.
+     */
+    Map<String, Long> genreCounts() {
+        return Map.copyOf(genres);
+    }
+
+    public Map<String, Long> authors(int limit) {
+        return top(authors, limit);
+    }
+
+    public Map<Integer, Long> decades() {
+        return new TreeMap<>(decades);
+    }
+
+    static int decadeOf(int year) {
+        return Math.floorDiv(year, DECADE) * DECADE;
+    }
+
+    static String label(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    static String genreKey(String genre) {
+        return label(genre).toLowerCase(Locale.ROOT);
+    }
+
+    private void count(Facets facets, int delta) {
+        adjust(genres, facets.genre(), delta);
+        adjust(authors, facets.author(), delta);
+        adjust(decades, facets.decade(), delta);
+        if (facets.available()) {
+            available.addAndGet(delta);
+        }
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, int delta) {
+        // a bucket that drops to zero disappears instead of lingering with a count of 0
+        counts.merge(key, (long) delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> top(Map<K, Long> counts, int limit) {
+        Map<K, Long> result = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<K, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.ValueCount;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically compares the facet counters with aggregates computed by the database and repairs them when they
+ * have drifted, e.g. after a write whose after-commit hook never ran.
+ */
+@Component
+public class FacetReconciler {
+    private static final Logger log = LoggerFactory.getLogger(FacetReconciler.class);
+    static final int REPAIR_PAGE_SIZE = 1000;
+
+    private final FacetIndex facetIndex;
+    private final BookRepository bookRepository;
+
+    public FacetReconciler(FacetIndex facetIndex, BookRepository bookRepository) {
+        this.facetIndex = facetIndex;
+        this.bookRepository = bookRepository;
+    }
+
+    @Scheduled(initialDelayString = "${library.facets.reconcile-interval:PT15M}",
+            fixedDelayString = "${library.facets.reconcile-interval:PT15M}")
+    public void reconcile() {
+        String drift = findDrift();
+        if (drift != null) {
+            log.warn("Facet counters drifted from the database ({}), repairing", drift);
+            repair();
+        }
+    }
+
+    /**
+     * Returns a description of the first mismatch, or null when the counters agree with the database.
+     * Author counts are not compared; a group-by over authors costs as much as the repair it would save.
+     */
+    String findDrift() {
+        long total = bookRepository.count();
+        if (total != facetIndex.total()) {
+            return "total " + facetIndex.total() + " != " + total;
+        }
+        long available = bookRepository.countByAvailableTrue();
+        if (available != facetIndex.available()) {
+            return "available " + facetIndex.available() + " != " + available;
+        }
+        Map<String, Long> genres = new HashMap<>();
+        for (ValueCount<String> row : bookRepository.countByGenre()) {
+            genres.merge(FacetIndex.genreKey(row.getValue()), row.getCount(), Long::sum);
+        }
+        if (!genres.equals(facetIndex.genreCounts())) {
+            return "genre counts differ";
+        }
+        Map<Integer, Long> decades = new HashMap<>();
+        for (ValueCount<Integer> row : bookRepository.countByPublicationYear()) {
+            decades.merge(FacetIndex.decadeOf(Objects.requireNonNullElse(row.getValue(), 0)), row.getCount(), Long::sum);
+        }
+        if (!decades.equals(facetIndex.decades())) {
+            return "decade counts differ";
+        }
+        return null;
+    }
+
+    /**
+     * Re-indexes every book in place rather than clearing first, so readers never see half-empty counters
+     * while the scan runs. Writes racing with the scan are corrected by the next run.
+     */
+    void repair() {
+        Roaring64Bitmap seen = new Roaring64Bitmap();
+        long cursor = 0L;
+        List<Book> page;
+        do {
+            page = bookRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(REPAIR_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            facetIndex.indexAll(page);
+            page.forEach(book -> seen.addLong(book.getId()));
+            cursor = page.get(page.size() - 1).getId();
+        } while (page.size() == REPAIR_PAGE_SIZE);
+
+        long lastSeen = cursor;
+        facetIndex.retainOnly(id -> id > lastSeen || seen.contains(id));
+
+        // books above the last scanned id were either created during the scan or deleted before it
+        List<Long> newer = facetIndex.bookIdsAfter(lastSeen);
+        if (!newer.isEmpty()) {
+            Set<Long> existing = bookRepository.findAllById(newer).stream().map(Book::getId).collect(Collectors.toSet());
+            newer.stream().filter(id -> !existing.contains(id)).forEach(facetIndex::remove);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.library.librarySystem.loan;
+
+import com.library.librarySystem.dto.OverdueLoanDto;
+
+import java.util.List;
+
+/**
+ * Published after loans have passed their due date, at most {@link OverdueTracker#EVENT_BATCH_SIZE} loans at a time.
+ */
+public record LoansOverdueEvent(List<OverdueLoanDto> loans) {
+}
@@ -0,0 +1,250 @@
+package com.library.librarySystem.loan;
+
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.OverdueLoanDto;
+import com.library.librarySystem.model.BorrowingRecord;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.OpenLoan;
+import com.library.librarySystem.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps every open loan in memory on a timer wheel keyed by its due date, so late loans are noticed without ever
+ * querying {@code borrowing_records}. Loans become overdue at the start of the day after their due date. The wheel is
+ * fed after commit by borrowing and returning, and rebuilt at startup from the open-loans-by-due-date index.
+ */
+@Component
+public class OverdueTracker {
+    private static final Logger log = LoggerFactory.getLogger(OverdueTracker.class);
+    static final long TICK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    static final int EVENT_BATCH_SIZE = 500;
+    static final int REBUILD_PAGE_SIZE = 1000;
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ApplicationEventPublisher events;
+    private final Period loanPeriod;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final Lock lock = new ReentrantLock();
+    private final TimerWheel wheel = new TimerWheel(tickOf(Instant.now()));
+    private final Map<Long, Loan> loans = new HashMap<>();
+    private final Map<Long, Long> loanByBook = new HashMap<>();
+    // read by the API without taking the lock
+    private final NavigableMap<Long, Loan> overdue = new ConcurrentSkipListMap<>();
+
+    private record Loan(long id, long bookId, long patronId, LocalDate dueDate) {
+    }
+
+    public OverdueTracker(BorrowingRecordRepository borrowingRecordRepository, ApplicationEventPublisher events,
+                          @Value("${library.loans.period:P14D}") Period loanPeriod) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.events = events;
+        this.loanPeriod = loanPeriod;
+    }
+
+    public LocalDate dueDate(LocalDate borrowDate) {
+        return borrowDate.plus(loanPeriod);
+    }
+
+    /**
+     * Starts tracking a saved loan once the surrounding transaction commits.
+     */
+    public void opened(BorrowingRecord record) {
+        if (record.getReturnDate() == null) {
+            return;
+        }
+        Loan loan = new Loan(record.getId(), record.getBook().getId(), record.getPatron().getId(), record.getReturnDate());
+        AfterCommit.run(() -> track(List.of(loan), true));
+    }
+
+    /**
+     * Stops tracking the patron's loan of the book once the surrounding transaction commits. A book is lent to one
+     * patron at a time, and the book's lock is held until then, so the book identifies the loan.
+     */
+    public void closed(Long bookId, Long patronId) {
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                Long loanId = loanByBook.get(bookId);
+                Loan loan = loanId == null ? null : loans.get(loanId);
+                if (loan != null && loan.patronId() == patronId) {
+                    untrackLocked(loan);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.lock();
+        try {
+            wheel.clear(tickOf(Instant.now()));
+            loans.clear();
+            loanByBook.clear();
+            overdue.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        // keyset pages in due-date order straight off idx_borrowing_records_open_by_due
+        List<OpenLoan> page = borrowingRecordRepository.findOpenLoans(Limit.of(REBUILD_PAGE_SIZE));
+        long total = 0L;
+        while (!page.isEmpty()) {
+            track(page.stream()
+                    .map(row -> new Loan(row.getId(), row.getBookId(), row.getPatronId(), row.getDueDate()))
+                    .toList(), false);
+            total += page.size();
+            if (page.size() < REBUILD_PAGE_SIZE) {
+                break;
+            }
+            OpenLoan last = page.get(page.size() - 1);
+            page = borrowingRecordRepository.findOpenLoansAfter(last.getDueDate(), last.getId(), Limit.of(REBUILD_PAGE_SIZE));
+        }
+        log.info("Tracking {} open loans, {} overdue, rebuilt in {}ms", total, overdue.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(initialDelayString = "${library.loans.overdue-check-interval:PT1M}",
+            fixedDelayString = "${library.loans.overdue-check-interval:PT1M}")
+    public void checkOverdue() {
+        advanceTo(Instant.now());
+    }
+
+    /**
+     * Turns the wheel up to {@code now} and publishes the loans that fell due in batches.
+     */
+    void advanceTo(Instant now) {
+        List<Loan> due = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advance(tickOf(now), loanId -> {
+                Loan loan = loans.get(loanId);
+                overdue.put(loanId, loan);
+                due.add(loan);
+            });
+        } finally {
+            lock.unlock();
+        }
+        publish(due, LocalDate.ofInstant(now, zone));
+    }
+
+    public CursorPageDto<OverdueLoanDto> getOverdueLoans(Long after, int size) {
+        int pageSize = size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        LocalDate today = LocalDate.now(zone);
+        List<OverdueLoanDto> content = new ArrayList<>(pageSize);
+        boolean hasNext = false;
+        for (Loan loan : overdue.tailMap(after == null ? 0L : after, false).values()) {
+            if (content.size() == pageSize) {
+                hasNext = true;
+                break;
+            }
+            content.add(toDto(loan, today));
+        }
+        Long nextCursor = hasNext ? content.get(content.size() - 1).getLoanId() : null;
+        return new CursorPageDto<>(content, nextCursor, content.size());
+    }
+
+    public int openCount() {
+        lock.lock();
+        try {
+            return loans.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int overdueCount() {
+        return overdue.size();
+    }
+
+    /**
+     * Schedules the loans on the wheel. Loans that are already late go straight to the overdue set and are announced
+     * only when {@code announce} is set, so a restart does not report them all a second time.
+     */
+    private void track(List<Loan> batch, boolean announce) {
+        List<Loan> alreadyDue = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Loan loan : batch) {
+                Long previous = loanByBook.get(loan.bookId());
+                if (previous != null && previous != loan.id()) {
+                    // the earlier loan's return never reached us
+                    untrackLocked(loans.get(previous));
+                }
+                loanByBook.put(loan.bookId(), loan.id());
+                loans.put(loan.id(), loan);
+                // a renewed loan may no longer be late
+                overdue.remove(loan.id());
+                if (!wheel.schedule(loan.id(), tickOf(overdueFrom(loan.dueDate())))) {
+                    overdue.put(loan.id(), loan);
+                    alreadyDue.add(loan);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (announce) {
+            publish(alreadyDue, LocalDate.now(zone));
+        }
+    }
+
+    private void untrackLocked(Loan loan) {
+        wheel.cancel(loan.id());
+        loans.remove(loan.id());
+        loanByBook.remove(loan.bookId(), loan.id());
+        overdue.remove(loan.id());
+    }
+
+    private void publish(List<Loan> due, LocalDate today) {
+        for (int from = 0; from < due.size(); from += EVENT_BATCH_SIZE) {
+            List<OverdueLoanDto> batch = due.subList(from, Math.min(from + EVENT_BATCH_SIZE, due.size())).stream()
+                    .map(loan -> toDto(loan, today))
+                    .toList();
+            events.publishEvent(new LoansOverdueEvent(batch));
+        }
+        if (!due.isEmpty()) {
+            log.info("{} loans became overdue", due.size());
+        }
+    }
+
+    private Instant overdueFrom(LocalDate dueDate) {
+        return dueDate.plusDays(1).atStartOfDay(zone).toInstant();
+    }
+
+    private static long tickOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), TICK_MILLIS);
+    }
+
+    private static OverdueLoanDto toDto(Loan loan, LocalDate today) {
+        return new OverdueLoanDto(loan.id(), loan.bookId(), loan.patronId(), loan.dueDate(),
+                ChronoUnit.DAYS.between(loan.dueDate(), today));
+    }
+}
@@ -0,0 +1,175 @@
+package com.library.librarySystem.loan;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of ids. Level 0 has one slot per tick and every level above it has slots as wide as the
+ * whole level below, so four levels of 64 slots span 64^4 ticks; anything further out waits in an overflow list.
+ * Scheduling and cancelling are O(1); advancing costs one step per elapsed tick plus one re-insertion each time a
+ * timer cascades down to a finer level. Not thread-safe.
+ */
+final class TimerWheel {
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+    private static final long SLOT_MASK = SLOTS - 1;
+    private static final long SPAN_MASK = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final Node[][] wheel = new Node[LEVELS][SLOTS];
+    private final Node overflow = Node.sentinel();
+    private final Map<Long, Node> timers = new HashMap<>();
+    private long currentTick;
+
+    TimerWheel(long startTick) {
+        for (Node[] level : wheel) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = Node.sentinel();
+            }
+        }
+        currentTick = startTick;
+    }
+
+    /**
+     * Schedules {@code id} to expire when the wheel reaches {@code deadlineTick}, replacing any earlier timer for it.
+     * Returns false, scheduling nothing, when that tick has already been reached.
+     */
+    boolean schedule(long id, long deadlineTick) {
+        cancel(id);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        Node node = new Node(id, deadlineTick);
+        timers.put(id, node);
+        place(node);
+        return true;
+    }
+
+    boolean cancel(long id) {
+        Node node = timers.remove(id);
+        if (node == null) {
+            return false;
+        }
+        node.unlink();
+        return true;
+    }
+
+    boolean contains(long id) {
+        return timers.containsKey(id);
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    void clear(long startTick) {
+        timers.values().forEach(Node::unlink);
+        timers.clear();
+        currentTick = startTick;
+    }
+
+    /**
+     * Moves the wheel forward to {@code toTick}, handing every id whose deadline is reached to {@code expired} in
+     * deadline order, tick by tick.
+     */
+    void advance(long toTick, LongConsumer expired) {
+        while (currentTick < toTick) {
+            if (timers.isEmpty()) {
+                currentTick = toTick;
+                return;
+            }
+            currentTick++;
+            if ((currentTick & SPAN_MASK) == 0) {
+                cascade(overflow, expired);
+            }
+            // coarse levels first, so their timers land in the finer slots that are due at this same tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                long levelMask = (1L << (SLOT_BITS * level)) - 1;
+                if ((currentTick & levelMask) == 0) {
+                    cascade(wheel[level][slotOf(currentTick, level)], expired);
+                }
+            }
+            Node head = wheel[0][slotOf(currentTick, 0)];
+            while (head.next != head) {
+                Node node = head.next;
+                node.unlink();
+                timers.remove(node.id);
+                expired.accept(node.id);
+            }
+        }
+    }
+
+    private void cascade(Node head, LongConsumer expired) {
+        // detach the whole chain first: a timer still out of range goes back into this same list
+        Node node = head.next;
+        head.next = head;
+        head.prev = head;
+        while (node != head) {
+            Node next = node.next;
+            node.prev = node;
+            node.next = node;
+            if (node.deadline <= currentTick) {
+                timers.remove(node.id);
+                expired.accept(node.id);
+            } else {
+                place(node);
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Puts the timer on the finest level whose slots above it agree with the current tick. Its slot there is
+     * reached exactly when every coarser digit of the current tick matches the deadline.
+     */
+    private void place(Node node) {
+        Node head = overflow;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((node.deadline >>> shift) == (currentTick >>> shift)) {
+                head = wheel[level][slotOf(node.deadline, level)];
+                break;
+            }
+        }
+        node.linkBefore(head);
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    private static final class Node {
+        final long id;
+        final long deadline;
+        Node prev = this;
+        Node next = this;
+
+        Node(long id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+
+        static Node sentinel() {
+            return new Node(-1L, Long.MAX_VALUE);
+        }
+
+        void linkBefore(Node head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+        }
+    }
+}
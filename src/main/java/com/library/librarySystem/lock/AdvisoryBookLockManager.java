@@ -0,0 +1,102 @@
+package com.library.librarySystem.lock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book locks shared by every node, backed by PostgreSQL transaction-level advisory locks. Those are released by the
+ * database when the transaction ends, so a crashed node can never leave a book locked.
+ * <p>
+ * Requests first queue in-process on the local stripes, so at most one request per book and node polls the
+ * database. Waits at both levels are reported through the same counters.
+ */
+@Component
+@ConditionalOnProperty(name = "library.locks.backend", havingValue = "advisory")
+public class AdvisoryBookLockManager implements BookLockManager {
+    static final String TRY_LOCK_SQL = "select pg_try_advisory_xact_lock(?)";
+    private static final long MAX_BACKOFF_MILLIS = 50;
+
+    private final StripedBookLockManager local;
+    private final JdbcTemplate jdbcTemplate;
+    private final long waitTimeoutNanos;
+    private final LockMetrics metrics;
+
+    @Autowired
+    public AdvisoryBookLockManager(JdbcTemplate jdbcTemplate,
+                                   @Value("${library.locks.stripes:1024}") int stripes,
+                                   @Value("${library.locks.wait-timeout:PT5S}") Duration waitTimeout) {
+        this(jdbcTemplate, stripes, waitTimeout, new LockMetrics());
+    }
+
+    private AdvisoryBookLockManager(JdbcTemplate jdbcTemplate, int stripes, Duration waitTimeout, LockMetrics metrics) {
+        this.local = new StripedBookLockManager(stripes, waitTimeout, metrics);
+        this.jdbcTemplate = jdbcTemplate;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void lockUntilCompletion(Collection<Long> bookIds) {
+        local.lockUntilCompletion(bookIds);
+        long deadline = System.nanoTime() + waitTimeoutNanos;
+        // ascending order, like the local stripes, so overlapping batches on different nodes cannot deadlock
+        for (Long bookId : new TreeSet<>(bookIds)) {
+            acquire(bookId, deadline);
+        }
+    }
+
+    /**
+     * Takes the local stripes only: advisory locks belong to a transaction, so they are taken once it has begun.
+     */
+    @Override
+    public Runnable lockAhead(Collection<Long> bookIds) {
+        return local.lockAhead(bookIds);
+    }
+
+    @Override
+    public LockStats stats() {
+        return metrics.snapshot("advisory");
+    }
+
+    private void acquire(Long bookId, long deadline) {
+        if (tryLock(bookId)) {
+            return;
+        }
+        long startedAt = metrics.waitStarted();
+        boolean acquired = false;
+        try {
+            long backoff = 1;
+            while (!acquired) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                Thread.sleep(Math.min(backoff, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                acquired = tryLock(bookId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for the lock on book " + bookId, e);
+        } finally {
+            metrics.waitEnded(startedAt, acquired);
+        }
+        if (!acquired) {
+            throw new CannotAcquireLockException("Timed out waiting for the lock on book " + bookId);
+        }
+    }
+
+    private boolean tryLock(Long bookId) {
+        // runs on the transaction's own connection, which is what ties the lock to the transaction
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, bookId));
+    }
+}
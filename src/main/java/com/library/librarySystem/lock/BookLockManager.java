@@ -0,0 +1,26 @@
+package com.library.librarySystem.lock;
+
+import java.util.Collection;
+
+/**
+ * Serializes circulation operations per book. Operations on the same book queue behind each other, operations on
+ * different books do not interact.
+ */
+public interface BookLockManager {
+
+    /**
+     * Locks every listed book for the rest of the current transaction; the locks are released once it commits or
+     * rolls back, so the next waiter always sees the committed state. Throws
+     * {@link org.springframework.dao.CannotAcquireLockException} when the locks cannot be taken in time.
+     */
+    void lockUntilCompletion(Collection<Long> bookIds);
+
+    /**
+     * Takes this node's locks of every listed book ahead of a transaction and returns the action that releases them.
+     * Requests queue here in memory without holding a database connection; taking the same books again with
+     * {@link #lockUntilCompletion} inside the transaction then does not wait on this node.
+     */
+    Runnable lockAhead(Collection<Long> bookIds);
+
+    LockStats stats();
+}
@@ -0,0 +1,49 @@
+package com.library.librarySystem.lock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters shared by the lock backends. Uncontended acquisitions only touch a striped adder.
+ */
+class LockMetrics {
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger maxWaiting = new AtomicInteger();
+
+    void acquiredImmediately() {
+        acquisitions.increment();
+    }
+
+    /**
+     * Marks the start of a wait and returns the timestamp to hand back to {@link #waitEnded}.
+     */
+    long waitStarted() {
+        int depth = waiting.incrementAndGet();
+        maxWaiting.accumulateAndGet(depth, Math::max);
+        return System.nanoTime();
+    }
+
+    void waitEnded(long startedAt, boolean acquired) {
+        long waited = System.nanoTime() - startedAt;
+        waiting.decrementAndGet();
+        contended.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (acquired) {
+            acquisitions.increment();
+        } else {
+            timeouts.increment();
+        }
+    }
+
+    LockStats snapshot(String backend) {
+        return new LockStats(backend, acquisitions.sum(), contended.sum(), timeouts.sum(), totalWaitNanos.sum(),
+                maxWaitNanos.get(), waiting.get(), maxWaiting.get());
+    }
+}
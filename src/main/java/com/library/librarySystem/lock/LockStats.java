@@ -0,0 +1,30 @@
+package com.library.librarySystem.lock;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * @param acquisitions  lock requests that succeeded
+ * @param contended     requests that found a lock taken and had to wait
+ * @param timeouts      requests that gave up waiting
+ * @param waiting       requests waiting right now (queue depth)
+ * @param maxWaiting    highest queue depth seen
+ */
+public record LockStats(String backend, long acquisitions, long contended, long timeouts, long totalWaitNanos,
+                        long maxWaitNanos, int waiting, int maxWaiting) {
+
+    @JsonProperty
+    public double contentionRatio() {
+        long requests = acquisitions + timeouts;
+        return requests == 0 ? 0.0 : (double) contended / requests;
+    }
+
+    @JsonProperty
+    public double averageWaitMillis() {
+        return contended == 0 ? 0.0 : totalWaitNanos / 1e6 / contended;
+    }
+
+    @JsonProperty
+    public double maxWaitMillis() {
+        return maxWaitNanos / 1e6;
+    }
+}
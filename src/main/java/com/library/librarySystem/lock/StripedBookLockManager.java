@@ -0,0 +1,127 @@
+package com.library.librarySystem.lock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process book locks. Books are hashed onto a fixed array of locks, so memory does not grow with the catalogue;
+ * two books sharing a stripe merely queue behind each other. An uncontended lock costs a single compare-and-set.
+ * Stripes are reentrant, so a transaction may lock books its caller already took with {@link #lockAhead}.
+ */
+@Component
+@ConditionalOnProperty(name = "library.locks.backend", havingValue = "local", matchIfMissing = true)
+public class StripedBookLockManager implements BookLockManager {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long waitTimeoutNanos;
+    private final LockMetrics metrics;
+
+    @Autowired
+    public StripedBookLockManager(@Value("${library.locks.stripes:1024}") int stripes,
+                                  @Value("${library.locks.wait-timeout:PT5S}") Duration waitTimeout) {
+        this(stripes, waitTimeout, new LockMetrics());
+    }
+
+    StripedBookLockManager(int stripes, Duration waitTimeout, LockMetrics metrics) {
+        // a power of two lets the stripe be picked with a mask instead of a division
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void lockUntilCompletion(Collection<Long> bookIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Book locks are released when the transaction completes, "
+                    + "so they can only be taken inside one");
+        }
+        Runnable unlock = lock(bookIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock.run();
+            }
+        });
+    }
+
+    @Override
+    public Runnable lockAhead(Collection<Long> bookIds) {
+        return lock(bookIds);
+    }
+
+    @Override
+    public LockStats stats() {
+        return metrics.snapshot("local");
+    }
+
+    /**
+     * Takes the stripes of all listed books and returns the action that releases them. Stripes are always taken in
+     * ascending order, so two batches with overlapping books cannot deadlock.
+     */
+    Runnable lock(Collection<Long> bookIds) {
+        int[] taken = bookIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        long deadline = System.nanoTime() + waitTimeoutNanos;
+        int held = 0;
+        try {
+            for (; held < taken.length; held++) {
+                acquire(stripes[taken[held]], deadline);
+            }
+        } finally {
+            if (held < taken.length) {
+                unlock(taken, held);
+            }
+        }
+        return () -> unlock(taken, taken.length);
+    }
+
+    int stripeOf(Long bookId) {
+        // Fibonacci hashing spreads sequential ids over all stripes
+        return (int) ((bookId * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private void acquire(ReentrantLock lock, long deadline) {
+        if (lock.isHeldByCurrentThread()) {
+            // taken ahead of the transaction already, so this is not a second acquisition
+            lock.lock();
+            return;
+        }
+        if (lock.tryLock()) {
+            metrics.acquiredImmediately();
+            return;
+        }
+        long startedAt = metrics.waitStarted();
+        boolean acquired = false;
+        try {
+            acquired = lock.tryLock(deadline - startedAt, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for a book lock", e);
+        } finally {
+            metrics.waitEnded(startedAt, acquired);
+        }
+        if (!acquired) {
+            throw new CannotAcquireLockException("Timed out waiting for a book lock");
+        }
+    }
+
+    private void unlock(int[] taken, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[taken[i]].unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.library.librarySystem.mapper;
+
+import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.model.Book;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Condition;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface BookMapper {
+    BookDto toDto(Book book);
+
+    /**
+     * Merges an update into an existing book. Null fields, and numeric fields left at 0, keep the current value.
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    void updateEntity(BookDto source, @MappingTarget Book target);
+
+    @Condition
+    default boolean isPresent(int value) {
+        return value != 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.library.librarySystem.mapper;
+
+import com.library.librarySystem.dto.PatronDto;
+import com.library.librarySystem.model.Patron;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface PatronMapper {
+    PatronDto toDto(Patron patron);
+
+    /**
+     * Merges an update into an existing patron. Null fields in the update keep the current value.
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    void updateEntity(PatronDto source, @MappingTarget Patron target);
+}
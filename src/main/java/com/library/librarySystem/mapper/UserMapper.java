@@ -0,0 +1,10 @@
+package com.library.librarySystem.mapper;
+
+import com.library.librarySystem.dto.UserDto;
+import com.library.librarySystem.model.User;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+    UserDto toDto(User user);
+}
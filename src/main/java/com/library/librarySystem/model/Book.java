@@ -11,15 +11,22 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @Entity
 public class Book extends Auditable implements Serializable {
     private static final long serialVersionUID = 1L;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @NotBlank(message = "Title is required")
     @Size(max = 100, message = "Title cannot exceed 100 characters")
     @Column(nullable = false)
@@ -60,7 +67,7 @@ public class Book extends Auditable implements Serializable {
     @Column(name = "page_count", nullable = false)
     private int pageCount;
 
-    @OneToMany(mappedBy = "book", cascade = CascadeType.REMOVE, orphanRemoval = true)
+    @OneToMany(mappedBy = "book")
     @ToString.Exclude
     private List<BorrowingRecord> borrowingRecords;
 
@@ -72,11 +79,13 @@ public class Book extends Auditable implements Serializable {
     @Column(nullable = true, insertable = false)
     private LocalDateTime lastModifiedAt;
 
-    public boolean isCurrentlyBorrowed() {
-        if (borrowingRecords == null) {
-            return false;
-        }
-        return borrowingRecords.stream().anyMatch(record -> !record.isReturned());
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Book other && id != null && id.equals(other.getId());
     }
 
-}
\ No newline at end of file
+    @Override
+    public int hashCode() {
+        return Book.class.hashCode();
+    }
+}
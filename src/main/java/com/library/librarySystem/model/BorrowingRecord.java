@@ -7,27 +7,36 @@ import lombok.*;
 import java.io.Serializable;
 import java.time.LocalDate;
 
+/**
+ * A loan of a book to a patron. The book and patron are loaded lazily; the use cases that need the book itself fetch
+ * it in the same query through the {@value #WITH_BOOK} graph.
+ */
 @Entity
 @Table(name = "borrowing_records")
-@Data
+@NamedEntityGraph(name = BorrowingRecord.WITH_BOOK, attributeNodes = @NamedAttributeNode("book"))
+@Getter
+@Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @ToString
 public class BorrowingRecord extends Auditable implements Serializable {
     private static final long serialVersionUID = 1L;
+    public static final String WITH_BOOK = "BorrowingRecord.withBook";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_records_seq")
+    @SequenceGenerator(name = "borrowing_records_seq", sequenceName = "borrowing_records_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "book_id", nullable = false)
     @NotNull(message = "Book must be selected")
+    @ToString.Exclude
     private Book book;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "patron_id", nullable = false)
     @NotNull(message = "Patron must be selected")
+    @ToString.Exclude
     private Patron patron;
 
     @NotNull(message = "Borrow date is required")
@@ -35,7 +44,7 @@ public class BorrowingRecord extends Auditable implements Serializable {
     @Column(nullable = false)
     private LocalDate borrowDate;
 
-    @FutureOrPresent(message = "Return date cannot be in the past")
+    // the date the loan is due back; it stays in the past once the loan is overdue
     private LocalDate returnDate;
 
     @Column(nullable = false)
@@ -47,4 +56,15 @@ public class BorrowingRecord extends Auditable implements Serializable {
         this.patron = patron;
         this.borrowDate = LocalDate.now();
     }
-}
\ No newline at end of file
+
+    // identity is the id, read through the getter so comparing with a lazy proxy never loads it
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof BorrowingRecord other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return BorrowingRecord.class.hashCode();
+    }
+}
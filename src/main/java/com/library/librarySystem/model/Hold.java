@@ -0,0 +1,72 @@
+package com.library.librarySystem.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A patron's place in the queue for a book. The queue index ({@code idx_holds_queue} in the changelog) orders each
+ * book's waiting holds by priority and then by arrival, so the head of a queue is a single index seek however long
+ * the queue is.
+ */
+@Entity
+@Table(name = "holds")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class Hold extends Auditable implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final int MAX_PRIORITY = 9;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "holds_seq")
+    @SequenceGenerator(name = "holds_seq", sequenceName = "holds_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_id", nullable = false)
+    @NotNull(message = "Book must be selected")
+    @ToString.Exclude
+    private Book book;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "patron_id", nullable = false)
+    @NotNull(message = "Patron must be selected")
+    @ToString.Exclude
+    private Patron patron;
+
+    @Min(value = 0, message = "Priority cannot be negative")
+    @Max(value = MAX_PRIORITY, message = "Priority cannot be greater than " + MAX_PRIORITY)
+    @Column(nullable = false)
+    private int priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private HoldStatus status;
+
+    @Column(name = "ready_until")
+    private LocalDateTime readyUntil;
+
+    public Hold(Book book, Patron patron, int priority) {
+        this.book = book;
+        this.patron = patron;
+        this.priority = priority;
+        this.status = HoldStatus.WAITING;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Hold other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hold.class.hashCode();
+    }
+}
@@ -0,0 +1,15 @@
+package com.library.librarySystem.model;
+
+public enum HoldStatus {
+    /** In the queue for the next copy. */
+    WAITING,
+    /** A returned copy is kept aside for the patron until the pickup deadline. */
+    READY,
+    FULFILLED,
+    CANCELLED,
+    EXPIRED;
+
+    public boolean isActive() {
+        return this == WAITING || this == READY;
+    }
+}
@@ -12,14 +12,16 @@ import java.util.List;
 
 @Entity
 @Table(name = "patrons")
-@Data
+@Getter
+@Setter
 @NoArgsConstructor
 @ToString
 public class Patron extends Auditable implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patrons_seq")
+    @SequenceGenerator(name = "patrons_seq", sequenceName = "patrons_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -40,15 +42,17 @@ public class Patron extends Auditable implements Serializable {
     @Size(max = 255, message = "Address must be at most 255 characters")
     private String address;
 
-    @OneToMany(mappedBy = "patron", cascade = CascadeType.REMOVE, orphanRemoval = true)
+    @OneToMany(mappedBy = "patron")
     @ToString.Exclude
     private List<BorrowingRecord> borrowingRecords;
 
-    public boolean isCurrentlyBorrowed() {
-        if (borrowingRecords == null) {
-            return false;
-        }
-        return borrowingRecords.stream().anyMatch(record -> !record.isReturned());
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Patron other && id != null && id.equals(other.getId());
     }
 
-}
\ No newline at end of file
+    @Override
+    public int hashCode() {
+        return Patron.class.hashCode();
+    }
+}
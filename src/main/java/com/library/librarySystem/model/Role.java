@@ -1,6 +1,13 @@
 package com.library.librarySystem.model;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
 public enum Role {
     USER,
-    ADMIN
-}
\ No newline at end of file
+    ADMIN;
+
+    public GrantedAuthority authority() {
+        return new SimpleGrantedAuthority("ROLE_" + name());
+    }
+}
@@ -27,9 +27,13 @@ public class User extends Auditable implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    // raised to revoke every token issued to the user so far
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of();
+        return role == null ? List.of() : List.of(role.authority());
     }
 
     @Override
@@ -0,0 +1,52 @@
+package com.library.librarySystem.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps the most recently delivered messages in memory, for in-process consumers and for checking the relay.
+ */
+@Component
+@ConditionalOnProperty(name = "library.outbox.sink.memory.enabled", havingValue = "true", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+    private final int capacity;
+    private final Deque<OutboxMessage> recent = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(@Value("${library.outbox.sink.memory.capacity:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            if (recent.size() == capacity) {
+                recent.removeFirst();
+            }
+            recent.addLast(message);
+        }
+    }
+
+    /**
+     * Up to {@code limit} of the latest messages, newest first.
+     */
+    public synchronized List<OutboxMessage> recent(int limit) {
+        List<OutboxMessage> latest = new ArrayList<>(Math.min(limit, recent.size()));
+        Iterator<OutboxMessage> newestFirst = recent.descendingIterator();
+        while (latest.size() < limit && newestFirst.hasNext()) {
+            latest.add(newestFirst.next());
+        }
+        return latest;
+    }
+}
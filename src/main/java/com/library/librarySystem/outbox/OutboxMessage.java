@@ -0,0 +1,14 @@
+package com.library.librarySystem.outbox;
+
+import com.library.librarySystem.circulation.CirculationEvent;
+
+import java.time.Instant;
+
+/**
+ * A circulation event waiting in the outbox. The id is unique and increases with every message of the same book, so
+ * consumers use it to drop the duplicates that at-least-once delivery can produce.
+ *
+ * @param attempts earlier deliveries of this message that failed
+ */
+public record OutboxMessage(long id, CirculationEvent event, Instant createdAt, int attempts) {
+}
@@ -0,0 +1,177 @@
+package com.library.librarySystem.outbox;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox to every {@link OutboxSink} in the background, so borrowing and returning never wait on a
+ * consumer.
+ * <p>
+ * Each batch is split into lanes by book and the lanes are delivered in parallel; a book always maps to the same lane
+ * and a lane delivers its messages in id order, which keeps every book's events in order. Messages are deleted only
+ * after every sink has accepted them. A failed lane is retried with exponential backoff, and the affected books are
+ * held back until it succeeds, while other books keep flowing. Run the relay on one node only: two relays would each
+ * deliver every message.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final OutboxStore store;
+    private final List<OutboxSink> sinks;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int laneCount;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Clock clock;
+    private final ExecutorService lanes;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    @Autowired
+    public OutboxRelay(OutboxStore store, List<OutboxSink> sinks,
+                       @Value("${library.outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${library.outbox.batch-size:200}") int batchSize,
+                       @Value("${library.outbox.lanes:4}") int laneCount,
+                       @Value("${library.outbox.retry-backoff:PT1S}") Duration retryBackoff,
+                       @Value("${library.outbox.max-retry-backoff:PT5M}") Duration maxRetryBackoff) {
+        this(store, sinks, enabled, batchSize, laneCount, retryBackoff, maxRetryBackoff, Clock.systemUTC());
+    }
+
+    OutboxRelay(OutboxStore store, List<OutboxSink> sinks, boolean enabled, int batchSize, int laneCount,
+                Duration retryBackoff, Duration maxRetryBackoff, Clock clock) {
+        this.store = store;
+        this.sinks = List.copyOf(sinks);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.laneCount = laneCount;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.clock = clock;
+        AtomicInteger threads = new AtomicInteger();
+        this.lanes = Executors.newFixedThreadPool(laneCount, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-lane-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(initialDelayString = "${library.outbox.poll-interval:PT1S}",
+            fixedDelayString = "${library.outbox.poll-interval:PT1S}")
+    public void relay() {
+        if (enabled) {
+            drain();
+        }
+    }
+
+    /**
+     * Delivers full batches until the outbox runs dry, or for at most {@link #MAX_BATCHES_PER_RUN} batches so a
+     * large backlog does not hog the scheduler. Returns the number of messages delivered.
+     */
+    int drain() {
+        int total = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            List<OutboxMessage> messages = store.fetchReady(clock.instant(), batchSize);
+            if (messages.isEmpty()) {
+                break;
+            }
+            total += deliver(messages);
+            if (messages.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    public OutboxStats stats() {
+        OutboxStore.Backlog backlog = store.backlog();
+        long oldest = backlog.oldestCreatedAt() == null
+                ? 0L
+                : Math.max(0L, Duration.between(backlog.oldestCreatedAt(), clock.instant()).toMillis());
+        return new OutboxStats(sinks.stream().map(OutboxSink::name).toList(), backlog.pending(), oldest,
+                delivered.get(), failedAttempts.get(), lastLagMillis.get(), maxLagMillis.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.shutdownNow();
+    }
+
+    private int deliver(List<OutboxMessage> messages) {
+        // grouping keeps the id order within each lane
+        Map<Integer, List<OutboxMessage>> byLane = messages.stream().collect(Collectors.groupingBy(
+                message -> Math.floorMod(Long.hashCode(message.event().bookId()), laneCount), TreeMap::new,
+                Collectors.toList()));
+        Map<Integer, Future<?>> results = new TreeMap<>();
+        byLane.forEach((lane, laneMessages) -> results.put(lane, lanes.submit(() -> {
+            for (OutboxSink sink : sinks) {
+                sink.deliver(laneMessages);
+            }
+            return null;
+        })));
+
+        List<Long> done = new ArrayList<>(messages.size());
+        long lag = 0L;
+        Instant now = clock.instant();
+        for (Map.Entry<Integer, Future<?>> result : results.entrySet()) {
+            List<OutboxMessage> laneMessages = byLane.get(result.getKey());
+            try {
+                result.getValue().get();
+                for (OutboxMessage message : laneMessages) {
+                    done.add(message.id());
+                    lag = Math.max(lag, Duration.between(message.createdAt(), now).toMillis());
+                }
+            } catch (ExecutionException e) {
+                retryLater(laneMessages, e.getCause(), now);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                retryLater(laneMessages, e, now);
+            }
+        }
+
+        store.delete(done);
+        if (!done.isEmpty()) {
+            delivered.addAndGet(done.size());
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+        return done.size();
+    }
+
+    private void retryLater(List<OutboxMessage> messages, Throwable error, Instant now) {
+        int attempts = messages.stream().mapToInt(OutboxMessage::attempts).max().orElse(0);
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts, 20));
+        if (backoff.compareTo(maxRetryBackoff) > 0) {
+            backoff = maxRetryBackoff;
+        }
+        failedAttempts.incrementAndGet();
+        log.warn("Delivering {} outbox messages failed (attempt {}), retrying in {}: {}", messages.size(), attempts + 1,
+                backoff, error.toString());
+        store.retryLater(messages.stream().map(OutboxMessage::id).toList(), now.plus(backoff), error.toString());
+    }
+}
@@ -0,0 +1,17 @@
+package com.library.librarySystem.outbox;
+
+import java.util.List;
+
+/**
+ * A destination the {@link OutboxRelay} delivers circulation events to.
+ * <p>
+ * A batch holds the messages of some books in id order. Throwing fails the whole batch: it is delivered again later,
+ * to every sink, so sinks see messages at least once and must tolerate repeats. Batches for different books may be
+ * delivered concurrently.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void deliver(List<OutboxMessage> messages) throws Exception;
+}
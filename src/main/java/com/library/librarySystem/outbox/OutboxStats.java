@@ -0,0 +1,14 @@
+package com.library.librarySystem.outbox;
+
+import java.util.List;
+
+/**
+ * Progress of the outbox relay. Lag is the time from a message being written to it reaching every sink.
+ *
+ * @param oldestPendingMillis age of the oldest undelivered message, 0 when none is waiting
+ * @param lastLagMillis       the largest lag in the most recent delivered batch
+ * @param maxLagMillis        the largest lag seen since startup
+ */
+public record OutboxStats(List<String> sinks, long pending, long oldestPendingMillis, long delivered,
+                          long failedAttempts, long lastLagMillis, long maxLagMillis) {
+}
@@ -0,0 +1,118 @@
+package com.library.librarySystem.outbox;
+
+import com.library.librarySystem.circulation.CirculationEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@code outbox_messages} table. Messages are inserted by the transaction that made the change, so they exist
+ * exactly when the change committed, and deleted once every sink has taken them.
+ */
+@Component
+public class OutboxStore {
+    static final String INSERT_SQL = "insert into outbox_messages "
+            + "(book_id, type, patron_id, due_date, occurred_at, event_sequence, created_at, available_at, attempts) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    // a book with a message backing off is skipped entirely, so its later messages cannot overtake it
+    static final String FETCH_SQL = "select m.id, m.book_id, m.type, m.patron_id, m.due_date, m.occurred_at, "
+            + "m.event_sequence, m.created_at, m.attempts from outbox_messages m "
+            + "where not exists (select 1 from outbox_messages w where w.book_id = m.book_id and w.available_at > ?) "
+            + "order by m.id limit ?";
+
+    private static final RowMapper<OutboxMessage> MESSAGE = (rs, rowNum) -> {
+        Date dueDate = rs.getDate("due_date");
+        Long sequence = rs.getObject("event_sequence", Long.class);
+        CirculationEvent event = new CirculationEvent(sequence == null ? 0L : sequence,
+                CirculationEvent.Type.valueOf(rs.getString("type")), rs.getLong("book_id"),
+                rs.getObject("patron_id", Long.class), dueDate == null ? null : dueDate.toLocalDate(),
+                rs.getTimestamp("occurred_at").toInstant());
+        return new OutboxMessage(rs.getLong("id"), event, rs.getTimestamp("created_at").toInstant(), rs.getInt("attempts"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Queues the events through the caller's connection, so they commit or roll back with the caller's transaction.
+     * Events not yet sequenced by the circulation log are stored without a sequence.
+     */
+    public void enqueue(List<CirculationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.bookId());
+            ps.setString(2, event.type().name());
+            if (event.patronId() == null) {
+                ps.setNull(3, Types.BIGINT);
+            } else {
+                ps.setLong(3, event.patronId());
+            }
+            ps.setDate(4, event.dueDate() == null ? null : Date.valueOf(event.dueDate()));
+            ps.setTimestamp(5, Timestamp.from(event.occurredAt()));
+            if (event.sequence() == 0L) {
+                ps.setNull(6, Types.BIGINT);
+            } else {
+                ps.setLong(6, event.sequence());
+            }
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+    }
+
+    /**
+     * The oldest messages that may be delivered at {@code now}, in id order.
+     */
+    public List<OutboxMessage> fetchReady(Instant now, int limit) {
+        return jdbcTemplate.query(FETCH_SQL, MESSAGE, Timestamp.from(now), limit);
+    }
+
+    public void delete(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            jdbcTemplate.batchUpdate("delete from outbox_messages where id = ?", ids, ids.size(),
+                    (ps, id) -> ps.setLong(1, id));
+        }
+    }
+
+    /**
+     * Holds the messages back until {@code availableAt}, counting a failed attempt and keeping the error for operators.
+     */
+    public void retryLater(Collection<Long> ids, Instant availableAt, String error) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Timestamp at = Timestamp.from(availableAt);
+        String truncated = error == null ? null : error.substring(0, Math.min(error.length(), 500));
+        jdbcTemplate.batchUpdate("update outbox_messages set attempts = attempts + 1, available_at = ?, last_error = ? "
+                + "where id = ?", ids, ids.size(), (ps, id) -> {
+            ps.setTimestamp(1, at);
+            ps.setString(2, truncated);
+            ps.setLong(3, id);
+        });
+    }
+
+    /**
+     * How many messages wait and when the oldest of them was written.
+     */
+    public Backlog backlog() {
+        return jdbcTemplate.queryForObject("select count(*), min(created_at) from outbox_messages", (rs, rowNum) -> {
+            Timestamp oldest = rs.getTimestamp(2);
+            return new Backlog(rs.getLong(1), oldest == null ? null : oldest.toInstant());
+        });
+    }
+
+    public record Backlog(long pending, Instant oldestCreatedAt) {
+    }
+}
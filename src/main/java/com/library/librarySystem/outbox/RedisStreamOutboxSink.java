@@ -0,0 +1,61 @@
+package com.library.librarySystem.outbox;
+
+import com.library.librarySystem.circulation.CirculationEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes every message to a Redis stream, standing in for a message broker: consumer groups read it with
+ * {@code XREADGROUP} and acknowledge what they have processed. The stream is trimmed to roughly
+ * {@code max-length} entries.
+ */
+@Component
+@ConditionalOnProperty(name = "library.outbox.sink.redis.enabled", havingValue = "true")
+public class RedisStreamOutboxSink implements OutboxSink {
+    private final StringRedisTemplate redisTemplate;
+    private final String stream;
+    private final long maxLength;
+
+    public RedisStreamOutboxSink(StringRedisTemplate redisTemplate,
+                                 @Value("${library.outbox.sink.redis.stream:library:circulation}") String stream,
+                                 @Value("${library.outbox.sink.redis.max-length:100000}") long maxLength) {
+        this.redisTemplate = redisTemplate;
+        this.stream = stream;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String name() {
+        return "redis";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            redisTemplate.opsForStream().add(stream, fields(message));
+        }
+        redisTemplate.opsForStream().trim(stream, maxLength, true);
+    }
+
+    static Map<String, String> fields(OutboxMessage message) {
+        CirculationEvent event = message.event();
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("id", Long.toString(message.id()));
+        fields.put("type", event.type().name());
+        fields.put("bookId", Long.toString(event.bookId()));
+        if (event.patronId() != null) {
+            fields.put("patronId", event.patronId().toString());
+        }
+        if (event.dueDate() != null) {
+            fields.put("dueDate", event.dueDate().toString());
+        }
+        fields.put("occurredAt", event.occurredAt().toString());
+        return fields;
+    }
+}
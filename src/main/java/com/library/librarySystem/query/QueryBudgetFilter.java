@@ -0,0 +1,62 @@
+package com.library.librarySystem.query;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the statements each request runs and logs a warning for every request over the budget, which is usually an
+ * association loaded once per row of a list. Runs ahead of the security filters so the user lookup is counted too.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    private final int budget;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+    private final AtomicLong maxStatements = new AtomicLong();
+    private final AtomicReference<String> lastOverBudget = new AtomicReference<>();
+
+    public QueryBudgetFilter(@Value("${library.queries.budget:20}") int budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        QueryCounter.Scope scope = QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            record(request.getMethod() + " " + request.getRequestURI(), scope.count());
+        }
+    }
+
+    void record(String request, long statements) {
+        requests.increment();
+        maxStatements.accumulateAndGet(statements, Math::max);
+        if (statements > budget) {
+            overBudget.increment();
+            lastOverBudget.set(request);
+            log.warn("{} ran {} SQL statements, over the budget of {}", request, statements, budget);
+        }
+    }
+
+    public QueryBudgetStats stats() {
+        return new QueryBudgetStats(budget, requests.sum(), overBudget.sum(), maxStatements.get(), lastOverBudget.get());
+    }
+}
@@ -0,0 +1,11 @@
+package com.library.librarySystem.query;
+
+/**
+ * @param budget             statements a single request may run before it is reported
+ * @param requests           requests counted since startup
+ * @param overBudget         requests that ran more statements than the budget
+ * @param maxStatements      most statements run by a single request
+ * @param lastOverBudget     method and path of the latest request over the budget, or null
+ */
+public record QueryBudgetStats(int budget, long requests, long overBudget, long maxStatements, String lastOverBudget) {
+}
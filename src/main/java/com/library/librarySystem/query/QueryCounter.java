@@ -0,0 +1,41 @@
+package com.library.librarySystem.query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread. Registered with
+ * {@code hibernate.session_factory.statement_inspector}, so it sees every entity load, lazy initialization, query and
+ * flush, but not statements issued through {@code JdbcTemplate}.
+ */
+public class QueryCounter implements StatementInspector {
+    // only ever touched by its own thread, so a plain array is enough
+    private static final ThreadLocal<long[]> EXECUTED = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        EXECUTED.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Starts counting the statements run by the calling thread from now on. Scopes can be nested.
+     */
+    public static Scope start() {
+        return new Scope(EXECUTED.get()[0]);
+    }
+
+    public static final class Scope {
+        private final long startedAt;
+
+        private Scope(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Statements run by this thread since the scope started.
+         */
+        public long count() {
+            return EXECUTED.get()[0] - startedAt;
+        }
+    }
+}
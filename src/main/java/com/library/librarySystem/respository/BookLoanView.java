@@ -0,0 +1,20 @@
+package com.library.librarySystem.respository;
+
+import java.time.LocalDate;
+
+/**
+ * One loan in a book's history, with only the patron's name read from the patron.
+ */
+public interface BookLoanView {
+    Long getId();
+
+    Long getPatronId();
+
+    String getPatronName();
+
+    LocalDate getBorrowDate();
+
+    LocalDate getDueDate();
+
+    boolean isReturned();
+}
@@ -1,12 +1,55 @@
 package com.library.librarySystem.respository;
 
 import com.library.librarySystem.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
     Boolean existsByIsbn(String isbn);
-}
\ No newline at end of file
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAllBy();
+
+    long countByAvailableTrue();
+
+    /**
+     * Takes the book off the shelf if, and only if, it is still on it. Returns the number of rows changed, so
+     * 0 means someone else borrowed it first (or it does not exist).
+     */
+    @Modifying
+    @Query("update Book b set b.available = false, b.version = b.version + 1, b.lastModifiedAt = :now "
+            + "where b.id = :id and b.available = true")
+    int markBorrowed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update Book b set b.available = true, b.version = b.version + 1, b.lastModifiedAt = :now "
+            + "where b.id = :id and b.available = false")
+    int markReturned(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("select b.genre as value, count(b) as count from Book b group by b.genre")
+    List<ValueCount<String>> countByGenre();
+
+    @Query("select b.publicationYear as value, count(b) as count from Book b group by b.publicationYear")
+    List<ValueCount<Integer>> countByPublicationYear();
+}
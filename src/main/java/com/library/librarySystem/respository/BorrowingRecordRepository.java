@@ -1,12 +1,80 @@
 package com.library.librarySystem.respository;
 
 import com.library.librarySystem.model.BorrowingRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord, Long> {
     Optional<BorrowingRecord> findByBookIdAndPatronIdAndReturnedFalse(Long bookId, Long patronId);
-}
\ No newline at end of file
+
+    boolean existsByBookIdAndReturnedFalse(Long bookId);
+
+    @Query("select r.book.id from BorrowingRecord r "
+            + "where r.patron.id = :patronId and r.book.id in :bookIds and r.returned = false")
+    Set<Long> findBorrowedBookIds(@Param("patronId") Long patronId, @Param("bookIds") Collection<Long> bookIds);
+
+    @EntityGraph(BorrowingRecord.WITH_BOOK)
+    @Query("select r from BorrowingRecord r "
+            + "where r.patron.id = :patronId and r.book.id in :bookIds and r.returned = false")
+    List<BorrowingRecord> findActiveWithBook(@Param("patronId") Long patronId, @Param("bookIds") Collection<Long> bookIds);
+
+    @Modifying
+    @Query("update BorrowingRecord r set r.returned = true, r.lastModifiedAt = :now "
+            + "where r.book.id = :bookId and r.patron.id = :patronId and r.returned = false")
+    int markReturned(@Param("bookId") Long bookId, @Param("patronId") Long patronId, @Param("now") LocalDateTime now);
+
+    boolean existsByPatronIdAndReturnedFalse(Long patronId);
+
+    @Query("select r.book.id from BorrowingRecord r where r.patron.id = :patronId and r.returned = false")
+    Set<Long> findBorrowedBookIdsByPatronId(@Param("patronId") Long patronId);
+
+    @Query("select r.id as id, r.book.id as bookId, r.patron.id as patronId, r.returnDate as dueDate "
+            + "from BorrowingRecord r where r.returned = false and r.returnDate is not null "
+            + "order by r.returnDate, r.id")
+    List<OpenLoan> findOpenLoans(Limit limit);
+
+    @Query("select r.id as id, r.book.id as bookId, r.patron.id as patronId, r.returnDate as dueDate "
+            + "from BorrowingRecord r where r.returned = false "
+            + "and (r.returnDate > :dueDate or (r.returnDate = :dueDate and r.id > :id)) "
+            + "order by r.returnDate, r.id")
+    List<OpenLoan> findOpenLoansAfter(@Param("dueDate") LocalDate dueDate, @Param("id") Long id, Limit limit);
+
+    /**
+     * A page of the patron's loans, newest first, with ids below {@code before}. Reads the loan row and the book's
+     * title only; no entity is loaded.
+     */
+    @Query("select r.id as id, b.id as bookId, b.title as title, r.borrowDate as borrowDate, "
+            + "r.returnDate as dueDate, r.returned as returned "
+            + "from BorrowingRecord r join r.book b where r.patron.id = :patronId and r.id < :before order by r.id desc")
+    List<PatronLoanView> findPatronHistory(@Param("patronId") Long patronId, @Param("before") Long before, Limit limit);
+
+    /**
+     * A page of the book's loans, newest first, with ids below {@code before}. Reads the loan row and the patron's
+     * name only; no entity is loaded.
+     */
+    @Query("select r.id as id, p.id as patronId, p.name as patronName, r.borrowDate as borrowDate, "
+            + "r.returnDate as dueDate, r.returned as returned "
+            + "from BorrowingRecord r join r.patron p where r.book.id = :bookId and r.id < :before order by r.id desc")
+    List<BookLoanView> findBookHistory(@Param("bookId") Long bookId, @Param("before") Long before, Limit limit);
+
+    @Modifying
+    @Query("delete from BorrowingRecord r where r.book.id = :bookId")
+    int deleteAllByBookId(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query("delete from BorrowingRecord r where r.patron.id = :patronId")
+    int deleteAllByPatronId(@Param("patronId") Long patronId);
+}
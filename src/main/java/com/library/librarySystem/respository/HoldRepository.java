@@ -0,0 +1,71 @@
+package com.library.librarySystem.respository;
+
+import com.library.librarySystem.model.Hold;
+import com.library.librarySystem.model.HoldStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    /**
+     * The head of a book's queue: highest priority first, first come first served within a priority.
+     */
+    Optional<Hold> findFirstByBookIdAndStatusOrderByPriorityDescIdAsc(Long bookId, HoldStatus status);
+
+    List<Hold> findByBookIdAndStatusOrderByPriorityDescIdAsc(Long bookId, HoldStatus status, Limit limit);
+
+    boolean existsByBookIdAndPatronIdAndStatusIn(Long bookId, Long patronId, Collection<HoldStatus> statuses);
+
+    @Query("select h.book.id from Hold h where h.id = :id")
+    Optional<Long> findBookIdById(@Param("id") Long id);
+
+    @Query("select distinct h.book.id from Hold h "
+            + "where h.book.id in :bookIds and h.status = com.library.librarySystem.model.HoldStatus.WAITING")
+    Set<Long> findBookIdsWithWaitingHolds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select h.book.id from Hold h where h.patron.id = :patronId and h.book.id in :bookIds "
+            + "and h.status = com.library.librarySystem.model.HoldStatus.READY and h.readyUntil >= :now")
+    Set<Long> findCollectableBookIds(@Param("patronId") Long patronId, @Param("bookIds") Collection<Long> bookIds,
+                                     @Param("now") LocalDateTime now);
+
+    @Query("select h.book.id from Hold h "
+            + "where h.patron.id = :patronId and h.status = com.library.librarySystem.model.HoldStatus.READY")
+    List<Long> findReadyBookIdsByPatronId(@Param("patronId") Long patronId);
+
+    @Query("select h.book.id from Hold h where h.patron.id = :patronId and h.status in :statuses")
+    Set<Long> findBookIdsByPatronIdAndStatusIn(@Param("patronId") Long patronId,
+                                               @Param("statuses") Collection<HoldStatus> statuses);
+
+    @Query("select h.id from Hold h where h.status = com.library.librarySystem.model.HoldStatus.READY "
+            + "and h.readyUntil < :now order by h.readyUntil")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Hands the copy kept aside for this patron over as a loan, provided the pickup deadline has not passed.
+     */
+    @Modifying
+    @Query("update Hold h set h.status = com.library.librarySystem.model.HoldStatus.FULFILLED, h.lastModifiedAt = :now "
+            + "where h.book.id in :bookIds and h.patron.id = :patronId "
+            + "and h.status = com.library.librarySystem.model.HoldStatus.READY and h.readyUntil >= :now")
+    int markCollected(@Param("bookIds") Collection<Long> bookIds, @Param("patronId") Long patronId,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from Hold h where h.book.id = :bookId")
+    int deleteAllByBookId(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query("delete from Hold h where h.patron.id = :patronId")
+    int deleteAllByPatronId(@Param("patronId") Long patronId);
+}
@@ -0,0 +1,16 @@
+package com.library.librarySystem.respository;
+
+import java.time.LocalDate;
+
+/**
+ * An open loan reduced to what the overdue tracker keeps in memory.
+ */
+public interface OpenLoan {
+    Long getId();
+
+    Long getBookId();
+
+    Long getPatronId();
+
+    LocalDate getDueDate();
+}
@@ -0,0 +1,20 @@
+package com.library.librarySystem.respository;
+
+import java.time.LocalDate;
+
+/**
+ * One loan in a patron's history, with only the book's title read from the book.
+ */
+public interface PatronLoanView {
+    Long getId();
+
+    Long getBookId();
+
+    String getTitle();
+
+    LocalDate getBorrowDate();
+
+    LocalDate getDueDate();
+
+    boolean isReturned();
+}
@@ -1,11 +1,16 @@
 package com.library.librarySystem.respository;
 
-import com.library.librarySystem.model.Book;
 import com.library.librarySystem.model.Patron;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.Set;
 
 public interface PatronRepository extends JpaRepository<Patron, Long> {
     Boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("select p.email from Patron p where p.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+}
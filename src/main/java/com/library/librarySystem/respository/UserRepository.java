@@ -2,8 +2,25 @@ package com.library.librarySystem.respository;
 
 import com.library.librarySystem.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    /**
+     * Token versions of the users who have revoked their tokens at least once. Everyone else is at version 0, so
+     * the result stays small however many users there are.
+     */
+    @Query("select u.username as username, u.tokenVersion as version from User u where u.tokenVersion > 0")
+    List<UserVersion> findRaisedTokenVersions();
+
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1, u.lastModifiedAt = :now where u.username = :username")
+    int raiseTokenVersion(@Param("username") String username, @Param("now") LocalDateTime now);
+}
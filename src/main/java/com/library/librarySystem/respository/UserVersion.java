@@ -0,0 +1,7 @@
+package com.library.librarySystem.respository;
+
+public interface UserVersion {
+    String getUsername();
+
+    int getVersion();
+}
@@ -0,0 +1,10 @@
+package com.library.librarySystem.respository;
+
+/**
+ * Row of a {@code group by} query: one distinct value and how many rows share it.
+ */
+public interface ValueCount<T> {
+    T getValue();
+
+    long getCount();
+}
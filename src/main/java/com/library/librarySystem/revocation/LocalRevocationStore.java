@@ -0,0 +1,28 @@
+package com.library.librarySystem.revocation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps revocations in this process only, for single-node deployments and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "security.jwt.revocation.backend", havingValue = "local", matchIfMissing = true)
+public class LocalRevocationStore implements RevocationStore {
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(String tokenId, Instant expiresAt) {
+        revoked.put(tokenId, expiresAt);
+    }
+
+    @Override
+    public Map<String, Instant> load(Instant now) {
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        return Map.copyOf(revoked);
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.librarySystem.revocation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shares revocations through a Redis sorted set of token ids scored by their expiry in epoch milliseconds, so
+ * expired entries are trimmed with a single range removal.
+ */
+@Component
+@ConditionalOnProperty(name = "security.jwt.revocation.backend", havingValue = "redis")
+public class RedisRevocationStore implements RevocationStore {
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+
+    public RedisRevocationStore(StringRedisTemplate redisTemplate,
+                                @Value("${security.jwt.revocation.redis.key:auth:revoked-tokens}") String key) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+    }
+
+    @Override
+    public void add(String tokenId, Instant expiresAt) {
+        redisTemplate.opsForZSet().add(key, tokenId, expiresAt.toEpochMilli());
+    }
+
+    @Override
+    public Map<String, Instant> load(Instant now) {
+        long nowMillis = now.toEpochMilli();
+        redisTemplate.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, nowMillis);
+        Set<TypedTuple<String>> entries = redisTemplate.opsForZSet()
+                .rangeByScoreWithScores(key, nowMillis, Double.POSITIVE_INFINITY);
+        Map<String, Instant> revoked = new HashMap<>();
+        if (entries != null) {
+            for (TypedTuple<String> entry : entries) {
+                revoked.put(entry.getValue(), Instant.ofEpochMilli(entry.getScore().longValue()));
+            }
+        }
+        return revoked;
+    }
+}
@@ -0,0 +1,13 @@
+package com.library.librarySystem.revocation;
+
+/**
+ * @param revoked        token ids currently revoked and not yet expired
+ * @param checks         tokens checked against the revocation list
+ * @param filterHits     checks the Bloom filter could not rule out, each of which consulted the exact set
+ * @param falsePositives filter hits for tokens that turned out not to be revoked
+ * @param filterCapacity entries the current filter was sized for; it is rebuilt larger once exceeded
+ * @param unshared       revocations the store failed to take, refused on this node only until a refresh retries them
+ */
+public record RevocationStats(int revoked, long checks, long filterHits, long falsePositives, int filterCapacity,
+                              int unshared) {
+}
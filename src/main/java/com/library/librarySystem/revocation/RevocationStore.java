@@ -0,0 +1,18 @@
+package com.library.librarySystem.revocation;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Where revoked token ids are kept so every node sees them. Each entry is dropped once the token it covers has
+ * expired, since an expired token is refused anyway.
+ */
+public interface RevocationStore {
+
+    void add(String tokenId, Instant expiresAt);
+
+    /**
+     * Removes the entries that have expired by {@code now} and returns the rest, keyed by token id.
+     */
+    Map<String, Instant> load(Instant now);
+}
@@ -0,0 +1,158 @@
+package com.library.librarySystem.revocation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ids of individually revoked tokens, checked on every authenticated request. A Bloom filter answers for almost
+ * every token in a few memory reads; only the tokens it cannot rule out, the revoked ones plus about
+ * {@code security.jwt.revocation.false-positive-rate} of the rest, are looked up in the exact set.
+ * <p>
+ * Revocations are written to the {@link RevocationStore} and the list is rebuilt from it every
+ * {@code security.jwt.revocation.refresh-interval}, dropping entries whose tokens have expired. A token revoked on
+ * this node is refused here at once; other nodes refuse it from their next rebuild. A revocation the store fails to
+ * take is still refused here, and offered to the store again on every refresh until it goes through or expires.
+ */
+@Component
+public class RevokedTokens {
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokens.class);
+    static final int MINIMUM_CAPACITY = 1024;
+
+    private final RevocationStore store;
+    private final double falsePositiveRate;
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    // revocations the store has not taken yet, retried on refresh
+    private final Map<String, Instant> unshared = new ConcurrentHashMap<>();
+    // replaced on every rebuild and added to in place in between; null until the first load
+    private volatile Snapshot current;
+
+    public RevokedTokens(RevocationStore store,
+                         @Value("${security.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.store = store;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Whether the token with this id has been revoked. Tokens issued before tokens carried an id are never in the
+     * list; they can only be revoked along with the rest of their user's tokens.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Snapshot snapshot = snapshot();
+        checks.increment();
+        if (!snapshot.filter().mightContain(tokenId)) {
+            return false;
+        }
+        filterHits.increment();
+        if (!snapshot.revoked().containsKey(tokenId)) {
+            falsePositives.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Revokes a single token until it expires. This node refuses it from now on; the store passes it on to the others,
+     * and if it cannot be reached the revocation is queued for the next refresh rather than failing the caller.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        synchronized (this) {
+            Snapshot snapshot = snapshot();
+            // the exact set first, so a filter hit always finds the entry
+            snapshot.revoked().put(tokenId, expiresAt);
+            snapshot.filter().add(tokenId);
+            if (snapshot.revoked().size() > snapshot.filter().capacity()) {
+                current = build(snapshot.revoked());
+            }
+        }
+        share(tokenId, expiresAt);
+    }
+
+    @Scheduled(initialDelayString = "${security.jwt.revocation.refresh-interval:PT10S}",
+            fixedDelayString = "${security.jwt.revocation.refresh-interval:PT10S}")
+    public void refresh() {
+        Instant now = Instant.now();
+        retryUnshared(now);
+        Map<String, Instant> shared;
+        try {
+            shared = store.load(now);
+        } catch (RuntimeException e) {
+            log.warn("Could not load revoked tokens, keeping the local list until the next refresh", e);
+            shared = Map.of();
+        }
+        synchronized (this) {
+            Map<String, Instant> revoked = new HashMap<>(shared);
+            if (current != null) {
+                // keeps revocations made here while the load was in flight, and any the store failed to take
+                current.revoked().forEach((tokenId, expiresAt) -> {
+                    if (expiresAt.isAfter(now)) {
+                        revoked.putIfAbsent(tokenId, expiresAt);
+                    }
+                });
+            }
+            current = build(revoked);
+        }
+    }
+
+    public RevocationStats stats() {
+        Snapshot snapshot = snapshot();
+        return new RevocationStats(snapshot.revoked().size(), checks.sum(), filterHits.sum(), falsePositives.sum(),
+                snapshot.filter().capacity(), unshared.size());
+    }
+
+    private boolean share(String tokenId, Instant expiresAt) {
+        try {
+            store.add(tokenId, expiresAt);
+            unshared.remove(tokenId);
+            return true;
+        } catch (RuntimeException e) {
+            if (unshared.put(tokenId, expiresAt) == null) {
+                log.warn("Could not share the revocation of token {}, other nodes accept it until the store takes it",
+                        tokenId, e);
+            }
+            return false;
+        }
+    }
+
+    private void retryUnshared(Instant now) {
+        unshared.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        for (Map.Entry<String, Instant> entry : unshared.entrySet()) {
+            // the store is most likely still down, so the rest wait for the next refresh
+            if (!share(entry.getKey(), entry.getValue())) {
+                return;
+            }
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            refresh();
+            snapshot = current;
+        }
+        return snapshot;
+    }
+
+    private Snapshot build(Map<String, Instant> revoked) {
+        // sized with room to spare, so revocations until the next rebuild keep the false-positive rate down
+        BloomFilter filter = BloomFilter.forCapacity(Math.max(MINIMUM_CAPACITY, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(filter::add);
+        return new Snapshot(filter, new ConcurrentHashMap<>(revoked));
+    }
+
+    private record Snapshot(BloomFilter filter, Map<String, Instant> revoked) {
+    }
+}
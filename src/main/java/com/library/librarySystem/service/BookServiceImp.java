@@ -1,77 +1,229 @@
 package com.library.librarySystem.service;
 
+import com.library.librarySystem.aop.LocksBooks;
+import com.library.librarySystem.aop.RetryOnConflict;
+import com.library.librarySystem.cache.ListViewCache;
+import com.library.librarySystem.cache.VersionStamp;
+import com.library.librarySystem.cache.VersionStamps;
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationRecorder;
 import com.library.librarySystem.contracts.BookService;
+import com.library.librarySystem.dto.AvailableBooksDto;
 import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.dto.BookFacetsDto;
+import com.library.librarySystem.dto.BookSearchHitDto;
+import com.library.librarySystem.dto.CursorPageDto;
 import com.library.librarySystem.exception.DuplicateEntryException;
 import com.library.librarySystem.exception.ResourceNotFoundException;
+import com.library.librarySystem.index.AvailabilityIndex;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.index.BookSearchIndex;
+import com.library.librarySystem.index.FacetIndex;
+import com.library.librarySystem.lock.BookLockManager;
+import com.library.librarySystem.mapper.BookMapper;
 import com.library.librarySystem.model.Book;
 import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.HoldRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
 @AllArgsConstructor
 public class BookServiceImp implements BookService {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
 
     private final BookRepository bookRepository;
-    private final ModelMapper modelMapper;
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final BookMapper bookMapper;
+    private final EntityManager entityManager;
+    private final BookIndexes bookIndexes;
+    private final BookSearchIndex bookSearchIndex;
+    private final AvailabilityIndex availabilityIndex;
+    private final FacetIndex facetIndex;
+    private final ListViewCache<BookDto> bookListView;
+    private final VersionStamps bookVersions;
+    private final HoldRepository holdRepository;
+    private final CirculationRecorder circulation;
+    private final BookLockManager bookLocks;
 
-    @Cacheable(value = "books")
     public List<BookDto> getAllBooks() {
-        return bookRepository.findAll().stream().map(this::convertToDto).collect(Collectors.toList());
+        return bookListView.read(this::loadBooks, () -> toDtosById(bookRepository.findAll(Sort.by("id"))));
+    }
+
+    public VersionStamp getBooksVersion() {
+        return bookVersions.collection();
+    }
+
+    public CursorPageDto<BookDto> getBooksPage(Long after, int size) {
+        int pageSize = size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        long cursor = after == null ? 0L : after;
+
+        // one extra row tells us whether another page follows without a count query
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize + 1));
+        boolean hasNext = books.size() > pageSize;
+        List<Book> page = hasNext ? books.subList(0, pageSize) : books;
+
+        Long nextCursor = hasNext ? page.get(page.size() - 1).getId() : null;
+        return new CursorPageDto<>(page.stream().map(this::convertToDto).collect(Collectors.toList()), nextCursor, page.size());
+    }
+
+    @Transactional
+    public void streamAllBooks(Consumer<BookDto> consumer) {
+        try (Stream<Book> books = bookRepository.streamAllBy()) {
+            books.forEach(book -> {
+                consumer.accept(convertToDto(book));
+                // keep the persistence context from growing with the catalog
+                entityManager.detach(book);
+            });
+        }
+    }
+
+    public List<BookSearchHitDto> searchBooks(String query, int limit) {
+        int maxHits = limit < 1 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        List<BookSearchIndex.Hit> hits = bookSearchIndex.search(query, maxHits);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Book> books = bookRepository.findAllById(hits.stream().map(BookSearchIndex.Hit::bookId).toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        // keep the index ranking; hits whose book vanished since indexing are dropped
+        return hits.stream()
+                .filter(hit -> books.containsKey(hit.bookId()))
+                .map(hit -> new BookSearchHitDto(hit.bookId(), hit.score(), convertToDto(books.get(hit.bookId()))))
+                .collect(Collectors.toList());
+    }
+
+    public BookFacetsDto getFacets(int limit) {
+        int maxValues = limit < 1 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        long total = facetIndex.total();
+        long available = facetIndex.available();
+        return new BookFacetsDto(total, available, total - available,
+                facetIndex.genres(maxValues), facetIndex.authors(maxValues), facetIndex.decades());
+    }
+
+    public AvailableBooksDto getAvailableBooks(String genre, Integer fromYear, Integer toYear, Long after, int size) {
+        int pageSize = size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        AvailabilityIndex.Page page = availabilityIndex.page(genre, fromYear, toYear, after == null ? 0L : after, pageSize + 1);
+        boolean hasNext = page.bookIds().size() > pageSize;
+        List<Long> ids = hasNext ? page.bookIds().subList(0, pageSize) : page.bookIds();
+        if (ids.isEmpty()) {
+            return new AvailableBooksDto(page.total(), List.of(), null, 0);
+        }
+
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        // the index is updated after commit, so re-check rows that changed in between
+        List<BookDto> content = ids.stream()
+                .map(books::get)
+                .filter(book -> book != null && book.isAvailable())
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        Long nextCursor = hasNext ? ids.get(ids.size() - 1) : null;
+        return new AvailableBooksDto(page.total(), content, nextCursor, content.size());
     }
 
     @Cacheable(value = "book", key = "#id")
     public BookDto getBookById(Long id) {
-        return modelMapper.map(bookRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + id)), BookDto.class);
+        return bookMapper.toDto(bookRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + id)));
+    }
+
+    public VersionStamp getBookVersion(Long id) {
+        return bookVersions.get(id, () -> {
+            Book book = bookRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + id));
+            return bookVersions.stamp(convertToDto(book),
+                    book.getLastModifiedAt() != null ? book.getLastModifiedAt() : book.getCreatedAt());
+        });
     }
 
     @Transactional
-    @CacheEvict(value = "books", allEntries = true)
     public BookDto createBook(Book book) {
         if (bookRepository.existsByIsbn(book.getIsbn())) {
             throw new DuplicateEntryException("A book with ISBN " + book.getIsbn() + " already exists.");
         }
-        return modelMapper.map(bookRepository.save(book), BookDto.class);
+        Book savedBook = bookRepository.save(book);
+        BookDto bookDto = bookMapper.toDto(savedBook);
+        bookIndexes.indexed(savedBook);
+        bookListView.added(savedBook.getId(), bookDto);
+        bookVersions.changed(savedBook.getId(), bookDto);
+        return bookDto;
     }
 
+    @RetryOnConflict
     @Transactional
     @CachePut(value = "book", key = "#id")
     public BookDto updateBook(Long id, BookDto updateBook) {
         Book updatedBook = bookRepository.findById(id)
                 .map(existingBook -> {
-                    modelMapper.map(updateBook, existingBook);
+                    bookMapper.updateEntity(updateBook, existingBook);
                     return bookRepository.save(existingBook);
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + id));
+        bookIndexes.indexed(updatedBook);
+        BookDto bookDto = convertToDto(updatedBook);
+        bookVersions.changed(id, bookDto);
 
-        return convertToDto(updatedBook);
+        return bookDto;
     }
 
+    @LocksBooks("bookId")
     @Transactional
-    @CacheEvict(value = {"books", "book"}, key = "#bookId")
+    @CacheEvict(value = "book", key = "#bookId")
     public void deleteBook(Long bookId) {
+        // no borrow, return or hold may commit between the loan check and the delete
+        bookLocks.lockUntilCompletion(List.of(bookId));
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
 
-        if (book.isCurrentlyBorrowed()) {
+        if (borrowingRecordRepository.existsByBookIdAndReturnedFalse(bookId)) {
             throw new IllegalStateException("Cannot delete book with active borrowing records.");
         }
-        bookRepository.deleteById(bookId);
+        // one set-based statement, however long the loan history is
+        borrowingRecordRepository.deleteAllByBookId(bookId);
+        holdRepository.deleteAllByBookId(bookId);
+        bookRepository.delete(book);
+        // the rows are gone, but the book's loans stay in the circulation log
+        circulation.record(CirculationEvent.Type.WITHDRAWN, bookId, null, null);
+        bookIndexes.removed(bookId);
+        bookListView.removed(bookId);
+        bookVersions.removed(bookId);
+    }
+
+    private Map<Long, BookDto> loadBooks(Collection<Long> ids) {
+        return toDtosById(bookRepository.findAllById(ids));
+    }
+
+    private Map<Long, BookDto> toDtosById(List<Book> books) {
+        Map<Long, BookDto> dtos = new LinkedHashMap<>();
+        books.forEach(book -> dtos.put(book.getId(), convertToDto(book)));
+        return dtos;
     }
 
     private BookDto convertToDto(Book book) {
-        return modelMapper.map(book, BookDto.class);
+        return bookMapper.toDto(book);
     }
 
 }
\ No newline at end of file
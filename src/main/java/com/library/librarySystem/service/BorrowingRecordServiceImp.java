@@ -1,65 +1,308 @@
 package com.library.librarySystem.service;
 
+import com.library.librarySystem.aop.LocksBooks;
+import com.library.librarySystem.aop.RetryOnConflict;
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationRecorder;
 import com.library.librarySystem.contracts.BorrowingRecordService;
+import com.library.librarySystem.dto.BatchLoanItemDto;
+import com.library.librarySystem.dto.BatchLoanItemDto.Outcome;
+import com.library.librarySystem.dto.BatchLoanResultDto;
+import com.library.librarySystem.dto.BookLoanDto;
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.PatronLoanDto;
 import com.library.librarySystem.exception.DuplicateEntryException;
 import com.library.librarySystem.exception.ResourceNotFoundException;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.loan.OverdueTracker;
+import com.library.librarySystem.lock.BookLockManager;
 import com.library.librarySystem.model.Book;
 import com.library.librarySystem.model.BorrowingRecord;
 import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.respository.BookLoanView;
 import com.library.librarySystem.respository.BookRepository;
 import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.HoldRepository;
+import com.library.librarySystem.respository.PatronLoanView;
 import com.library.librarySystem.respository.PatronRepository;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class BorrowingRecordServiceImp implements BorrowingRecordService {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final BorrowingRecordRepository borrowingRecordRepository;
     private final BookRepository bookRepository;
     private final PatronRepository patronRepository;
+    private final BookIndexes bookIndexes;
+    private final BookLockManager bookLocks;
+    private final HoldRepository holdRepository;
+    private final HoldQueue holdQueue;
+    private final OverdueTracker overdueTracker;
+    private final CirculationRecorder circulation;
 
+    @RetryOnConflict
+    @LocksBooks("bookId")
     @Transactional(rollbackOn = DuplicateEntryException.class)
     public String borrowBook(Long bookId, Long patronId){
-        Book book = bookRepository.findById(bookId).orElseThrow(() -> new ResourceNotFoundException("Book not found"));
-        Patron patron = patronRepository.findById(patronId).orElseThrow(() -> new ResourceNotFoundException("Patron not found"));
-
-        if(!book.isAvailable()){
-            throw new DuplicateEntryException("Book with id: " + bookId + " is already borrowed");
+        if (!patronRepository.existsById(patronId)) {
+            throw new ResourceNotFoundException("Patron not found");
         }
 
-        Optional<BorrowingRecord> borrowingRecord = borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(bookId, patronId);
-        if (borrowingRecord.isPresent()) {
-            throw new IllegalStateException("Patron with id: " + patronId + " already has borrowed this book");
+        // competing requests for this book queue in memory ahead of the transaction, not on the row lock
+        bookLocks.lockUntilCompletion(List.of(bookId));
+        LocalDateTime now = LocalDateTime.now();
+        // the availability check and the state change are one statement, so two borrowers cannot both win
+        boolean fromShelf = bookRepository.markBorrowed(bookId, now) == 1;
+        // a copy kept aside for this patron is collected rather than taken from the shelf
+        if (!fromShelf && holdRepository.markCollected(List.of(bookId), patronId, now) == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new ResourceNotFoundException("Book not found");
+            }
+            if (borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(bookId, patronId).isPresent()) {
+                throw new IllegalStateException("Patron with id: " + patronId + " already has borrowed this book");
+            }
+            throw new DuplicateEntryException("Book with id: " + bookId + " is already borrowed");
         }
 
-        BorrowingRecord record = new BorrowingRecord(book, patron, false);
-
+        BorrowingRecord record = new BorrowingRecord(bookRepository.getReferenceById(bookId),
+                patronRepository.getReferenceById(patronId), false);
+        record.setReturnDate(overdueTracker.dueDate(record.getBorrowDate()));
         borrowingRecordRepository.save(record);
-        book.setAvailable(false);
-        bookRepository.save(book);
+        overdueTracker.opened(record);
+        circulation.record(CirculationEvent.Type.BORROWED, bookId, patronId, record.getReturnDate());
+        if (fromShelf) {
+            bookIndexes.availabilityChanged(bookId, false);
+        }
 
         return "Book with ID " + bookId + " successfully borrowed by Patron ID " + patronId;
     }
 
+    @RetryOnConflict
+    @LocksBooks("bookId")
     @Transactional
     public String returnBook(Long bookId, Long patronId) {
+        bookLocks.lockUntilCompletion(List.of(bookId));
+        LocalDateTime now = LocalDateTime.now();
+        if (borrowingRecordRepository.markReturned(bookId, patronId, now) == 0) {
+            throw new ResourceNotFoundException("No active borrowing record found for this book and patron.");
+        }
+        circulation.record(CirculationEvent.Type.RETURNED, bookId, patronId, null);
+
+        // the copy goes to the head of the hold queue, if there is one, and only otherwise back on the shelf
+        holdQueue.release(bookId, now);
+        overdueTracker.closed(bookId, patronId);
+
+        return "Book with ID " + bookId + " successfully returned by Patron ID " + patronId;
+    }
+
+    /**
+     * Extends an open loan by a full loan period from today. Loans of books that other patrons are queuing for are
+     * not renewed, so the copy goes to them when it comes back.
+     */
+    @RetryOnConflict
+    @LocksBooks("bookId")
+    @Transactional
+    public String renewLoan(Long bookId, Long patronId) {
+        bookLocks.lockUntilCompletion(List.of(bookId));
         BorrowingRecord record = borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(bookId, patronId)
                 .orElseThrow(() -> new ResourceNotFoundException("No active borrowing record found for this book and patron."));
+        if (!holdRepository.findBookIdsWithWaitingHolds(List.of(bookId)).isEmpty()) {
+            throw new IllegalStateException("Book with id: " + bookId + " has holds waiting and cannot be renewed");
+        }
 
-        record.setReturned(true);
-        borrowingRecordRepository.save(record);
+        LocalDate dueDate = overdueTracker.dueDate(LocalDate.now());
+        if (record.getReturnDate() == null || dueDate.isAfter(record.getReturnDate())) {
+            record.setReturnDate(dueDate);
+            overdueTracker.opened(record);
+            circulation.record(CirculationEvent.Type.RENEWED, bookId, patronId, dueDate);
+        }
+
+        return "Loan of book with ID " + bookId + " by Patron ID " + patronId + " is due on " + record.getReturnDate();
+    }
 
-        if (bookRepository.existsById(bookId)) {
-            Book book = record.getBook();
-            book.setAvailable(true);
-            bookRepository.saveAndFlush(book);
+    /**
+     * Checks out several books for one patron in a single transaction. Everything is loaded with a few set queries and
+     * validated before anything is written; books that cannot be lent are reported per item and do not stop the rest.
+     */
+    @RetryOnConflict
+    @LocksBooks("bookIds")
+    @Transactional
+    public BatchLoanResultDto borrowBooks(Long patronId, List<Long> bookIds) {
+        if (!patronRepository.existsById(patronId)) {
+            throw new ResourceNotFoundException("Patron not found");
         }
 
-        return "Book with ID " + bookId + " successfully returned by Patron ID " + patronId;
+        Set<Long> requested = new LinkedHashSet<>(bookIds);
+        bookLocks.lockUntilCompletion(requested);
+        Map<Long, Book> books = bookRepository.findAllById(requested).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Set<Long> unavailable = books.values().stream()
+                .filter(book -> !book.isAvailable())
+                .map(Book::getId)
+                .collect(Collectors.toSet());
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> heldByPatron = unavailable.isEmpty()
+                ? Set.of()
+                : borrowingRecordRepository.findBorrowedBookIds(patronId, unavailable);
+        Set<Long> keptForPatron = unavailable.isEmpty()
+                ? Set.of()
+                : holdRepository.findCollectableBookIds(patronId, unavailable, now);
+
+        Patron patron = patronRepository.getReferenceById(patronId);
+        List<BatchLoanItemDto> items = new ArrayList<>(bookIds.size());
+        List<BorrowingRecord> records = new ArrayList<>();
+        List<Long> fromShelf = new ArrayList<>();
+        List<Long> collected = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Long bookId : bookIds) {
+            Book book = books.get(bookId);
+            if (!seen.add(bookId)) {
+                items.add(new BatchLoanItemDto(bookId, Outcome.DUPLICATE, "Book with id: " + bookId + " is listed more than once"));
+            } else if (book == null) {
+                items.add(new BatchLoanItemDto(bookId, Outcome.NOT_FOUND, "Book not found"));
+            } else if (heldByPatron.contains(bookId)) {
+                items.add(new BatchLoanItemDto(bookId, Outcome.ALREADY_BORROWED, "Patron with id: " + patronId + " already has borrowed this book"));
+            } else if (!book.isAvailable() && !keptForPatron.contains(bookId)) {
+                items.add(new BatchLoanItemDto(bookId, Outcome.UNAVAILABLE, "Book with id: " + bookId + " is already borrowed"));
+            } else {
+                if (book.isAvailable()) {
+                    book.setAvailable(false);
+                    fromShelf.add(bookId);
+                } else {
+                    collected.add(bookId);
+                }
+                BorrowingRecord record = new BorrowingRecord(book, patron, false);
+                record.setReturnDate(overdueTracker.dueDate(record.getBorrowDate()));
+                records.add(record);
+                items.add(new BatchLoanItemDto(bookId, Outcome.BORROWED, "Book with ID " + bookId + " successfully borrowed by Patron ID " + patronId));
+            }
+        }
+
+        borrowingRecordRepository.saveAll(records);
+        records.forEach(record -> {
+            overdueTracker.opened(record);
+            circulation.record(CirculationEvent.Type.BORROWED, record.getBook().getId(), patronId, record.getReturnDate());
+        });
+        if (!collected.isEmpty()) {
+            holdRepository.markCollected(collected, patronId, now);
+        }
+        // flushing here turns a version clash on any book into a retry of the whole batch rather than a failed commit
+        borrowingRecordRepository.flush();
+        fromShelf.forEach(bookId -> bookIndexes.availabilityChanged(bookId, false));
+
+        return result(patronId, items);
+    }
+
+    /**
+     * Returns several books for one patron in a single transaction, with one query for all active loans.
+     */
+    @RetryOnConflict
+    @LocksBooks("bookIds")
+    @Transactional
+    public BatchLoanResultDto returnBooks(Long patronId, List<Long> bookIds) {
+        if (!patronRepository.existsById(patronId)) {
+            throw new ResourceNotFoundException("Patron not found");
+        }
+
+        Set<Long> requested = new LinkedHashSet<>(bookIds);
+        bookLocks.lockUntilCompletion(requested);
+        Map<Long, BorrowingRecord> active = borrowingRecordRepository.findActiveWithBook(patronId, requested).stream()
+                .collect(Collectors.toMap(record -> record.getBook().getId(), Function.identity(), (first, second) -> first));
+        Set<Long> queued = active.isEmpty() ? Set.of() : holdRepository.findBookIdsWithWaitingHolds(active.keySet());
+        LocalDateTime now = LocalDateTime.now();
+
+        List<BatchLoanItemDto> items = new ArrayList<>(bookIds.size());
+        List<Long> shelved = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Long bookId : bookIds) {
+            BorrowingRecord record = active.get(bookId);
+            if (!seen.add(bookId)) {
+                items.add(new BatchLoanItemDto(bookId, Outcome.DUPLICATE, "Book with id: " + bookId + " is listed more than once"));
+            } else if (record == null) {
+                items.add(new BatchLoanItemDto(bookId, Outcome.NOT_BORROWED, "No active borrowing record found for this book and patron."));
+            } else {
+                record.setReturned(true);
+                circulation.record(CirculationEvent.Type.RETURNED, bookId, patronId, null);
+                if (queued.contains(bookId)) {
+                    holdQueue.handOff(bookId, now);
+                } else {
+                    record.getBook().setAvailable(true);
+                    shelved.add(bookId);
+                }
+                overdueTracker.closed(bookId, patronId);
+                items.add(new BatchLoanItemDto(bookId, Outcome.RETURNED, "Book with ID " + bookId + " successfully returned by Patron ID " + patronId));
+            }
+        }
+
+        borrowingRecordRepository.flush();
+        shelved.forEach(bookId -> bookIndexes.availabilityChanged(bookId, true));
+
+        return result(patronId, items);
+    }
+
+    /**
+     * Pages a patron's loans newest first by loan id, so every page is one seek on the patron history index
+     * however many loans come before it.
+     */
+    public CursorPageDto<PatronLoanDto> getPatronLoans(Long patronId, Long before, int size) {
+        if (!patronRepository.existsById(patronId)) {
+            throw new ResourceNotFoundException("Patron not found");
+        }
+        int pageSize = pageSize(size);
+        List<PatronLoanView> rows = borrowingRecordRepository.findPatronHistory(patronId, cursor(before), Limit.of(pageSize + 1));
+        return page(rows, pageSize, PatronLoanView::getId, row -> new PatronLoanDto(row.getId(), row.getBookId(),
+                row.getTitle(), row.getBorrowDate(), row.getDueDate(), row.isReturned()));
+    }
+
+    /**
+     * Pages a book's loans newest first by loan id, the same way as {@link #getPatronLoans}.
+     */
+    public CursorPageDto<BookLoanDto> getBookLoans(Long bookId, Long before, int size) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResourceNotFoundException("Book not found");
+        }
+        int pageSize = pageSize(size);
+        List<BookLoanView> rows = borrowingRecordRepository.findBookHistory(bookId, cursor(before), Limit.of(pageSize + 1));
+        return page(rows, pageSize, BookLoanView::getId, row -> new BookLoanDto(row.getId(), row.getPatronId(),
+                row.getPatronName(), row.getBorrowDate(), row.getDueDate(), row.isReturned()));
+    }
+
+    private static int pageSize(int size) {
+        return size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static long cursor(Long before) {
+        return before == null ? Long.MAX_VALUE : before;
+    }
+
+    private static <V, D> CursorPageDto<D> page(List<V> rows, int pageSize, Function<V, Long> id, Function<V, D> toDto) {
+        // one extra row tells us whether another page follows without a count query
+        boolean hasNext = rows.size() > pageSize;
+        List<V> page = hasNext ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasNext ? id.apply(page.get(page.size() - 1)) : null;
+        return new CursorPageDto<>(page.stream().map(toDto).toList(), nextCursor, page.size());
+    }
+
+    private static BatchLoanResultDto result(Long patronId, List<BatchLoanItemDto> items) {
+        int succeeded = (int) items.stream().filter(item -> item.getOutcome().isSuccess()).count();
+        return new BatchLoanResultDto(patronId, succeeded, items.size() - succeeded, items);
     }
 
-}
\ No newline at end of file
+}
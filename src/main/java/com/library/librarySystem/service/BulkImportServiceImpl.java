@@ -0,0 +1,214 @@
+package com.library.librarySystem.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.library.librarySystem.cache.ListViewCache;
+import com.library.librarySystem.cache.VersionStamps;
+import com.library.librarySystem.contracts.BulkImportService;
+import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.dto.ImportErrorDto;
+import com.library.librarySystem.dto.ImportFormat;
+import com.library.librarySystem.dto.ImportReportDto;
+import com.library.librarySystem.dto.PatronDto;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.PatronRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@AllArgsConstructor
+public class BulkImportServiceImpl implements BulkImportService {
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 100;
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final BookRepository bookRepository;
+    private final PatronRepository patronRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final BookIndexes bookIndexes;
+    private final ListViewCache<BookDto> bookListView;
+    private final ListViewCache<PatronDto> patronListView;
+    private final VersionStamps bookVersions;
+    private final VersionStamps patronVersions;
+    private final ObjectMapper jsonMapper;
+
+    public ImportReportDto importBooks(InputStream input, ImportFormat format) throws IOException {
+        ImportReportDto report = runImport(input, format, Book.class, Book::getIsbn, bookRepository::findExistingIsbns,
+                book -> {
+                    book.setId(null);
+                    book.setVersion(null);
+                    book.setBorrowingRecords(null);
+                },
+                books -> transactionTemplate.executeWithoutResult(status -> {
+                    bookRepository.saveAll(books);
+                    entityManager.flush();
+                    books.forEach(bookIndexes::indexed);
+                    entityManager.clear();
+                }));
+        if (report.getImported() > 0) {
+            bookListView.invalidate();
+            bookVersions.collectionChanged();
+        }
+        return report;
+    }
+
+    public ImportReportDto importPatrons(InputStream input, ImportFormat format) throws IOException {
+        ImportReportDto report = runImport(input, format, Patron.class, Patron::getEmail, patronRepository::findExistingEmails,
+                patron -> {
+                    patron.setId(null);
+                    patron.setBorrowingRecords(null);
+                },
+                patrons -> transactionTemplate.executeWithoutResult(status -> {
+                    patronRepository.saveAll(patrons);
+                    entityManager.flush();
+                    entityManager.clear();
+                }));
+        if (report.getImported() > 0) {
+            patronListView.invalidate();
+            patronVersions.collectionChanged();
+        }
+        return report;
+    }
+
+    /**
+     * Streams rows from the upload, validating each one and writing them in chunks. Each chunk costs one query to
+     * find keys that already exist and one transaction of batched inserts.
+     */
+    private <T> ImportReportDto runImport(InputStream input, ImportFormat format, Class<T> type,
+                                          Function<T, String> naturalKey,
+                                          Function<Collection<String>, Set<String>> existingKeys,
+                                          Consumer<T> resetServerFields,
+                                          Consumer<List<T>> saveChunk) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportReportDto report = new ImportReportDto();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (MappingIterator<T> rows = reader(format, type).readValues(input)) {
+            long row = 0;
+            while (true) {
+                T entity;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    entity = rows.nextValue();
+                } catch (JsonParseException e) {
+                    // the stream is no longer aligned on a row boundary, so nothing after this can be trusted
+                    reject(report, row, "Malformed input: " + e.getOriginalMessage());
+                    break;
+                } catch (IOException | RuntimeException e) {
+                    reject(report, row, "Unreadable row: " + e.getMessage());
+                    continue;
+                }
+                report.setProcessed(report.getProcessed() + 1);
+                // ids and loan history are assigned by the server, never taken from the upload
+                resetServerFields.accept(entity);
+
+                Set<ConstraintViolation<T>> violations = validator.validate(entity);
+                if (!violations.isEmpty()) {
+                    reject(report, row, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+
+                chunk.add(entity);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, naturalKey, existingKeys, resetServerFields, saveChunk, report);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, naturalKey, existingKeys, resetServerFields, saveChunk, report);
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        report.setElapsedMillis(elapsed);
+        report.setRowsPerSecond(report.getProcessed() * 1000.0 / elapsed);
+        return report;
+    }
+
+    private <T> void writeChunk(List<T> chunk, Function<T, String> naturalKey,
+                                Function<Collection<String>, Set<String>> existingKeys,
+                                Consumer<T> resetServerFields, Consumer<List<T>> saveChunk,
+                                ImportReportDto report) {
+        Set<String> keys = chunk.stream().map(naturalKey).collect(Collectors.toSet());
+        Set<String> taken = new HashSet<>(existingKeys.apply(keys));
+
+        List<T> fresh = new ArrayList<>(chunk.size());
+        for (T entity : chunk) {
+            // Set.add also drops repeats of the same key within this chunk
+            if (taken.add(naturalKey.apply(entity))) {
+                fresh.add(entity);
+            } else {
+                report.setDuplicates(report.getDuplicates() + 1);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        try {
+            saveChunk.accept(fresh);
+            report.setImported(report.getImported() + fresh.size());
+        } catch (DataIntegrityViolationException | ConstraintViolationException e) {
+            // another request took one of these keys after the lookup above; the chunk was rolled back, so save the
+            // rows one at a time and count the ones that clash as duplicates. The explicit flush surfaces the clash
+            // as Hibernate's exception, which is not translated to Spring's
+            for (T entity : fresh) {
+                resetServerFields.accept(entity);
+                try {
+                    saveChunk.accept(List.of(entity));
+                    report.setImported(report.getImported() + 1);
+                } catch (DataIntegrityViolationException | ConstraintViolationException clash) {
+                    report.setDuplicates(report.getDuplicates() + 1);
+                }
+            }
+        }
+    }
+
+    private ObjectReader reader(ImportFormat format, Class<?> type) {
+        if (format == ImportFormat.CSV) {
+            return CSV_MAPPER.readerFor(type)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        }
+        return jsonMapper.readerFor(type).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    private void reject(ImportReportDto report, long row, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ImportErrorDto(row, message));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.librarySystem.service;
+
+import com.library.librarySystem.contracts.HoldService;
+import com.library.librarySystem.respository.HoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically expires holds whose copy was not picked up in time, so the copy moves on to the next patron or back
+ * to the shelf. Overdue holds are found through the (status, ready_until) index.
+ */
+@Component
+public class HoldExpiryScheduler {
+    private static final Logger log = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+    static final int PAGE_SIZE = 100;
+
+    private final HoldRepository holdRepository;
+    private final HoldService holdService;
+
+    public HoldExpiryScheduler(HoldRepository holdRepository, HoldService holdService) {
+        this.holdRepository = holdRepository;
+        this.holdService = holdService;
+    }
+
+    @Scheduled(initialDelayString = "${library.holds.expiry-check-interval:PT5M}",
+            fixedDelayString = "${library.holds.expiry-check-interval:PT5M}")
+    public void expireUncollectedHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        while (true) {
+            List<Long> overdue = holdRepository.findExpiredIds(now, Limit.of(PAGE_SIZE));
+            int progress = 0;
+            for (Long holdId : overdue) {
+                try {
+                    // one transaction per hold, so a failure only holds back that book
+                    if (holdService.expireHold(holdId)) {
+                        progress++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not expire hold {}: {}", holdId, e.getMessage());
+                }
+            }
+            expired += progress;
+            // a page without progress means the rest keeps failing; try again on the next run
+            if (overdue.size() < PAGE_SIZE || progress == 0) {
+                break;
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} uncollected holds", expired);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.library.librarySystem.service;
+
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.model.Hold;
+import com.library.librarySystem.model.HoldStatus;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.HoldRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Moves copies between the shelf and the hold queues. Callers run inside a transaction and hold the book's lock.
+ */
+@Component
+public class HoldQueue {
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final BookIndexes bookIndexes;
+    private final CirculationRecorder circulation;
+    private final Duration pickupWindow;
+
+    public HoldQueue(HoldRepository holdRepository, BookRepository bookRepository, BookIndexes bookIndexes,
+                     CirculationRecorder circulation,
+                     @Value("${library.holds.pickup-window:P3D}") Duration pickupWindow) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.bookIndexes = bookIndexes;
+        this.circulation = circulation;
+        this.pickupWindow = pickupWindow;
+    }
+
+    /**
+     * Gives a copy that has come back to the head of the book's queue, or puts it on the shelf when nobody is
+     * waiting. Returns the hold now keeping the copy, if any.
+     */
+    public Optional<Hold> release(Long bookId, LocalDateTime now) {
+        Optional<Hold> next = handOff(bookId, now);
+        if (next.isEmpty() && bookRepository.markReturned(bookId, now) == 1) {
+            bookIndexes.availabilityChanged(bookId, true);
+        }
+        return next;
+    }
+
+    /**
+     * Marks the head of the book's queue as ready for pickup. The book itself stays off the shelf.
+     */
+    public Optional<Hold> handOff(Long bookId, LocalDateTime now) {
+        Optional<Hold> next = holdRepository.findFirstByBookIdAndStatusOrderByPriorityDescIdAsc(bookId, HoldStatus.WAITING);
+        next.ifPresent(hold -> {
+            hold.setStatus(HoldStatus.READY);
+            hold.setReadyUntil(now.plus(pickupWindow));
+            circulation.record(CirculationEvent.Type.HOLD_READY, bookId, hold.getPatron().getId(), null);
+        });
+        return next;
+    }
+}
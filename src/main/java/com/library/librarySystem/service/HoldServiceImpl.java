@@ -0,0 +1,148 @@
+package com.library.librarySystem.service;
+
+import com.library.librarySystem.aop.LocksBooks;
+import com.library.librarySystem.aop.RetryOnConflict;
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.contracts.HoldService;
+import com.library.librarySystem.dto.HoldDto;
+import com.library.librarySystem.exception.DuplicateEntryException;
+import com.library.librarySystem.exception.ResourceNotFoundException;
+import com.library.librarySystem.lock.BookLockManager;
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.Hold;
+import com.library.librarySystem.model.HoldStatus;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.HoldRepository;
+import com.library.librarySystem.respository.PatronRepository;
+import jakarta.transaction.Transactional;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+public class HoldServiceImpl implements HoldService {
+    // in the order getQueue lists them
+    private static final List<HoldStatus> ACTIVE = List.of(HoldStatus.READY, HoldStatus.WAITING);
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final PatronRepository patronRepository;
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final BookLockManager bookLocks;
+    private final HoldQueue holdQueue;
+    private final CirculationRecorder circulation;
+
+    /**
+     * Queues the patron for a book that is out. Available books are borrowed directly, not held.
+     */
+    @RetryOnConflict
+    @LocksBooks("bookId")
+    @Transactional
+    public HoldDto placeHold(Long bookId, Long patronId, int priority) {
+        if (priority < 0 || priority > Hold.MAX_PRIORITY) {
+            throw new IllegalArgumentException("Priority must be between 0 and " + Hold.MAX_PRIORITY);
+        }
+        Patron patron = patronRepository.findById(patronId)
+                .orElseThrow(() -> new ResourceNotFoundException("Patron not found"));
+
+        bookLocks.lockUntilCompletion(List.of(bookId));
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
+        if (book.isAvailable()) {
+            throw new IllegalStateException("Book with id: " + bookId + " is available, borrow it instead");
+        }
+        if (borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(bookId, patronId).isPresent()) {
+            throw new IllegalStateException("Patron with id: " + patronId + " already has borrowed this book");
+        }
+        if (holdRepository.existsByBookIdAndPatronIdAndStatusIn(bookId, patronId, ACTIVE)) {
+            throw new DuplicateEntryException("Patron with id: " + patronId + " already has a hold on this book");
+        }
+
+        Hold hold = holdRepository.save(new Hold(book, patron, priority));
+        circulation.record(CirculationEvent.Type.HOLD_PLACED, bookId, patronId, null);
+        return toDto(hold);
+    }
+
+    /**
+     * Withdraws a hold. A copy that was already kept aside for it moves on to the next patron in the queue.
+     */
+    @RetryOnConflict
+    @Transactional
+    public HoldDto cancelHold(Long holdId) {
+        Hold hold = lockAndLoad(holdId);
+        if (!hold.getStatus().isActive()) {
+            throw new IllegalStateException("Hold with id: " + holdId + " is already " + hold.getStatus());
+        }
+        close(hold, HoldStatus.CANCELLED, LocalDateTime.now());
+        return toDto(hold);
+    }
+
+    /**
+     * Returns the hold currently keeping a copy, if any, followed by the waiting holds in the order they will be served.
+     */
+    public List<HoldDto> getQueue(Long bookId, int limit) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResourceNotFoundException("Book not found");
+        }
+        int pageSize = limit < 1 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        List<HoldDto> queue = new ArrayList<>();
+        for (HoldStatus status : ACTIVE) {
+            if (queue.size() < pageSize) {
+                holdRepository.findByBookIdAndStatusOrderByPriorityDescIdAsc(bookId, status, Limit.of(pageSize - queue.size()))
+                        .forEach(hold -> queue.add(toDto(hold)));
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Expires a hold whose copy was not picked up in time and passes the copy on. Returns false when the hold was
+     * collected or cancelled in the meantime.
+     */
+    @RetryOnConflict
+    @Transactional
+    public boolean expireHold(Long holdId) {
+        Hold hold = lockAndLoad(holdId);
+        LocalDateTime now = LocalDateTime.now();
+        if (hold.getStatus() != HoldStatus.READY || !hold.getReadyUntil().isBefore(now)) {
+            return false;
+        }
+        close(hold, HoldStatus.EXPIRED, now);
+        return true;
+    }
+
+    private Hold lockAndLoad(Long holdId) {
+        Long bookId = holdRepository.findBookIdById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found"));
+        // the hold is read only after the book is locked, so its status cannot change underneath us
+        bookLocks.lockUntilCompletion(List.of(bookId));
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found"));
+    }
+
+    private void close(Hold hold, HoldStatus status, LocalDateTime now) {
+        boolean keptCopy = hold.getStatus() == HoldStatus.READY;
+        hold.setStatus(status);
+        hold.setReadyUntil(null);
+        circulation.record(status == HoldStatus.EXPIRED ? CirculationEvent.Type.HOLD_EXPIRED : CirculationEvent.Type.HOLD_CANCELLED,
+                hold.getBook().getId(), hold.getPatron().getId(), null);
+        if (keptCopy) {
+            holdQueue.release(hold.getBook().getId(), now);
+        }
+    }
+
+    private HoldDto toDto(Hold hold) {
+        return new HoldDto(hold.getId(), hold.getBook().getId(), hold.getPatron().getId(), hold.getPriority(),
+                hold.getStatus(), hold.getCreatedAt(), hold.getReadyUntil());
+    }
+}
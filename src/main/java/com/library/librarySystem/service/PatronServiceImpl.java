@@ -1,35 +1,57 @@
 package com.library.librarySystem.service;
 
+import com.library.librarySystem.cache.ListViewCache;
+import com.library.librarySystem.cache.VersionStamp;
+import com.library.librarySystem.cache.VersionStamps;
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationRecorder;
 import com.library.librarySystem.contracts.PatronService;
 import com.library.librarySystem.dto.PatronDto;
 import com.library.librarySystem.exception.DuplicateEntryException;
 import com.library.librarySystem.exception.ResourceNotFoundException;
+import com.library.librarySystem.lock.BookLockManager;
+import com.library.librarySystem.mapper.PatronMapper;
+import com.library.librarySystem.model.HoldStatus;
 import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.HoldRepository;
 import com.library.librarySystem.respository.PatronRepository;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @AllArgsConstructor
 public class PatronServiceImpl implements PatronService {
 
     private final PatronRepository patronRepository;
-    private final ModelMapper modelMapper;
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final PatronMapper patronMapper;
+    private final ListViewCache<PatronDto> patronListView;
+    private final VersionStamps patronVersions;
+    private final HoldRepository holdRepository;
+    private final HoldQueue holdQueue;
+    private final BookLockManager bookLocks;
+    private final CirculationRecorder circulation;
 
-    @Cacheable(value = "patrons")
     public List<PatronDto> getAllPatrons() {
-        return patronRepository.findAll()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return patronListView.read(this::loadPatrons, () -> toDtosById(patronRepository.findAll(Sort.by("id"))));
+    }
+
+    public VersionStamp getPatronsVersion() {
+        return patronVersions.collection();
     }
 
     @Cacheable(value = "patron", key = "#id")
@@ -39,13 +61,25 @@ public class PatronServiceImpl implements PatronService {
         return convertToDto(patron);
     }
 
+    public VersionStamp getPatronVersion(Long id) {
+        return patronVersions.get(id, () -> {
+            Patron patron = patronRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Patron not found with ID: " + id));
+            return patronVersions.stamp(convertToDto(patron),
+                    patron.getLastModifiedAt() != null ? patron.getLastModifiedAt() : patron.getCreatedAt());
+        });
+    }
+
     @Transactional
-    @CacheEvict(value = "patrons", allEntries = true)
     public PatronDto createPatron(Patron patron) throws Exception {
         if (patronRepository.existsByEmail(patron.getEmail())) {
             throw new DuplicateEntryException("A patron with email " + patron.getEmail() + " already exists.");
         }
-        return modelMapper.map(patronRepository.save(patron), PatronDto.class);
+        Patron savedPatron = patronRepository.save(patron);
+        PatronDto patronDto = patronMapper.toDto(savedPatron);
+        patronListView.added(savedPatron.getId(), patronDto);
+        patronVersions.changed(savedPatron.getId(), patronDto);
+        return patronDto;
     }
 
     @Transactional
@@ -53,27 +87,56 @@ public class PatronServiceImpl implements PatronService {
     public PatronDto updatePatron(Long id, PatronDto updatedPatronDto) {
         Patron updatedPatron = patronRepository.findById(id)
                 .map(existingPatron -> {
-                    modelMapper.map(updatedPatronDto, existingPatron);
+                    patronMapper.updateEntity(updatedPatronDto, existingPatron);
                     return patronRepository.save(existingPatron);
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Patron not found with ID: " + id));
+        PatronDto patronDto = convertToDto(updatedPatron);
+        patronVersions.changed(id, patronDto);
 
-        return convertToDto(updatedPatron);
+        return patronDto;
     }
 
     @Transactional
-    @CacheEvict(value = {"patrons", "patron"}, key = "#id")
+    @CacheEvict(value = "patron", key = "#id")
     public void deletePatron(Long id) {
         Patron patron = patronRepository.findById(id).orElseThrow(()->new ResourceNotFoundException("Patron not found with ID: " + id));
-        if (patron.isCurrentlyBorrowed()) {
+        // the books the patron has out or on hold, so no return, pickup or hand-off slips in between check and delete
+        Set<Long> books = new HashSet<>(borrowingRecordRepository.findBorrowedBookIdsByPatronId(id));
+        books.addAll(holdRepository.findBookIdsByPatronIdAndStatusIn(id, List.of(HoldStatus.WAITING, HoldStatus.READY)));
+        if (!books.isEmpty()) {
+            bookLocks.lockUntilCompletion(books);
+        }
+        if (borrowingRecordRepository.existsByPatronIdAndReturnedFalse(id)) {
             throw new IllegalStateException("Cannot delete patron with active borrowing records.");
         }
-        patronRepository.deleteById(id);
+        borrowingRecordRepository.deleteAllByPatronId(id);
+        // copies kept aside for this patron move on to the next patron in line
+        List<Long> keptAside = holdRepository.findReadyBookIdsByPatronId(id);
+        holdRepository.deleteAllByPatronId(id);
+        LocalDateTime now = LocalDateTime.now();
+        keptAside.forEach(bookId -> {
+            circulation.record(CirculationEvent.Type.HOLD_CANCELLED, bookId, id, null);
+            holdQueue.release(bookId, now);
+        });
+        patronRepository.delete(patron);
+        patronListView.removed(id);
+        patronVersions.removed(id);
     }
 
 
+    private Map<Long, PatronDto> loadPatrons(Collection<Long> ids) {
+        return toDtosById(patronRepository.findAllById(ids));
+    }
+
+    private Map<Long, PatronDto> toDtosById(List<Patron> patrons) {
+        Map<Long, PatronDto> dtos = new LinkedHashMap<>();
+        patrons.forEach(patron -> dtos.put(patron.getId(), convertToDto(patron)));
+        return dtos;
+    }
+
     private PatronDto convertToDto(Patron patron) {
-        return modelMapper.map(patron, PatronDto.class);
+        return patronMapper.toDto(patron);
     }
 
 }
\ No newline at end of file
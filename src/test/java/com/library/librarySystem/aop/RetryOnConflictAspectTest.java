@@ -0,0 +1,66 @@
+package com.library.librarySystem.aop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryOnConflictAspectTest {
+
+    private Flaky flaky;
+    private Flaky proxy;
+
+    static class Flaky {
+        final AtomicInteger calls = new AtomicInteger();
+        int failures;
+
+        @RetryOnConflict(maxAttempts = 3, backoffMillis = 1)
+        public String update() {
+            if (calls.incrementAndGet() <= failures) {
+                throw new OptimisticLockingFailureException("stale version");
+            }
+            return "done";
+        }
+
+        @RetryOnConflict(maxAttempts = 3, backoffMillis = 1)
+        public String invalid() {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("bad input");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        flaky = new Flaky();
+        AspectJProxyFactory factory = new AspectJProxyFactory(flaky);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RetryOnConflictAspect());
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void testRetriesUntilSuccess() {
+        flaky.failures = 2;
+
+        assertEquals("done", proxy.update());
+        assertEquals(3, flaky.calls.get());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        flaky.failures = 5;
+
+        assertThrows(OptimisticLockingFailureException.class, () -> proxy.update());
+        assertEquals(3, flaky.calls.get());
+    }
+
+    @Test
+    void testDoesNotRetryOtherExceptions() {
+        assertThrows(IllegalArgumentException.class, () -> proxy.invalid());
+        assertEquals(1, flaky.calls.get());
+    }
+}
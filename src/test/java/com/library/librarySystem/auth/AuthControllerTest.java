@@ -1,26 +1,39 @@
 package com.library.librarySystem.auth;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.config.security.JwtClaims;
 import com.library.librarySystem.config.security.JwtService;
 import com.library.librarySystem.dto.LoginUserDto;
 import com.library.librarySystem.dto.RegisterUserDto;
 import com.library.librarySystem.dto.UserDto;
+import com.library.librarySystem.exception.GlobalExceptionHandler;
+import com.library.librarySystem.exception.ServiceBusyException;
+import com.library.librarySystem.mapper.UserMapper;
+import com.library.librarySystem.model.Role;
 import com.library.librarySystem.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.mapstruct.factory.Mappers;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,8 +44,8 @@ class AuthControllerTest {
     @Mock
     private JwtService jwtService;
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private UserMapper userMapper = Mappers.getMapper(UserMapper.class);
 
     @Mock
     private AuthService authService;
@@ -49,7 +62,9 @@ class AuthControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
 
         registerUserDto = new RegisterUserDto();
         registerUserDto.setUsername("testuser");
@@ -69,12 +84,14 @@ class AuthControllerTest {
 
     @Test
     void testRegisterUser_Success() throws Exception {
-        when(authService.signup(any(RegisterUserDto.class))).thenReturn(user);
-        when(modelMapper.map(any(User.class), eq(UserDto.class))).thenReturn(userDto);
+        when(authService.signup(any(RegisterUserDto.class))).thenReturn(CompletableFuture.completedFuture(user));
 
-        mockMvc.perform(post("/api/auth/signup")
+        MvcResult result = mockMvc.perform(post("/api/auth/signup")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registerUserDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.username").value("testuser"));
 
@@ -83,13 +100,16 @@ class AuthControllerTest {
 
     @Test
     void testAuthenticateUser_Success() throws Exception {
-        when(authService.authenticate(any(LoginUserDto.class))).thenReturn(user);
+        when(authService.authenticate(any(LoginUserDto.class))).thenReturn(CompletableFuture.completedFuture(user));
         when(jwtService.generateToken(any(User.class))).thenReturn("mocked-jwt-token");
         when(jwtService.getExpirationTime()).thenReturn(3600L);
 
-        mockMvc.perform(post("/api/auth/login")
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginUserDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("mocked-jwt-token"))
                 .andExpect(jsonPath("$.expiresIn").value(3600));
@@ -97,4 +117,45 @@ class AuthControllerTest {
         verify(authService, times(1)).authenticate(any(LoginUserDto.class));
         verify(jwtService, times(1)).generateToken(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAuthenticateUser_BusyHashingPool() throws Exception {
+        when(authService.authenticate(any(LoginUserDto.class)))
+                .thenThrow(new ServiceBusyException("Too many sign-ins in progress, please retry shortly"));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginUserDto)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void testLogoutEverywhere() throws Exception {
+        mockMvc.perform(post("/api/auth/logout-all").principal(() -> "testuser"))
+                .andExpect(status().isNoContent());
+
+        verify(authService, times(1)).revokeTokens("testuser");
+    }
+
+    @Test
+    void testLogout() throws Exception {
+        JwtClaims claims = new JwtClaims("token-id", "testuser", Role.USER, 0, Instant.now(), Instant.now().plusSeconds(60));
+        when(jwtService.parse("token")).thenReturn(claims);
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer token"))
+                .andExpect(status().isNoContent());
+
+        verify(authService, times(1)).logout(claims);
+    }
+
+    @Test
+    void testRevokeUserTokens() throws Exception {
+        mockMvc.perform(post("/api/auth/users/testuser/revoke"))
+                .andExpect(status().isNoContent());
+
+        verify(authService, times(1)).revokeTokens("testuser");
+    }
+}
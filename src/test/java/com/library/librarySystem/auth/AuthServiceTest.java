@@ -1,25 +1,38 @@
 package com.library.librarySystem.auth;
 
+import com.library.librarySystem.config.security.JwtClaims;
+import com.library.librarySystem.config.security.UserVersions;
+import com.library.librarySystem.config.security.VerifiedTokenCache;
 import com.library.librarySystem.dto.LoginUserDto;
 import com.library.librarySystem.dto.RegisterUserDto;
 import com.library.librarySystem.exception.DuplicateEntryException;
+import com.library.librarySystem.exception.ResourceNotFoundException;
+import com.library.librarySystem.exception.ServiceBusyException;
 import com.library.librarySystem.model.Role;
 import com.library.librarySystem.model.User;
 import com.library.librarySystem.respository.UserRepository;
+import com.library.librarySystem.revocation.RevokedTokens;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,17 +45,35 @@ class AuthServiceTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private UserVersions userVersions;
+
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    @Mock
+    private RevokedTokens revokedTokens;
+
+    private final PasswordHashing passwordHashing = new PasswordHashing(1, 4);
+
+    private final ExecutorService taskExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "task"));
 
-    @InjectMocks
     private AuthService authService;
 
     private RegisterUserDto registerUserDto;
     private LoginUserDto loginUserDto;
     private User user;
 
+    @AfterEach
+    void tearDown() {
+        passwordHashing.shutdown();
+        taskExecutor.shutdownNow();
+    }
+
     @BeforeEach
     void setUp() {
+        authService = new AuthService(userRepository, passwordEncoder, passwordHashing, userVersions, tokenCache,
+                revokedTokens, taskExecutor);
+
         registerUserDto = new RegisterUserDto();
         registerUserDto.setUsername("testuser");
         registerUserDto.setPassword("password123");
@@ -62,10 +93,18 @@ class AuthServiceTest {
     @Test
     void testSignup_Success() {
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
-        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword123");
-        when(userRepository.save(any(User.class))).thenReturn(user);
-
-        User registeredUser = authService.signup(registerUserDto);
+        AtomicReference<String> hashedOn = new AtomicReference<>();
+        AtomicReference<String> savedOn = new AtomicReference<>();
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            hashedOn.set(Thread.currentThread().getName());
+            return "encodedPassword123";
+        });
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            savedOn.set(Thread.currentThread().getName());
+            return user;
+        });
+
+        User registeredUser = authService.signup(registerUserDto).join();
 
         assertNotNull(registeredUser);
         assertEquals("testuser", registeredUser.getUsername());
@@ -73,6 +112,9 @@ class AuthServiceTest {
 
         verify(userRepository, times(1)).save(any(User.class));
         verify(passwordEncoder, times(1)).encode("password123");
+        // the hashing pool only hashes
+        assertTrue(hashedOn.get().startsWith("password-hashing-"), hashedOn.get());
+        assertEquals("task", savedOn.get());
     }
 
     @Test
@@ -87,25 +129,101 @@ class AuthServiceTest {
     @Test
     void testAuthenticate_Success() {
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "encodedPassword123")).thenReturn(true);
 
-        doAnswer(invocation -> null).when(authenticationManager)
-                .authenticate(any(UsernamePasswordAuthenticationToken.class));
-
-        User authenticatedUser = authService.authenticate(loginUserDto);
+        User authenticatedUser = authService.authenticate(loginUserDto).join();
 
         assertNotNull(authenticatedUser);
         assertEquals("testuser", authenticatedUser.getUsername());
 
-        verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        // the user is read once; nothing else looks it up again
         verify(userRepository, times(1)).findByUsername("testuser");
     }
 
+    @Test
+    void testAuthenticate_WrongPassword() {
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "encodedPassword123")).thenReturn(false);
+
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> authService.authenticate(loginUserDto).join());
+        assertInstanceOf(BadCredentialsException.class, failure.getCause());
+    }
+
     @Test
     void testAuthenticate_UserNotFound() {
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
 
-        assertThrows(Exception.class, () -> authService.authenticate(loginUserDto));
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> authService.authenticate(loginUserDto).join());
+        assertInstanceOf(BadCredentialsException.class, failure.getCause());
+        // a password is still compared, so unknown usernames take as long as known ones
+        verify(passwordEncoder, times(1)).matches(eq("password123"), any());
+    }
+
+    @Test
+    void testAuthenticate_RefusedWhenHashingPoolIsFull() throws Exception {
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHashing saturated = new PasswordHashing(1, 1);
+        try {
+            saturated.submit(() -> await(release));
+            saturated.submit(() -> await(release));
+            AuthService busyService = new AuthService(userRepository, passwordEncoder, saturated, userVersions,
+                    tokenCache, revokedTokens, taskExecutor);
+
+            assertThrows(ServiceBusyException.class, () -> busyService.authenticate(loginUserDto));
+            assertEquals(1, saturated.stats().rejected());
+        } finally {
+            release.countDown();
+            saturated.shutdown();
+        }
+    }
+
+    @Test
+    void testRevokeTokens_RaisesVersionAndRefreshes() {
+        when(userRepository.raiseTokenVersion(eq("testuser"), any())).thenReturn(1);
+
+        authService.revokeTokens("testuser");
+
+        verify(userVersions, times(1)).refresh();
+        verify(tokenCache, times(1)).invalidateSubject("testuser");
+    }
+
+    @Test
+    void testRevokeTokens_UnknownUser() {
+        when(userRepository.raiseTokenVersion(eq("nobody"), any())).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> authService.revokeTokens("nobody"));
+        verifyNoInteractions(userVersions);
+    }
+
+    @Test
+    void testLogout_RevokesOnlyThatToken() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        authService.logout(new JwtClaims("token-id", "testuser", Role.USER, 0, Instant.now(), expiresAt));
+
+        verify(revokedTokens, times(1)).revoke("token-id", expiresAt);
+        verifyNoInteractions(userRepository, userVersions);
+    }
+
+    @Test
+    void testLogout_TokenWithoutIdRevokesAllTokensOfTheUser() {
+        when(userRepository.raiseTokenVersion(eq("testuser"), any())).thenReturn(1);
+
+        authService.logout(new JwtClaims(null, "testuser", Role.USER, 0, Instant.now(), Instant.now().plusSeconds(60)));
+
+        verify(userVersions, times(1)).refresh();
+        verifyNoInteractions(revokedTokens);
+    }
 
-        verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
-}
\ No newline at end of file
+}
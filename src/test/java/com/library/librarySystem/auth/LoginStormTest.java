@@ -0,0 +1,144 @@
+package com.library.librarySystem.auth;
+
+import com.library.librarySystem.config.security.JwtService;
+import com.library.librarySystem.config.security.UserVersions;
+import com.library.librarySystem.config.security.VerifiedTokenCache;
+import com.library.librarySystem.dto.LoginUserDto;
+import com.library.librarySystem.exception.ServiceBusyException;
+import com.library.librarySystem.mapper.UserMapper;
+import com.library.librarySystem.model.Role;
+import com.library.librarySystem.model.User;
+import com.library.librarySystem.respository.UserRepository;
+import com.library.librarySystem.revocation.RevokedTokens;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * A burst of logins alongside catalog reads, with a small fixed pool standing in for the servlet container's request
+ * threads. Logins hand their BCrypt work to the hashing pool and free the request thread, so catalog latency stays
+ * where it was without the storm; logins beyond what the hashing pool can queue are refused at once.
+ */
+class LoginStormTest {
+    private static final Logger log = LoggerFactory.getLogger(LoginStormTest.class);
+    private static final int REQUEST_THREADS = 8;
+    private static final int CATALOG_REQUESTS = 200;
+    private static final long CATALOG_INTERVAL_MILLIS = 5;
+    private static final int LOGINS = 200;
+
+    private ExecutorService requestThreads;
+    private PasswordHashing passwordHashing;
+    private AuthController authController;
+    private double hashMillis;
+
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        User user = new User();
+        user.setUsername("reader");
+        user.setPassword(passwordEncoder.encode("password123"));
+        long started = System.nanoTime();
+        passwordEncoder.matches("password123", user.getPassword());
+        hashMillis = (System.nanoTime() - started) / 1e6;
+        user.setRole(Role.USER);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("reader")).thenReturn(Optional.of(user));
+
+        requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        passwordHashing = new PasswordHashing(2, 8);
+        AuthService authService = new AuthService(userRepository, passwordEncoder, passwordHashing,
+                mock(UserVersions.class), mock(VerifiedTokenCache.class), mock(RevokedTokens.class), requestThreads);
+        JwtService jwtService = new JwtService("c2VjcmV0LWtleS1mb3ItdGVzdHMtdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHMyNTY=",
+                3_600_000, new VerifiedTokenCache(100));
+        authController = new AuthController(jwtService, Mappers.getMapper(UserMapper.class), authService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestThreads.shutdownNow();
+        passwordHashing.shutdown();
+    }
+
+    @Test
+    void testCatalogLatencyStaysFlatDuringLoginStorm() throws Exception {
+        double quietP99 = catalogP99(() -> {
+        });
+
+        AtomicInteger refused = new AtomicInteger();
+        List<CompletableFuture<?>> accepted = Collections.synchronizedList(new ArrayList<>());
+        double stormP99 = catalogP99(() -> {
+            for (int i = 0; i < LOGINS; i++) {
+                requestThreads.submit(() -> {
+                    try {
+                        accepted.add(authController.authenticate(login()));
+                    } catch (ServiceBusyException e) {
+                        refused.incrementAndGet();
+                    }
+                });
+            }
+        });
+        CompletableFuture.allOf(accepted.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+
+        log.info("catalog p99 {} ms quiet, {} ms during {} logins ({} accepted, {} refused with 503), one hash {} ms",
+                String.format("%.1f", quietP99), String.format("%.1f", stormP99), LOGINS, accepted.size(), refused.get(),
+                String.format("%.1f", hashMillis));
+        assertFalse(accepted.isEmpty());
+        assertTrue(refused.get() > 0);
+        assertEquals(LOGINS, accepted.size() + refused.get());
+        // the hashing threads still compete for CPU, but no catalog read should wait out a whole hash, which is what
+        // happens as soon as logins hold request threads
+        assertTrue(stormP99 < quietP99 + hashMillis, "catalog p99 rose from " + quietP99 + " ms to " + stormP99
+                + " ms, one hash takes " + hashMillis + " ms");
+    }
+
+    /**
+     * Sends catalog reads at a steady rate, starting the given load just after the first one, and returns the 99th
+     * percentile of their latency in milliseconds, queueing for a request thread included.
+     */
+    private double catalogP99(Runnable load) throws Exception {
+        List<Future<Long>> reads = new ArrayList<>(CATALOG_REQUESTS);
+        for (int i = 0; i < CATALOG_REQUESTS; i++) {
+            long submitted = System.nanoTime();
+            reads.add(requestThreads.submit(() -> {
+                // a read that spends its time waiting on the database
+                Thread.sleep(2);
+                return System.nanoTime() - submitted;
+            }));
+            if (i == 0) {
+                load.run();
+            }
+            Thread.sleep(CATALOG_INTERVAL_MILLIS);
+        }
+        List<Long> latencies = new ArrayList<>(CATALOG_REQUESTS);
+        for (Future<Long> read : reads) {
+            latencies.add(read.get(30, TimeUnit.SECONDS));
+        }
+        Collections.sort(latencies);
+        return latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1) / 1e6;
+    }
+
+    private static LoginUserDto login() {
+        LoginUserDto login = new LoginUserDto();
+        login.setUsername("reader");
+        login.setPassword("password123");
+        return login;
+    }
+}
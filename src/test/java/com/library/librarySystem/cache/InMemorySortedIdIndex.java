@@ -0,0 +1,59 @@
+package com.library.librarySystem.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Single-node stand-in for {@link RedisSortedIdIndex} with the same rebuild-cancellation rules.
+ */
+public class InMemorySortedIdIndex implements SortedIdIndex {
+    private TreeSet<Long> ids;
+    private String rebuildToken;
+
+    @Override
+    public synchronized Optional<List<Long>> ids() {
+        return ids == null ? Optional.empty() : Optional.of(new ArrayList<>(ids));
+    }
+
+    @Override
+    public synchronized void add(Long id) {
+        if (ids != null) {
+            ids.add(id);
+        }
+        rebuildToken = null;
+    }
+
+    @Override
+    public synchronized void remove(Long id) {
+        if (ids != null) {
+            ids.remove(id);
+        }
+        rebuildToken = null;
+    }
+
+    @Override
+    public synchronized String beginRebuild() {
+        rebuildToken = UUID.randomUUID().toString();
+        return rebuildToken;
+    }
+
+    @Override
+    public synchronized boolean completeRebuild(String token, Collection<Long> ids) {
+        if (!token.equals(rebuildToken)) {
+            return false;
+        }
+        this.ids = new TreeSet<>(ids);
+        rebuildToken = null;
+        return true;
+    }
+
+    @Override
+    public synchronized void invalidate() {
+        ids = null;
+        rebuildToken = null;
+    }
+}
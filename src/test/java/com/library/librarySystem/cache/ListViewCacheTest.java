@@ -0,0 +1,183 @@
+package com.library.librarySystem.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListViewCacheTest {
+
+    private ConcurrentMapCache entries;
+    private InMemorySortedIdIndex index;
+    private ListViewCache<String> listView;
+    private Map<Long, String> database;
+    private AtomicInteger fullLoads;
+    private AtomicInteger partialLoads;
+
+    @BeforeEach
+    void setUp() {
+        entries = new ConcurrentMapCache("book");
+        index = new InMemorySortedIdIndex();
+        listView = new ListViewCache<>(entries, String.class, index);
+        database = new LinkedHashMap<>();
+        database.put(1L, "Dune");
+        database.put(2L, "Emma");
+        fullLoads = new AtomicInteger();
+        partialLoads = new AtomicInteger();
+    }
+
+    @Test
+    void testFirstReadLoadsEverythingAndLaterReadsAreCached() {
+        assertEquals(List.of("Dune", "Emma"), read());
+        assertEquals(List.of("Dune", "Emma"), read());
+
+        assertEquals(1, fullLoads.get());
+        assertEquals(0, partialLoads.get());
+    }
+
+    @Test
+    void testWritesPatchSingleEntries() {
+        read();
+
+        database.put(3L, "Ulysses");
+        listView.added(3L, "Ulysses");
+        entries.put(1L, "Dune (revised)");
+        database.remove(2L);
+        entries.evict(2L);
+        listView.removed(2L);
+
+        assertEquals(List.of("Dune (revised)", "Ulysses"), read());
+        assertEquals(1, fullLoads.get());
+        assertEquals(0, partialLoads.get());
+    }
+
+    @Test
+    void testEvictedEntriesAreReloadedById() {
+        read();
+        entries.evict(2L);
+
+        assertEquals(List.of("Dune", "Emma"), read());
+        assertEquals(1, partialLoads.get());
+        assertEquals("Emma", entries.get(2L, String.class));
+    }
+
+    @Test
+    void testMissingEntriesAreLoadedInBoundedChunks() {
+        for (long id = 3; id <= 2 * ListViewCache.LOAD_CHUNK + 500; id++) {
+            database.put(id, "Book " + id);
+        }
+        read();
+        entries.clear();
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        List<String> list = listView.read(ids -> {
+            chunkSizes.add(ids.size());
+            return loadByIds(ids);
+        }, () -> fail("the index is built"));
+
+        assertEquals(new ArrayList<>(database.values()), list);
+        assertEquals(List.of(ListViewCache.LOAD_CHUNK, ListViewCache.LOAD_CHUNK, 500), chunkSizes);
+    }
+
+    @Test
+    void testEntriesAreFetchedFromTheCacheInOneBatch() {
+        AtomicInteger batches = new AtomicInteger();
+        AtomicInteger singleGets = new AtomicInteger();
+        class BatchingCache extends ConcurrentMapCache implements MultiGetCache {
+            BatchingCache() {
+                super("book");
+            }
+
+            @Override
+            public ValueWrapper get(Object key) {
+                singleGets.incrementAndGet();
+                return super.get(key);
+            }
+
+            @Override
+            public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+                batches.incrementAndGet();
+                Map<Object, ValueWrapper> found = new HashMap<>();
+                keys.forEach(key -> {
+                    ValueWrapper wrapper = super.get(key);
+                    if (wrapper != null) {
+                        found.put(key, wrapper);
+                    }
+                });
+                return found;
+            }
+        }
+        BatchingCache cache = new BatchingCache();
+        ListViewCache<String> batched = new ListViewCache<>(cache, String.class, index);
+        batched.read(this::loadByIds, () -> new LinkedHashMap<>(database));
+        cache.evict(2L);
+
+        assertEquals(List.of("Dune", "Emma"), batched.read(this::loadByIds, () -> fail("the index is built")));
+        assertEquals(1, batches.get());
+        assertEquals(0, singleGets.get());
+        assertEquals(1, partialLoads.get());
+    }
+
+    @Test
+    void testIdsMissingFromDatabaseAreDropped() {
+        read();
+        entries.evict(2L);
+        database.remove(2L);
+
+        assertEquals(List.of("Dune"), read());
+        assertEquals(List.of(1L), index.ids().orElseThrow());
+    }
+
+    @Test
+    void testAddBeforeIndexIsBuiltIsIgnored() {
+        listView.added(3L, "Ulysses");
+
+        assertTrue(index.ids().isEmpty());
+        assertEquals(List.of("Dune", "Emma"), read());
+    }
+
+    @Test
+    void testWriteDuringRebuildCancelsInstall() {
+        List<String> list = listView.read(this::loadByIds, () -> {
+            Map<Long, String> snapshot = new LinkedHashMap<>(database);
+            // a create commits while the full list is being loaded
+            listView.added(3L, "Ulysses");
+            return snapshot;
+        });
+
+        assertEquals(List.of("Dune", "Emma"), list);
+        assertTrue(index.ids().isEmpty());
+    }
+
+    @Test
+    void testInvalidate() {
+        read();
+        listView.invalidate();
+        read();
+
+        assertEquals(2, fullLoads.get());
+    }
+
+    private List<String> read() {
+        return listView.read(this::loadByIds, () -> {
+            fullLoads.incrementAndGet();
+            return new LinkedHashMap<>(database);
+        });
+    }
+
+    private Map<Long, String> loadByIds(Collection<Long> ids) {
+        partialLoads.incrementAndGet();
+        Map<Long, String> loaded = new LinkedHashMap<>();
+        ids.stream().filter(database::containsKey).forEach(id -> loaded.put(id, database.get(id)));
+        return loaded;
+    }
+}
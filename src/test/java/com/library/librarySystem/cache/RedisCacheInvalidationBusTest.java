@@ -0,0 +1,60 @@
+package com.library.librarySystem.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisCacheInvalidationBusTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @InjectMocks
+    private RedisCacheInvalidationBus bus;
+
+    @Test
+    void testPublish() {
+        bus.publish(new CacheInvalidation("node-1", "book", "42"));
+        bus.publish(new CacheInvalidation("node-1", "book", null));
+
+        verify(redisTemplate).convertAndSend("cache:invalidations", "node-1|book|42");
+        verify(redisTemplate).convertAndSend("cache:invalidations", "node-1|book|");
+    }
+
+    @Test
+    void testPublishFailureIsSwallowed() {
+        when(redisTemplate.convertAndSend(anyString(), anyString())).thenThrow(new IllegalStateException("down"));
+
+        assertDoesNotThrow(() -> bus.publish(new CacheInvalidation("node-1", "book", "42")));
+    }
+
+    @Test
+    void testOnMessage() {
+        List<CacheInvalidation> received = new ArrayList<>();
+        bus.subscribe(received::add);
+
+        bus.onMessage(message("node-2|patron|7"), null);
+        bus.onMessage(message("node-2|patron|"), null);
+        bus.onMessage(message("garbage"), null);
+
+        assertEquals(List.of(new CacheInvalidation("node-2", "patron", "7"),
+                new CacheInvalidation("node-2", "patron", null)), received);
+        assertTrue(received.get(1).isClear());
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage("cache:invalidations".getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
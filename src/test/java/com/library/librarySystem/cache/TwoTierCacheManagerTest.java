@@ -0,0 +1,198 @@
+package com.library.librarySystem.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoTierCacheManagerTest {
+
+    private ConcurrentMapCacheManager redisStandIn;
+    private TwoTierCacheManager nodeA;
+    private TwoTierCacheManager nodeB;
+
+    /**
+     * Delivers every published invalidation to all subscribers, like Redis pub/sub does.
+     */
+    static class InMemoryBus implements CacheInvalidationBus {
+        private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            listeners.forEach(listener -> listener.accept(invalidation));
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidation> listener) {
+            listeners.add(listener);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisStandIn = new ConcurrentMapCacheManager();
+        InMemoryBus bus = new InMemoryBus();
+        nodeA = new TwoTierCacheManager(redisStandIn, bus, 100, Duration.ofMinutes(10));
+        nodeB = new TwoTierCacheManager(redisStandIn, bus, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void testReadsAreServedLocallyAfterFirstRemoteHit() {
+        nodeA.getCache("book").put(1L, "Dune");
+        Cache cacheB = nodeB.getCache("book");
+
+        assertEquals("Dune", cacheB.get(1L, String.class));
+        assertEquals("Dune", cacheB.get(1L, String.class));
+        assertNull(cacheB.get(2L));
+
+        CacheTierStats stats = nodeB.stats().get("book");
+        assertEquals(1, stats.localHits());
+        assertEquals(1, stats.remoteHits());
+        assertEquals(1, stats.misses());
+        assertEquals(1.0 / 3, stats.localHitRatio(), 1e-9);
+        assertEquals(0.5, stats.remoteHitRatio(), 1e-9);
+    }
+
+    @Test
+    void testPutOnOneNodeEvictsLocalCopyOnOtherNodes() {
+        Cache cacheA = nodeA.getCache("book");
+        Cache cacheB = nodeB.getCache("book");
+        cacheA.put(1L, "Dune");
+        assertEquals("Dune", cacheB.get(1L, String.class));
+
+        cacheA.put(1L, "Dune Messiah");
+
+        assertEquals("Dune Messiah", cacheB.get(1L, String.class));
+        assertEquals(2, nodeB.stats().get("book").remoteHits());
+    }
+
+    @Test
+    void testEvictAndClearPropagate() {
+        Cache cacheA = nodeA.getCache("patron");
+        Cache cacheB = nodeB.getCache("patron");
+        cacheA.put(1L, "Ada");
+        cacheA.put(2L, "Grace");
+        cacheB.get(1L);
+        cacheB.get(2L);
+
+        cacheA.evict(1L);
+        assertNull(cacheB.get(1L));
+        assertEquals("Grace", cacheB.get(2L, String.class));
+
+        cacheA.clear();
+        assertNull(cacheB.get(2L));
+        assertNull(redisStandIn.getCache("patron").get(2L));
+    }
+
+    @Test
+    void testInvalidationDuringRemoteReadKeepsStaleValueOutOfLocalTier() {
+        Runnable[] duringRead = new Runnable[1];
+        ConcurrentMapCacheManager slowRedis = new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return new ConcurrentMapCache(name) {
+                    @Override
+                    public ValueWrapper get(Object key) {
+                        ValueWrapper value = super.get(key);
+                        Runnable hook = duringRead[0];
+                        duringRead[0] = null;
+                        if (hook != null) {
+                            hook.run();
+                        }
+                        return value;
+                    }
+                };
+            }
+        };
+        InMemoryBus bus = new InMemoryBus();
+        Cache cacheA = new TwoTierCacheManager(slowRedis, bus, 100, Duration.ofMinutes(10)).getCache("book");
+        Cache cacheB = new TwoTierCacheManager(slowRedis, bus, 100, Duration.ofMinutes(10)).getCache("book");
+        cacheA.put(1L, "Dune");
+
+        // node A writes after node B has read the old value from Redis but before B fills its local tier
+        duringRead[0] = () -> cacheA.put(1L, "Dune Messiah");
+        assertEquals("Dune", cacheB.get(1L, String.class));
+
+        assertEquals("Dune Messiah", cacheB.get(1L, String.class));
+    }
+
+    @Test
+    void testGetAllServesLocalHitsAndFetchesTheRestInOneBatch() {
+        AtomicInteger batches = new AtomicInteger();
+        List<Object> batchedKeys = new CopyOnWriteArrayList<>();
+        ConcurrentMapCacheManager batchingRedis = new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                class BatchingCache extends ConcurrentMapCache implements MultiGetCache {
+                    BatchingCache() {
+                        super(name);
+                    }
+
+                    @Override
+                    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+                        batches.incrementAndGet();
+                        batchedKeys.addAll(keys);
+                        return MultiGetCache.getAll(new ConcurrentMapCache(name, getNativeCache(), true), keys);
+                    }
+                }
+                return new BatchingCache();
+            }
+        };
+        InMemoryBus bus = new InMemoryBus();
+        TwoTierCacheManager nodeC = new TwoTierCacheManager(batchingRedis, bus, 100, Duration.ofMinutes(10));
+        TwoTierCache cache = (TwoTierCache) nodeC.getCache("book");
+        cache.put(1L, "Dune");
+        batchingRedis.getCache("book").put(2L, "Emma");
+        batchingRedis.getCache("book").put(3L, "Ulysses");
+
+        Map<Object, Cache.ValueWrapper> found = cache.getAll(List.of(1L, 2L, 3L, 4L));
+
+        assertEquals(Set.of(1L, 2L, 3L), found.keySet());
+        assertEquals("Emma", found.get(2L).get());
+        assertEquals(1, batches.get());
+        assertEquals(List.of(2L, 3L, 4L), batchedKeys);
+        CacheTierStats stats = nodeC.stats().get("book");
+        assertEquals(1, stats.localHits());
+        assertEquals(2, stats.remoteHits());
+        assertEquals(1, stats.misses());
+        // the batch fills the local tier like single reads do
+        assertEquals(Set.of(1L, 2L, 3L), cache.getAll(List.of(1L, 2L, 3L)).keySet());
+        assertEquals(1, batches.get());
+    }
+
+    @Test
+    void testValueLoaderPopulatesBothTiers() {
+        Cache cacheA = nodeA.getCache("book");
+
+        assertEquals("loaded", cacheA.get(7L, () -> "loaded"));
+        assertEquals("loaded", redisStandIn.getCache("book").get(7L).get());
+        assertEquals("loaded", cacheA.get(7L, () -> "not called"));
+    }
+
+    @Test
+    void testWrongTypeIsRejected() {
+        nodeA.getCache("book").put(1L, "Dune");
+
+        assertThrows(IllegalStateException.class, () -> nodeA.getCache("book").get(1L, Integer.class));
+    }
+
+    @Test
+    void testCacheNamesAndNodeIds() {
+        nodeA.getCache("book");
+
+        assertTrue(nodeA.getCacheNames().contains("book"));
+        assertNotEquals(nodeA.getNodeId(), nodeB.getNodeId());
+    }
+}
@@ -0,0 +1,93 @@
+package com.library.librarySystem.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.dto.PatronDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionStampsTest {
+
+    private ConcurrentMapCache cache;
+    private VersionStamps versions;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConcurrentMapCache("patronVersion");
+        versions = new VersionStamps(cache, new ObjectMapper());
+    }
+
+    @Test
+    void testStamp_SameRepresentationGivesSameETag() {
+        LocalDateTime modified = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+        VersionStamp first = versions.stamp(patron("John Doe"), modified);
+        VersionStamp second = versions.stamp(patron("John Doe"), modified);
+
+        assertEquals(first, second);
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+        assertEquals(modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), first.lastModified());
+        assertNotEquals(first.etag(), versions.stamp(patron("Jane Doe"), modified).etag());
+    }
+
+    @Test
+    void testGet_LoadsOnlyOnMiss() {
+        AtomicInteger loads = new AtomicInteger();
+
+        VersionStamp first = versions.get(1L, () -> {
+            loads.incrementAndGet();
+            return versions.stamp(patron("John Doe"), null);
+        });
+        VersionStamp second = versions.get(1L, () -> {
+            loads.incrementAndGet();
+            return versions.stamp(patron("Someone Else"), null);
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void testChanged_ReplacesMemberAndCollectionStamps() {
+        versions.get(1L, () -> versions.stamp(patron("John Doe"), null));
+        VersionStamp collection = versions.collection();
+
+        versions.changed(1L, patron("Johnny Doe"));
+
+        assertEquals(versions.stamp(patron("Johnny Doe"), null).etag(), cache.get(1L, VersionStamp.class).etag());
+        assertNotEquals(collection, versions.collection());
+    }
+
+    @Test
+    void testRemoved_EvictsMemberAndBumpsCollection() {
+        versions.get(1L, () -> versions.stamp(patron("John Doe"), null));
+        VersionStamp collection = versions.collection();
+
+        versions.removed(1L);
+
+        assertNull(cache.get(1L));
+        assertNotEquals(collection, versions.collection());
+    }
+
+    @Test
+    void testCollection_StableUntilSomethingChanges() {
+        VersionStamp collection = versions.collection();
+
+        assertEquals(collection, versions.collection());
+        versions.collectionChanged();
+        assertNotEquals(collection, versions.collection());
+    }
+
+    private static PatronDto patron(String name) {
+        PatronDto patron = new PatronDto();
+        patron.setName(name);
+        patron.setEmail("john.doe@example.com");
+        return patron;
+    }
+}
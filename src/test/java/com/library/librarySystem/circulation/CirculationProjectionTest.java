@@ -0,0 +1,159 @@
+package com.library.librarySystem.circulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CirculationProjectionTest {
+    private static final LocalDate DUE = LocalDate.of(2024, 5, 15);
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+    private static final Duration GAP_TIMEOUT = Duration.ofMinutes(1);
+
+    @Mock
+    private CirculationLog circulationLog;
+
+    @Mock
+    private Clock clock;
+
+    private CirculationProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        projection = new CirculationProjection(circulationLog, GAP_TIMEOUT, clock);
+    }
+
+    @Test
+    void testApply_FoldsLoansAndKeptCopies() {
+        projection.apply(List.of(
+                event(1, CirculationEvent.Type.BORROWED, 1L, 10L, DUE),
+                event(2, CirculationEvent.Type.HOLD_PLACED, 1L, 20L, null),
+                event(3, CirculationEvent.Type.RENEWED, 1L, 10L, DUE.plusDays(7)),
+                event(4, CirculationEvent.Type.BORROWED, 2L, 10L, DUE)));
+        assertEquals(new BookCirculation(1L, 10L, DUE.plusDays(7), null, 3L), projection.get(1L));
+
+        projection.apply(List.of(
+                event(5, CirculationEvent.Type.RETURNED, 1L, 10L, null),
+                event(6, CirculationEvent.Type.HOLD_READY, 1L, 20L, null)));
+        assertEquals(20L, projection.get(1L).keptForId());
+        assertFalse(projection.get(1L).isAvailable());
+
+        projection.apply(List.of(event(7, CirculationEvent.Type.HOLD_EXPIRED, 1L, 20L, null)));
+        assertTrue(projection.get(1L).isAvailable());
+
+        projection.apply(List.of(event(8, CirculationEvent.Type.WITHDRAWN, 2L, null, null)));
+        assertEquals(1, projection.trackedBooks());
+        assertTrue(projection.get(99L).isAvailable());
+    }
+
+    @Test
+    void testApply_IgnoresEventsTheBookHasSeen() {
+        projection.apply(List.of(event(5, CirculationEvent.Type.BORROWED, 1L, 10L, DUE)));
+        projection.apply(List.of(event(3, CirculationEvent.Type.RETURNED, 1L, 10L, null)));
+
+        assertEquals(10L, projection.get(1L).borrowerId());
+    }
+
+    @Test
+    void testRebuild_ReplaysTailAfterSnapshot() {
+        when(clock.instant()).thenReturn(NOW);
+        BookCirculation lent = new BookCirculation(1L, 10L, DUE, null, 4L);
+        when(circulationLog.latestSnapshot())
+                .thenReturn(Optional.of(new CirculationSnapshot(4L, Instant.now(), List.of(lent))));
+        when(circulationLog.readAfter(4L, CirculationProjection.REPLAY_PAGE_SIZE)).thenReturn(List.of(
+                event(5, CirculationEvent.Type.RETURNED, 1L, 10L, null),
+                event(6, CirculationEvent.Type.BORROWED, 2L, 30L, DUE)));
+
+        projection.rebuild();
+
+        assertTrue(projection.get(1L).isAvailable());
+        assertEquals(30L, projection.get(2L).borrowerId());
+        assertEquals(6L, projection.watermark());
+    }
+
+    @Test
+    void testTail_AppliesGapOnceItCommitsAndHoldsTheWatermarkUntilThen() {
+        when(clock.instant()).thenReturn(NOW);
+        when(circulationLog.readAfter(0L, CirculationProjection.REPLAY_PAGE_SIZE)).thenReturn(List.of(
+                event(1, CirculationEvent.Type.BORROWED, 1L, 10L, DUE),
+                event(3, CirculationEvent.Type.BORROWED, 2L, 10L, DUE)));
+
+        // event 2 has not committed yet, so a restart must replay it
+        assertEquals(2, projection.tail());
+        assertEquals(1L, projection.watermark());
+        projection.snapshot();
+        ArgumentCaptor<CirculationSnapshot> saved = ArgumentCaptor.forClass(CirculationSnapshot.class);
+        verify(circulationLog).saveSnapshot(saved.capture());
+        assertEquals(1L, saved.getValue().sequence());
+
+        // it commits, and so does a later event of its book, which must not overtake it
+        when(circulationLog.readAfter(3L, CirculationProjection.REPLAY_PAGE_SIZE)).thenReturn(List.of(
+                event(4, CirculationEvent.Type.RETURNED, 3L, 20L, null)));
+        when(circulationLog.read(List.of(2L))).thenReturn(List.of(
+                event(2, CirculationEvent.Type.BORROWED, 3L, 20L, DUE)));
+
+        assertEquals(2, projection.tail());
+        assertEquals(new BookCirculation(3L, null, null, null, 4L), projection.get(3L));
+        assertEquals(4L, projection.watermark());
+    }
+
+    @Test
+    void testTail_GivesUpOnGapsThatNeverCommit() {
+        when(clock.instant()).thenReturn(NOW, NOW.plusSeconds(30), NOW.plus(GAP_TIMEOUT).plusSeconds(1));
+        when(circulationLog.readAfter(0L, CirculationProjection.REPLAY_PAGE_SIZE)).thenReturn(List.of(
+                event(1, CirculationEvent.Type.BORROWED, 1L, 10L, DUE),
+                event(3, CirculationEvent.Type.BORROWED, 2L, 10L, DUE)));
+
+        projection.tail();
+        projection.tail();
+        assertEquals(1L, projection.watermark());
+
+        // looked up one last time before it is dropped
+        projection.tail();
+        assertEquals(3L, projection.watermark());
+        verify(circulationLog, times(3)).read(List.of(2L));
+    }
+
+    @Test
+    void testCatchUp_TailsOnlyWhenBehind() {
+        when(clock.instant()).thenReturn(NOW);
+        when(circulationLog.readAfter(0L, CirculationProjection.REPLAY_PAGE_SIZE)).thenReturn(List.of(
+                event(1, CirculationEvent.Type.BORROWED, 1L, 10L, DUE)));
+
+        projection.catchUp(1L);
+        projection.catchUp(1L);
+
+        assertEquals(10L, projection.get(1L).borrowerId());
+        verify(circulationLog, times(1)).readAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void testSnapshot_SkippedWhenNothingHappened() {
+        projection.snapshot();
+        projection.snapshot();
+
+        verify(circulationLog, times(1)).saveSnapshot(any());
+    }
+
+    private static CirculationEvent event(long sequence, CirculationEvent.Type type, long bookId, Long patronId,
+                                          LocalDate dueDate) {
+        return new CirculationEvent(sequence, type, bookId, patronId, dueDate, Instant.now());
+    }
+}
@@ -0,0 +1,135 @@
+package com.library.librarySystem.circulation;
+
+import com.library.librarySystem.outbox.OutboxStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CirculationRecorderTest {
+    private static final LocalDate DUE = LocalDate.of(2024, 5, 15);
+
+    @Mock
+    private CirculationLog circulationLog;
+
+    @Mock
+    private OutboxStore outbox;
+
+    private CirculationProjection projection;
+    private CirculationRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        projection = new CirculationProjection(circulationLog, Duration.ofMinutes(1));
+        recorder = new CirculationRecorder(circulationLog, projection, outbox);
+        AtomicLong sequence = new AtomicLong();
+        List<CirculationEvent> written = new CopyOnWriteArrayList<>();
+        lenient().when(circulationLog.append(anyList())).thenAnswer(invocation -> {
+            List<CirculationEvent> appended = invocation.<List<CirculationEvent>>getArgument(0).stream()
+                    .map(event -> event.withSequence(sequence.incrementAndGet()))
+                    .toList();
+            written.addAll(appended);
+            return appended;
+        });
+        lenient().when(circulationLog.readAfter(anyLong(), anyInt())).thenAnswer(invocation -> written.stream()
+                .filter(event -> event.sequence() > invocation.<Long>getArgument(0))
+                .limit(invocation.<Integer>getArgument(1))
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRecord_TransactionalLogAppendsOnceBeforeCommit() {
+        when(circulationLog.transactional()).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        recorder.record(CirculationEvent.Type.BORROWED, 1L, 10L, DUE);
+        recorder.record(CirculationEvent.Type.BORROWED, 2L, 10L, DUE);
+        verify(circulationLog, never()).append(anyList());
+
+        commit();
+
+        verify(circulationLog, times(1)).append(argThat(events -> events.size() == 2));
+        verify(outbox, times(1)).enqueue(argThat(events -> events.size() == 2 && events.get(0).sequence() == 1L));
+        assertEquals(10L, projection.get(1L).borrowerId());
+        assertEquals(10L, projection.get(2L).borrowerId());
+        assertEquals(2L, projection.watermark());
+    }
+
+    @Test
+    void testRecord_OtherLogsAppendAfterCommit() {
+        when(circulationLog.transactional()).thenReturn(false);
+        TransactionSynchronizationManager.initSynchronization();
+
+        recorder.record(CirculationEvent.Type.BORROWED, 1L, 10L, DUE);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        verify(circulationLog, never()).append(anyList());
+        // the outbox still commits with the transaction, before the log has numbered the event
+        verify(outbox, times(1)).enqueue(argThat(events -> events.size() == 1 && events.get(0).sequence() == 0L));
+
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(circulationLog, times(1)).append(anyList());
+        assertEquals(10L, projection.get(1L).borrowerId());
+    }
+
+    @Test
+    void testRecord_RollbackLeavesNoTrace() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        recorder.record(CirculationEvent.Type.BORROWED, 1L, 10L, DUE);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(circulationLog, never()).append(anyList());
+        verifyNoInteractions(outbox);
+        assertTrue(projection.get(1L).isAvailable());
+        assertFalse(TransactionSynchronizationManager.hasResource(recorder));
+    }
+
+    @Test
+    void testRecord_WithoutTransactionAppendsImmediately() {
+        recorder.record(CirculationEvent.Type.BORROWED, 1L, 10L, DUE);
+
+        verify(circulationLog, times(1)).append(anyList());
+        verify(outbox, times(1)).enqueue(anyList());
+        assertEquals(10L, projection.get(1L).borrowerId());
+        assertEquals(1L, projection.watermark());
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.librarySystem.circulation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(JdbcCirculationLog.class)
+class JdbcCirculationLogTest {
+
+    @Autowired
+    private CirculationLog circulationLog;
+
+    @Test
+    void testAppend_ReadsBackInSequenceOrder() {
+        Instant at = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<CirculationEvent> appended = circulationLog.append(List.of(
+                new CirculationEvent(0L, CirculationEvent.Type.BORROWED, 1L, 10L, LocalDate.of(2024, 5, 15), at),
+                new CirculationEvent(0L, CirculationEvent.Type.WITHDRAWN, 2L, null, null, at)));
+
+        long first = appended.get(0).sequence();
+        assertTrue(first > 0);
+        assertEquals(first + 1, appended.get(1).sequence());
+        assertEquals(appended, circulationLog.readAfter(first - 1, 10));
+        assertEquals(appended.subList(1, 2), circulationLog.readAfter(first, 10));
+    }
+
+    @Test
+    void testRead_SkipsSequencesNotInTheLog() {
+        List<CirculationEvent> appended = circulationLog.append(List.of(
+                new CirculationEvent(0L, CirculationEvent.Type.HOLD_PLACED, 1L, 10L, null, Instant.now()),
+                new CirculationEvent(0L, CirculationEvent.Type.HOLD_PLACED, 1L, 20L, null, Instant.now())));
+        long first = appended.get(0).sequence();
+
+        assertEquals(List.of(first, first + 1), circulationLog.read(List.of(first + 1, first - 1000, first)).stream()
+                .map(CirculationEvent::sequence)
+                .toList());
+        assertTrue(circulationLog.read(List.of()).isEmpty());
+    }
+
+    @Test
+    void testProjection_EveryNodeSeesEventsAnotherNodeCommitted() {
+        CirculationProjection here = new CirculationProjection(circulationLog, Duration.ofMinutes(1));
+        CirculationProjection elsewhere = new CirculationProjection(circulationLog, Duration.ofMinutes(1));
+        long sequence = circulationLog.append(List.of(new CirculationEvent(0L, CirculationEvent.Type.BORROWED, 5L,
+                50L, LocalDate.of(2024, 5, 15), Instant.now()))).get(0).sequence();
+
+        here.catchUp(sequence);
+        elsewhere.poll();
+
+        assertEquals(50L, here.get(5L).borrowerId());
+        assertEquals(50L, elsewhere.get(5L).borrowerId());
+    }
+
+    @Test
+    void testSnapshot_KeepsOnlyTheLatest() {
+        assertTrue(circulationLog.latestSnapshot().isEmpty());
+        BookCirculation book = new BookCirculation(1L, null, null, 20L, 7L);
+
+        circulationLog.saveSnapshot(new CirculationSnapshot(7L, Instant.ofEpochMilli(1000), List.of(book)));
+        circulationLog.saveSnapshot(new CirculationSnapshot(9L, Instant.ofEpochMilli(2000), List.of()));
+
+        assertEquals(9L, circulationLog.latestSnapshot().orElseThrow().sequence());
+    }
+}
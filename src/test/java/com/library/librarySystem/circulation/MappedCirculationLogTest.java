@@ -0,0 +1,110 @@
+package com.library.librarySystem.circulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCirculationLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppend_AssignsSequencesAcrossSegments() throws IOException {
+        MappedCirculationLog log = new MappedCirculationLog(directory, 4);
+
+        List<CirculationEvent> appended = log.append(events(10));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L),
+                appended.stream().map(CirculationEvent::sequence).toList());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.filter(path -> path.toString().endsWith(".seg")).count());
+        }
+        assertEquals(appended, log.readAfter(0L, 100));
+        assertEquals(appended.subList(3, 6), log.readAfter(3L, 3));
+        assertTrue(log.readAfter(10L, 100).isEmpty());
+    }
+
+    @Test
+    void testReopen_ContinuesAfterLastEvent() {
+        MappedCirculationLog log = new MappedCirculationLog(directory, 4);
+        log.append(events(6));
+        log.close();
+
+        MappedCirculationLog reopened = new MappedCirculationLog(directory, 4);
+        List<CirculationEvent> appended = reopened.append(events(1));
+
+        assertEquals(7L, appended.get(0).sequence());
+        assertEquals(7, reopened.readAfter(0L, 100).size());
+    }
+
+    @Test
+    void testReopen_DropsTornRecord() throws IOException {
+        MappedCirculationLog log = new MappedCirculationLog(directory, 8);
+        log.append(events(3));
+        log.close();
+
+        Path segment = directory.resolve(String.format("%020d.seg", 1));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // scribble over the book id of the last record, as a crash halfway through writing it would
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 2L * MappedCirculationLog.RECORD_BYTES + 16);
+        }
+
+        MappedCirculationLog reopened = new MappedCirculationLog(directory, 8);
+        assertEquals(2, reopened.readAfter(0L, 100).size());
+        assertEquals(3L, reopened.append(events(1)).get(0).sequence());
+    }
+
+    @Test
+    void testOpen_RefusesADirectoryAlreadyInUse() {
+        MappedCirculationLog log = new MappedCirculationLog(directory, 4);
+
+        assertThrows(IllegalStateException.class, () -> new MappedCirculationLog(directory, 4));
+
+        log.close();
+        new MappedCirculationLog(directory, 4).close();
+    }
+
+    @Test
+    void testRead_ReturnsTheSequencesWritten() {
+        MappedCirculationLog log = new MappedCirculationLog(directory, 4);
+        List<CirculationEvent> appended = log.append(events(6));
+
+        assertEquals(List.of(appended.get(1), appended.get(4)), log.read(List.of(5L, 2L, 9L)));
+    }
+
+    @Test
+    void testSnapshot_ReplacesPreviousOne() {
+        MappedCirculationLog log = new MappedCirculationLog(directory, 4);
+        assertTrue(log.latestSnapshot().isEmpty());
+
+        BookCirculation book = new BookCirculation(1L, 2L, LocalDate.of(2024, 5, 15), null, 3L);
+        log.saveSnapshot(new CirculationSnapshot(3L, Instant.ofEpochMilli(1000), List.of(book)));
+        log.saveSnapshot(new CirculationSnapshot(5L, Instant.ofEpochMilli(2000), List.of(book)));
+
+        CirculationSnapshot latest = log.latestSnapshot().orElseThrow();
+        assertEquals(5L, latest.sequence());
+        assertEquals(List.of(book), latest.books());
+    }
+
+    private static List<CirculationEvent> events(int count) {
+        return Stream.iterate(1L, i -> i + 1)
+                .limit(count)
+                .map(i -> new CirculationEvent(0L, i % 2 == 0 ? CirculationEvent.Type.RETURNED : CirculationEvent.Type.BORROWED,
+                        i, i % 2 == 0 ? null : 100 + i, i % 2 == 0 ? null : LocalDate.of(2024, 5, 15),
+                        Instant.ofEpochMilli(i * 1000)))
+                .toList();
+    }
+}
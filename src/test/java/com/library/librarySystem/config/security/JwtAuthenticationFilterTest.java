@@ -0,0 +1,165 @@
+package com.library.librarySystem.config.security;
+
+import com.library.librarySystem.model.Role;
+import com.library.librarySystem.model.User;
+import com.library.librarySystem.revocation.RevokedTokens;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private HandlerExceptionResolver handlerExceptionResolver;
+
+    @Mock
+    private UserVersions userVersions;
+
+    @Mock
+    private RevokedTokens revokedTokens;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, handlerExceptionResolver, userVersions,
+                revokedTokens, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testStatelessTokenAuthenticatesFromClaimsAlone() throws Exception {
+        when(jwtService.parse("token")).thenReturn(claims(Role.ADMIN, 2));
+        when(userVersions.isCurrent("john.doe", 2)).thenReturn(true);
+
+        filter.doFilter(request("Bearer token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("john.doe", authentication.getName());
+        assertEquals(List.of("ROLE_ADMIN"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testRevokedTokenIsNotAuthenticated() throws Exception {
+        when(jwtService.parse("token")).thenReturn(claims(Role.USER, 0));
+        when(userVersions.isCurrent("john.doe", 0)).thenReturn(false);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("Bearer token"), new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testTokenRevokedAtLogoutIsNotAuthenticated() throws Exception {
+        when(jwtService.parse("token")).thenReturn(claims(Role.USER, 0));
+        when(userVersions.isCurrent("john.doe", 0)).thenReturn(true);
+        when(revokedTokens.isRevoked("token-id")).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("Bearer token"), new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void testLookupModeLoadsTheUser() throws Exception {
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, handlerExceptionResolver, userVersions,
+                revokedTokens, false);
+        User user = new User();
+        user.setUsername("john.doe");
+        user.setRole(Role.USER);
+        JwtClaims claims = claims(Role.USER, 0);
+        when(jwtService.parse("token")).thenReturn(claims);
+        when(userVersions.isCurrent("john.doe", 0)).thenReturn(true);
+        when(userDetailsService.loadUserByUsername("john.doe")).thenReturn(user);
+        when(jwtService.isTokenValid(claims, user)).thenReturn(true);
+
+        filter.doFilter(request("Bearer token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertSame(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    void testTokenWithoutRoleClaimIsParsedOnceAndAuthenticatesByLookup() throws Exception {
+        User user = new User();
+        user.setUsername("john.doe");
+        JwtClaims claims = claims(null, 0);
+        when(jwtService.parse("token")).thenReturn(claims);
+        when(userVersions.isCurrent("john.doe", 0)).thenReturn(true);
+        when(userDetailsService.loadUserByUsername("john.doe")).thenReturn(user);
+        when(jwtService.isTokenValid(claims, user)).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("Bearer token"), new MockHttpServletResponse(), chain);
+
+        verify(jwtService, times(1)).parse("token");
+        assertSame(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void testInvalidTokenIsHandedToTheExceptionResolver() throws Exception {
+        when(jwtService.parse("broken")).thenThrow(new MalformedJwtException("bad token"));
+
+        filter.doFilter(request("Bearer broken"), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(handlerExceptionResolver).resolveException(any(), any(), isNull(), any(MalformedJwtException.class));
+        verifyNoInteractions(userDetailsService);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testRequestWithoutBearerTokenPassesThrough() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain);
+
+        verifyNoInteractions(jwtService);
+        assertNotNull(chain.getRequest());
+    }
+
+    private static JwtClaims claims(Role role, int userVersion) {
+        return new JwtClaims("token-id", "john.doe", role, userVersion, Instant.now(), Instant.now().plusSeconds(60));
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+}
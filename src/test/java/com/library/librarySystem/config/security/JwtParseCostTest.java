@@ -0,0 +1,82 @@
+package com.library.librarySystem.config.security;
+
+import com.library.librarySystem.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * What the authentication filter pays per request to read a token, single-threaded and after warm-up. The old filter
+ * parsed each token three times (username, then username and expiry again for the validity check), decoding the
+ * secret and building a parser for every parse; the filter now parses once with the parser {@link JwtService} builds
+ * at startup.
+ */
+class JwtParseCostTest {
+    private static final Logger log = LoggerFactory.getLogger(JwtParseCostTest.class);
+    private static final String SECRET = "c2VjcmV0LWtleS1mb3ItdGVzdHMtdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHMyNTY=";
+    // the old path is a hundred times slower, so it gets fewer rounds to keep the test short
+    private static final int SLOW_ITERATIONS = 2_000;
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    void testOneParseWithSharedParserCostsAFractionOfThree() {
+        User user = new User();
+        user.setUsername("reader");
+        String token = new JwtService(SECRET, 3_600_000, new VerifiedTokenCache(100)).generateToken(user);
+        // what JwtService builds once and verifies with when a token is not in the cache
+        JwtParser parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build();
+
+        double threeParses = microsPerOp(token, SLOW_ITERATIONS, JwtParseCostTest::parseThreeTimes);
+        double oneParse = microsPerOp(token, ITERATIONS, t -> parser.parseClaimsJws(t).getBody().getSubject().length());
+
+        log.info("per request: {} us with three parses and a parser each, {} us with one parse and a shared parser",
+                String.format("%.2f", threeParses), String.format("%.2f", oneParse));
+        // a third of the parses alone would be a factor of three; leave room for a noisy machine
+        assertTrue(oneParse * 2 < threeParses, "one parse " + oneParse + " us, three " + threeParses + " us");
+    }
+
+    /**
+     * What the filter did before: extractUsername, then isTokenValid, which extracted the username and the expiry.
+     */
+    private static int parseThreeTimes(String token) {
+        String username = claims(token).getSubject();
+        boolean valid = claims(token).getSubject().equals(username) && claims(token).getExpiration().after(new Date());
+        return valid ? username.length() : 0;
+    }
+
+    private static Claims claims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    /**
+     * Runs the operation as many times untimed to warm up, then returns its average over {@code iterations} runs.
+     */
+    private static double microsPerOp(String token, int iterations, ToIntFunction<String> operation) {
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += operation.applyAsInt(token);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += operation.applyAsInt(token);
+        }
+        double micros = (System.nanoTime() - started) / 1e3 / iterations;
+        // keeps the results alive so the loop is not optimised away
+        assertTrue(sink > 0);
+        return micros;
+    }
+}
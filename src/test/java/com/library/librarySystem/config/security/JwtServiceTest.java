@@ -0,0 +1,99 @@
+package com.library.librarySystem.config.security;
+
+import com.library.librarySystem.model.Role;
+import com.library.librarySystem.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+    private static final String SECRET = "c2VjcmV0LWtleS1mb3ItdGVzdHMtdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHMyNTY=";
+
+    private final VerifiedTokenCache tokenCache = new VerifiedTokenCache(100);
+    private final JwtService jwtService = new JwtService(SECRET, 3_600_000, tokenCache);
+
+    @Test
+    void testParse_ReturnsTypedClaims() {
+        Instant before = Instant.now().minusSeconds(1);
+
+        User user = user("john.doe");
+        user.setRole(Role.ADMIN);
+        user.setTokenVersion(3);
+
+        JwtClaims claims = jwtService.parse(jwtService.generateToken(user));
+
+        assertEquals("john.doe", claims.subject());
+        assertNotNull(claims.tokenId());
+        assertEquals(Role.ADMIN, claims.role());
+        assertEquals(3, claims.userVersion());
+        assertFalse(claims.issuedAt().isBefore(before.truncatedTo(ChronoUnit.SECONDS)));
+        assertEquals(claims.issuedAt().plusSeconds(3600), claims.expiresAt());
+        assertTrue(jwtService.isTokenValid(claims, user));
+        assertFalse(jwtService.isTokenValid(claims, user("jane.doe")));
+    }
+
+    @Test
+    void testParse_VerifiesEachTokenOnce() {
+        String token = jwtService.generateToken(user("john.doe"));
+
+        JwtClaims first = jwtService.parse(token);
+        JwtClaims second = jwtService.parse(token);
+
+        assertSame(first, second);
+        TokenCacheStats stats = tokenCache.stats();
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.hits());
+    }
+
+    @Test
+    void testParse_RejectsTokenSignedWithAnotherKey() {
+        JwtService other = new JwtService("b3RoZXItc2VjcmV0LWtleS10aGF0LWlzLWxvbmctZW5vdWdoLWZvci1oczI1Ng==", 3_600_000,
+                new VerifiedTokenCache(100));
+        String token = other.generateToken(user("john.doe"));
+
+        assertThrows(JwtException.class, () -> jwtService.parse(token));
+        assertThrows(JwtException.class, () -> jwtService.parse(token));
+        // a token that fails verification is never cached
+        assertEquals(0, tokenCache.stats().size());
+        assertEquals(2, tokenCache.stats().rejected());
+    }
+
+    @Test
+    void testParse_RejectsExpiredToken() {
+        String token = new JwtService(SECRET, -1_000, tokenCache).generateToken(user("john.doe"));
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parse(token));
+    }
+
+    @Test
+    void testParse_TokenWithoutRoleOrVersionClaims() {
+        String token = jwtService.generateToken(org.springframework.security.core.userdetails.User
+                .withUsername("john.doe").password("secret").roles("USER").build());
+
+        JwtClaims claims = jwtService.parse(token);
+
+        assertNull(claims.role());
+        assertEquals(0, claims.userVersion());
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+
+    @Test
+    void testGenerateToken_GivesEveryTokenItsOwnId() {
+        User user = user("john.doe");
+
+        JwtClaims first = jwtService.parse(jwtService.generateToken(user));
+        JwtClaims second = jwtService.parse(jwtService.generateToken(user));
+
+        assertNotEquals(first.tokenId(), second.tokenId());
+    }
+}
@@ -0,0 +1,62 @@
+package com.library.librarySystem.config.security;
+
+import com.library.librarySystem.respository.UserRepository;
+import com.library.librarySystem.respository.UserVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserVersionsTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserVersions userVersions;
+
+    @Test
+    void testIsCurrent_LoadsOnceAndComparesVersions() {
+        when(userRepository.findRaisedTokenVersions()).thenReturn(List.of(version("john.doe", 2)));
+
+        assertFalse(userVersions.isCurrent("john.doe", 1));
+        assertTrue(userVersions.isCurrent("john.doe", 2));
+        // users who never revoked are at version 0
+        assertTrue(userVersions.isCurrent("jane.doe", 0));
+        verify(userRepository, times(1)).findRaisedTokenVersions();
+    }
+
+    @Test
+    void testRefresh_NeverLowersAVersion() {
+        when(userRepository.findRaisedTokenVersions())
+                .thenReturn(List.of(version("john.doe", 3)))
+                .thenReturn(List.of(version("john.doe", 2), version("jane.doe", 1)));
+
+        userVersions.refresh();
+        userVersions.refresh();
+
+        assertFalse(userVersions.isCurrent("john.doe", 2));
+        assertFalse(userVersions.isCurrent("jane.doe", 0));
+    }
+
+    private static UserVersion version(String username, int version) {
+        return new UserVersion() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public int getVersion() {
+                return version;
+            }
+        };
+    }
+}
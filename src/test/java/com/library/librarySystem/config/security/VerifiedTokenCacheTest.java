@@ -0,0 +1,60 @@
+package com.library.librarySystem.config.security;
+
+import com.library.librarySystem.model.Role;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void testGet_VerifiesOnlyOnMiss() {
+        JwtClaims claims = claims("john.doe", Instant.now().plusSeconds(60));
+
+        cache.get("token-a", token -> verify(claims));
+        JwtClaims cached = cache.get("token-a", token -> verify(claims("someone.else", Instant.now().plusSeconds(60))));
+
+        assertSame(claims, cached);
+        assertEquals(1, verifications.get());
+        assertEquals(0.5, cache.stats().hitRatio());
+    }
+
+    @Test
+    void testGet_EntryLivesOnlyUntilTheTokenExpires() throws InterruptedException {
+        cache.get("token-a", token -> verify(claims("john.doe", Instant.now().plusMillis(50))));
+        Thread.sleep(100);
+
+        cache.get("token-a", token -> verify(claims("john.doe", Instant.now().plusSeconds(60))));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void testInvalidate_DropsTokenAndSubject() {
+        cache.get("token-a", token -> verify(claims("john.doe", Instant.now().plusSeconds(60))));
+        cache.get("token-b", token -> verify(claims("john.doe", Instant.now().plusSeconds(60))));
+        cache.get("token-c", token -> verify(claims("jane.doe", Instant.now().plusSeconds(60))));
+
+        cache.invalidate("token-c");
+        cache.invalidateSubject("john.doe");
+
+        cache.get("token-a", token -> verify(claims("john.doe", Instant.now().plusSeconds(60))));
+        cache.get("token-c", token -> verify(claims("jane.doe", Instant.now().plusSeconds(60))));
+        assertEquals(5, verifications.get());
+    }
+
+    private JwtClaims verify(JwtClaims claims) {
+        verifications.incrementAndGet();
+        return claims;
+    }
+
+    private static JwtClaims claims(String subject, Instant expiresAt) {
+        return new JwtClaims(null, subject, Role.USER, 0, Instant.now(), expiresAt);
+    }
+}
@@ -2,25 +2,39 @@ package com.library.librarySystem.controller;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.cache.VersionStamp;
 import com.library.librarySystem.contracts.BookService;
+import com.library.librarySystem.contracts.BulkImportService;
+import com.library.librarySystem.dto.AvailableBooksDto;
 import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.dto.BookFacetsDto;
+import com.library.librarySystem.dto.BookSearchHitDto;
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.ImportFormat;
+import com.library.librarySystem.dto.ImportReportDto;
 import com.library.librarySystem.model.Book;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,12 +47,16 @@ class BookControllerTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private BulkImportService bulkImportService;
+
     @InjectMocks
     private BookController bookController;
 
     private BookDto bookDto;
     private Book book;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
@@ -65,27 +83,118 @@ class BookControllerTest {
     @Test
     void testGetAllBooks() throws Exception {
         List<BookDto> books = Arrays.asList(bookDto);
+        when(bookService.getBooksVersion()).thenReturn(new VersionStamp("\"v1\"", 1_700_000_000_000L));
         when(bookService.getAllBooks()).thenReturn(books);
 
         mockMvc.perform(get("/api/books"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v1\""))
                 .andExpect(jsonPath("$.size()").value(1))
                 .andExpect(jsonPath("$[0].title").value("Test Book"));
 
         verify(bookService, times(1)).getAllBooks();
     }
 
+    @Test
+    void testGetAllBooks_NotModified() throws Exception {
+        when(bookService.getBooksVersion()).thenReturn(new VersionStamp("\"v1\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/api/books").header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(bookService, never()).getAllBooks();
+    }
+
+    @Test
+    void testGetBooksPage() throws Exception {
+        when(bookService.getBooksPage(5L, 1)).thenReturn(new CursorPageDto<>(List.of(bookDto), 6L, 1));
+
+        mockMvc.perform(get("/api/books/page").param("after", "5").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Test Book"))
+                .andExpect(jsonPath("$.nextCursor").value(6))
+                .andExpect(jsonPath("$.size").value(1));
+
+        verify(bookService, times(1)).getBooksPage(5L, 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllBooks() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookDto> consumer = invocation.getArgument(0);
+            consumer.accept(bookDto);
+            consumer.accept(bookDto);
+            return null;
+        }).when(bookService).streamAllBooks(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/books/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[1].title").value("Test Book"));
+    }
+
+    @Test
+    void testSearchBooks() throws Exception {
+        when(bookService.searchBooks("test", 5)).thenReturn(List.of(new BookSearchHitDto(1L, 1.5, bookDto)));
+
+        mockMvc.perform(get("/api/books/search").param("q", "test").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].book.title").value("Test Book"));
+
+        verify(bookService, times(1)).searchBooks("test", 5);
+    }
+
     @Test
     void testGetBookById() throws Exception {
+        when(bookService.getBookVersion(1L)).thenReturn(new VersionStamp("\"abc\"", 1_700_000_000_000L));
         when(bookService.getBookById(1L)).thenReturn(bookDto);
 
         mockMvc.perform(get("/api/books/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc\""))
+                .andExpect(header().exists("Last-Modified"))
                 .andExpect(jsonPath("$.title").value("Test Book"));
 
         verify(bookService, times(1)).getBookById(1L);
     }
 
+    @Test
+    void testGetBookById_NotModifiedByETag() throws Exception {
+        when(bookService.getBookVersion(1L)).thenReturn(new VersionStamp("\"abc\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/api/books/1").header("If-None-Match", "\"abc\""))
+                .andExpect(status().isNotModified());
+
+        verify(bookService, never()).getBookById(anyLong());
+    }
+
+    @Test
+    void testGetBookById_NotModifiedSince() throws Exception {
+        when(bookService.getBookVersion(1L)).thenReturn(new VersionStamp("\"abc\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/api/books/1").header("If-Modified-Since", "Tue, 14 Nov 2023 22:13:20 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(bookService, never()).getBookById(anyLong());
+    }
+
+    @Test
+    void testGetBookById_ChangedETag() throws Exception {
+        when(bookService.getBookVersion(1L)).thenReturn(new VersionStamp("\"def\"", 1_700_000_000_000L));
+        when(bookService.getBookById(1L)).thenReturn(bookDto);
+
+        mockMvc.perform(get("/api/books/1").header("If-None-Match", "\"abc\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Test Book"));
+    }
+
     @Test
     void testCreateBook() throws Exception {
         when(bookService.createBook(any(Book.class))).thenReturn(bookDto);
@@ -99,6 +208,60 @@ class BookControllerTest {
         verify(bookService, times(1)).createBook(any(Book.class));
     }
 
+    @Test
+    void testGetFacets() throws Exception {
+        when(bookService.getFacets(5)).thenReturn(new BookFacetsDto(3, 2, 1,
+                Map.of("Fiction", 3L), Map.of("Test Author", 3L), Map.of(1990, 3L)));
+
+        mockMvc.perform(get("/api/books/facets").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.borrowed").value(1))
+                .andExpect(jsonPath("$.genres.Fiction").value(3))
+                .andExpect(jsonPath("$.decades.1990").value(3));
+    }
+
+    @Test
+    void testGetAvailableBooks() throws Exception {
+        when(bookService.getAvailableBooks("Fiction", 1990, null, null, 20))
+                .thenReturn(new AvailableBooksDto(42, List.of(bookDto), 1L, 1));
+
+        mockMvc.perform(get("/api/books/available").param("genre", "Fiction").param("fromYear", "1990"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(42))
+                .andExpect(jsonPath("$.content[0].title").value("Test Book"))
+                .andExpect(jsonPath("$.nextCursor").value(1));
+
+        verify(bookService, times(1)).getAvailableBooks("Fiction", 1990, null, null, 20);
+    }
+
+    @Test
+    void testImportBooksFromCsv() throws Exception {
+        ImportReportDto report = new ImportReportDto();
+        report.setProcessed(1);
+        report.setImported(1);
+        when(bulkImportService.importBooks(any(InputStream.class), eq(ImportFormat.CSV))).thenReturn(report);
+
+        mockMvc.perform(post("/api/books/import")
+                        .contentType("text/csv; charset=UTF-8")
+                        .content("title,author,isbn\nTest Book,Test Author,9780132350888\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(1))
+                .andExpect(jsonPath("$.imported").value(1));
+
+        verify(bulkImportService, times(1)).importBooks(any(InputStream.class), eq(ImportFormat.CSV));
+    }
+
+    @Test
+    void testImportBooksRejectsUnsupportedContentType() throws Exception {
+        mockMvc.perform(post("/api/books/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<books/>"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(bulkImportService);
+    }
+
     @Test
     void testUpdateBook() throws Exception {
         when(bookService.updateBook(anyLong(), any(BookDto.class))).thenReturn(bookDto);
@@ -2,15 +2,26 @@ package com.library.librarySystem.controller;
 
 import static org.junit.jupiter.api.Assertions.*;
 import com.library.librarySystem.contracts.BorrowingRecordService;
+import com.library.librarySystem.dto.BatchLoanItemDto;
+import com.library.librarySystem.dto.BatchLoanItemDto.Outcome;
+import com.library.librarySystem.dto.BatchLoanResultDto;
+import com.library.librarySystem.dto.BookLoanDto;
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.PatronLoanDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -61,4 +72,83 @@ class BorrowingRecordControllerTest {
 
         verify(borrowingService, times(1)).returnBook(bookId, patronId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRenewLoan() throws Exception {
+        String successMessage = "Loan of book with ID 1 by Patron ID 2 is due on 2024-05-15";
+        when(borrowingService.renewLoan(1L, 2L)).thenReturn(successMessage);
+
+        mockMvc.perform(put("/api/renew/1/patron/2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(successMessage));
+
+        verify(borrowingService, times(1)).renewLoan(1L, 2L);
+    }
+
+    @Test
+    void testBorrowBooks() throws Exception {
+        BatchLoanResultDto result = new BatchLoanResultDto(2L, 1, 1, List.of(
+                new BatchLoanItemDto(1L, Outcome.BORROWED, "Book with ID 1 successfully borrowed by Patron ID 2"),
+                new BatchLoanItemDto(5L, Outcome.UNAVAILABLE, "Book with id: 5 is already borrowed")));
+        when(borrowingService.borrowBooks(2L, List.of(1L, 5L))).thenReturn(result);
+
+        mockMvc.perform(post("/api/borrow/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"patronId\":2,\"bookIds\":[1,5]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[1].outcome").value("UNAVAILABLE"));
+    }
+
+    @Test
+    void testReturnBooks() throws Exception {
+        BatchLoanResultDto result = new BatchLoanResultDto(2L, 1, 0, List.of(
+                new BatchLoanItemDto(1L, Outcome.RETURNED, "Book with ID 1 successfully returned by Patron ID 2")));
+        when(borrowingService.returnBooks(2L, List.of(1L))).thenReturn(result);
+
+        mockMvc.perform(put("/api/return/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"patronId\":2,\"bookIds\":[1]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].outcome").value("RETURNED"));
+    }
+
+    @Test
+    void testBorrowBooks_RejectsEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/borrow/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"patronId\":2,\"bookIds\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(borrowingService, never()).borrowBooks(anyLong(), any());
+    }
+
+    @Test
+    void testGetPatronLoans() throws Exception {
+        PatronLoanDto loan = new PatronLoanDto(9L, 1L, "Clean Code", LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 15), true);
+        when(borrowingService.getPatronLoans(2L, 10L, 5)).thenReturn(new CursorPageDto<>(List.of(loan), 9L, 1));
+
+        mockMvc.perform(get("/api/patrons/2/loans").param("before", "10").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].loanId").value(9))
+                .andExpect(jsonPath("$.content[0].title").value("Clean Code"))
+                .andExpect(jsonPath("$.content[0].returned").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(9));
+
+        verify(borrowingService, times(1)).getPatronLoans(2L, 10L, 5);
+    }
+
+    @Test
+    void testGetBookLoans() throws Exception {
+        BookLoanDto loan = new BookLoanDto(9L, 2L, "John Doe", LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 15), false);
+        when(borrowingService.getBookLoans(1L, null, 20)).thenReturn(new CursorPageDto<>(List.of(loan), null, 1));
+
+        mockMvc.perform(get("/api/books/1/loans"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].patronName").value("John Doe"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(borrowingService, times(1)).getBookLoans(1L, null, 20);
+    }
+}
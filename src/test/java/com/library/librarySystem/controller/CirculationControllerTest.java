@@ -0,0 +1,64 @@
+package com.library.librarySystem.controller;
+
+import com.library.librarySystem.circulation.BookCirculation;
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CirculationControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private CirculationProjection circulationProjection;
+
+    @InjectMocks
+    private CirculationController circulationController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(circulationController).build();
+    }
+
+    @Test
+    void testGetBook() throws Exception {
+        when(circulationProjection.get(1L))
+                .thenReturn(new BookCirculation(1L, 2L, LocalDate.of(2024, 5, 15), null, 42L));
+
+        mockMvc.perform(get("/api/circulation/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrowerId").value(2))
+                .andExpect(jsonPath("$.available").value(false))
+                .andExpect(jsonPath("$.sequence").value(42));
+    }
+
+    @Test
+    void testGetEvents() throws Exception {
+        CirculationEvent event = new CirculationEvent(8L, CirculationEvent.Type.RETURNED, 1L, 2L, null,
+                Instant.parse("2024-05-01T10:00:00Z"));
+        when(circulationProjection.readEvents(7L, 50)).thenReturn(List.of(event));
+
+        mockMvc.perform(get("/api/circulation/events").param("after", "7").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sequence").value(8))
+                .andExpect(jsonPath("$[0].type").value("RETURNED"));
+
+        verify(circulationProjection, times(1)).readEvents(7L, 50);
+    }
+}
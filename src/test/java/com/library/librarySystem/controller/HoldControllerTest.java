@@ -0,0 +1,78 @@
+package com.library.librarySystem.controller;
+
+import com.library.librarySystem.contracts.HoldService;
+import com.library.librarySystem.dto.HoldDto;
+import com.library.librarySystem.model.HoldStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private HoldService holdService;
+
+    @InjectMocks
+    private HoldController holdController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(holdController).build();
+    }
+
+    @Test
+    void testPlaceHold() throws Exception {
+        when(holdService.placeHold(1L, 2L, 3)).thenReturn(hold(HoldStatus.WAITING));
+
+        mockMvc.perform(post("/api/holds/1/patron/2").param("priority", "3"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(10))
+                .andExpect(jsonPath("$.status").value("WAITING"));
+    }
+
+    @Test
+    void testPlaceHold_DefaultPriority() throws Exception {
+        when(holdService.placeHold(1L, 2L, 0)).thenReturn(hold(HoldStatus.WAITING));
+
+        mockMvc.perform(post("/api/holds/1/patron/2"))
+                .andExpect(status().isCreated());
+
+        verify(holdService, times(1)).placeHold(1L, 2L, 0);
+    }
+
+    @Test
+    void testCancelHold() throws Exception {
+        when(holdService.cancelHold(10L)).thenReturn(hold(HoldStatus.CANCELLED));
+
+        mockMvc.perform(delete("/api/holds/10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    @Test
+    void testGetQueue() throws Exception {
+        when(holdService.getQueue(1L, 5)).thenReturn(List.of(hold(HoldStatus.READY)));
+
+        mockMvc.perform(get("/api/holds/book/1").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("READY"));
+    }
+
+    private static HoldDto hold(HoldStatus status) {
+        return new HoldDto(10L, 1L, 2L, 3, status, null, null);
+    }
+}
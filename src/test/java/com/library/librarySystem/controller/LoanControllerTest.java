@@ -0,0 +1,51 @@
+package com.library.librarySystem.controller;
+
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.OverdueLoanDto;
+import com.library.librarySystem.loan.OverdueTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private OverdueTracker overdueTracker;
+
+    @InjectMocks
+    private LoanController loanController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(loanController).build();
+    }
+
+    @Test
+    void testGetOverdueLoans() throws Exception {
+        OverdueLoanDto loan = new OverdueLoanDto(7L, 1L, 2L, LocalDate.of(2024, 5, 1), 3);
+        when(overdueTracker.getOverdueLoans(5L, 10)).thenReturn(new CursorPageDto<>(List.of(loan), 7L, 1));
+
+        mockMvc.perform(get("/api/loans/overdue").param("after", "5").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].loanId").value(7))
+                .andExpect(jsonPath("$.content[0].daysOverdue").value(3))
+                .andExpect(jsonPath("$.nextCursor").value(7));
+
+        verify(overdueTracker, times(1)).getOverdueLoans(5L, 10);
+    }
+}
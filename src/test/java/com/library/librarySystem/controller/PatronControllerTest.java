@@ -1,7 +1,11 @@
 package com.library.librarySystem.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.cache.VersionStamp;
+import com.library.librarySystem.contracts.BulkImportService;
 import com.library.librarySystem.contracts.PatronService;
+import com.library.librarySystem.dto.ImportFormat;
+import com.library.librarySystem.dto.ImportReportDto;
 import com.library.librarySystem.dto.PatronDto;
 import com.library.librarySystem.model.Patron;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,11 +18,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -31,6 +37,9 @@ class PatronControllerTest {
     @Mock
     private PatronService patronService;
 
+    @Mock
+    private BulkImportService bulkImportService;
+
     @InjectMocks
     private PatronController patronController;
 
@@ -59,6 +68,7 @@ class PatronControllerTest {
     @Test
     void testGetAllPatrons() throws Exception {
         List<PatronDto> patrons = Arrays.asList(patronDto);
+        when(patronService.getPatronsVersion()).thenReturn(new VersionStamp("\"v1\"", 1_700_000_000_000L));
         when(patronService.getAllPatrons()).thenReturn(patrons);
 
         mockMvc.perform(get("/api/patrons"))
@@ -71,6 +81,7 @@ class PatronControllerTest {
 
     @Test
     void testGetPatronById() throws Exception {
+        when(patronService.getPatronVersion(1L)).thenReturn(new VersionStamp("\"abc\"", 1_700_000_000_000L));
         when(patronService.getPatronById(1L)).thenReturn(patronDto);
 
         mockMvc.perform(get("/api/patrons/1"))
@@ -80,6 +91,17 @@ class PatronControllerTest {
         verify(patronService, times(1)).getPatronById(1L);
     }
 
+    @Test
+    void testGetPatronById_NotModified() throws Exception {
+        when(patronService.getPatronVersion(1L)).thenReturn(new VersionStamp("\"abc\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/api/patrons/1").header("If-None-Match", "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc\""));
+
+        verify(patronService, never()).getPatronById(anyLong());
+    }
+
     @Test
     void testCreatePatron() throws Exception {
         when(patronService.createPatron(any(Patron.class))).thenReturn(patronDto);
@@ -93,6 +115,22 @@ class PatronControllerTest {
         verify(patronService, times(1)).createPatron(any(Patron.class));
     }
 
+    @Test
+    void testImportPatronsFromNdjson() throws Exception {
+        ImportReportDto report = new ImportReportDto();
+        report.setProcessed(1);
+        report.setImported(1);
+        when(bulkImportService.importPatrons(any(InputStream.class), eq(ImportFormat.NDJSON))).thenReturn(report);
+
+        mockMvc.perform(post("/api/patrons/import")
+                        .contentType(ImportFormat.NDJSON_VALUE)
+                        .content(objectMapper.writeValueAsString(patronDto) + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+        verify(bulkImportService, times(1)).importPatrons(any(InputStream.class), eq(ImportFormat.NDJSON));
+    }
+
     @Test
     void testUpdatePatron() throws Exception {
         when(patronService.updatePatron(anyLong(), any(PatronDto.class))).thenReturn(patronDto);
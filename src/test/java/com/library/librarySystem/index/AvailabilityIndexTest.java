@@ -0,0 +1,87 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityIndexTest {
+
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilityIndex();
+        index.indexAll(List.of(
+                book(1L, "Fiction", 1965, true),
+                book(2L, "Fiction", 1999, false),
+                book(3L, "Programming", 2008, true),
+                book(4L, "fiction ", 2008, true),
+                book(5L, "Programming", 1999, true)));
+    }
+
+    @Test
+    void testCount_CombinesFilters() {
+        assertEquals(4, index.count(null, null, null));
+        assertEquals(2, index.count("FICTION", null, null));
+        assertEquals(3, index.count(null, 1999, 2010));
+        assertEquals(1, index.count("fiction", 2000, null));
+        assertEquals(0, index.count("poetry", null, null));
+        assertEquals(0, index.count(null, 2010, 1990));
+    }
+
+    @Test
+    void testPage_ReturnsIdsAfterCursorInOrder() {
+        AvailabilityIndex.Page first = index.page(null, null, null, 0L, 2);
+        assertEquals(4, first.total());
+        assertEquals(List.of(1L, 3L), first.bookIds());
+
+        AvailabilityIndex.Page second = index.page(null, null, null, 3L, 2);
+        assertEquals(List.of(4L, 5L), second.bookIds());
+    }
+
+    @Test
+    void testAvailabilityChanged_MovesBookOnAndOffTheShelf() {
+        index.availabilityChanged(2L, true);
+        index.availabilityChanged(1L, false);
+
+        assertEquals(List.of(2L, 4L), index.page("fiction", null, null, 0L, 10).bookIds());
+    }
+
+    @Test
+    void testAvailabilityChanged_IgnoresUnknownBooks() {
+        index.availabilityChanged(99L, true);
+
+        assertEquals(4, index.count(null, null, null));
+    }
+
+    @Test
+    void testIndex_ReplacesPreviousGenreAndYear() {
+        index.index(book(3L, "Fiction", 1965, true));
+
+        assertEquals(1, index.count("programming", null, null));
+        assertEquals(3, index.count("fiction", null, null));
+        assertEquals(2, index.count(null, 1965, 1965));
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        index.remove(1L);
+        assertEquals(1, index.count("fiction", null, null));
+
+        index.clear();
+        assertEquals(0, index.count(null, null, null));
+    }
+
+    private static Book book(Long id, String genre, int year, boolean available) {
+        Book book = new Book();
+        book.setId(id);
+        book.setGenre(genre);
+        book.setPublicationYear(year);
+        book.setAvailable(available);
+        return book;
+    }
+}
@@ -0,0 +1,95 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.respository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookIndexesTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookSearchIndex searchIndex;
+    private BookIndexes bookIndexes;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new BookSearchIndex();
+        bookIndexes = new BookIndexes(List.of(searchIndex), bookRepository);
+    }
+
+    @Test
+    void testIndexedAndRemovedWithoutTransaction() {
+        Book book = book(1L);
+
+        bookIndexes.indexed(book);
+        assertEquals(1, searchIndex.size());
+
+        bookIndexes.removed(1L);
+        assertEquals(0, searchIndex.size());
+    }
+
+    @Test
+    void testRebuildReadsEveryPage() {
+        int pageSize = BookIndexes.REBUILD_PAGE_SIZE;
+        List<Book> firstPage = books(1, pageSize);
+        List<Book> secondPage = books(pageSize + 1, pageSize + 5);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(pageSize))).thenReturn(firstPage);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc((long) pageSize, Limit.of(pageSize))).thenReturn(secondPage);
+        searchIndex.index(book(99_999L));
+
+        bookIndexes.rebuild();
+
+        assertEquals(pageSize + 5, searchIndex.size());
+        verify(bookRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void testRebuildReplaysChangesCommittedWhileItRuns() {
+        int pageSize = BookIndexes.REBUILD_PAGE_SIZE;
+        List<Book> page = books(1, 5);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(pageSize))).thenAnswer(invocation -> {
+            // committed after the page was read, so the page still holds both books as they were
+            bookIndexes.removed(1L);
+            Book renamed = book(2L);
+            renamed.setTitle("Renamed");
+            bookIndexes.indexed(renamed);
+            return page;
+        });
+
+        bookIndexes.rebuild();
+
+        assertEquals(4, searchIndex.size());
+        assertTrue(searchIndex.search("renamed", 10).stream().anyMatch(hit -> hit.bookId() == 2L));
+        assertTrue(searchIndex.search("book", 10).stream().noneMatch(hit -> hit.bookId() == 1L || hit.bookId() == 2L));
+
+        bookIndexes.removed(3L);
+        assertEquals(3, searchIndex.size());
+    }
+
+    private List<Book> books(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId).mapToObj(this::book).collect(Collectors.toList());
+    }
+
+    private Book book(long id) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle("Book " + id);
+        book.setAuthor("Author");
+        book.setGenre("genre");
+        return book;
+    }
+}
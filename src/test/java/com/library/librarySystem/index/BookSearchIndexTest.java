@@ -0,0 +1,107 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.index(book(1L, "Effective Java", "Joshua Bloch", "programming", "Best practices for the Java platform"));
+        index.index(book(2L, "Clean Code", "Robert Martin", "programming", "A handbook of agile craftsmanship"));
+        index.index(book(3L, "Java Concurrency in Practice", "Brian Goetz", "programming", "Threads and locks"));
+        index.index(book(4L, "Dune", "Frank Herbert", "science fiction", "Spice, sand and Java-free deserts"));
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("java", "concurrency", "practice"), BookSearchIndex.tokenize("Java Concurrency in Practice!"));
+        assertTrue(BookSearchIndex.tokenize("  ").isEmpty());
+        assertTrue(BookSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void testSearch_TitleMatchesRankAboveDescriptionMatches() {
+        List<BookSearchIndex.Hit> hits = index.search("java", 10);
+
+        assertEquals(3, hits.size());
+        assertEquals(4L, hits.get(2).bookId());
+        assertTrue(hits.get(0).score() >= hits.get(1).score());
+    }
+
+    @Test
+    void testSearch_LastTermMatchesAsPrefix() {
+        List<BookSearchIndex.Hit> hits = index.search("herb", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(4L, hits.get(0).bookId());
+    }
+
+    @Test
+    void testSearch_Limit() {
+        assertEquals(1, index.search("programming", 1).size());
+        assertTrue(index.search("programming", 0).isEmpty());
+        assertTrue(index.search("the", 10).isEmpty());
+    }
+
+    @Test
+    void testIndex_ReplacesPreviousVersion() {
+        index.index(book(2L, "Refactoring", "Martin Fowler", "programming", null));
+
+        assertTrue(index.search("clean", 10).isEmpty());
+        assertEquals(2L, index.search("refactoring", 10).get(0).bookId());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        index.remove(4L);
+        assertTrue(index.search("dune", 10).isEmpty());
+        assertEquals(3, index.size());
+
+        index.clear();
+        assertTrue(index.search("java", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testIndex_DropsTermsNoBookUsesAnymore() {
+        int terms = index.termCount();
+
+        index.index(book(4L, "Dune", "Frank Herbert", "science fiction", null));
+        index.remove(2L);
+
+        assertTrue(index.termCount() < terms);
+        assertTrue(index.search("spice", 10).isEmpty());
+        assertTrue(index.search("craftsman", 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_PrefixExpansionsSkipRemovedTerms() {
+        for (long id = 100; id < 100 + BookSearchIndex.MAX_PREFIX_EXPANSIONS * 2; id++) {
+            index.index(book(id, "Zeta" + id, "Author", "genre", null));
+            index.remove(id);
+        }
+        index.index(book(500L, "Zetz", "Author", "genre", null));
+
+        assertEquals(500L, index.search("zet", 10).get(0).bookId());
+    }
+
+    private Book book(Long id, String title, String author, String genre, String description) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setGenre(genre);
+        book.setDescription(description);
+        return book;
+    }
+}
@@ -0,0 +1,131 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query latency of {@link BookSearchIndex} over a synthetic catalog of {@value #BOOKS} books, single-threaded and
+ * after warm-up. Words are drawn with a skew towards the front of the vocabulary, so common terms have long posting
+ * lists the way real ones do. The prefix queries end in a stem shared by more words than
+ * {@link BookSearchIndex#MAX_PREFIX_EXPANSIONS}, so every one of them runs up to the expansion cap.
+ */
+class BookSearchLatencyTest {
+    private static final Logger log = LoggerFactory.getLogger(BookSearchLatencyTest.class);
+    private static final int BOOKS = 100_000;
+    private static final int VOCABULARY = 20_000;
+    private static final String STEM = "pre";
+    private static final int QUERIES = 2_000;
+    // a capped prefix query costs a few hundred times a plain one, so it gets fewer rounds to keep the test short
+    private static final int PREFIX_QUERIES = 250;
+    private static final int LIMIT = 20;
+
+    private static final BookSearchIndex index = new BookSearchIndex();
+    private static final List<String> words = new ArrayList<>();
+    private static final Random random = new Random(42);
+
+    @BeforeAll
+    static void indexCatalog() {
+        for (int i = 0; i < VOCABULARY; i++) {
+            words.add(word(i));
+        }
+        // the stem's family sits at the front of the vocabulary, so it is common enough to fill the cap
+        for (int i = 0; i < BookSearchIndex.MAX_PREFIX_EXPANSIONS * 3; i++) {
+            words.add(i * 5, STEM + word(i));
+        }
+        long started = System.nanoTime();
+        for (long id = 1; id <= BOOKS; id++) {
+            index.index(book(id));
+        }
+        log.info("indexed {} books with {} terms in {} ms", index.size(), index.termCount(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Test
+    void testSearchLatency() {
+        double[] single = latencies(QUERIES, () -> pick());
+        double[] twoTerms = latencies(QUERIES, () -> pick() + " " + pick());
+        double[] prefix = latencies(PREFIX_QUERIES, () -> pick() + " " + STEM);
+
+        report("one term", single);
+        report("two terms", twoTerms);
+        report("prefix at the expansion cap", prefix);
+        assertEquals(LIMIT, index.search(STEM, LIMIT).size());
+        // a capped prefix query touches at most 65 posting lists; keep it within interactive latency on a slow machine
+        assertTrue(percentile(prefix, 99) < 250, "p99 " + percentile(prefix, 99) + " ms");
+    }
+
+    /**
+     * Runs {@code count} queries untimed to warm up, then returns the sorted latencies of as many more in milliseconds.
+     */
+    private static double[] latencies(int count, Supplier<String> queries) {
+        int sink = 0;
+        for (int i = 0; i < count; i++) {
+            sink += index.search(queries.get(), LIMIT).size();
+        }
+        double[] millis = new double[count];
+        for (int i = 0; i < count; i++) {
+            String query = queries.get();
+            long started = System.nanoTime();
+            sink += index.search(query, LIMIT).size();
+            millis[i] = (System.nanoTime() - started) / 1e6;
+        }
+        // keeps the results alive so the loop is not optimised away
+        assertTrue(sink > 0);
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static void report(String kind, double[] millis) {
+        log.info("{}: p50 {} ms, p99 {} ms, max {} ms", kind, String.format("%.3f", percentile(millis, 50)),
+                String.format("%.3f", percentile(millis, 99)), String.format("%.3f", millis[millis.length - 1]));
+    }
+
+    private static double percentile(double[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    private static Book book(long id) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(phrase(3));
+        book.setAuthor(pick() + " " + pick());
+        book.setGenre(words.get(random.nextInt(20)));
+        book.setDescription(phrase(12));
+        return book;
+    }
+
+    private static String phrase(int length) {
+        StringBuilder phrase = new StringBuilder(pick());
+        for (int i = 1; i < length; i++) {
+            phrase.append(' ').append(pick());
+        }
+        return phrase.toString();
+    }
+
+    // cubing a uniform draw puts most picks among the first few hundred words
+    private static String pick() {
+        double draw = random.nextDouble();
+        return words.get((int) (words.size() * draw * draw * draw));
+    }
+
+    // distinct letters-only words: the index in base 26, padded to at least four letters
+    private static String word(int i) {
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0 || word.length() < 4);
+        return word.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexTest {
+
+    private FacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FacetIndex();
+        index.indexAll(List.of(
+                book(1L, "Fiction", "Frank Herbert", 1965, true),
+                book(2L, "Fiction", "Ursula K. Le Guin", 1969, false),
+                book(3L, "Programming", "Joshua Bloch", 2008, true)));
+    }
+
+    @Test
+    void testCounts() {
+        assertEquals(3, index.total());
+        assertEquals(2, index.available());
+        assertEquals(Map.of("Fiction", 2L, "Programming", 1L), index.genres(10));
+        assertEquals(Map.of(1960, 2L, 2000, 1L), index.decades());
+    }
+
+    @Test
+    void testGenres_MostCommonFirstAndLimited() {
+        assertEquals(List.of("Fiction"), List.copyOf(index.genres(1).keySet()));
+    }
+
+    @Test
+    void testIndex_MovesBookBetweenBuckets() {
+        index.index(book(2L, "Programming", "Ursula K. Le Guin", 2012, true));
+
+        assertEquals(3, index.total());
+        assertEquals(3, index.available());
+        assertEquals(Map.of("Fiction", 1L, "Programming", 2L), index.genres(10));
+        assertEquals(Map.of(1960, 1L, 2010, 1L, 2000, 1L), index.decades());
+    }
+
+    @Test
+    void testAvailabilityChanged() {
+        index.availabilityChanged(1L, false);
+        index.availabilityChanged(1L, false);
+        index.availabilityChanged(99L, true);
+
+        assertEquals(1, index.available());
+    }
+
+    @Test
+    void testRemove_DropsEmptyBuckets() {
+        index.remove(3L);
+
+        assertEquals(2, index.total());
+        assertFalse(index.genres(10).containsKey("Programming"));
+        assertFalse(index.authors(10).containsKey("Joshua Bloch"));
+        assertEquals(Map.of(1960, 2L), index.decades());
+    }
+
+    @Test
+    void testRetainOnly() {
+        index.retainOnly(id -> id != 2L);
+
+        assertEquals(2, index.total());
+        assertEquals(Map.of("Fiction", 1L, "Programming", 1L), index.genres(10));
+    }
+
+    @Test
+    void testGenres_MixedCaseShareOneBucketUnderFirstSpelling() {
+        index.index(book(4L, "fiction", "Iain M. Banks", 1987, true));
+        index.index(book(5L, " FICTION ", "Ann Leckie", 2013, true));
+
+        assertEquals(Map.of("Fiction", 4L, "Programming", 1L), index.genres(10));
+
+        index.remove(1L);
+        index.remove(2L);
+        assertEquals(Map.of("Fiction", 2L, "Programming", 1L), index.genres(10));
+    }
+
+    private static Book book(Long id, String genre, String author, int year, boolean available) {
+        Book book = new Book();
+        book.setId(id);
+        book.setGenre(genre);
+        book.setAuthor(author);
+        book.setPublicationYear(year);
+        book.setAvailable(available);
+        return book;
+    }
+}
@@ -0,0 +1,122 @@
+package com.library.librarySystem.index;
+
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.ValueCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FacetReconcilerTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Spy
+    private FacetIndex facetIndex = new FacetIndex();
+
+    @InjectMocks
+    private FacetReconciler reconciler;
+
+    private Book first;
+    private Book second;
+
+    @BeforeEach
+    void setUp() {
+        first = book(1L, "Fiction", 1965, true);
+        second = book(2L, "Programming", 2008, false);
+    }
+
+    @Test
+    void testReconcile_NothingToRepair() {
+        facetIndex.indexAll(List.of(first, second));
+        when(bookRepository.count()).thenReturn(2L);
+        when(bookRepository.countByAvailableTrue()).thenReturn(1L);
+        when(bookRepository.countByGenre()).thenReturn(List.of(count("Fiction", 1), count("Programming ", 1)));
+        when(bookRepository.countByPublicationYear()).thenReturn(List.of(count(1965, 1), count(2008, 1)));
+
+        reconciler.reconcile();
+
+        verify(bookRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void testReconcile_GenresDifferingOnlyInCaseAgree() {
+        facetIndex.indexAll(List.of(first, book(2L, "fiction", 2008, false)));
+        when(bookRepository.count()).thenReturn(2L);
+        when(bookRepository.countByAvailableTrue()).thenReturn(1L);
+        // the database groups case-sensitively, the index does not
+        when(bookRepository.countByGenre()).thenReturn(List.of(count("Fiction", 1), count("fiction", 1)));
+        when(bookRepository.countByPublicationYear()).thenReturn(List.of(count(1965, 1), count(2008, 1)));
+
+        reconciler.reconcile();
+
+        verify(bookRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void testReconcile_RepairsDriftedCounters() {
+        // book 2 was created without reaching the index, book 7 was deleted without leaving it
+        facetIndex.indexAll(List.of(first, book(7L, "Poetry", 1990, true)));
+        when(bookRepository.count()).thenReturn(2L);
+        when(bookRepository.countByAvailableTrue()).thenReturn(1L);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(FacetReconciler.REPAIR_PAGE_SIZE)))
+                .thenReturn(List.of(first, second));
+        when(bookRepository.findAllById(List.of(7L))).thenReturn(List.of());
+
+        reconciler.reconcile();
+
+        assertEquals(2, facetIndex.total());
+        assertEquals(1, facetIndex.available());
+        assertEquals(Map.of("Fiction", 1L, "Programming", 1L), facetIndex.genres(10));
+    }
+
+    @Test
+    void testRepair_KeepsBooksCreatedAfterTheScan() {
+        facetIndex.indexAll(List.of(first, book(9L, "Poetry", 1990, true)));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(FacetReconciler.REPAIR_PAGE_SIZE)))
+                .thenReturn(List.of(first, second));
+        when(bookRepository.findAllById(List.of(9L))).thenReturn(List.of(book(9L, "Poetry", 1990, true)));
+
+        reconciler.repair();
+
+        assertEquals(3, facetIndex.total());
+    }
+
+    private static <T> ValueCount<T> count(T value, long count) {
+        return new ValueCount<>() {
+            @Override
+            public T getValue() {
+                return value;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+
+    private static Book book(Long id, String genre, int year, boolean available) {
+        Book book = new Book();
+        book.setId(id);
+        book.setGenre(genre);
+        book.setAuthor("Author " + id);
+        book.setPublicationYear(year);
+        book.setAvailable(available);
+        return book;
+    }
+}
@@ -0,0 +1,174 @@
+package com.library.librarySystem.loan;
+
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.OverdueLoanDto;
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.BorrowingRecord;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.OpenLoan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueTrackerTest {
+
+    @Mock
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    private OverdueTracker tracker;
+
+    private record Row(Long id, Long bookId, Long patronId, LocalDate dueDate) implements OpenLoan {
+        public Long getId() {
+            return id;
+        }
+
+        public Long getBookId() {
+            return bookId;
+        }
+
+        public Long getPatronId() {
+            return patronId;
+        }
+
+        public LocalDate getDueDate() {
+            return dueDate;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        tracker = new OverdueTracker(borrowingRecordRepository, events, Period.ofDays(14));
+    }
+
+    @Test
+    void testDueDate_AddsLoanPeriod() {
+        assertEquals(LocalDate.of(2024, 5, 15), tracker.dueDate(LocalDate.of(2024, 5, 1)));
+    }
+
+    @Test
+    void testAdvance_ReportsLoanOnceItsDueDateHasPassed() {
+        tracker.opened(record(7L, 1L, 2L, LocalDate.now()));
+
+        tracker.advanceTo(Instant.now());
+        assertEquals(0, tracker.overdueCount());
+        verifyNoInteractions(events);
+
+        tracker.advanceTo(Instant.now().plus(2, ChronoUnit.DAYS));
+
+        ArgumentCaptor<LoansOverdueEvent> event = ArgumentCaptor.forClass(LoansOverdueEvent.class);
+        verify(events, times(1)).publishEvent(event.capture());
+        assertEquals(List.of(7L), event.getValue().loans().stream().map(OverdueLoanDto::getLoanId).toList());
+        assertEquals(1, tracker.overdueCount());
+
+        CursorPageDto<OverdueLoanDto> page = tracker.getOverdueLoans(null, 20);
+        assertEquals(1, page.getSize());
+        assertEquals(1L, page.getContent().get(0).getBookId());
+        assertEquals(2L, page.getContent().get(0).getPatronId());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testOpened_LoanAlreadyLateIsReportedAtOnce() {
+        tracker.opened(record(7L, 1L, 2L, LocalDate.now().minusDays(3)));
+
+        verify(events, times(1)).publishEvent(any(LoansOverdueEvent.class));
+        assertEquals(3, tracker.getOverdueLoans(null, 20).getContent().get(0).getDaysOverdue());
+    }
+
+    @Test
+    void testClosed_StopsTrackingPendingAndOverdueLoans() {
+        tracker.opened(record(7L, 1L, 2L, LocalDate.now()));
+        tracker.opened(record(8L, 3L, 2L, LocalDate.now().minusDays(1)));
+
+        tracker.closed(3L, 2L);
+        tracker.closed(1L, 99L);
+        assertEquals(0, tracker.overdueCount());
+        assertEquals(1, tracker.openCount());
+
+        tracker.closed(1L, 2L);
+        tracker.advanceTo(Instant.now().plus(2, ChronoUnit.DAYS));
+        assertEquals(0, tracker.openCount());
+        assertEquals(0, tracker.overdueCount());
+    }
+
+    @Test
+    void testAdvance_PublishesInBatches() {
+        int loans = OverdueTracker.EVENT_BATCH_SIZE + 1;
+        for (long id = 1; id <= loans; id++) {
+            tracker.opened(record(id, id, 1L, LocalDate.now()));
+        }
+
+        tracker.advanceTo(Instant.now().plus(2, ChronoUnit.DAYS));
+
+        ArgumentCaptor<LoansOverdueEvent> event = ArgumentCaptor.forClass(LoansOverdueEvent.class);
+        verify(events, times(2)).publishEvent(event.capture());
+        assertEquals(List.of(OverdueTracker.EVENT_BATCH_SIZE, 1),
+                event.getAllValues().stream().map(batch -> batch.loans().size()).toList());
+    }
+
+    @Test
+    void testGetOverdueLoans_PagesByLoanId() {
+        for (long id = 1; id <= 5; id++) {
+            tracker.opened(record(id, id, 1L, LocalDate.now().minusDays(1)));
+        }
+
+        CursorPageDto<OverdueLoanDto> first = tracker.getOverdueLoans(null, 2);
+        assertEquals(List.of(1L, 2L), first.getContent().stream().map(OverdueLoanDto::getLoanId).toList());
+        assertEquals(2L, first.getNextCursor());
+
+        CursorPageDto<OverdueLoanDto> last = tracker.getOverdueLoans(4L, 2);
+        assertEquals(List.of(5L), last.getContent().stream().map(OverdueLoanDto::getLoanId).toList());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void testRebuild_LoadsOpenLoansByKeysetWithoutAnnouncing() {
+        tracker.opened(record(99L, 99L, 1L, LocalDate.now()));
+        LocalDate lateDue = LocalDate.now().minusDays(5);
+        List<OpenLoan> firstPage = new ArrayList<>();
+        for (long id = 1; id <= OverdueTracker.REBUILD_PAGE_SIZE; id++) {
+            firstPage.add(new Row(id, id, 1L, lateDue));
+        }
+        when(borrowingRecordRepository.findOpenLoans(any(Limit.class))).thenReturn(firstPage);
+        when(borrowingRecordRepository.findOpenLoansAfter(eq(lateDue), eq((long) OverdueTracker.REBUILD_PAGE_SIZE), any(Limit.class)))
+                .thenReturn(List.of(new Row(5_000L, 5_000L, 1L, LocalDate.now().plusDays(7))));
+
+        tracker.rebuild();
+
+        assertEquals(OverdueTracker.REBUILD_PAGE_SIZE + 1, tracker.openCount());
+        assertEquals(OverdueTracker.REBUILD_PAGE_SIZE, tracker.overdueCount());
+        verifyNoInteractions(events);
+    }
+
+    private static BorrowingRecord record(Long id, Long bookId, Long patronId, LocalDate dueDate) {
+        Book book = new Book();
+        book.setId(bookId);
+        Patron patron = new Patron();
+        patron.setId(patronId);
+        BorrowingRecord record = new BorrowingRecord(book, patron, false);
+        record.setId(id);
+        record.setReturnDate(dueDate);
+        return record;
+    }
+}
@@ -0,0 +1,109 @@
+package com.library.librarySystem.loan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void testAdvance_ExpiresTimersAtTheirDeadline() {
+        TimerWheel wheel = new TimerWheel(100L);
+        wheel.schedule(1L, 105L);
+        wheel.schedule(2L, 101L);
+        wheel.schedule(3L, 200L);
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(104L, expired::add);
+        assertEquals(List.of(2L), expired);
+
+        wheel.advance(105L, expired::add);
+        assertEquals(List.of(2L, 1L), expired);
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.contains(3L));
+    }
+
+    @Test
+    void testSchedule_RejectsDeadlinesAlreadyReached() {
+        TimerWheel wheel = new TimerWheel(100L);
+
+        assertFalse(wheel.schedule(1L, 100L));
+        assertFalse(wheel.schedule(2L, 50L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testSchedule_ReplacesEarlierTimerForSameId() {
+        TimerWheel wheel = new TimerWheel(0L);
+        wheel.schedule(1L, 10L);
+        wheel.schedule(1L, 20L);
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(15L, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(20L, expired::add);
+        assertEquals(List.of(1L), expired);
+    }
+
+    @Test
+    void testCancel_RemovesTimer() {
+        TimerWheel wheel = new TimerWheel(0L);
+        wheel.schedule(1L, 5_000L);
+
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(10_000L, expired::add);
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    void testAdvance_CascadesThroughEveryLevelAndOverflow() {
+        long start = (1L << 24) - 3;
+        TimerWheel wheel = new TimerWheel(start);
+        // deadlines on each level, across a wrap of the whole wheel, and beyond its span
+        long[] deadlines = {start + 2, start + 70, start + 5_000, start + 300_000, start + 20_000_000, start + 40_000_000};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        for (int i = 0; i < deadlines.length; i++) {
+            List<Long> expired = new ArrayList<>();
+            wheel.advance(deadlines[i] - 1, expired::add);
+            assertTrue(expired.isEmpty(), "timer " + i + " fired early");
+            wheel.advance(deadlines[i], expired::add);
+            assertEquals(List.of((long) i), expired);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testAdvance_MatchesSortedDeadlinesForRandomTimers() {
+        Random random = new Random(42);
+        TimerWheel wheel = new TimerWheel(1_000L);
+        long[] deadlines = new long[2_000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = 1_001L + random.nextInt(500_000);
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        long[] firedAt = new long[deadlines.length];
+        for (long tick = 1_000L; tick <= 501_000L; tick += 1 + random.nextInt(50)) {
+            long now = tick;
+            wheel.advance(now, id -> firedAt[(int) id] = now);
+        }
+        wheel.advance(501_001L, id -> firedAt[(int) id] = 501_001L);
+
+        for (int i = 0; i < deadlines.length; i++) {
+            assertTrue(firedAt[i] >= deadlines[i], "timer " + i + " fired early");
+            assertTrue(firedAt[i] - deadlines[i] <= 50, "timer " + i + " fired late");
+        }
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,126 @@
+package com.library.librarySystem.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the advisory backend against H2, with {@code pg_try_advisory_xact_lock} replaced by a stand-in that keeps
+ * lock owners per database session and, like PostgreSQL, forgets them when the transaction ends. The class is public
+ * because H2 can only call public methods of public classes.
+ */
+public class AdvisoryBookLockManagerTest {
+    private static final Map<Long, Integer> OWNERS = new ConcurrentHashMap<>();
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    public static boolean tryAdvisoryXactLock(Connection connection, long key) throws SQLException {
+        int session = sessionId(connection);
+        return OWNERS.computeIfAbsent(key, k -> session) == session;
+    }
+
+    private static int sessionId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select session_id()")) {
+            result.next();
+            return result.getInt(1);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create alias pg_try_advisory_xact_lock for \""
+                + AdvisoryBookLockManagerTest.class.getName() + ".tryAdvisoryXactLock\"");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+    }
+
+    @AfterEach
+    void tearDown() {
+        OWNERS.clear();
+        database.shutdown();
+    }
+
+    @Test
+    void testRequiresTransaction() {
+        AdvisoryBookLockManager node = node(Duration.ofMillis(100));
+
+        assertThrows(IllegalStateException.class, () -> node.lockUntilCompletion(List.of(1L)));
+    }
+
+    @Test
+    void testLockIsSharedAcrossNodesUntilCommit() throws Exception {
+        AdvisoryBookLockManager first = node(Duration.ofSeconds(1));
+        AdvisoryBookLockManager second = node(Duration.ofMillis(100));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> inTransaction(() -> {
+            first.lockUntilCompletion(List.of(1L));
+            locked.countDown();
+            await(release);
+        }));
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+
+        assertThrows(CannotAcquireLockException.class, () -> inTransaction(() -> second.lockUntilCompletion(List.of(1L, 2L))));
+        inTransaction(() -> second.lockUntilCompletion(List.of(2L)));
+        assertEquals(1, second.stats().timeouts());
+
+        release.countDown();
+        holder.get(1, TimeUnit.SECONDS);
+        inTransaction(() -> second.lockUntilCompletion(List.of(1L)));
+        assertTrue(OWNERS.isEmpty());
+    }
+
+    private AdvisoryBookLockManager node(Duration waitTimeout) {
+        return new AdvisoryBookLockManager(jdbcTemplate, 64, waitTimeout);
+    }
+
+    private void inTransaction(Runnable work) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int session = jdbcTemplate.queryForObject("select session_id()", Integer.class);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completionStatus) {
+                    OWNERS.values().removeIf(owner -> owner == session);
+                }
+            });
+            work.run();
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.library.librarySystem.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedBookLockManagerTest {
+
+    private StripedBookLockManager locks;
+
+    @BeforeEach
+    void setUp() {
+        locks = new StripedBookLockManager(1000, Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete();
+        }
+    }
+
+    @Test
+    void testRequiresTransaction() {
+        assertThrows(IllegalStateException.class, () -> locks.lockUntilCompletion(List.of(1L)));
+    }
+
+    @Test
+    void testStripesRoundUpToPowerOfTwo() {
+        for (long id = 1; id <= 10_000; id++) {
+            int stripe = locks.stripeOf(id);
+            assertTrue(stripe >= 0 && stripe < 1024);
+        }
+        assertNotEquals(locks.stripeOf(1L), locks.stripeOf(2L));
+    }
+
+    @Test
+    void testSameBookWaitsUntilTransactionCompletes() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        locks.lockUntilCompletion(List.of(1L));
+
+        // another transaction gives up once the wait timeout passes
+        ExecutionException timedOut = assertThrows(ExecutionException.class, () -> inOtherTransaction(1L).get());
+        assertInstanceOf(CannotAcquireLockException.class, timedOut.getCause());
+
+        // and gets through once the holder completes
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            started.countDown();
+            runInTransaction(1L);
+        });
+        started.await();
+        Thread.sleep(20);
+        complete();
+        waiter.get(1, TimeUnit.SECONDS);
+
+        LockStats stats = locks.stats();
+        assertEquals(1, stats.timeouts());
+        assertEquals(2, stats.acquisitions());
+        assertEquals(0, stats.waiting());
+        assertEquals(1, stats.maxWaiting());
+        assertTrue(stats.maxWaitMillis() >= 150);
+    }
+
+    @Test
+    void testDifferentBooksDoNotWait() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        locks.lockUntilCompletion(List.of(1L));
+
+        inOtherTransaction(2L).get(1, TimeUnit.SECONDS);
+
+        assertEquals(0, locks.stats().contended());
+    }
+
+    @Test
+    void testLockAheadCoversTheTransactionThatFollows() throws Exception {
+        Runnable release = locks.lockAhead(List.of(1L));
+        TransactionSynchronizationManager.initSynchronization();
+        // the stripe is already held by this thread, so the transaction takes it again without waiting
+        locks.lockUntilCompletion(List.of(1L));
+        complete();
+
+        // still held until the caller releases it after the transaction
+        assertThrows(ExecutionException.class, () -> inOtherTransaction(1L).get());
+        release.run();
+        inOtherTransaction(1L).get(1, TimeUnit.SECONDS);
+
+        assertEquals(2, locks.stats().acquisitions());
+    }
+
+    @Test
+    void testFailedBatchReleasesWhatItTook() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        locks.lockUntilCompletion(List.of(3L));
+
+        // books 1 and 2 are taken before the batch blocks on book 3
+        assertThrows(ExecutionException.class, () -> inOtherTransaction(1L, 2L, 3L).get());
+
+        inOtherTransaction(1L, 2L).get(1, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<Void> inOtherTransaction(Long... bookIds) {
+        return CompletableFuture.runAsync(() -> runInTransaction(bookIds));
+    }
+
+    private void runInTransaction(Long... bookIds) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            locks.lockUntilCompletion(List.of(bookIds));
+        } finally {
+            complete();
+        }
+    }
+
+    private static void complete() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
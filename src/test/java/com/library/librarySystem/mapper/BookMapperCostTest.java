@@ -0,0 +1,89 @@
+package com.library.librarySystem.mapper;
+
+import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.model.Book;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * What mapping a page of books to DTOs costs, single-threaded and after warm-up: the ModelMapper the services used
+ * to call, against the {@link BookMapper} MapStruct generates. ModelMapper is only on the test classpath for this.
+ */
+class BookMapperCostTest {
+    private static final Logger log = LoggerFactory.getLogger(BookMapperCostTest.class);
+    private static final int BOOKS = 1_000;
+    // ModelMapper is far slower per book, so it gets fewer rounds to keep the test short
+    private static final int SLOW_ROUNDS = 50;
+    private static final int ROUNDS = 500;
+
+    @Test
+    void testGeneratedMapperCostsAFractionOfModelMapper() {
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(book(i));
+        }
+        ModelMapper modelMapper = new ModelMapper();
+        BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
+
+        double reflective = microsPerBook(books, SLOW_ROUNDS, book -> modelMapper.map(book, BookDto.class));
+        double generated = microsPerBook(books, ROUNDS, bookMapper::toDto);
+
+        log.info("per book: {} us with ModelMapper, {} us with BookMapper, ratio {}",
+                String.format("%.3f", reflective), String.format("%.3f", generated),
+                String.format("%.1f", reflective / generated));
+        assertEquals(bookMapper.toDto(books.get(0)), modelMapper.map(books.get(0), BookDto.class));
+        // leave room for a noisy machine; the gap is usually well over ten times
+        assertTrue(generated * 3 < reflective, "BookMapper " + generated + " us, ModelMapper " + reflective + " us");
+    }
+
+    /**
+     * Maps the list as many times untimed to warm up, then returns the average per book over {@code rounds} runs.
+     */
+    private static double microsPerBook(List<Book> books, int rounds, Function<Book, BookDto> mapper) {
+        int sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += map(books, mapper);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += map(books, mapper);
+        }
+        double micros = (System.nanoTime() - started) / 1e3 / rounds / books.size();
+        // keeps the results alive so the loop is not optimised away
+        assertTrue(sink > 0);
+        return micros;
+    }
+
+    private static int map(List<Book> books, Function<Book, BookDto> mapper) {
+        int pages = 0;
+        for (Book book : books) {
+            pages += mapper.apply(book).getPageCount();
+        }
+        return pages;
+    }
+
+    private static Book book(int i) {
+        Book book = new Book();
+        book.setId((long) i + 1);
+        book.setTitle("Book " + i);
+        book.setAuthor("Author " + i % 100);
+        book.setGenre("Fiction");
+        book.setIsbn(String.format("978%010d", i));
+        book.setPublicationYear(1900 + i % 120);
+        book.setPageCount(100 + i % 500);
+        book.setPrice(BigDecimal.valueOf(10 + i % 50));
+        book.setAvailable(i % 2 == 0);
+        book.setDescription("Description of book " + i);
+        return book;
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.librarySystem.mapper;
+
+import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookMapperTest {
+
+    private final BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setId(1L);
+        book.setTitle("Effective Java");
+        book.setAuthor("Joshua Bloch");
+        book.setGenre("programming");
+        book.setIsbn("9780134685991");
+        book.setPublicationYear(2018);
+        book.setPageCount(412);
+        book.setPrice(BigDecimal.valueOf(45.50));
+        book.setAvailable(true);
+    }
+
+    @Test
+    void testToDto() {
+        BookDto bookDto = bookMapper.toDto(book);
+
+        assertEquals("Effective Java", bookDto.getTitle());
+        assertEquals("Joshua Bloch", bookDto.getAuthor());
+        assertEquals("programming", bookDto.getGenre());
+        assertEquals(2018, bookDto.getPublicationYear());
+        assertEquals(412, bookDto.getPageCount());
+        assertEquals(BigDecimal.valueOf(45.50), bookDto.getPrice());
+        assertNull(bookMapper.toDto(null));
+    }
+
+    @Test
+    void testUpdateEntity_MergesOnlyProvidedFields() {
+        BookDto update = new BookDto();
+        update.setTitle("Effective Java, 3rd Edition");
+        update.setPageCount(416);
+
+        bookMapper.updateEntity(update, book);
+
+        assertEquals("Effective Java, 3rd Edition", book.getTitle());
+        assertEquals(416, book.getPageCount());
+        assertEquals("Joshua Bloch", book.getAuthor());
+        assertEquals(2018, book.getPublicationYear());
+        assertEquals(BigDecimal.valueOf(45.50), book.getPrice());
+        assertEquals(1L, book.getId());
+        assertEquals("9780134685991", book.getIsbn());
+        assertTrue(book.isAvailable());
+    }
+}
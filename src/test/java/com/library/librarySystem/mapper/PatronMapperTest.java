@@ -0,0 +1,50 @@
+package com.library.librarySystem.mapper;
+
+import com.library.librarySystem.dto.PatronDto;
+import com.library.librarySystem.model.Patron;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatronMapperTest {
+
+    private final PatronMapper patronMapper = Mappers.getMapper(PatronMapper.class);
+
+    private Patron patron;
+
+    @BeforeEach
+    void setUp() {
+        patron = new Patron();
+        patron.setId(1L);
+        patron.setName("John Doe");
+        patron.setEmail("john.doe@example.com");
+        patron.setPhone("+123456789");
+        patron.setAddress("123 Library Street");
+    }
+
+    @Test
+    void testToDto() {
+        PatronDto patronDto = patronMapper.toDto(patron);
+
+        assertEquals("John Doe", patronDto.getName());
+        assertEquals("john.doe@example.com", patronDto.getEmail());
+        assertEquals("+123456789", patronDto.getPhone());
+        assertEquals("123 Library Street", patronDto.getAddress());
+    }
+
+    @Test
+    void testUpdateEntity_MergesOnlyProvidedFields() {
+        PatronDto update = new PatronDto();
+        update.setPhone("+987654321");
+
+        patronMapper.updateEntity(update, patron);
+
+        assertEquals("+987654321", patron.getPhone());
+        assertEquals("John Doe", patron.getName());
+        assertEquals("john.doe@example.com", patron.getEmail());
+        assertEquals("123 Library Street", patron.getAddress());
+        assertEquals(1L, patron.getId());
+    }
+}
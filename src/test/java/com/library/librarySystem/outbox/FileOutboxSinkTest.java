@@ -0,0 +1,42 @@
+package com.library.librarySystem.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.library.librarySystem.circulation.CirculationEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileOutboxSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testDeliver_AppendsOneLinePerMessage() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Path file = directory.resolve("outbox/circulation.ndjson");
+        FileOutboxSink sink = new FileOutboxSink(file, objectMapper);
+        Instant at = Instant.parse("2024-05-01T10:00:00Z");
+
+        sink.deliver(List.of(new OutboxMessage(1L, new CirculationEvent(4L, CirculationEvent.Type.RETURNED, 2L, 3L, null, at), at, 0)));
+        sink.deliver(List.of(new OutboxMessage(2L, new CirculationEvent(5L, CirculationEvent.Type.WITHDRAWN, 2L, null, null, at), at, 0)));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("RETURNED", first.get("event").get("type").asText());
+        assertEquals("2024-05-01T10:00:00Z", first.get("event").get("occurredAt").asText());
+    }
+}
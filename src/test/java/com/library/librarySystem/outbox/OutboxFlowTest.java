@@ -0,0 +1,76 @@
+package com.library.librarySystem.outbox;
+
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationProjection;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.circulation.JdbcCirculationLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox messages are written by the transaction that records the event, against a real database, and relayed only
+ * once it has committed.
+ */
+@DataJpaTest
+@Import({CirculationRecorder.class, CirculationProjection.class, JdbcCirculationLog.class, OutboxStore.class,
+        OutboxRelay.class, InMemoryOutboxSink.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxFlowTest {
+
+    @Autowired
+    private CirculationRecorder recorder;
+
+    @Autowired
+    private OutboxStore outboxStore;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private InMemoryOutboxSink memorySink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from outbox_messages");
+    }
+
+    @Test
+    void testOnlyCommittedEventsAreRelayed() {
+        transactionTemplate.executeWithoutResult(status ->
+                recorder.record(CirculationEvent.Type.BORROWED, 1L, 10L, LocalDate.of(2024, 5, 15)));
+        transactionTemplate.executeWithoutResult(status -> {
+            recorder.record(CirculationEvent.Type.BORROWED, 2L, 10L, LocalDate.of(2024, 5, 15));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                recorder.record(CirculationEvent.Type.RETURNED, 1L, 10L, null));
+        assertEquals(2, outboxStore.backlog().pending());
+
+        assertEquals(2, relay.drain());
+
+        List<OutboxMessage> delivered = memorySink.recent(10);
+        assertEquals(List.of(CirculationEvent.Type.RETURNED, CirculationEvent.Type.BORROWED),
+                delivered.stream().map(message -> message.event().type()).toList());
+        assertTrue(delivered.stream().allMatch(message -> message.event().bookId() == 1L && message.event().sequence() > 0));
+        assertEquals(0, outboxStore.backlog().pending());
+        assertEquals(2, relay.stats().delivered());
+    }
+}
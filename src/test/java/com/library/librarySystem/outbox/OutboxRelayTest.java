@@ -0,0 +1,141 @@
+package com.library.librarySystem.outbox;
+
+import com.library.librarySystem.circulation.CirculationEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private OutboxStore store;
+
+    private OutboxRelay relay;
+
+    @AfterEach
+    void tearDown() {
+        if (relay != null) {
+            relay.shutdown();
+        }
+    }
+
+    @Test
+    void testDrain_DeliversEveryBookInOrderAndDeletes() {
+        RecordingSink sink = new RecordingSink(Set.of());
+        relay = relay(sink, 2);
+        List<OutboxMessage> batch = List.of(message(1, 1L), message(2, 2L), message(3, 1L), message(4, 3L));
+        when(store.fetchReady(NOW, 10)).thenReturn(batch);
+
+        assertEquals(4, relay.drain());
+
+        assertEquals(List.of(1L, 3L), sink.deliveredFor(1L));
+        verify(store).delete(argThat((Collection<Long> ids) -> Set.copyOf(ids).equals(Set.of(1L, 2L, 3L, 4L))));
+        verify(store, never()).retryLater(anyCollection(), any(), any());
+        OutboxStats stats = stats(relay);
+        assertEquals(4, stats.delivered());
+        assertEquals(5_000, stats.lastLagMillis());
+    }
+
+    @Test
+    void testDrain_FailedLaneBacksOffWhileOthersFlow() {
+        // book 1 lands in lane 1 of 2, book 2 in lane 0
+        RecordingSink sink = new RecordingSink(Set.of(1L));
+        relay = relay(sink, 2);
+        OutboxMessage failing = new OutboxMessage(1L, event(1L), NOW.minusSeconds(5), 2);
+        when(store.fetchReady(NOW, 10)).thenReturn(List.of(failing, message(2, 2L)));
+
+        assertEquals(1, relay.drain());
+
+        verify(store).delete(List.of(2L));
+        ArgumentCaptor<Instant> availableAt = ArgumentCaptor.forClass(Instant.class);
+        verify(store).retryLater(eq(List.of(1L)), availableAt.capture(), contains("sink down"));
+        // the third attempt waits four times the base backoff
+        assertEquals(NOW.plusSeconds(4), availableAt.getValue());
+        assertEquals(1, stats(relay).failedAttempts());
+    }
+
+    @Test
+    void testDrain_StopsWhenBatchIsNotFull() {
+        relay = relay(new RecordingSink(Set.of()), 2);
+        when(store.fetchReady(NOW, 10)).thenReturn(List.of(message(1, 1L)));
+
+        relay.drain();
+
+        verify(store, times(1)).fetchReady(NOW, 10);
+    }
+
+    @Test
+    void testRelay_DisabledDoesNothing() {
+        relay = new OutboxRelay(store, List.of(new RecordingSink(Set.of())), false, 10, 2, Duration.ofSeconds(1),
+                Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        relay.relay();
+
+        verifyNoInteractions(store);
+    }
+
+    private OutboxRelay relay(OutboxSink sink, int lanes) {
+        return new OutboxRelay(store, List.of(sink), true, 10, lanes, Duration.ofSeconds(1), Duration.ofMinutes(5),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private OutboxStats stats(OutboxRelay relay) {
+        when(store.backlog()).thenReturn(new OutboxStore.Backlog(0, null));
+        return relay.stats();
+    }
+
+    private static OutboxMessage message(long id, long bookId) {
+        return new OutboxMessage(id, event(bookId), NOW.minusSeconds(5), 0);
+    }
+
+    private static CirculationEvent event(long bookId) {
+        return new CirculationEvent(0L, CirculationEvent.Type.BORROWED, bookId, 7L, null, NOW.minusSeconds(6));
+    }
+
+    private static class RecordingSink implements OutboxSink {
+        private final Set<Long> failingBooks;
+        private final List<OutboxMessage> delivered = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingSink(Set<Long> failingBooks) {
+            this.failingBooks = failingBooks;
+        }
+
+        @Override
+        public String name() {
+            return "recording";
+        }
+
+        @Override
+        public void deliver(List<OutboxMessage> messages) {
+            if (messages.stream().anyMatch(message -> failingBooks.contains(message.event().bookId()))) {
+                throw new IllegalStateException("sink down");
+            }
+            delivered.addAll(messages);
+        }
+
+        List<Long> deliveredFor(long bookId) {
+            synchronized (delivered) {
+                return delivered.stream().filter(message -> message.event().bookId() == bookId).map(OutboxMessage::id).toList();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.library.librarySystem.outbox;
+
+import com.library.librarySystem.circulation.CirculationEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(OutboxStore.class)
+class OutboxStoreTest {
+
+    @Autowired
+    private OutboxStore outboxStore;
+
+    @Test
+    void testFetchReady_ReturnsMessagesInIdOrder() {
+        outboxStore.enqueue(List.of(event(1L, 5L), event(2L, 0L), event(1L, 7L)));
+
+        List<OutboxMessage> ready = outboxStore.fetchReady(Instant.now().plusSeconds(1), 10);
+
+        assertEquals(List.of(1L, 2L, 1L), ready.stream().map(message -> message.event().bookId()).toList());
+        assertEquals(5L, ready.get(0).event().sequence());
+        assertEquals(0L, ready.get(1).event().sequence());
+        assertEquals(LocalDate.of(2024, 5, 15), ready.get(0).event().dueDate());
+        assertEquals(3, outboxStore.backlog().pending());
+    }
+
+    @Test
+    void testRetryLater_HoldsBackTheWholeBook() {
+        outboxStore.enqueue(List.of(event(1L, 1L), event(2L, 2L), event(1L, 3L)));
+        Instant now = Instant.now().plusSeconds(1);
+        List<OutboxMessage> ready = outboxStore.fetchReady(now, 10);
+
+        outboxStore.retryLater(List.of(ready.get(0).id()), now.plusSeconds(60), "sink down");
+
+        // the later message of book 1 must not overtake the one backing off
+        List<OutboxMessage> retry = outboxStore.fetchReady(now, 10);
+        assertEquals(List.of(2L), retry.stream().map(message -> message.event().bookId()).toList());
+
+        List<OutboxMessage> later = outboxStore.fetchReady(now.plusSeconds(61), 10);
+        assertEquals(3, later.size());
+        assertEquals(1, later.get(0).attempts());
+    }
+
+    @Test
+    void testDelete_RemovesDeliveredMessages() {
+        outboxStore.enqueue(List.of(event(1L, 1L), event(2L, 2L)));
+        List<OutboxMessage> ready = outboxStore.fetchReady(Instant.now().plusSeconds(1), 10);
+
+        outboxStore.delete(List.of(ready.get(0).id()));
+
+        OutboxStore.Backlog backlog = outboxStore.backlog();
+        assertEquals(1, backlog.pending());
+        assertNotNull(backlog.oldestCreatedAt());
+    }
+
+    private static CirculationEvent event(long bookId, long sequence) {
+        return new CirculationEvent(sequence, CirculationEvent.Type.BORROWED, bookId, 10L, LocalDate.of(2024, 5, 15),
+                Instant.now());
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.librarySystem.outbox;
+
+import com.library.librarySystem.circulation.CirculationEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisStreamOutboxSinkTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    @Test
+    void testDeliver_AddsEntriesAndTrims() {
+        when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        RedisStreamOutboxSink sink = new RedisStreamOutboxSink(redisTemplate, "library:circulation", 1000);
+        Instant at = Instant.parse("2024-05-01T10:00:00Z");
+        OutboxMessage message = new OutboxMessage(9L,
+                new CirculationEvent(4L, CirculationEvent.Type.BORROWED, 2L, 3L, LocalDate.of(2024, 5, 15), at), at, 0);
+
+        sink.deliver(List.of(message));
+
+        verify(streamOperations).add("library:circulation", Map.of("id", "9", "type", "BORROWED", "bookId", "2",
+                "patronId", "3", "dueDate", "2024-05-15", "occurredAt", "2024-05-01T10:00:00Z"));
+        verify(streamOperations).trim("library:circulation", 1000, true);
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.librarySystem.query;
+
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryBudgetFilterTest {
+
+    @Test
+    void testRequestsOverBudgetAreCounted() throws Exception {
+        QueryBudgetFilter filter = new QueryBudgetFilter(2);
+        QueryCounter counter = new QueryCounter();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books"), new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                }, (request, response, chain) -> counter.inspect("select 1")));
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/holds/books/1"), new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                }, (request, response, chain) -> {
+                    for (int i = 0; i < 5; i++) {
+                        counter.inspect("select 1");
+                    }
+                }));
+
+        QueryBudgetStats stats = filter.stats();
+        assertEquals(2, stats.requests());
+        assertEquals(1, stats.overBudget());
+        assertEquals(5, stats.maxStatements());
+        assertEquals("GET /api/holds/books/1", stats.lastOverBudget());
+    }
+
+    @Test
+    void testScopesCountOnlyTheirOwnStatements() {
+        QueryCounter counter = new QueryCounter();
+        counter.inspect("select 1");
+
+        QueryCounter.Scope outer = QueryCounter.start();
+        counter.inspect("select 1");
+        QueryCounter.Scope inner = QueryCounter.start();
+        counter.inspect("select 1");
+
+        assertEquals(2, outer.count());
+        assertEquals(1, inner.count());
+    }
+}
@@ -0,0 +1,83 @@
+package com.library.librarySystem.respository;
+
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.BorrowingRecord;
+import com.library.librarySystem.model.Patron;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BorrowingRecordHistoryTest {
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Book book;
+    private Patron patron;
+    private final List<Long> loanIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setTitle("Clean Code");
+        book.setAuthor("Robert C. Martin");
+        book.setIsbn("9780132350884");
+        book.setGenre("Programming");
+        book.setPublicationYear(2008);
+        book.setPageCount(464);
+        entityManager.persist(book);
+
+        patron = new Patron();
+        patron.setName("John Doe");
+        patron.setEmail("john.doe@example.com");
+        patron.setPhone("+123456789");
+        entityManager.persist(patron);
+
+        for (int i = 0; i < 5; i++) {
+            BorrowingRecord record = new BorrowingRecord(book, patron, i < 4);
+            record.setReturnDate(LocalDate.now().plusDays(14));
+            entityManager.persist(record);
+            loanIds.add(record.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindPatronHistory_KeysetPagesNewestFirst() {
+        List<PatronLoanView> first = borrowingRecordRepository.findPatronHistory(patron.getId(), Long.MAX_VALUE, Limit.of(3));
+        assertEquals(List.of(loanIds.get(4), loanIds.get(3), loanIds.get(2)), first.stream().map(PatronLoanView::getId).toList());
+        assertEquals("Clean Code", first.get(0).getTitle());
+        assertEquals(book.getId(), first.get(0).getBookId());
+        assertFalse(first.get(0).isReturned());
+        assertTrue(first.get(1).isReturned());
+
+        List<PatronLoanView> rest = borrowingRecordRepository.findPatronHistory(patron.getId(), first.get(2).getId(), Limit.of(3));
+        assertEquals(List.of(loanIds.get(1), loanIds.get(0)), rest.stream().map(PatronLoanView::getId).toList());
+    }
+
+    @Test
+    void testFindBookHistory_ReadsColumnsWithoutLoadingEntities() {
+        List<BookLoanView> history = borrowingRecordRepository.findBookHistory(book.getId(), Long.MAX_VALUE, Limit.of(10));
+
+        assertEquals(5, history.size());
+        assertEquals("John Doe", history.get(0).getPatronName());
+        assertEquals(LocalDate.now().plusDays(14), history.get(0).getDueDate());
+        // projections are plain column reads, so nothing lands in the persistence context
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
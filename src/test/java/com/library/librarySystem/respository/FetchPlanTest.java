@@ -0,0 +1,111 @@
+package com.library.librarySystem.respository;
+
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.BorrowingRecord;
+import com.library.librarySystem.model.Hold;
+import com.library.librarySystem.model.HoldStatus;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.query.QueryCounter;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement budgets for the circulation reads: associations stay unloaded unless the use case fetches them, and
+ * lists never cost a statement per row.
+ */
+@DataJpaTest
+class FetchPlanTest {
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Book> books = new ArrayList<>();
+    private final List<Patron> patrons = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setAuthor("Author");
+            book.setIsbn("978013235088" + i);
+            book.setGenre("Programming");
+            book.setPublicationYear(2008);
+            book.setPageCount(100);
+            entityManager.persist(book);
+            books.add(book);
+
+            Patron patron = new Patron();
+            patron.setName("Patron " + i);
+            patron.setEmail("patron" + i + "@example.com");
+            patron.setPhone("+123456789");
+            entityManager.persist(patron);
+            patrons.add(patron);
+        }
+        for (int i = 0; i < 3; i++) {
+            BorrowingRecord record = new BorrowingRecord(books.get(i), patrons.get(0), false);
+            record.setReturnDate(LocalDate.now().plusDays(14));
+            entityManager.persist(record);
+            // every patron queues for the first book, so a per-row patron load would show up as extra selects
+            entityManager.persist(new Hold(books.get(0), patrons.get(i), 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testLoanLoadsWithoutItsBookOrPatron() {
+        QueryCounter.Scope scope = QueryCounter.start();
+
+        BorrowingRecord record = borrowingRecordRepository
+                .findByBookIdAndPatronIdAndReturnedFalse(books.get(1).getId(), patrons.get(0).getId()).orElseThrow();
+
+        assertEquals(books.get(1).getId(), record.getBook().getId());
+        assertFalse(Hibernate.isInitialized(record.getBook()));
+        assertFalse(Hibernate.isInitialized(record.getPatron()));
+        assertEquals(1, scope.count());
+    }
+
+    @Test
+    void testActiveLoansFetchTheirBooksInTheSameQuery() {
+        QueryCounter.Scope scope = QueryCounter.start();
+
+        List<BorrowingRecord> records = borrowingRecordRepository.findActiveWithBook(patrons.get(0).getId(),
+                books.stream().map(Book::getId).toList());
+        records.forEach(record -> record.getBook().isAvailable());
+
+        assertEquals(3, records.size());
+        assertTrue(records.stream().allMatch(record -> Hibernate.isInitialized(record.getBook())));
+        assertFalse(Hibernate.isInitialized(records.get(0).getPatron()));
+        assertEquals(1, scope.count());
+    }
+
+    @Test
+    void testHoldQueueIsOneStatementHoweverManyPatrons() {
+        QueryCounter.Scope scope = QueryCounter.start();
+
+        List<Hold> queue = holdRepository.findByBookIdAndStatusOrderByPriorityDescIdAsc(books.get(0).getId(),
+                HoldStatus.WAITING, Limit.of(10));
+        List<Long> patronIds = queue.stream().map(hold -> hold.getPatron().getId()).toList();
+
+        assertEquals(patrons.stream().map(Patron::getId).toList(), patronIds);
+        assertEquals(1, scope.count());
+    }
+}
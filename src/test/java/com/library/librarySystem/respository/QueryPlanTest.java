@@ -0,0 +1,104 @@
+package com.library.librarySystem.respository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the circulation queries are answered by the indexes the changelog creates for them. H2 in PostgreSQL
+ * mode stands in for PostgreSQL, so these are the plain composite variants of the partial and covering indexes.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:plans;MODE=PostgreSQL;DEFAULT_NULL_ORDERING=HIGH")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void setUp() {
+        // enough rows that a scan is never the cheaper plan
+        jdbcTemplate.update("insert into book (id, version, title, author, publication_year, isbn, genre, available, "
+                + "page_count, created_at) select x, 0, 'Title', 'Author', 2000, '978013235' || lpad(x, 4, '0'), "
+                + "'Fiction', true, 100, now() from system_range(1, 200)");
+        jdbcTemplate.update("insert into patrons (id, name, email, phone, created_at) "
+                + "select x, 'Patron', 'patron' || x || '@example.com', '+123456789', now() from system_range(1, 50)");
+        jdbcTemplate.update("insert into borrowing_records (id, book_id, patron_id, borrow_date, return_date, returned, "
+                + "created_at) select x, mod(x, 200) + 1, mod(x, 50) + 1, current_date, current_date + 14, x > 150, "
+                + "now() from system_range(1, 2000)");
+        jdbcTemplate.update("insert into holds (id, book_id, patron_id, priority, status, created_at) "
+                + "select x, mod(x, 200) + 1, mod(x, 50) + 1, mod(x, 10), 'WAITING', now() from system_range(1, 500)");
+        jdbcTemplate.update("insert into users (username, password, role, created_at) "
+                + "select 'user' || x, 'secret', 'USER', now() from system_range(1, 100)");
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void testOpenLoanOfBookAndPatron() {
+        assertUsesIndex("idx_borrowing_records_open_by_book",
+                "select r.id from borrowing_records r where r.book_id = 1 and r.patron_id = 2 and r.returned = false");
+        assertUsesIndex("idx_borrowing_records_open_by_book",
+                "select r.id from borrowing_records r where r.book_id = 1 and r.returned = false fetch first 1 rows only");
+    }
+
+    @Test
+    void testOpenLoansOfPatron() {
+        // a short list of books is as well served by the per-book index
+        assertUsesIndex(List.of("idx_borrowing_records_open_by_patron", "idx_borrowing_records_open_by_book"),
+                "select r.book_id from borrowing_records r where r.patron_id = 1 and r.book_id in (1, 2, 3) and r.returned = false");
+        assertUsesIndex("idx_borrowing_records_open_by_patron",
+                "select r.id from borrowing_records r where r.patron_id = 1 and r.returned = false fetch first 1 rows only");
+    }
+
+    @Test
+    void testOpenLoansByDueDate() {
+        assertUsesIndex("idx_borrowing_records_open_by_due",
+                "select r.id, r.book_id, r.patron_id, r.return_date from borrowing_records r "
+                        + "where r.returned = false and (r.return_date > current_date or (r.return_date = current_date and r.id > 10)) "
+                        + "order by r.return_date, r.id fetch first 1000 rows only");
+    }
+
+    @Test
+    void testLoanHistory() {
+        assertUsesIndex("idx_borrowing_records_patron_history",
+                "select r.id, r.book_id, r.borrow_date from borrowing_records r where r.patron_id = 1 and r.id < 500 "
+                        + "order by r.id desc fetch first 20 rows only");
+        assertUsesIndex("idx_borrowing_records_book_history",
+                "select r.id, r.patron_id, r.borrow_date from borrowing_records r where r.book_id = 1 and r.id < 500 "
+                        + "order by r.id desc fetch first 20 rows only");
+    }
+
+    @Test
+    void testNaturalKeyLookups() {
+        assertUsesIndex("uk_book_isbn", "select b.id from book b where b.isbn = '9780132350001'");
+        assertUsesIndex("uk_patrons_email", "select p.id from patrons p where p.email = 'patron1@example.com'");
+        assertUsesIndex("uk_users_username", "select u.id from users u where u.username = 'user1'");
+    }
+
+    @Test
+    void testHoldQueue() {
+        assertUsesIndex("idx_holds_queue", "select h.id from holds h where h.book_id = 1 and h.status = 'WAITING' "
+                + "order by h.priority desc, h.id fetch first 1 rows only");
+        assertUsesIndex("idx_holds_status_ready_until",
+                "select h.id from holds h where h.status = 'READY' and h.ready_until < now() fetch first 100 rows only");
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        assertUsesIndex(List.of(index), sql);
+    }
+
+    private void assertUsesIndex(List<String> indexes, String sql) {
+        List<String> plan = jdbcTemplate.queryForList("explain " + sql, String.class);
+        String text = String.join("\n", plan).toLowerCase();
+        assertTrue(indexes.stream().anyMatch(text::contains), () -> "expected one of " + indexes + " in plan:\n" + text);
+    }
+}
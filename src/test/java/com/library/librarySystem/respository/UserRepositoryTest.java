@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,4 +47,21 @@ class UserRepositoryTest {
 
         assertFalse(foundUser.isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRaiseTokenVersion_ListsOnlyRaisedVersions() {
+        User other = new User();
+        other.setUsername("otheruser");
+        other.setPassword("password123");
+        other.setRole(Role.USER);
+        userRepository.save(other);
+
+        assertEquals(1, userRepository.raiseTokenVersion("testuser", LocalDateTime.now()));
+        assertEquals(1, userRepository.raiseTokenVersion("testuser", LocalDateTime.now()));
+
+        List<UserVersion> raised = userRepository.findRaisedTokenVersions();
+        assertEquals(1, raised.size());
+        assertEquals("testuser", raised.get(0).getUsername());
+        assertEquals(2, raised.get(0).getVersion());
+    }
+}
@@ -0,0 +1,138 @@
+package com.library.librarySystem.revocation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevokedTokensTest {
+
+    private LocalRevocationStore store;
+    private RevokedTokens revokedTokens;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalRevocationStore();
+        revokedTokens = new RevokedTokens(store, 0.01);
+    }
+
+    @Test
+    void testRevokedTokenIsRefusedAtOnceAndShared() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        revokedTokens.revoke("revoked", expiresAt);
+
+        assertTrue(revokedTokens.isRevoked("revoked"));
+        assertFalse(revokedTokens.isRevoked("other"));
+        assertFalse(revokedTokens.isRevoked(null));
+        assertEquals(Map.of("revoked", expiresAt), store.load(Instant.now()));
+    }
+
+    @Test
+    void testRevocationsFromOtherNodesApplyAfterRefresh() {
+        revokedTokens.isRevoked("warm-up");
+        store.add("from-another-node", Instant.now().plusSeconds(60));
+
+        assertFalse(revokedTokens.isRevoked("from-another-node"));
+        revokedTokens.refresh();
+        assertTrue(revokedTokens.isRevoked("from-another-node"));
+    }
+
+    @Test
+    void testExpiredRevocationsAreDroppedOnRefresh() {
+        revokedTokens.revoke("expired", Instant.now().minusSeconds(1));
+        revokedTokens.revoke("live", Instant.now().plusSeconds(60));
+
+        revokedTokens.refresh();
+
+        assertFalse(revokedTokens.isRevoked("expired"));
+        assertTrue(revokedTokens.isRevoked("live"));
+        assertEquals(1, revokedTokens.stats().revoked());
+    }
+
+    @Test
+    void testOnlyFilterHitsReachTheExactSet() {
+        revokedTokens.revoke("revoked", Instant.now().plusSeconds(60));
+
+        for (int i = 0; i < 10_000; i++) {
+            revokedTokens.isRevoked("token-" + i);
+        }
+        revokedTokens.isRevoked("revoked");
+
+        RevocationStats stats = revokedTokens.stats();
+        assertEquals(10_001, stats.checks());
+        assertEquals(stats.falsePositives() + 1, stats.filterHits());
+        assertTrue(stats.falsePositives() < 200, "false positives " + stats.falsePositives());
+    }
+
+    @Test
+    void testFilterGrowsPastItsCapacity() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        int revocations = RevokedTokens.MINIMUM_CAPACITY * 3;
+        for (int i = 0; i < revocations; i++) {
+            revokedTokens.revoke("revoked-" + i, expiresAt);
+        }
+
+        for (int i = 0; i < revocations; i++) {
+            assertTrue(revokedTokens.isRevoked("revoked-" + i));
+        }
+        assertTrue(revokedTokens.stats().filterCapacity() >= revocations);
+    }
+
+    @Test
+    void testStoreFailureKeepsLocalRevocations() {
+        RevokedTokens tokens = new RevokedTokens(new RevocationStore() {
+            @Override
+            public void add(String tokenId, Instant expiresAt) {
+            }
+
+            @Override
+            public Map<String, Instant> load(Instant now) {
+                throw new IllegalStateException("store unavailable");
+            }
+        }, 0.01);
+        tokens.revoke("revoked", Instant.now().plusSeconds(60));
+
+        tokens.refresh();
+
+        assertTrue(tokens.isRevoked("revoked"));
+    }
+
+    @Test
+    void testRevokeSurvivesAFailingStoreAndRetriesOnRefresh() {
+        AtomicBoolean down = new AtomicBoolean(true);
+        RevokedTokens tokens = new RevokedTokens(new RevocationStore() {
+            @Override
+            public void add(String tokenId, Instant expiresAt) {
+                if (down.get()) {
+                    throw new IllegalStateException("store unavailable");
+                }
+                store.add(tokenId, expiresAt);
+            }
+
+            @Override
+            public Map<String, Instant> load(Instant now) {
+                return store.load(now);
+            }
+        }, 0.01);
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        assertDoesNotThrow(() -> tokens.revoke("revoked", expiresAt));
+        assertTrue(tokens.isRevoked("revoked"));
+        assertEquals(1, tokens.stats().unshared());
+
+        tokens.refresh();
+        assertEquals(1, tokens.stats().unshared());
+        assertTrue(store.load(Instant.now()).isEmpty());
+
+        down.set(false);
+        tokens.refresh();
+        assertEquals(0, tokens.stats().unshared());
+        assertEquals(Map.of("revoked", expiresAt), store.load(Instant.now()));
+        assertTrue(tokens.isRevoked("revoked"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.library.librarySystem.service;
+
+import com.library.librarySystem.aop.LocksBooksAspect;
+import com.library.librarySystem.aop.RetryOnConflictAspect;
+import com.library.librarySystem.circulation.CirculationProjection;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.circulation.JdbcCirculationLog;
+import com.library.librarySystem.contracts.BorrowingRecordService;
+import com.library.librarySystem.exception.DuplicateEntryException;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.loan.OverdueTracker;
+import com.library.librarySystem.lock.BookLockManager;
+import com.library.librarySystem.lock.StripedBookLockManager;
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.outbox.OutboxStore;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.PatronRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Borrowers queuing for one popular book, against a connection pool smaller than the queue. The queue has to live in
+ * memory: if every waiter held a connection, a borrow of an unrelated book would find the pool drained.
+ */
+@DataJpaTest(properties = {"spring.datasource.url=jdbc:h2:mem:lockqueue",
+        "spring.datasource.hikari.maximum-pool-size=2", "spring.datasource.hikari.connection-timeout=1000"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BorrowingRecordServiceImp.class, HoldQueue.class, OverdueTracker.class, RetryOnConflictAspect.class,
+        LocksBooksAspect.class, StripedBookLockManager.class, CirculationRecorder.class, CirculationProjection.class,
+        JdbcCirculationLog.class, OutboxStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookLockQueueTest {
+    private static final int WAITERS = 4;
+
+    @Autowired
+    private BorrowingRecordService borrowingRecordService;
+
+    @Autowired
+    private BookLockManager bookLocks;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @MockitoBean
+    private BookIndexes bookIndexes;
+
+    @AfterEach
+    void tearDown() {
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testWaitersForOneBookLeaveConnectionsForOthers() throws Exception {
+        Long hot = bookRepository.save(book("Hot")).getId();
+        Long cold = bookRepository.save(book("Cold")).getId();
+        List<Long> patrons = new ArrayList<>();
+        for (int i = 0; i <= WAITERS; i++) {
+            patrons.add(patronRepository.save(patron(i)).getId());
+        }
+
+        // stands in for a slow borrow of the hot book that everybody else queues behind
+        Runnable release = bookLocks.lockAhead(List.of(hot));
+        List<CompletableFuture<String>> waiters = new ArrayList<>();
+        ExecutorService requestThreads = Executors.newFixedThreadPool(WAITERS);
+        try {
+            for (int i = 0; i < WAITERS; i++) {
+                Long patronId = patrons.get(i);
+                waiters.add(CompletableFuture.supplyAsync(() -> borrowingRecordService.borrowBook(hot, patronId), requestThreads));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (bookLocks.stats().waiting() < WAITERS && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(WAITERS, bookLocks.stats().waiting());
+
+            // twice as many waiters as connections, and an unrelated borrow still goes straight through
+            assertDoesNotThrow(() -> borrowingRecordService.borrowBook(cold, patrons.get(WAITERS)));
+        } finally {
+            release.run();
+            requestThreads.shutdown();
+        }
+
+        int lent = 0;
+        for (CompletableFuture<String> waiter : waiters) {
+            try {
+                waiter.get(10, TimeUnit.SECONDS);
+                lent++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(DuplicateEntryException.class, e.getCause());
+            }
+        }
+        assertEquals(1, lent);
+        assertEquals(2, borrowingRecordRepository.count());
+    }
+
+    private static Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title + " Book");
+        book.setAuthor("Author");
+        book.setIsbn(title.equals("Hot") ? "9780132350884" : "9780201633610");
+        book.setGenre("Fiction");
+        book.setPublicationYear(2000);
+        book.setPageCount(100);
+        book.setAvailable(true);
+        return book;
+    }
+
+    private static Patron patron(int i) {
+        Patron patron = new Patron();
+        patron.setName("Patron " + i);
+        patron.setEmail("patron" + i + "@example.com");
+        patron.setPhone("+123456789");
+        return patron;
+    }
+}
@@ -1,19 +1,45 @@
 package com.library.librarySystem.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.cache.InMemorySortedIdIndex;
+import com.library.librarySystem.cache.ListViewCache;
+import com.library.librarySystem.cache.VersionStamp;
+import com.library.librarySystem.cache.VersionStamps;
+import com.library.librarySystem.dto.AvailableBooksDto;
 import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.dto.BookFacetsDto;
+import com.library.librarySystem.dto.BookSearchHitDto;
+import com.library.librarySystem.dto.CursorPageDto;
 import com.library.librarySystem.exception.DuplicateEntryException;
 import com.library.librarySystem.exception.ResourceNotFoundException;
+import com.library.librarySystem.index.AvailabilityIndex;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.index.BookSearchIndex;
+import com.library.librarySystem.index.FacetIndex;
+import com.library.librarySystem.lock.BookLockManager;
+import com.library.librarySystem.mapper.BookMapper;
 import com.library.librarySystem.model.Book;
 import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.HoldRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.modelmapper.ModelMapper;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -30,13 +56,45 @@ class BookServiceImpTest {
     private BookRepository bookRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Spy
+    private BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
+
+    @Spy
+    private ListViewCache<BookDto> bookListView =
+            new ListViewCache<>(new ConcurrentMapCache("book"), BookDto.class, new InMemorySortedIdIndex());
+
+    @Spy
+    private VersionStamps bookVersions = new VersionStamps(new ConcurrentMapCache("bookVersion"), new ObjectMapper());
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private BookIndexes bookIndexes;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private CirculationRecorder circulation;
+
+    @Mock
+    private BookLockManager bookLocks;
+
+    @Spy
+    private FacetIndex facetIndex = new FacetIndex();
 
     @InjectMocks
     private BookServiceImp bookService;
 
-    private Book spyBook;
-
     private Book book;
     private BookDto bookDto;
 
@@ -58,27 +116,183 @@ class BookServiceImpTest {
         bookDto.setPublicationYear(2000);
         bookDto.setGenre("classic");
         bookDto.setPageCount(20);
-
-        spyBook = spy(book);
     }
 
     @Test
     void testGetAllBooks() {
-        when(bookRepository.findAll()).thenReturn(Stream.of(book).collect(Collectors.toList()));
-        when(modelMapper.map(any(Book.class), eq(BookDto.class))).thenReturn(bookDto);
+        when(bookRepository.findAll(Sort.by("id"))).thenReturn(Stream.of(book).collect(Collectors.toList()));
 
+        bookService.getAllBooks();
         List<BookDto> books = bookService.getAllBooks();
 
         assertEquals(1, books.size());
         assertEquals("Test Book", books.get(0).getTitle());
 
-        verify(bookRepository, times(1)).findAll();
+        verify(bookRepository, times(1)).findAll(Sort.by("id"));
+    }
+
+    @Test
+    void testGetAllBooks_CreatePatchesCachedList() throws Exception {
+        when(bookRepository.findAll(Sort.by("id"))).thenReturn(List.of());
+        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        bookService.getAllBooks();
+
+        bookService.createBook(book);
+        List<BookDto> books = bookService.getAllBooks();
+
+        assertEquals(1, books.size());
+        verify(bookRepository, times(1)).findAll(Sort.by("id"));
+        verify(bookListView, times(1)).added(1L, books.get(0));
+    }
+
+    @Test
+    void testGetBooksPage_HasNextPage() {
+        Book second = new Book();
+        second.setId(2L);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(book, second));
+
+        CursorPageDto<BookDto> page = bookService.getBooksPage(null, 1);
+
+        assertEquals(1, page.getSize());
+        assertEquals(1, page.getContent().size());
+        assertEquals(1L, page.getNextCursor());
+    }
+
+    @Test
+    void testGetBooksPage_LastPage() {
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(BookServiceImp.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of(book));
+
+        CursorPageDto<BookDto> page = bookService.getBooksPage(0L, 0);
+
+        assertEquals(1, page.getSize());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetBooksPage_SizeIsCapped() {
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(BookServiceImp.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        CursorPageDto<BookDto> page = bookService.getBooksPage(5L, 10_000);
+
+        assertEquals(0, page.getSize());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testStreamAllBooks() {
+        when(bookRepository.streamAllBy()).thenReturn(Stream.of(book));
+
+        List<BookDto> streamed = new ArrayList<>();
+        bookService.streamAllBooks(streamed::add);
+
+        assertEquals(List.of(bookDto), streamed);
+        verify(entityManager, times(1)).detach(book);
+    }
+
+    @Test
+    void testSearchBooks_KeepsIndexRanking() {
+        Book second = new Book();
+        second.setId(2L);
+        when(bookSearchIndex.search("java", 20)).thenReturn(List.of(
+                new BookSearchIndex.Hit(2L, 3.0), new BookSearchIndex.Hit(1L, 2.0), new BookSearchIndex.Hit(7L, 1.0)));
+        when(bookRepository.findAllById(List.of(2L, 1L, 7L))).thenReturn(List.of(book, second));
+
+        List<BookSearchHitDto> hits = bookService.searchBooks("java", 0);
+
+        assertEquals(2, hits.size());
+        assertEquals(2L, hits.get(0).getId());
+        assertEquals(1L, hits.get(1).getId());
+        assertEquals(2.0, hits.get(1).getScore());
+    }
+
+    @Test
+    void testSearchBooks_NoHits() {
+        when(bookSearchIndex.search("nothing", 5)).thenReturn(List.of());
+
+        assertTrue(bookService.searchBooks("nothing", 5).isEmpty());
+
+        verify(bookRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testGetFacets() {
+        book.setAvailable(true);
+        Book borrowed = new Book();
+        borrowed.setId(2L);
+        borrowed.setGenre("classic");
+        borrowed.setAuthor("Someone");
+        borrowed.setPublicationYear(1913);
+        facetIndex.indexAll(List.of(book, borrowed));
+
+        BookFacetsDto facets = bookService.getFacets(0);
+
+        assertEquals(2, facets.getTotal());
+        assertEquals(1, facets.getAvailable());
+        assertEquals(1, facets.getBorrowed());
+        assertEquals(Map.of(1910, 1L, 2000, 1L), facets.getDecades());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void testGetAvailableBooks_PagesInIndexOrder() {
+        Book second = new Book();
+        second.setId(2L);
+        second.setTitle("Second");
+        second.setAvailable(true);
+        book.setAvailable(true);
+        when(availabilityIndex.page("Fiction", null, null, 0L, 3)).thenReturn(new AvailabilityIndex.Page(5, List.of(1L, 2L, 4L)));
+        when(bookRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(second, book));
+
+        AvailableBooksDto page = bookService.getAvailableBooks("Fiction", null, null, null, 2);
+
+        assertEquals(5, page.getTotal());
+        assertEquals(2, page.getSize());
+        assertEquals("Second", page.getContent().get(1).getTitle());
+        assertEquals(2L, page.getNextCursor());
+    }
+
+    @Test
+    void testGetAvailableBooks_DropsBooksBorrowedSinceIndexing() {
+        book.setAvailable(false);
+        when(availabilityIndex.page(null, 1990, 2000, 0L, 21)).thenReturn(new AvailabilityIndex.Page(1, List.of(1L)));
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book));
+
+        AvailableBooksDto page = bookService.getAvailableBooks(null, 1990, 2000, null, 0);
+
+        assertTrue(page.getContent().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetBookVersion_LoadsOnceThenServesFromCache() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        VersionStamp first = bookService.getBookVersion(1L);
+        VersionStamp second = bookService.getBookVersion(1L);
+
+        assertEquals(first, second);
+        verify(bookRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testUpdateBook_ReplacesVersionStamp() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+        VersionStamp before = bookService.getBookVersion(1L);
+        VersionStamp collectionBefore = bookService.getBooksVersion();
+
+        bookDto.setTitle("Renamed");
+        bookService.updateBook(1L, bookDto);
+
+        assertNotEquals(before.etag(), bookService.getBookVersion(1L).etag());
+        assertNotEquals(collectionBefore, bookService.getBooksVersion());
     }
 
     @Test
     void testGetBookById_Found() {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(modelMapper.map(any(Book.class), eq(BookDto.class))).thenReturn(bookDto);
 
         BookDto foundBook = bookService.getBookById(1L);
 
@@ -101,7 +315,6 @@ class BookServiceImpTest {
     void testCreateBook_Success() throws Exception {
         when(bookRepository.existsByIsbn(book.getIsbn())).thenReturn(false);
         when(bookRepository.save(any(Book.class))).thenReturn(book);
-        when(modelMapper.map(any(Book.class), eq(BookDto.class))).thenReturn(bookDto);
 
         BookDto savedBook = bookService.createBook(book);
 
@@ -109,6 +322,7 @@ class BookServiceImpTest {
         assertEquals("Test Book", savedBook.getTitle());
 
         verify(bookRepository, times(1)).save(book);
+        verify(bookIndexes, times(1)).indexed(book);
     }
 
     @Test
@@ -125,10 +339,6 @@ class BookServiceImpTest {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         when(bookRepository.save(any(Book.class))).thenReturn(book);
 
-        doAnswer(invocation -> null).when(modelMapper).map(any(BookDto.class), any(Book.class));
-
-        when(modelMapper.map(any(Book.class), eq(BookDto.class))).thenReturn(bookDto);
-
         BookDto updatedBook = bookService.updateBook(1L, bookDto);
 
         assertNotNull(updatedBook);
@@ -150,10 +360,17 @@ class BookServiceImpTest {
     @Test
     void testDeleteBook_Success() {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        lenient().when(spyBook.isCurrentlyBorrowed()).thenReturn(false);
+        when(borrowingRecordRepository.existsByBookIdAndReturnedFalse(1L)).thenReturn(false);
         bookService.deleteBook(1L);
 
-        verify(bookRepository, times(1)).deleteById(1L);
+        // the book is locked before its loans are checked, so a borrow cannot commit in between
+        InOrder inOrder = inOrder(bookLocks, borrowingRecordRepository);
+        inOrder.verify(bookLocks).lockUntilCompletion(List.of(1L));
+        inOrder.verify(borrowingRecordRepository).existsByBookIdAndReturnedFalse(1L);
+        verify(borrowingRecordRepository, times(1)).deleteAllByBookId(1L);
+        verify(holdRepository, times(1)).deleteAllByBookId(1L);
+        verify(bookRepository, times(1)).delete(book);
+        verify(bookIndexes, times(1)).removed(1L);
     }
 
     @Test
@@ -162,16 +379,17 @@ class BookServiceImpTest {
 
         assertThrows(ResourceNotFoundException.class, () -> bookService.deleteBook(1L));
 
-        verify(bookRepository, never()).deleteById(anyLong());
+        verify(bookRepository, never()).delete(any(Book.class));
     }
 
     @Test
     void testDeleteBook_AlreadyBorrowed() {
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(spyBook));
-        when(spyBook.isCurrentlyBorrowed()).thenReturn(true);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.existsByBookIdAndReturnedFalse(1L)).thenReturn(true);
 
         assertThrows(IllegalStateException.class, () -> bookService.deleteBook(1L));
 
-        verify(bookRepository, never()).deleteById(anyLong());
+        verify(borrowingRecordRepository, never()).deleteAllByBookId(anyLong());
+        verify(bookRepository, never()).delete(any(Book.class));
     }
 }
\ No newline at end of file
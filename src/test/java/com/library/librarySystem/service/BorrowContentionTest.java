@@ -0,0 +1,220 @@
+package com.library.librarySystem.service;
+
+import com.library.librarySystem.aop.LocksBooksAspect;
+import com.library.librarySystem.aop.RetryOnConflictAspect;
+import com.library.librarySystem.circulation.CirculationProjection;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.circulation.JdbcCirculationLog;
+import com.library.librarySystem.contracts.BorrowingRecordService;
+import com.library.librarySystem.dto.BatchLoanItemDto;
+import com.library.librarySystem.dto.BatchLoanResultDto;
+import com.library.librarySystem.exception.DuplicateEntryException;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.loan.OverdueTracker;
+import com.library.librarySystem.lock.StripedBookLockManager;
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.outbox.OutboxStore;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.PatronRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many patrons fighting over a handful of copies against a real database. At no point may two patrons hold the
+ * same copy, and every successful borrow must leave exactly one loan behind.
+ */
+@DataJpaTest
+@Import({BorrowingRecordServiceImp.class, HoldQueue.class, OverdueTracker.class, RetryOnConflictAspect.class,
+        LocksBooksAspect.class, StripedBookLockManager.class, CirculationRecorder.class, CirculationProjection.class, JdbcCirculationLog.class, OutboxStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BorrowContentionTest {
+    private static final Logger log = LoggerFactory.getLogger(BorrowContentionTest.class);
+    private static final int THREADS = 64;
+    private static final int HOT_BOOKS = 4;
+    private static final int ATTEMPTS_PER_THREAD = 10;
+
+    @Autowired
+    private BorrowingRecordService borrowingRecordService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @MockitoBean
+    private BookIndexes bookIndexes;
+
+    @AfterEach
+    void tearDown() {
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentBorrowsNeverDoubleLend() throws InterruptedException {
+        List<Long> books = new ArrayList<>();
+        for (int i = 0; i < HOT_BOOKS; i++) {
+            books.add(bookRepository.save(book(i)).getId());
+        }
+        List<Long> patrons = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            patrons.add(patronRepository.save(patron(i)).getId());
+        }
+
+        AtomicInteger[] holders = new AtomicInteger[HOT_BOOKS];
+        for (int i = 0; i < HOT_BOOKS; i++) {
+            holders[i] = new AtomicInteger();
+        }
+        AtomicInteger doubleLent = new AtomicInteger();
+        AtomicLong borrowed = new AtomicLong();
+        AtomicLong lostRaces = new AtomicLong();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            Long patronId = patrons.get(t);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        int slot = ThreadLocalRandom.current().nextInt(HOT_BOOKS);
+                        Long bookId = books.get(slot);
+                        try {
+                            borrowingRecordService.borrowBook(bookId, patronId);
+                        } catch (DuplicateEntryException e) {
+                            lostRaces.incrementAndGet();
+                            continue;
+                        }
+                        borrowed.incrementAndGet();
+                        if (holders[slot].incrementAndGet() != 1) {
+                            doubleLent.incrementAndGet();
+                        }
+                        holders[slot].decrementAndGet();
+                        borrowingRecordService.returnBook(bookId, patronId);
+                    }
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        long operations = borrowed.get() * 2 + lostRaces.get();
+        log.info("{} threads on {} books: {} loans, {} lost races, {} ops in {}s ({} ops/s)", THREADS, HOT_BOOKS,
+                borrowed.get(), lostRaces.get(), operations, String.format("%.2f", seconds),
+                String.format("%.0f", operations / seconds));
+
+        assertTrue(unexpected.isEmpty(), () -> "unexpected failures: " + unexpected);
+        assertEquals(0, doubleLent.get());
+        assertTrue(borrowed.get() > 0);
+        assertEquals(borrowed.get(), borrowingRecordRepository.count());
+        for (Long bookId : books) {
+            assertTrue(bookRepository.findById(bookId).orElseThrow().isAvailable());
+            assertFalse(borrowingRecordRepository.existsByBookIdAndReturnedFalse(bookId));
+        }
+    }
+
+    @Test
+    void testConcurrentBatchBorrowsLendEachBookOnce() throws InterruptedException {
+        List<Long> books = new ArrayList<>();
+        for (int i = 0; i < HOT_BOOKS; i++) {
+            books.add(bookRepository.save(book(i)).getId());
+        }
+        List<Long> patrons = new ArrayList<>();
+        for (int i = 0; i < THREADS / 4; i++) {
+            patrons.add(patronRepository.save(patron(i)).getId());
+        }
+
+        AtomicLong borrowed = new AtomicLong();
+        AtomicLong gaveUp = new AtomicLong();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(patrons.size());
+        CountDownLatch start = new CountDownLatch(1);
+        for (Long patronId : patrons) {
+            List<Long> order = new ArrayList<>(books);
+            Collections.shuffle(order);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    BatchLoanResultDto result = borrowingRecordService.borrowBooks(patronId, order);
+                    borrowed.addAndGet(result.getItems().stream()
+                            .filter(item -> item.getOutcome() == BatchLoanItemDto.Outcome.BORROWED)
+                            .count());
+                } catch (ConcurrencyFailureException e) {
+                    // every retry lost the race; the caller sees 409 and nothing was written
+                    gaveUp.incrementAndGet();
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        log.info("{} batch borrowers on {} books: {} loans, {} gave up", patrons.size(), HOT_BOOKS, borrowed.get(),
+                gaveUp.get());
+
+        assertTrue(unexpected.isEmpty(), () -> "unexpected failures: " + unexpected);
+        assertEquals(HOT_BOOKS, borrowed.get());
+        assertEquals(HOT_BOOKS, borrowingRecordRepository.count());
+        for (Long bookId : books) {
+            assertFalse(bookRepository.findById(bookId).orElseThrow().isAvailable());
+            assertTrue(borrowingRecordRepository.existsByBookIdAndReturnedFalse(bookId));
+        }
+    }
+
+    private static Book book(int i) {
+        Book book = new Book();
+        book.setTitle("Hot Book " + i);
+        book.setAuthor("Author");
+        book.setIsbn(String.format("978013235%04d", i));
+        book.setGenre("Fiction");
+        book.setPublicationYear(2000);
+        book.setPageCount(100);
+        book.setAvailable(true);
+        return book;
+    }
+
+    private static Patron patron(int i) {
+        Patron patron = new Patron();
+        patron.setName("Patron " + i);
+        patron.setEmail("patron" + i + "@example.com");
+        patron.setPhone("+123456789");
+        return patron;
+    }
+}
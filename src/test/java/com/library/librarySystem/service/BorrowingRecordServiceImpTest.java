@@ -1,25 +1,46 @@
 package com.library.librarySystem.service;
 
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.dto.BatchLoanItemDto;
+import com.library.librarySystem.dto.BatchLoanItemDto.Outcome;
+import com.library.librarySystem.dto.BatchLoanResultDto;
+import com.library.librarySystem.dto.CursorPageDto;
+import com.library.librarySystem.dto.PatronLoanDto;
 import com.library.librarySystem.exception.DuplicateEntryException;
 import com.library.librarySystem.exception.ResourceNotFoundException;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.loan.OverdueTracker;
+import com.library.librarySystem.lock.BookLockManager;
 import com.library.librarySystem.model.Book;
 import com.library.librarySystem.model.BorrowingRecord;
 import com.library.librarySystem.model.Patron;
 import com.library.librarySystem.respository.BookRepository;
 import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.HoldRepository;
+import com.library.librarySystem.respository.PatronLoanView;
 import com.library.librarySystem.respository.PatronRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +55,24 @@ class BorrowingRecordServiceImpTest {
     @Mock
     private PatronRepository patronRepository;
 
+    @Mock
+    private BookIndexes bookIndexes;
+
+    @Mock
+    private BookLockManager bookLocks;
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private HoldQueue holdQueue;
+
+    @Mock
+    private OverdueTracker overdueTracker;
+
+    @Mock
+    private CirculationRecorder circulation;
+
     @InjectMocks
     private BorrowingRecordServiceImp borrowingRecordService;
 
@@ -57,24 +96,34 @@ class BorrowingRecordServiceImpTest {
 
     @Test
     void testBorrowBook_Success() {
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
-        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 1L))
-                .thenReturn(Optional.empty());
-        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenReturn(borrowingRecord);
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.markBorrowed(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.getReferenceById(1L)).thenReturn(book);
+        when(patronRepository.getReferenceById(1L)).thenReturn(patron);
+        LocalDate due = LocalDate.now().plusDays(14);
+        when(overdueTracker.dueDate(LocalDate.now())).thenReturn(due);
 
         String result = borrowingRecordService.borrowBook(1L, 1L);
 
         assertEquals("Book with ID 1 successfully borrowed by Patron ID 1", result);
-        assertFalse(book.isAvailable());
 
-        verify(borrowingRecordRepository, times(1)).save(any(BorrowingRecord.class));
-        verify(bookRepository, times(1)).save(book);
+        ArgumentCaptor<BorrowingRecord> saved = ArgumentCaptor.forClass(BorrowingRecord.class);
+        verify(borrowingRecordRepository, times(1)).save(saved.capture());
+        assertSame(book, saved.getValue().getBook());
+        assertSame(patron, saved.getValue().getPatron());
+        assertFalse(saved.getValue().isReturned());
+        assertEquals(due, saved.getValue().getReturnDate());
+        verify(overdueTracker, times(1)).opened(saved.getValue());
+        verify(circulation, times(1)).record(CirculationEvent.Type.BORROWED, 1L, 1L, due);
+        verify(bookIndexes, times(1)).availabilityChanged(1L, false);
+        verify(bookLocks, times(1)).lockUntilCompletion(List.of(1L));
     }
 
     @Test
     void testBorrowBook_BookNotFound() {
-        when(bookRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.markBorrowed(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> borrowingRecordService.borrowBook(1L, 1L));
 
@@ -83,30 +132,33 @@ class BorrowingRecordServiceImpTest {
 
     @Test
     void testBorrowBook_PatronNotFound() {
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(patronRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(patronRepository.existsById(anyLong())).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> borrowingRecordService.borrowBook(1L, 1L));
 
+        verify(bookRepository, never()).markBorrowed(anyLong(), any(LocalDateTime.class));
         verify(borrowingRecordRepository, never()).save(any(BorrowingRecord.class));
+        verifyNoInteractions(bookLocks);
     }
 
     @Test
     void testBorrowBook_BookAlreadyBorrowed() {
-        book.setAvailable(false);
-
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.markBorrowed(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 1L)).thenReturn(Optional.empty());
 
         assertThrows(DuplicateEntryException.class, () -> borrowingRecordService.borrowBook(1L, 1L));
 
         verify(borrowingRecordRepository, never()).save(any(BorrowingRecord.class));
+        verifyNoInteractions(bookIndexes);
     }
 
     @Test
     void testBorrowBook_AlreadyBorrowedBySamePatron() {
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.markBorrowed(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
         when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 1L))
                 .thenReturn(Optional.of(borrowingRecord));
 
@@ -115,44 +167,255 @@ class BorrowingRecordServiceImpTest {
         verify(borrowingRecordRepository, never()).save(any(BorrowingRecord.class));
     }
 
+    @Test
+    void testBorrowBook_CollectsCopyKeptForPatron() {
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.markBorrowed(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(holdRepository.markCollected(eq(List.of(1L)), eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.getReferenceById(1L)).thenReturn(book);
+        when(patronRepository.getReferenceById(1L)).thenReturn(patron);
+
+        String result = borrowingRecordService.borrowBook(1L, 1L);
+
+        assertEquals("Book with ID 1 successfully borrowed by Patron ID 1", result);
+        verify(borrowingRecordRepository, times(1)).save(any(BorrowingRecord.class));
+        // the copy was never back on the shelf
+        verifyNoInteractions(bookIndexes);
+    }
+
     @Test
     void testReturnBook_Success() {
-        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 1L))
-                .thenReturn(Optional.of(borrowingRecord));
-        when(bookRepository.existsById(1L)).thenReturn(true);
-        when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
+        when(borrowingRecordRepository.markReturned(eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
         String result = borrowingRecordService.returnBook(1L, 1L);
 
         assertEquals("Book with ID 1 successfully returned by Patron ID 1", result);
-        assertTrue(borrowingRecord.isReturned());
-        assertTrue(book.isAvailable());
 
-        verify(borrowingRecordRepository, times(1)).save(any(BorrowingRecord.class));
-        verify(bookRepository, times(1)).saveAndFlush(book);
+        verify(holdQueue, times(1)).release(eq(1L), any(LocalDateTime.class));
+        verify(overdueTracker, times(1)).closed(1L, 1L);
+        verify(circulation, times(1)).record(CirculationEvent.Type.RETURNED, 1L, 1L, null);
+        verify(bookLocks, times(1)).lockUntilCompletion(List.of(1L));
     }
 
     @Test
     void testReturnBook_NoActiveBorrowRecord() {
-        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 1L))
-                .thenReturn(Optional.empty());
+        when(borrowingRecordRepository.markReturned(eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(0);
 
         assertThrows(ResourceNotFoundException.class, () -> borrowingRecordService.returnBook(1L, 1L));
 
-        verify(borrowingRecordRepository, never()).save(any(BorrowingRecord.class));
+        verifyNoInteractions(holdQueue, overdueTracker, circulation);
     }
 
     @Test
-    void testReturnBook_BookDoesNotExist() {
-        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 1L))
-                .thenReturn(Optional.of(borrowingRecord));
-        when(bookRepository.existsById(1L)).thenReturn(false);
+    void testRenewLoan_ExtendsDueDate() {
+        borrowingRecord.setReturnDate(LocalDate.now().plusDays(2));
+        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 1L)).thenReturn(Optional.of(borrowingRecord));
+        when(holdRepository.findBookIdsWithWaitingHolds(List.of(1L))).thenReturn(Set.of());
+        LocalDate due = LocalDate.now().plusDays(14);
+        when(overdueTracker.dueDate(LocalDate.now())).thenReturn(due);
+
+        String result = borrowingRecordService.renewLoan(1L, 1L);
+
+        assertEquals("Loan of book with ID 1 by Patron ID 1 is due on " + due, result);
+        assertEquals(due, borrowingRecord.getReturnDate());
+        verify(overdueTracker, times(1)).opened(borrowingRecord);
+        verify(circulation, times(1)).record(CirculationEvent.Type.RENEWED, 1L, 1L, due);
+        verify(bookLocks, times(1)).lockUntilCompletion(List.of(1L));
+    }
 
-        String result = borrowingRecordService.returnBook(1L, 1L);
+    @Test
+    void testRenewLoan_RejectedWhileHoldsWait() {
+        LocalDate due = LocalDate.now().plusDays(2);
+        borrowingRecord.setReturnDate(due);
+        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 1L)).thenReturn(Optional.of(borrowingRecord));
+        when(holdRepository.findBookIdsWithWaitingHolds(List.of(1L))).thenReturn(Set.of(1L));
 
-        assertEquals("Book with ID 1 successfully returned by Patron ID 1", result);
+        assertThrows(IllegalStateException.class, () -> borrowingRecordService.renewLoan(1L, 1L));
+
+        assertEquals(due, borrowingRecord.getReturnDate());
+        verifyNoInteractions(overdueTracker, circulation);
+    }
+
+    @Test
+    void testRenewLoan_NoActiveBorrowRecord() {
+        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> borrowingRecordService.renewLoan(1L, 1L));
+
+        verifyNoInteractions(overdueTracker, circulation);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBorrowBooks_ReportsEachItem() {
+        Book borrowedByOther = book(2L, false);
+        Book heldBySamePatron = book(3L, false);
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(patronRepository.getReferenceById(1L)).thenReturn(patron);
+        when(bookRepository.findAllById(anyCollection())).thenReturn(List.of(book, borrowedByOther, heldBySamePatron));
+        when(borrowingRecordRepository.findBorrowedBookIds(1L, Set.of(2L, 3L))).thenReturn(Set.of(3L));
+
+        BatchLoanResultDto result = borrowingRecordService.borrowBooks(1L, List.of(1L, 2L, 3L, 4L, 1L));
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(Outcome.BORROWED, Outcome.UNAVAILABLE, Outcome.ALREADY_BORROWED, Outcome.NOT_FOUND,
+                Outcome.DUPLICATE), result.getItems().stream().map(BatchLoanItemDto::getOutcome).toList());
+        assertFalse(book.isAvailable());
+
+        ArgumentCaptor<List<BorrowingRecord>> saved = ArgumentCaptor.forClass(List.class);
+        verify(borrowingRecordRepository, times(1)).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertSame(book, saved.getValue().get(0).getBook());
+        verify(overdueTracker, times(1)).opened(saved.getValue().get(0));
+        verify(borrowingRecordRepository, times(1)).flush();
+        verify(bookIndexes, times(1)).availabilityChanged(1L, false);
+        // each book is locked once, however often it is listed
+        verify(bookLocks, times(1)).lockUntilCompletion(Set.of(1L, 2L, 3L, 4L));
+        // everything is loaded up front with set queries, never per book
+        verify(bookRepository, never()).findById(anyLong());
+        verify(bookRepository, never()).markBorrowed(anyLong(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testBorrowBooks_SkipsLoanLookupWhenAllAvailable() {
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(patronRepository.getReferenceById(1L)).thenReturn(patron);
+        when(bookRepository.findAllById(anyCollection())).thenReturn(List.of(book, book(2L, true)));
+
+        BatchLoanResultDto result = borrowingRecordService.borrowBooks(1L, List.of(1L, 2L));
+
+        assertEquals(2, result.getSucceeded());
+        verify(borrowingRecordRepository, never()).findBorrowedBookIds(anyLong(), anyCollection());
+        verify(borrowingRecordRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testBorrowBooks_PatronNotFound() {
+        when(patronRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> borrowingRecordService.borrowBooks(1L, List.of(1L)));
+
+        verifyNoInteractions(bookRepository, borrowingRecordRepository);
+    }
+
+    @Test
+    void testReturnBooks_ReportsEachItem() {
+        book.setAvailable(false);
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(borrowingRecordRepository.findActiveWithBook(1L, Set.of(1L, 2L))).thenReturn(List.of(borrowingRecord));
+
+        BatchLoanResultDto result = borrowingRecordService.returnBooks(1L, List.of(1L, 2L));
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(List.of(Outcome.RETURNED, Outcome.NOT_BORROWED),
+                result.getItems().stream().map(BatchLoanItemDto::getOutcome).toList());
         assertTrue(borrowingRecord.isReturned());
+        assertTrue(book.isAvailable());
+        verify(borrowingRecordRepository, times(1)).flush();
+        verify(bookIndexes, times(1)).availabilityChanged(1L, true);
+        verify(bookIndexes, never()).availabilityChanged(2L, true);
+        verify(overdueTracker, times(1)).closed(1L, 1L);
+        verify(overdueTracker, never()).closed(2L, 1L);
+    }
+
+    @Test
+    void testGetPatronLoans_PagesNewestFirst() {
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(borrowingRecordRepository.findPatronHistory(1L, Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(List.of(loanView(30L), loanView(20L), loanView(10L)));
+
+        CursorPageDto<PatronLoanDto> page = borrowingRecordService.getPatronLoans(1L, null, 2);
+
+        assertEquals(List.of(30L, 20L), page.getContent().stream().map(PatronLoanDto::getLoanId).toList());
+        assertEquals(20L, page.getNextCursor());
+        assertEquals("Title 30", page.getContent().get(0).getTitle());
+    }
+
+    @Test
+    void testGetPatronLoans_LastPageHasNoCursor() {
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(borrowingRecordRepository.findPatronHistory(1L, 20L, Limit.of(BorrowingRecordServiceImp.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of(loanView(10L)));
+
+        CursorPageDto<PatronLoanDto> page = borrowingRecordService.getPatronLoans(1L, 20L, 1000);
+
+        assertEquals(1, page.getSize());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetLoanHistory_UnknownOwner() {
+        assertThrows(ResourceNotFoundException.class, () -> borrowingRecordService.getPatronLoans(1L, null, 20));
+        assertThrows(ResourceNotFoundException.class, () -> borrowingRecordService.getBookLoans(1L, null, 20));
+
+        verifyNoInteractions(borrowingRecordRepository);
+    }
+
+    private static PatronLoanView loanView(Long id) {
+        return new PatronLoanView() {
+            public Long getId() {
+                return id;
+            }
+
+            public Long getBookId() {
+                return 1L;
+            }
+
+            public String getTitle() {
+                return "Title " + id;
+            }
+
+            public LocalDate getBorrowDate() {
+                return LocalDate.of(2024, 5, 1);
+            }
+
+            public LocalDate getDueDate() {
+                return LocalDate.of(2024, 5, 15);
+            }
 
-        verify(bookRepository, never()).saveAndFlush(any(Book.class));
+            public boolean isReturned() {
+                return true;
+            }
+        };
+    }
+
+    private static Book book(Long id, boolean available) {
+        Book book = new Book();
+        book.setId(id);
+        book.setAvailable(available);
+        return book;
+    }
+
+    @Test
+    void testBorrowBooks_CollectsKeptCopies() {
+        Book keptAside = book(2L, false);
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(patronRepository.getReferenceById(1L)).thenReturn(patron);
+        when(bookRepository.findAllById(anyCollection())).thenReturn(List.of(book, keptAside));
+        when(holdRepository.findCollectableBookIds(eq(1L), eq(Set.of(2L)), any(LocalDateTime.class))).thenReturn(Set.of(2L));
+
+        BatchLoanResultDto result = borrowingRecordService.borrowBooks(1L, List.of(1L, 2L));
+
+        assertEquals(2, result.getSucceeded());
+        verify(holdRepository, times(1)).markCollected(eq(List.of(2L)), eq(1L), any(LocalDateTime.class));
+        verify(bookIndexes, times(1)).availabilityChanged(1L, false);
+        verify(bookIndexes, never()).availabilityChanged(2L, false);
+    }
+
+    @Test
+    void testReturnBooks_HandsQueuedCopiesOn() {
+        book.setAvailable(false);
+        when(patronRepository.existsById(1L)).thenReturn(true);
+        when(borrowingRecordRepository.findActiveWithBook(1L, Set.of(1L))).thenReturn(List.of(borrowingRecord));
+        when(holdRepository.findBookIdsWithWaitingHolds(Set.of(1L))).thenReturn(Set.of(1L));
+
+        BatchLoanResultDto result = borrowingRecordService.returnBooks(1L, List.of(1L));
+
+        assertEquals(1, result.getSucceeded());
+        assertTrue(borrowingRecord.isReturned());
+        assertFalse(book.isAvailable());
+        verify(holdQueue, times(1)).handOff(eq(1L), any(LocalDateTime.class));
+        verifyNoInteractions(bookIndexes);
     }
-}
\ No newline at end of file
+}
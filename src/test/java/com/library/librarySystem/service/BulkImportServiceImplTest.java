@@ -0,0 +1,246 @@
+package com.library.librarySystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.cache.ListViewCache;
+import com.library.librarySystem.cache.VersionStamps;
+import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.dto.ImportFormat;
+import com.library.librarySystem.dto.ImportReportDto;
+import com.library.librarySystem.dto.PatronDto;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.PatronRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkImportServiceImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PatronRepository patronRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BookIndexes bookIndexes;
+
+    @Mock
+    private ListViewCache<BookDto> bookListView;
+
+    @Mock
+    private ListViewCache<PatronDto> patronListView;
+
+    @Mock
+    private VersionStamps bookVersions;
+
+    @Mock
+    private VersionStamps patronVersions;
+
+    private BulkImportServiceImpl bulkImportService;
+
+    @BeforeEach
+    void setUp() {
+        bulkImportService = new BulkImportServiceImpl(bookRepository, patronRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionTemplate, entityManager,
+                bookIndexes, bookListView, patronListView, bookVersions, patronVersions, new ObjectMapper());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String bookJson(String title, String isbn) {
+        return "{\"title\":\"" + title + "\",\"author\":\"Test Author\",\"isbn\":\"" + isbn + "\","
+                + "\"genre\":\"Fiction\",\"publicationYear\":1999,\"pageCount\":120}\n";
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportBooksFromNdjson() throws IOException {
+        runTransactionsInline();
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(Set.of());
+
+        ImportReportDto report = bulkImportService.importBooks(
+                input(bookJson("First", "9780132350884") + bookJson("Second", "9780132350891")), ImportFormat.NDJSON);
+
+        assertEquals(2, report.getProcessed());
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertTrue(report.getErrors().isEmpty());
+
+        ArgumentCaptor<List<Book>> saved = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository, times(1)).saveAll(saved.capture());
+        assertEquals(List.of("First", "Second"), saved.getValue().stream().map(Book::getTitle).toList());
+        verify(bookIndexes, times(2)).indexed(any(Book.class));
+        verify(entityManager, times(1)).clear();
+        verify(bookListView, times(1)).invalidate();
+        verify(bookVersions, times(1)).collectionChanged();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportBooksSkipsDuplicates() throws IOException {
+        runTransactionsInline();
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(Set.of("9780132350884"));
+
+        ImportReportDto report = bulkImportService.importBooks(input(bookJson("Existing", "9780132350884")
+                + bookJson("New", "9780132350891") + bookJson("Repeated", "9780132350891")), ImportFormat.NDJSON);
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getDuplicates());
+
+        ArgumentCaptor<List<Book>> saved = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository).saveAll(saved.capture());
+        assertEquals(List.of("New"), saved.getValue().stream().map(Book::getTitle).toList());
+        // one lookup for the whole chunk rather than one per row
+        verify(bookRepository, times(1)).findExistingIsbns(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportBooksRetriesChunkRowByRowWhenAKeyIsTakenConcurrently() throws IOException {
+        runTransactionsInline();
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(Set.of());
+        // the second ISBN is created by another request between the lookup and the insert
+        when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.forEach(book -> {
+                // retried rows must go in as new entities, not with the ids the failed attempt assigned
+                assertNull(book.getId());
+                book.setId(42L);
+            });
+            if (books.stream().anyMatch(book -> book.getIsbn().equals("9780132350891"))) {
+                // a clash may surface untranslated from the flush or translated from the repository; both count
+                throw books.size() > 1
+                        ? new ConstraintViolationException("duplicate key", new SQLException(), "uk_books_isbn")
+                        : new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return books;
+        });
+
+        ImportReportDto report = bulkImportService.importBooks(input(bookJson("First", "9780132350884")
+                + bookJson("Taken", "9780132350891") + bookJson("Third", "9780201633610")), ImportFormat.NDJSON);
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getDuplicates());
+        assertTrue(report.getRowsPerSecond() > 0);
+        ArgumentCaptor<List<Book>> saved = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository, times(4)).saveAll(saved.capture());
+        assertTrue(saved.getAllValues().subList(1, 4).stream().allMatch(books -> books.size() == 1));
+        verify(bookListView, times(1)).invalidate();
+    }
+
+    @Test
+    void testImportBooksReportsInvalidRows() throws IOException {
+        runTransactionsInline();
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(Set.of());
+
+        ImportReportDto report = bulkImportService.importBooks(
+                input(bookJson("Valid", "9780132350884") + bookJson("Bad ISBN", "12345")), ImportFormat.NDJSON);
+
+        assertEquals(2, report.getProcessed());
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(2, report.getErrors().get(0).getRow());
+        assertTrue(report.getErrors().get(0).getMessage().contains("isbn"));
+    }
+
+    @Test
+    void testImportBooksStopsAtMalformedInput() throws IOException {
+        runTransactionsInline();
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(Set.of());
+
+        ImportReportDto report = bulkImportService.importBooks(
+                input(bookJson("Valid", "9780132350884") + "{\"title\": oops\n" + bookJson("Never read", "9780132350891")),
+                ImportFormat.NDJSON);
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("Malformed input"));
+    }
+
+    @Test
+    void testImportBooksIgnoresClientSuppliedIds() throws IOException {
+        runTransactionsInline();
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(Set.of());
+
+        bulkImportService.importBooks(input("{\"id\":7," + bookJson("Title", "9780132350884").substring(1)),
+                ImportFormat.NDJSON);
+
+        verify(bookRepository).saveAll(argThat((Collection<Book> books) ->
+                books.stream().allMatch(book -> book.getId() == null)));
+    }
+
+    @Test
+    void testImportPatronsFromCsv() throws IOException {
+        runTransactionsInline();
+        when(patronRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+
+        String csv = "name,email,phone,address\n"
+                + "John Doe,john.doe@example.com,+123456789,123 Library Street\n"
+                + "Jane Doe,not-an-email,+123456789,\n";
+        ImportReportDto report = bulkImportService.importPatrons(input(csv), ImportFormat.CSV);
+
+        assertEquals(2, report.getProcessed());
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getRejected());
+        verify(patronRepository, times(1)).saveAll(argThat((Collection<Patron> patrons) -> patrons.size() == 1));
+        verify(patronListView, times(1)).invalidate();
+    }
+
+    @Test
+    void testImportWithNothingNewLeavesCachesAlone() throws IOException {
+        when(patronRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("john.doe@example.com"));
+
+        ImportReportDto report = bulkImportService.importPatrons(
+                input("{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\",\"phone\":\"+123456789\"}\n"),
+                ImportFormat.NDJSON);
+
+        assertEquals(1, report.getDuplicates());
+        verifyNoInteractions(transactionTemplate);
+        verify(patronListView, never()).invalidate();
+    }
+}
@@ -0,0 +1,131 @@
+package com.library.librarySystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.cache.InMemorySortedIdIndex;
+import com.library.librarySystem.cache.ListViewCache;
+import com.library.librarySystem.cache.VersionStamps;
+import com.library.librarySystem.dto.BookDto;
+import com.library.librarySystem.dto.ImportFormat;
+import com.library.librarySystem.dto.ImportReportDto;
+import com.library.librarySystem.dto.PatronDto;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.query.QueryCounter;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.PatronRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Streams a generated {@value #ROWS}-row NDJSON file through {@link BulkImportServiceImpl} into H2 with the insert
+ * batching the application runs with, and logs the throughput. Every hundredth row repeats the ISBN of the row before
+ * it, so the dedupe path is exercised too.
+ */
+@DataJpaTest(properties = {"spring.datasource.url=jdbc:h2:mem:bulkimport",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50", "spring.jpa.properties.hibernate.order_inserts=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkImportThroughputTest {
+    private static final Logger log = LoggerFactory.getLogger(BulkImportThroughputTest.class);
+    private static final int ROWS = 100_000;
+    private static final int REPEATS = ROWS / 100;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testImportThroughputWithOneDedupeQueryPerChunk() throws IOException {
+        Path file = directory.resolve("books.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < ROWS; i++) {
+                // every hundredth row repeats the ISBN of the row before it
+                writer.write(bookJson(i, i % 100 == 99 ? i - 1 : i));
+            }
+        }
+        // counts the statements each dedupe lookup runs, while everything else goes to the real repository
+        List<Long> dedupeStatements = new CopyOnWriteArrayList<>();
+        BookRepository counted = mock(BookRepository.class, delegatesTo(bookRepository));
+        doAnswer(invocation -> {
+            QueryCounter.Scope scope = QueryCounter.start();
+            Set<String> existing = bookRepository.findExistingIsbns(invocation.getArgument(0));
+            dedupeStatements.add(scope.count());
+            return existing;
+        }).when(counted).findExistingIsbns(anyCollection());
+        ObjectMapper objectMapper = new ObjectMapper();
+        BulkImportServiceImpl bulkImportService = new BulkImportServiceImpl(counted, patronRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), new TransactionTemplate(transactionManager),
+                entityManager, mock(BookIndexes.class),
+                new ListViewCache<>(new ConcurrentMapCache("book"), BookDto.class, new InMemorySortedIdIndex()),
+                new ListViewCache<>(new ConcurrentMapCache("patron"), PatronDto.class, new InMemorySortedIdIndex()),
+                new VersionStamps(new ConcurrentMapCache("bookVersion"), objectMapper),
+                new VersionStamps(new ConcurrentMapCache("patronVersion"), objectMapper), objectMapper);
+
+        QueryCounter.Scope scope = QueryCounter.start();
+        ImportReportDto report;
+        try (InputStream input = Files.newInputStream(file)) {
+            report = bulkImportService.importBooks(input, ImportFormat.NDJSON);
+        }
+        long statements = scope.count();
+
+        int chunks = ROWS / BulkImportServiceImpl.CHUNK_SIZE;
+        log.info("imported {} of {} rows in {} ms: {} rows/s, {} statements per chunk of {}", report.getImported(),
+                report.getProcessed(), report.getElapsedMillis(), String.format("%.0f", report.getRowsPerSecond()),
+                statements / chunks, BulkImportServiceImpl.CHUNK_SIZE);
+        assertEquals(ROWS, report.getProcessed());
+        assertEquals(ROWS - REPEATS, report.getImported());
+        assertEquals(REPEATS, report.getDuplicates());
+        assertEquals(0, report.getRejected());
+        assertEquals(ROWS - REPEATS, bookRepository.count());
+        assertEquals(chunks, dedupeStatements.size());
+        assertTrue(dedupeStatements.stream().allMatch(count -> count == 1), "dedupe statements " + dedupeStatements);
+    }
+
+    private static String bookJson(int row, int isbn) {
+        return "{\"title\":\"Book " + row + "\",\"author\":\"Author " + row % 500 + "\",\"isbn\":\""
+                + String.format("978%010d", isbn) + "\",\"genre\":\"Fiction\",\"publicationYear\":"
+                + (1900 + row % 120) + ",\"pageCount\":" + (100 + row % 400) + "}\n";
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.librarySystem.service;
+
+import com.library.librarySystem.contracts.HoldService;
+import com.library.librarySystem.respository.HoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldExpirySchedulerTest {
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private HoldService holdService;
+
+    private HoldExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new HoldExpiryScheduler(holdRepository, holdService);
+    }
+
+    @Test
+    void testExpiresPageByPage() {
+        when(holdRepository.findExpiredIds(any(LocalDateTime.class), any(Limit.class)))
+                .thenReturn(fullPage())
+                .thenReturn(List.of(500L));
+        when(holdService.expireHold(anyLong())).thenReturn(true);
+
+        scheduler.expireUncollectedHolds();
+
+        verify(holdService, times(HoldExpiryScheduler.PAGE_SIZE + 1)).expireHold(anyLong());
+        verify(holdRepository, times(2)).findExpiredIds(any(LocalDateTime.class), any(Limit.class));
+    }
+
+    @Test
+    void testStopsWhenNothingCanBeExpired() {
+        when(holdRepository.findExpiredIds(any(LocalDateTime.class), any(Limit.class))).thenReturn(fullPage());
+        when(holdService.expireHold(anyLong())).thenThrow(new IllegalStateException("boom"));
+
+        scheduler.expireUncollectedHolds();
+
+        // a page that keeps failing is not fetched again until the next run
+        verify(holdRepository, times(1)).findExpiredIds(any(LocalDateTime.class), any(Limit.class));
+    }
+
+    private static List<Long> fullPage() {
+        return LongStream.rangeClosed(1, HoldExpiryScheduler.PAGE_SIZE).boxed().toList();
+    }
+}
@@ -0,0 +1,208 @@
+package com.library.librarySystem.service;
+
+import com.library.librarySystem.aop.RetryOnConflictAspect;
+import com.library.librarySystem.circulation.BookCirculation;
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationProjection;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.circulation.JdbcCirculationLog;
+import com.library.librarySystem.contracts.BorrowingRecordService;
+import com.library.librarySystem.contracts.HoldService;
+import com.library.librarySystem.dto.HoldDto;
+import com.library.librarySystem.exception.DuplicateEntryException;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.loan.OverdueTracker;
+import com.library.librarySystem.lock.StripedBookLockManager;
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.BorrowingRecord;
+import com.library.librarySystem.model.Hold;
+import com.library.librarySystem.model.HoldStatus;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.outbox.OutboxStore;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.HoldRepository;
+import com.library.librarySystem.respository.PatronRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks a book through its hold queue against a real database: priority ordering, hand-off on return, pickup by
+ * the patron the copy was kept for, and expiry of an uncollected copy.
+ */
+@DataJpaTest
+@Import({BorrowingRecordServiceImp.class, HoldServiceImpl.class, HoldQueue.class, HoldExpiryScheduler.class,
+        OverdueTracker.class, RetryOnConflictAspect.class, StripedBookLockManager.class, CirculationRecorder.class,
+        CirculationProjection.class, JdbcCirculationLog.class, OutboxStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HoldFlowTest {
+
+    @Autowired
+    private BorrowingRecordService borrowingRecordService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private HoldExpiryScheduler holdExpiryScheduler;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private CirculationProjection circulationProjection;
+
+    @MockitoBean
+    private BookIndexes bookIndexes;
+
+    private Long bookId;
+    private Long first;
+    private Long second;
+    private Long urgent;
+
+    @BeforeEach
+    void setUp() {
+        bookId = bookRepository.save(book()).getId();
+        first = patronRepository.save(patron("first")).getId();
+        second = patronRepository.save(patron("second")).getId();
+        urgent = patronRepository.save(patron("urgent")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        holdRepository.deleteAll();
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testReturnedCopyGoesToHeadOfQueue() {
+        borrowingRecordService.borrowBook(bookId, first);
+        HoldDto secondHold = holdService.placeHold(bookId, second, 0);
+        HoldDto urgentHold = holdService.placeHold(bookId, urgent, 5);
+        assertThrows(DuplicateEntryException.class, () -> holdService.placeHold(bookId, second, 0));
+
+        borrowingRecordService.returnBook(bookId, first);
+
+        // the higher priority is served first even though it arrived later
+        List<HoldDto> queue = holdService.getQueue(bookId, 10);
+        assertEquals(List.of(urgentHold.getId(), secondHold.getId()), queue.stream().map(HoldDto::getId).toList());
+        assertEquals(List.of(HoldStatus.READY, HoldStatus.WAITING), queue.stream().map(HoldDto::getStatus).toList());
+        assertFalse(bookRepository.findById(bookId).orElseThrow().isAvailable());
+        assertEquals(urgent, circulationProjection.get(bookId).keptForId());
+
+        // the copy is kept for the patron at the head, nobody else can take it
+        assertThrows(DuplicateEntryException.class, () -> borrowingRecordService.borrowBook(bookId, second));
+        borrowingRecordService.borrowBook(bookId, urgent);
+        assertEquals(HoldStatus.FULFILLED, holdRepository.findById(urgentHold.getId()).orElseThrow().getStatus());
+        assertTrue(borrowingRecordRepository.existsByBookIdAndReturnedFalse(bookId));
+
+        borrowingRecordService.returnBook(bookId, urgent);
+        assertEquals(HoldStatus.READY, holdRepository.findById(secondHold.getId()).orElseThrow().getStatus());
+        assertEquals(second, circulationProjection.get(bookId).keptForId());
+    }
+
+    @Test
+    void testUncollectedCopyExpiresBackToShelf() {
+        borrowingRecordService.borrowBook(bookId, first);
+        HoldDto hold = holdService.placeHold(bookId, second, 0);
+        borrowingRecordService.returnBook(bookId, first);
+
+        Hold ready = holdRepository.findById(hold.getId()).orElseThrow();
+        ready.setReadyUntil(LocalDateTime.now().minusMinutes(1));
+        holdRepository.save(ready);
+
+        holdExpiryScheduler.expireUncollectedHolds();
+
+        assertEquals(HoldStatus.EXPIRED, holdRepository.findById(hold.getId()).orElseThrow().getStatus());
+        assertTrue(bookRepository.findById(bookId).orElseThrow().isAvailable());
+        borrowingRecordService.borrowBook(bookId, urgent);
+        assertFalse(bookRepository.findById(bookId).orElseThrow().isAvailable());
+    }
+
+    @Test
+    void testBatchReturnHandsCopyOnAndBatchBorrowCollectsIt() {
+        borrowingRecordService.borrowBooks(first, List.of(bookId));
+        holdService.placeHold(bookId, second, 0);
+
+        borrowingRecordService.returnBooks(first, List.of(bookId));
+        assertFalse(bookRepository.findById(bookId).orElseThrow().isAvailable());
+
+        assertEquals(1, borrowingRecordService.borrowBooks(second, List.of(bookId)).getSucceeded());
+        assertTrue(holdService.getQueue(bookId, 10).isEmpty());
+    }
+
+    @Test
+    void testCirculationStateRebuildsFromSnapshotAndLog() {
+        borrowingRecordService.borrowBook(bookId, first);
+        holdService.placeHold(bookId, second, 0);
+        // somebody is waiting, so the loan cannot be stretched
+        assertThrows(IllegalStateException.class, () -> borrowingRecordService.renewLoan(bookId, first));
+        borrowingRecordService.returnBook(bookId, first);
+        circulationProjection.snapshot();
+
+        borrowingRecordService.borrowBook(bookId, second);
+        BorrowingRecord loan = borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(bookId, second).orElseThrow();
+        loan.setReturnDate(LocalDate.now().plusDays(1));
+        borrowingRecordRepository.save(loan);
+        borrowingRecordService.renewLoan(bookId, second);
+        BookCirculation live = circulationProjection.get(bookId);
+        assertEquals(second, live.borrowerId());
+        assertNull(live.keptForId());
+        assertFalse(live.isAvailable());
+
+        circulationProjection.rebuild();
+
+        assertEquals(live, circulationProjection.get(bookId));
+        List<CirculationEvent.Type> history = circulationProjection.readEvents(0L, 1000).stream()
+                .filter(event -> event.bookId() == bookId)
+                .map(CirculationEvent::type)
+                .toList();
+        assertEquals(List.of(CirculationEvent.Type.BORROWED, CirculationEvent.Type.HOLD_PLACED,
+                CirculationEvent.Type.RETURNED, CirculationEvent.Type.HOLD_READY, CirculationEvent.Type.BORROWED,
+                CirculationEvent.Type.RENEWED), history);
+    }
+
+    private static Book book() {
+        Book book = new Book();
+        book.setTitle("Popular Book");
+        book.setAuthor("Author");
+        book.setIsbn("9780132350884");
+        book.setGenre("Fiction");
+        book.setPublicationYear(2000);
+        book.setPageCount(100);
+        book.setAvailable(true);
+        return book;
+    }
+
+    private static Patron patron(String name) {
+        Patron patron = new Patron();
+        patron.setName(name);
+        patron.setEmail(name + "@example.com");
+        patron.setPhone("+123456789");
+        return patron;
+    }
+}
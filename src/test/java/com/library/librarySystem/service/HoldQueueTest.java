@@ -0,0 +1,91 @@
+package com.library.librarySystem.service;
+
+import com.library.librarySystem.circulation.CirculationEvent;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.index.BookIndexes;
+import com.library.librarySystem.model.Hold;
+import com.library.librarySystem.model.HoldStatus;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.HoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldQueueTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookIndexes bookIndexes;
+
+    @Mock
+    private CirculationRecorder circulation;
+
+    private HoldQueue holdQueue;
+
+    @BeforeEach
+    void setUp() {
+        holdQueue = new HoldQueue(holdRepository, bookRepository, bookIndexes, circulation, Duration.ofDays(3));
+    }
+
+    @Test
+    void testRelease_HandsCopyToHeadOfQueue() {
+        Patron patron = new Patron();
+        patron.setId(2L);
+        Hold head = new Hold();
+        head.setPatron(patron);
+        head.setStatus(HoldStatus.WAITING);
+        when(holdRepository.findFirstByBookIdAndStatusOrderByPriorityDescIdAsc(1L, HoldStatus.WAITING))
+                .thenReturn(Optional.of(head));
+
+        Optional<Hold> next = holdQueue.release(1L, NOW);
+
+        assertSame(head, next.orElseThrow());
+        assertEquals(HoldStatus.READY, head.getStatus());
+        assertEquals(NOW.plusDays(3), head.getReadyUntil());
+        // the copy stays off the shelf for the patron who was waiting
+        verify(bookRepository, never()).markReturned(anyLong(), any(LocalDateTime.class));
+        verifyNoInteractions(bookIndexes);
+        verify(circulation).record(CirculationEvent.Type.HOLD_READY, 1L, 2L, null);
+    }
+
+    @Test
+    void testRelease_ShelvesCopyWhenNobodyWaits() {
+        when(holdRepository.findFirstByBookIdAndStatusOrderByPriorityDescIdAsc(1L, HoldStatus.WAITING))
+                .thenReturn(Optional.empty());
+        when(bookRepository.markReturned(1L, NOW)).thenReturn(1);
+
+        assertTrue(holdQueue.release(1L, NOW).isEmpty());
+
+        verify(bookIndexes, times(1)).availabilityChanged(1L, true);
+    }
+
+    @Test
+    void testRelease_IgnoresDeletedBook() {
+        when(holdRepository.findFirstByBookIdAndStatusOrderByPriorityDescIdAsc(1L, HoldStatus.WAITING))
+                .thenReturn(Optional.empty());
+        when(bookRepository.markReturned(1L, NOW)).thenReturn(0);
+
+        holdQueue.release(1L, NOW);
+
+        verifyNoInteractions(bookIndexes);
+    }
+}
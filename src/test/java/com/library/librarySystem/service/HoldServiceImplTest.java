@@ -0,0 +1,237 @@
+package com.library.librarySystem.service;
+
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.dto.HoldDto;
+import com.library.librarySystem.exception.DuplicateEntryException;
+import com.library.librarySystem.exception.ResourceNotFoundException;
+import com.library.librarySystem.lock.BookLockManager;
+import com.library.librarySystem.model.Book;
+import com.library.librarySystem.model.BorrowingRecord;
+import com.library.librarySystem.model.Hold;
+import com.library.librarySystem.model.HoldStatus;
+import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.respository.BookRepository;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.HoldRepository;
+import com.library.librarySystem.respository.PatronRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldServiceImplTest {
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PatronRepository patronRepository;
+
+    @Mock
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Mock
+    private BookLockManager bookLocks;
+
+    @Mock
+    private HoldQueue holdQueue;
+
+    @Mock
+    private CirculationRecorder circulation;
+
+    @InjectMocks
+    private HoldServiceImpl holdService;
+
+    private Book book;
+    private Patron patron;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setId(1L);
+        book.setAvailable(false);
+
+        patron = new Patron();
+        patron.setId(2L);
+    }
+
+    @Test
+    void testPlaceHold_Success() {
+        when(patronRepository.findById(2L)).thenReturn(Optional.of(patron));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 2L)).thenReturn(Optional.empty());
+        when(holdRepository.save(any(Hold.class))).thenAnswer(invocation -> {
+            Hold hold = invocation.getArgument(0);
+            hold.setId(10L);
+            return hold;
+        });
+
+        HoldDto hold = holdService.placeHold(1L, 2L, 5);
+
+        assertEquals(10L, hold.getId());
+        assertEquals(1L, hold.getBookId());
+        assertEquals(2L, hold.getPatronId());
+        assertEquals(5, hold.getPriority());
+        assertEquals(HoldStatus.WAITING, hold.getStatus());
+        verify(bookLocks, times(1)).lockUntilCompletion(List.of(1L));
+    }
+
+    @Test
+    void testPlaceHold_BookAvailable() {
+        book.setAvailable(true);
+        when(patronRepository.findById(2L)).thenReturn(Optional.of(patron));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        assertThrows(IllegalStateException.class, () -> holdService.placeHold(1L, 2L, 0));
+
+        verify(holdRepository, never()).save(any(Hold.class));
+    }
+
+    @Test
+    void testPlaceHold_PatronAlreadyBorrowedIt() {
+        when(patronRepository.findById(2L)).thenReturn(Optional.of(patron));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 2L))
+                .thenReturn(Optional.of(new BorrowingRecord(book, patron, false)));
+
+        assertThrows(IllegalStateException.class, () -> holdService.placeHold(1L, 2L, 0));
+    }
+
+    @Test
+    void testPlaceHold_Duplicate() {
+        when(patronRepository.findById(2L)).thenReturn(Optional.of(patron));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnedFalse(1L, 2L)).thenReturn(Optional.empty());
+        when(holdRepository.existsByBookIdAndPatronIdAndStatusIn(eq(1L), eq(2L), anyCollection())).thenReturn(true);
+
+        assertThrows(DuplicateEntryException.class, () -> holdService.placeHold(1L, 2L, 0));
+    }
+
+    @Test
+    void testPlaceHold_InvalidPriority() {
+        assertThrows(IllegalArgumentException.class, () -> holdService.placeHold(1L, 2L, Hold.MAX_PRIORITY + 1));
+
+        verifyNoInteractions(patronRepository, bookRepository, holdRepository);
+    }
+
+    @Test
+    void testPlaceHold_BookNotFound() {
+        when(patronRepository.findById(2L)).thenReturn(Optional.of(patron));
+        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> holdService.placeHold(1L, 2L, 0));
+    }
+
+    @Test
+    void testCancelHold_ReadyHoldPassesCopyOn() {
+        Hold hold = hold(HoldStatus.READY);
+        hold.setReadyUntil(LocalDateTime.now().plusDays(1));
+        stubLookup(hold);
+
+        HoldDto cancelled = holdService.cancelHold(10L);
+
+        assertEquals(HoldStatus.CANCELLED, cancelled.getStatus());
+        assertNull(hold.getReadyUntil());
+        verify(bookLocks, times(1)).lockUntilCompletion(List.of(1L));
+        verify(holdQueue, times(1)).release(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testCancelHold_WaitingHoldLeavesCopyAlone() {
+        stubLookup(hold(HoldStatus.WAITING));
+
+        holdService.cancelHold(10L);
+
+        verifyNoInteractions(holdQueue);
+    }
+
+    @Test
+    void testCancelHold_AlreadyClosed() {
+        stubLookup(hold(HoldStatus.FULFILLED));
+
+        assertThrows(IllegalStateException.class, () -> holdService.cancelHold(10L));
+    }
+
+    @Test
+    void testCancelHold_NotFound() {
+        when(holdRepository.findBookIdById(10L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> holdService.cancelHold(10L));
+
+        verifyNoInteractions(bookLocks);
+    }
+
+    @Test
+    void testExpireHold_Overdue() {
+        Hold hold = hold(HoldStatus.READY);
+        hold.setReadyUntil(LocalDateTime.now().minusMinutes(1));
+        stubLookup(hold);
+
+        assertTrue(holdService.expireHold(10L));
+
+        assertEquals(HoldStatus.EXPIRED, hold.getStatus());
+        verify(holdQueue, times(1)).release(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testExpireHold_CollectedMeanwhile() {
+        stubLookup(hold(HoldStatus.FULFILLED));
+
+        assertFalse(holdService.expireHold(10L));
+
+        verifyNoInteractions(holdQueue);
+    }
+
+    @Test
+    void testGetQueue_ReadyHoldFirst() {
+        Hold ready = hold(HoldStatus.READY);
+        Hold waiting = hold(HoldStatus.WAITING);
+        waiting.setId(11L);
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(holdRepository.findByBookIdAndStatusOrderByPriorityDescIdAsc(1L, HoldStatus.READY, Limit.of(20)))
+                .thenReturn(List.of(ready));
+        when(holdRepository.findByBookIdAndStatusOrderByPriorityDescIdAsc(1L, HoldStatus.WAITING, Limit.of(19)))
+                .thenReturn(List.of(waiting));
+
+        List<HoldDto> queue = holdService.getQueue(1L, 0);
+
+        assertEquals(List.of(10L, 11L), queue.stream().map(HoldDto::getId).toList());
+    }
+
+    @Test
+    void testGetQueue_BookNotFound() {
+        when(bookRepository.existsById(anyLong())).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> holdService.getQueue(1L, 20));
+    }
+
+    private void stubLookup(Hold hold) {
+        when(holdRepository.findBookIdById(10L)).thenReturn(Optional.of(1L));
+        when(holdRepository.findById(10L)).thenReturn(Optional.of(hold));
+    }
+
+    private Hold hold(HoldStatus status) {
+        Hold hold = new Hold(book, patron, 0);
+        hold.setId(10L);
+        hold.setStatus(status);
+        return hold;
+    }
+}
@@ -1,20 +1,36 @@
 package com.library.librarySystem.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarySystem.circulation.CirculationRecorder;
+import com.library.librarySystem.cache.InMemorySortedIdIndex;
+import com.library.librarySystem.cache.ListViewCache;
+import com.library.librarySystem.cache.VersionStamp;
+import com.library.librarySystem.cache.VersionStamps;
 import com.library.librarySystem.dto.PatronDto;
 import com.library.librarySystem.exception.DuplicateEntryException;
 import com.library.librarySystem.exception.ResourceNotFoundException;
+import com.library.librarySystem.lock.BookLockManager;
+import com.library.librarySystem.mapper.PatronMapper;
 import com.library.librarySystem.model.Patron;
+import com.library.librarySystem.respository.BorrowingRecordRepository;
+import com.library.librarySystem.respository.HoldRepository;
 import com.library.librarySystem.respository.PatronRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.modelmapper.ModelMapper;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Sort;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -29,12 +45,33 @@ class PatronServiceImplTest {
     private PatronRepository patronRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private HoldQueue holdQueue;
+
+    @Mock
+    private BookLockManager bookLocks;
+
+    @Mock
+    private CirculationRecorder circulation;
+
+    @Spy
+    private PatronMapper patronMapper = Mappers.getMapper(PatronMapper.class);
+
+    @Spy
+    private ListViewCache<PatronDto> patronListView =
+            new ListViewCache<>(new ConcurrentMapCache("patron"), PatronDto.class, new InMemorySortedIdIndex());
+
+    @Spy
+    private VersionStamps patronVersions = new VersionStamps(new ConcurrentMapCache("patronVersion"), new ObjectMapper());
 
     @InjectMocks
     private PatronServiceImpl patronService;
 
-    private Patron spyPatron;
     private Patron patron;
     private PatronDto patronDto;
 
@@ -52,27 +89,38 @@ class PatronServiceImplTest {
         patronDto.setEmail("john.doe@example.com");
         patronDto.setPhone("+123456789");
         patronDto.setAddress("123 Library Street");
-
-        spyPatron = spy(patron);
     }
 
     @Test
     void testGetAllPatrons() {
-        when(patronRepository.findAll()).thenReturn(Stream.of(patron).collect(Collectors.toList()));
-        when(modelMapper.map(any(Patron.class), eq(PatronDto.class))).thenReturn(patronDto);
+        when(patronRepository.findAll(Sort.by("id"))).thenReturn(Stream.of(patron).collect(Collectors.toList()));
 
+        patronService.getAllPatrons();
         List<PatronDto> patrons = patronService.getAllPatrons();
 
         assertEquals(1, patrons.size());
         assertEquals("John Doe", patrons.get(0).getName());
 
-        verify(patronRepository, times(1)).findAll();
+        verify(patronRepository, times(1)).findAll(Sort.by("id"));
+    }
+
+    @Test
+    void testGetAllPatrons_CreatePatchesCachedList() throws Exception {
+        when(patronRepository.findAll(Sort.by("id"))).thenReturn(List.of());
+        when(patronRepository.save(any(Patron.class))).thenReturn(patron);
+        patronService.getAllPatrons();
+
+        patronService.createPatron(patron);
+        List<PatronDto> patrons = patronService.getAllPatrons();
+
+        assertEquals(1, patrons.size());
+        verify(patronRepository, times(1)).findAll(Sort.by("id"));
+        verify(patronListView, times(1)).added(1L, patrons.get(0));
     }
 
     @Test
     void testGetPatronById_Found() {
         when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
-        when(modelMapper.map(any(Patron.class), eq(PatronDto.class))).thenReturn(patronDto);
 
         PatronDto foundPatron = patronService.getPatronById(1L);
 
@@ -95,7 +143,6 @@ class PatronServiceImplTest {
     void testCreatePatron_Success() throws Exception {
         when(patronRepository.existsByEmail(patron.getEmail())).thenReturn(false);
         when(patronRepository.save(any(Patron.class))).thenReturn(patron);
-        when(modelMapper.map(any(Patron.class), eq(PatronDto.class))).thenReturn(patronDto);
 
         PatronDto savedPatron = patronService.createPatron(patron);
 
@@ -119,10 +166,6 @@ class PatronServiceImplTest {
         when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
         when(patronRepository.save(any(Patron.class))).thenReturn(patron);
 
-        doAnswer(invocation -> null).when(modelMapper).map(any(PatronDto.class), any(Patron.class));
-
-        when(modelMapper.map(any(Patron.class), eq(PatronDto.class))).thenReturn(patronDto);
-
         PatronDto updatedPatron = patronService.updatePatron(1L, patronDto);
 
         assertNotNull(updatedPatron);
@@ -141,14 +184,48 @@ class PatronServiceImplTest {
         verify(patronRepository, never()).save(any(Patron.class));
     }
 
+    @Test
+    void testGetPatronVersion_LoadsOnceThenServesFromCache() {
+        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
+
+        VersionStamp first = patronService.getPatronVersion(1L);
+
+        assertEquals(first, patronService.getPatronVersion(1L));
+        verify(patronRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testGetPatronVersion_NotFound() {
+        when(patronRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> patronService.getPatronVersion(1L));
+    }
+
     @Test
     void testDeletePatron_Success() {
         when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
-        lenient().when(spyPatron.isCurrentlyBorrowed()).thenReturn(false);
+        when(borrowingRecordRepository.existsByPatronIdAndReturnedFalse(1L)).thenReturn(false);
+
+        patronService.deletePatron(1L);
+
+        verify(borrowingRecordRepository, times(1)).deleteAllByPatronId(1L);
+        verify(holdRepository, times(1)).deleteAllByPatronId(1L);
+        verify(patronRepository, times(1)).delete(patron);
+        verifyNoInteractions(holdQueue, bookLocks);
+    }
+
+    @Test
+    void testDeletePatron_PassesKeptCopiesOn() {
+        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
+        when(borrowingRecordRepository.existsByPatronIdAndReturnedFalse(1L)).thenReturn(false);
+        when(holdRepository.findBookIdsByPatronIdAndStatusIn(eq(1L), anyCollection())).thenReturn(Set.of(7L));
+        when(holdRepository.findReadyBookIdsByPatronId(1L)).thenReturn(List.of(7L));
 
         patronService.deletePatron(1L);
 
-        verify(patronRepository, times(1)).deleteById(1L);
+        verify(bookLocks, times(1)).lockUntilCompletion(Set.of(7L));
+        verify(holdQueue, times(1)).release(eq(7L), any(LocalDateTime.class));
+        verify(patronRepository, times(1)).delete(patron);
     }
 
     @Test
@@ -157,16 +234,24 @@ class PatronServiceImplTest {
 
         assertThrows(ResourceNotFoundException.class, () -> patronService.deletePatron(1L));
 
-        verify(patronRepository, never()).deleteById(anyLong());
+        verify(patronRepository, never()).delete(any(Patron.class));
     }
 
     @Test
     void testDeletePatron_AlreadyBorrowed() {
-        when(patronRepository.findById(1L)).thenReturn(Optional.of(spyPatron));
-        doReturn(true).when(spyPatron).isCurrentlyBorrowed();
+        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
+        when(borrowingRecordRepository.findBorrowedBookIdsByPatronId(1L)).thenReturn(Set.of(3L));
+        when(holdRepository.findBookIdsByPatronIdAndStatusIn(eq(1L), anyCollection())).thenReturn(Set.of(4L));
+        when(borrowingRecordRepository.existsByPatronIdAndReturnedFalse(1L)).thenReturn(true);
 
         assertThrows(IllegalStateException.class, () -> patronService.deletePatron(1L));
 
-        verify(patronRepository, never()).deleteById(anyLong());
+        // the books are locked before the loans are checked, so a return cannot slip in between
+        InOrder inOrder = inOrder(bookLocks, borrowingRecordRepository);
+        inOrder.verify(bookLocks).lockUntilCompletion(Set.of(3L, 4L));
+        inOrder.verify(borrowingRecordRepository).existsByPatronIdAndReturnedFalse(1L);
+
+        verify(borrowingRecordRepository, never()).deleteAllByPatronId(anyLong());
+        verify(patronRepository, never()).delete(any(Patron.class));
     }
 }
\ No newline at end of file